@@ -84,4 +84,99 @@ public class Misc {
             return n;
         }
     }
+
+    /**
+     * Shuffles a permutation table by swapping random pairs of entries.
+     * <p>
+     * The swaps are the ones produced by calling nextInt(p.length) twice per
+     * swap on a java.util.Random created with the given seed, so the result is
+     * identical. The generator is inlined because the noise bases build their
+     * tables this way for every octave, and the synchronized generator made
+     * that the main cost of building a noise module.
+     *
+     * @param p The permutation table.
+     * @param seed The seed of the random generator.
+     * @param swapCount The number of swaps.
+     */
+    static void shufflePermutation(short[] p, int seed, int swapCount) {
+        final long multiplier = 0x5DEECE66DL;
+        final long mask = (1L << 48) - 1;
+        long state = (seed ^ multiplier) & mask;
+        int bound = p.length;
+
+        // The state is only masked when it is read; the low 48 bits of the
+        // unmasked state are the same, and the masking stays off the chain of
+        // dependent multiplications.
+        int swapFrom = 0;
+        for (int i = 0; i < 2 * swapCount; i++) {
+            state = state * multiplier + 0xBL;
+            int r = (int) ((state & mask) >>> 17);
+            if ((bound & (bound - 1)) == 0) {
+                r = (int) ((bound * (long) r) >> 31);
+            } else {
+                for (int u = r; u - (r = u % bound) + (bound - 1) < 0;) {
+                    state = state * multiplier + 0xBL;
+                    u = (int) ((state & mask) >>> 17);
+                }
+            }
+
+            if ((i & 1) == 0) {
+                swapFrom = r;
+            } else {
+                short temp = p[swapFrom];
+                p[swapFrom] = p[r];
+                p[r] = temp;
+            }
+        }
+    }
+
+    /**
+     * Returns the lattice period of each octave of a periodic noise function.
+     * <p>
+     * An octave with frequency f repeats with the given period if its lattice
+     * repeats every period * f cells. That number is rounded to a whole
+     * multiple of the given step, and the frequency of the octave is adjusted
+     * to match (see getPeriodicFrequencies()).
+     *
+     * @param period The period, in input units, or 0 if the noise does not
+     *            repeat.
+     * @param frequencies The frequency of each octave.
+     * @param step The lattice periods are multiples of this number.
+     *
+     * @return The lattice period of each octave, or 0 for each octave if the
+     *         noise does not repeat.
+     */
+    public static int[] getLatticePeriods(double period, double[] frequencies, int step) {
+        int[] periods = new int[frequencies.length];
+        if (period > 0.0) {
+            for (int i = 0; i < periods.length; i++) {
+                double cells = Math.min(Math.rint(period * Math.abs(frequencies[i]) / step), 1 << 24);
+                periods[i] = step * (int) Math.max(1.0, cells);
+            }
+        }
+        return periods;
+    }
+
+    /**
+     * Returns the frequency of each octave of a periodic noise function.
+     *
+     * @param period The period, in input units, or 0 if the noise does not
+     *            repeat.
+     * @param frequencies The frequency of each octave.
+     * @param latticePeriods The lattice period of each octave, from
+     *            getLatticePeriods().
+     *
+     * @return The frequencies at which the lattice period of each octave spans
+     *         exactly the period, or the given frequencies if the noise does
+     *         not repeat.
+     */
+    public static double[] getPeriodicFrequencies(double period, double[] frequencies, int[] latticePeriods) {
+        double[] periodic = frequencies.clone();
+        if (period > 0.0) {
+            for (int i = 0; i < periodic.length; i++) {
+                periodic[i] = latticePeriods[i] / period;
+            }
+        }
+        return periodic;
+    }
 }
@@ -30,6 +30,43 @@ import java.util.Random;
 
 public class PerlinBasis {
 
+    /**
+     * An upper bound of the magnitude of the 3D noise. Over every choice of
+     * the corner gradients, the largest magnitude is about 1.0363.
+     */
+    public static final double BOUND = 1.04;
+
+    /**
+     * The size of the pieces that getBounds() bounds one by one, in lattice
+     * units. Interval arithmetic overestimates the range of a piece roughly
+     * in proportion to its size.
+     */
+    static final double BOUNDED_PIECE_SIZE = 0.125;
+
+    /**
+     * The largest number of pieces along each axis. A box that would need
+     * more is split into fewer, larger pieces, since the small amplitudes of
+     * the octaves with such short cells are not worth the extra work.
+     */
+    static final int MAX_BOUNDED_PIECES = 2;
+
+    /**
+     * The largest size of a box that getBounds() bounds piece by piece, in
+     * lattice units. A larger box gets the bound of the whole noise.
+     */
+    static final double MAX_BOUNDED_SIZE = 2.0;
+
+    /**
+     * The largest coordinate magnitude for which getBounds() bounds cells.
+     */
+    static final double MAX_BOUNDED_COORDINATE = 1 << 30;
+
+    /**
+     * The margin added to the bounds computed by getBounds() for rounding
+     * errors.
+     */
+    static final double BOUNDS_MARGIN = 1.0e-9;
+
     private static int randomSeed = 0;
     private static int swapAmount = 400;
 
@@ -65,24 +102,16 @@ public class PerlinBasis {
             seed = rand.nextInt();
         }
 
-        Random rand = new Random(seed);
-
-        // System.out.println("Simplex rand: " + rand.nextInt());
-
         // randomize the order of the numbers in p
-        for (int i = 0; i < swapAmount; i++) {
-            int swapFrom = rand.nextInt(this.p.length);
-            int swapTo = rand.nextInt(this.p.length);
-
-            short temp = this.p[swapFrom];
-            this.p[swapFrom] = this.p[swapTo];
-            this.p[swapTo] = temp;
-        }
+        Misc.shufflePermutation(this.p, seed, swapAmount);
 
-        for (int i = 0; i < 512; i++) {
-            this.perm[i] = this.p[i & 255];
-            this.permMod12[i] = (short) (this.perm[i] % 12);
+        // The second half of each table repeats the first half.
+        for (int i = 0; i < 256; i++) {
+            this.perm[i] = this.p[i];
+            this.permMod12[i] = (short) (this.p[i] % 12);
         }
+        System.arraycopy(this.perm, 0, this.perm, 256, 256);
+        System.arraycopy(this.permMod12, 0, this.permMod12, 256, 256);
     }
 
     public void setSeed(int seed) {
@@ -110,25 +139,70 @@ public class PerlinBasis {
         int y0 = fastfloor(y);
         int z0 = fastfloor(z);
 
-        // get relative xyz coordinates of point within the cell
-        x = x - x0;
-        y = y - y0;
-        z = z - z0;
-
         // wrap integer cells at 255
-        x0 = x0 & 255;
-        y0 = y0 & 255;
-        z0 = z0 & 255;
+        int xa = x0 & 255;
+        int ya = y0 & 255;
+        int za = z0 & 255;
+
+        // The tables repeat after 256 entries, so the next cell needs no
+        // wrapping.
+        return getValue(x - x0, y - y0, z - z0, xa, xa + 1, ya, ya + 1, za, za + 1);
+    }
+
+    /**
+     * Returns the noise value with a lattice that repeats along each axis.
+     * <p>
+     * The noise value at (x + xPeriod, y, z) equals the noise value at (x, y,
+     * z), and likewise for the other axes.
+     *
+     * @param xPeriod The period along the x axis, in lattice cells, or 0 if
+     *            the noise does not repeat along that axis.
+     * @param yPeriod The period along the y axis, or 0.
+     * @param zPeriod The period along the z axis, or 0.
+     */
+    public double getValue(double x, double y, double z, int xPeriod, int yPeriod, int zPeriod) {
+        int x0 = fastfloor(x);
+        int y0 = fastfloor(y);
+        int z0 = fastfloor(z);
+
+        int xa = wrap(x0, xPeriod);
+        int xb = wrap(x0 + 1, xPeriod);
+        int ya = wrap(y0, yPeriod);
+        int yb = wrap(y0 + 1, yPeriod);
+        int za = wrap(z0, zPeriod);
+        int zb = wrap(z0 + 1, zPeriod);
+
+        return getValue(x - x0, y - y0, z - z0, xa, xb, ya, yb, za, zb);
+    }
+
+    /**
+     * Returns the index of a lattice coordinate in the permutation table,
+     * after wrapping it to the period.
+     */
+    private static int wrap(int coordinate, int period) {
+        if (period > 0) {
+            coordinate %= period;
+            if (coordinate < 0) {
+                coordinate += period;
+            }
+        }
+        return coordinate & 255;
+    }
 
+    /**
+     * Returns the noise value at a position relative to its cell, given the
+     * table indices of the two lattice coordinates around it on each axis.
+     */
+    private double getValue(double x, double y, double z, int xa, int xb, int ya, int yb, int za, int zb) {
         // Calculate the set of eight hashed gradient indices
-        int gi000 = this.permMod12[x0 + this.perm[y0 + this.perm[z0]]];
-        int gi001 = this.permMod12[x0 + this.perm[y0 + this.perm[z0 + 1]]];
-        int gi010 = this.permMod12[x0 + this.perm[y0 + 1 + this.perm[z0]]];
-        int gi011 = this.permMod12[x0 + this.perm[y0 + 1 + this.perm[z0 + 1]]];
-        int gi100 = this.permMod12[x0 + 1 + this.perm[y0 + this.perm[z0]]];
-        int gi101 = this.permMod12[x0 + 1 + this.perm[y0 + this.perm[z0 + 1]]];
-        int gi110 = this.permMod12[x0 + 1 + this.perm[y0 + 1 + this.perm[z0]]];
-        int gi111 = this.permMod12[x0 + 1 + this.perm[y0 + 1 + this.perm[z0 + 1]]];
+        int gi000 = this.permMod12[xa + this.perm[ya + this.perm[za]]];
+        int gi001 = this.permMod12[xa + this.perm[ya + this.perm[zb]]];
+        int gi010 = this.permMod12[xa + this.perm[yb + this.perm[za]]];
+        int gi011 = this.permMod12[xa + this.perm[yb + this.perm[zb]]];
+        int gi100 = this.permMod12[xb + this.perm[ya + this.perm[za]]];
+        int gi101 = this.permMod12[xb + this.perm[ya + this.perm[zb]]];
+        int gi110 = this.permMod12[xb + this.perm[yb + this.perm[za]]];
+        int gi111 = this.permMod12[xb + this.perm[yb + this.perm[zb]]];
 
         // The gradients of each corner are now:
         // g000 = grad3[gi000];
@@ -165,6 +239,144 @@ public class PerlinBasis {
         return nxyz;
     }
 
+    /**
+     * Stores bounds of the noise over a box, in lattice units, at index 0 and
+     * 1 of the range.
+     * <p>
+     * The box is split at the lattice cells and into at most
+     * MAX_BOUNDED_PIECES pieces along each axis, and each piece is bounded
+     * with interval arithmetic: a corner contribution is linear in the
+     * position, the fade curve is increasing, and a blend of two ranges is
+     * extreme at the ends of the blend factor. A box larger than
+     * MAX_BOUNDED_SIZE gets the bound of the whole noise.
+     *
+     * @param xPeriod The period along the x axis, in lattice cells, or 0 if
+     *            the noise does not repeat along that axis.
+     * @param yPeriod The period along the y axis, or 0.
+     * @param zPeriod The period along the z axis, or 0.
+     */
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, int xPeriod, int yPeriod, int zPeriod,
+            double[] range) {
+        range[0] = -BOUND;
+        range[1] = BOUND;
+
+        // The comparisons fail for NaN as well.
+        if (!(lowerX > -MAX_BOUNDED_COORDINATE && upperX < MAX_BOUNDED_COORDINATE && lowerY > -MAX_BOUNDED_COORDINATE && upperY < MAX_BOUNDED_COORDINATE
+                && lowerZ > -MAX_BOUNDED_COORDINATE && upperZ < MAX_BOUNDED_COORDINATE)) {
+            return;
+        }
+        if (!(upperX - lowerX <= MAX_BOUNDED_SIZE && upperY - lowerY <= MAX_BOUNDED_SIZE && upperZ - lowerZ <= MAX_BOUNDED_SIZE)) {
+            return;
+        }
+        int xCount = getPieceCount(lowerX, upperX);
+        int yCount = getPieceCount(lowerY, upperY);
+        int zCount = getPieceCount(lowerZ, upperZ);
+
+        double lower = Double.POSITIVE_INFINITY;
+        double upper = Double.NEGATIVE_INFINITY;
+        double[] pieceRange = new double[2];
+        double[] cornerLower = new double[8];
+        double[] cornerUpper = new double[8];
+        for (int k = 0; k < zCount; k++) {
+            double z0 = lowerZ + (upperZ - lowerZ) * k / zCount;
+            double z1 = (k == zCount - 1) ? upperZ : lowerZ + (upperZ - lowerZ) * (k + 1) / zCount;
+            for (int j = 0; j < yCount; j++) {
+                double y0 = lowerY + (upperY - lowerY) * j / yCount;
+                double y1 = (j == yCount - 1) ? upperY : lowerY + (upperY - lowerY) * (j + 1) / yCount;
+                for (int i = 0; i < xCount; i++) {
+                    double x0 = lowerX + (upperX - lowerX) * i / xCount;
+                    double x1 = (i == xCount - 1) ? upperX : lowerX + (upperX - lowerX) * (i + 1) / xCount;
+                    getPieceBounds(x0, x1, y0, y1, z0, z1, xPeriod, yPeriod, zPeriod, cornerLower, cornerUpper, pieceRange);
+                    lower = Math.min(lower, pieceRange[0]);
+                    upper = Math.max(upper, pieceRange[1]);
+                }
+            }
+        }
+
+        range[0] = Math.max(lower - BOUNDS_MARGIN, -BOUND);
+        range[1] = Math.min(upper + BOUNDS_MARGIN, BOUND);
+    }
+
+    /**
+     * Returns the number of equal pieces, each at most BOUNDED_PIECE_SIZE,
+     * that a range of coordinates is split into.
+     */
+    private static int getPieceCount(double lower, double upper) {
+        return Math.min(1 + (int) ((upper - lower) / BOUNDED_PIECE_SIZE), MAX_BOUNDED_PIECES);
+    }
+
+    /**
+     * Stores bounds of the noise over a piece of a box, which may overlap
+     * several cells. The corner arrays are scratch space for
+     * getCellBounds().
+     */
+    private void getPieceBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, int xPeriod, int yPeriod,
+            int zPeriod, double[] cornerLower, double[] cornerUpper, double[] range) {
+        double lower = Double.POSITIVE_INFINITY;
+        double upper = Double.NEGATIVE_INFINITY;
+        for (int z = fastfloor(lowerZ); z <= fastfloor(upperZ); z++) {
+            for (int y = fastfloor(lowerY); y <= fastfloor(upperY); y++) {
+                for (int x = fastfloor(lowerX); x <= fastfloor(upperX); x++) {
+                    getCellBounds(Math.max(lowerX - x, 0.0), Math.min(upperX - x, 1.0), Math.max(lowerY - y, 0.0), Math.min(upperY - y, 1.0),
+                            Math.max(lowerZ - z, 0.0), Math.min(upperZ - z, 1.0), wrap(x, xPeriod), wrap(x + 1, xPeriod), wrap(y, yPeriod),
+                            wrap(y + 1, yPeriod), wrap(z, zPeriod), wrap(z + 1, zPeriod), cornerLower, cornerUpper, range);
+                    lower = Math.min(lower, range[0]);
+                    upper = Math.max(upper, range[1]);
+                }
+            }
+        }
+        range[0] = lower;
+        range[1] = upper;
+    }
+
+    /**
+     * Stores bounds of the noise over a box within one cell, given relative
+     * to the cell, and the table indices of the lattice coordinates around
+     * it, like getValue(). The bounds of the corner contributions are stored
+     * in the lower and upper arrays, which are then blended in place.
+     */
+    private void getCellBounds(double x0, double x1, double y0, double y1, double z0, double z1, int xa, int xb, int ya, int yb, int za, int zb,
+            double[] lower, double[] upper, double[] range) {
+        // The corners are numbered with the x offset in bit 0, the y offset
+        // in bit 1 and the z offset in bit 2.
+        for (int corner = 0; corner < 8; corner++) {
+            int dx = corner & 1;
+            int dy = (corner >> 1) & 1;
+            int dz = (corner >> 2) & 1;
+            int i = (dx == 0) ? xa : xb;
+            int j = (dy == 0) ? ya : yb;
+            int k = (dz == 0) ? za : zb;
+            Grad g = grad3[this.permMod12[i + this.perm[j + this.perm[k]]]];
+
+            lower[corner] = Math.min(g.x * (x0 - dx), g.x * (x1 - dx)) + Math.min(g.y * (y0 - dy), g.y * (y1 - dy))
+                    + Math.min(g.z * (z0 - dz), g.z * (z1 - dz));
+            upper[corner] = Math.max(g.x * (x0 - dx), g.x * (x1 - dx)) + Math.max(g.y * (y0 - dy), g.y * (y1 - dy))
+                    + Math.max(g.z * (z0 - dz), g.z * (z1 - dz));
+        }
+
+        // Interpolate along x, then y, then z, as getValue() does.
+        lerpBounds(lower, upper, 4, fade(x0), fade(x1));
+        lerpBounds(lower, upper, 2, fade(y0), fade(y1));
+        lerpBounds(lower, upper, 1, fade(z0), fade(z1));
+        range[0] = lower[0];
+        range[1] = upper[0];
+    }
+
+    /**
+     * Blends count pairs of neighbouring ranges into the first count ranges,
+     * for a blend factor between a0 and a1.
+     */
+    private static void lerpBounds(double[] lower, double[] upper, int count, double a0, double a1) {
+        for (int i = 0; i < count; i++) {
+            double lower0 = lower[2 * i];
+            double lower1 = lower[2 * i + 1];
+            double upper0 = upper[2 * i];
+            double upper1 = upper[2 * i + 1];
+            lower[i] = Math.min(Interp.lerp(lower0, lower1, a0), Interp.lerp(lower0, lower1, a1));
+            upper[i] = Math.max(Interp.lerp(upper0, upper1, a0), Interp.lerp(upper0, upper1, a1));
+        }
+    }
+
     // Inner class to speed up gradient computations
     // (array access is a lot slower than member access)
     private static class Grad {
@@ -38,6 +38,18 @@ public class SimplexBasis {
 
     private static int swapAmount = 400;
 
+    /**
+     * An upper bound of the magnitude of the 3D noise. Over every choice of
+     * the corner gradients, the largest magnitude is about 0.4162.
+     */
+    public static final double BOUND_3D = 0.42;
+
+    /**
+     * The period, divided by 3, of an axis that does not repeat. It is a
+     * multiple of 256, so wrapping does not change the gradients.
+     */
+    private static final int UNWRAPPED_PERIOD = 1 << 24;
+
     private static Grad[] grad3 = { new Grad(1, 1, 0), new Grad(-1, 1, 0), new Grad(1, -1, 0), new Grad(-1, -1, 0), new Grad(1, 0, 1),
         new Grad(-1, 0, 1), new Grad(1, 0, -1), new Grad(-1, 0, -1), new Grad(0, 1, 1), new Grad(0, -1, 1), new Grad(0, 1, -1), new Grad(0, -1, -1) };
 
@@ -75,24 +87,16 @@ public class SimplexBasis {
             seed = rand.nextInt();
         }
 
-        Random rand = new Random(seed);
-
-        // System.out.println("Simplex rand: " + rand.nextInt());
-
         // randomize the order of the numbers in p
-        for (int i = 0; i < swapAmount; i++) {
-            int swapFrom = rand.nextInt(this.p.length);
-            int swapTo = rand.nextInt(this.p.length);
-
-            short temp = this.p[swapFrom];
-            this.p[swapFrom] = this.p[swapTo];
-            this.p[swapTo] = temp;
-        }
+        Misc.shufflePermutation(this.p, seed, swapAmount);
 
-        for (int i = 0; i < 512; i++) {
-            this.perm[i] = this.p[i & 255];
-            this.permMod12[i] = (short) (this.perm[i] % 12);
+        // The second half of each table repeats the first half.
+        for (int i = 0; i < 256; i++) {
+            this.perm[i] = this.p[i];
+            this.permMod12[i] = (short) (this.p[i] % 12);
         }
+        System.arraycopy(this.perm, 0, this.perm, 256, 256);
+        System.arraycopy(this.permMod12, 0, this.permMod12, 256, 256);
     }
 
     public void setSeed(int seed) {
@@ -233,6 +237,67 @@ public class SimplexBasis {
      * @return noise value
      */
     public double getValue(double x, double y, double z) {
+        return getValue(x, y, z, 0, 0, 0);
+    }
+
+    /**
+     * 3D simplex noise with a lattice that repeats along each axis.
+     * <p>
+     * The noise value at (x + xPeriod, y, z) equals the noise value at (x, y,
+     * z), and likewise for the other axes. A translation along one axis moves
+     * the skewed simplex lattice by whole cells only if the period is a
+     * multiple of 3, so the periods must be multiples of 3.
+     * 
+     * @param xPeriod The period along the x axis, or 0 if the noise does not
+     *            repeat along that axis.
+     * @param yPeriod The period along the y axis, or 0.
+     * @param zPeriod The period along the z axis, or 0.
+     * @return noise value
+     * @throws IllegalArgumentException A period is negative or not a multiple
+     *             of 3.
+     */
+    public double getValue(double x, double y, double z, int xPeriod, int yPeriod, int zPeriod) throws IllegalArgumentException {
+        if (xPeriod < 0 || yPeriod < 0 || zPeriod < 0 || xPeriod % 3 != 0 || yPeriod % 3 != 0 || zPeriod % 3 != 0) {
+            throw new IllegalArgumentException("Invalid Parameter in SimplexBasis");
+        }
+        if (xPeriod == 0 && yPeriod == 0 && zPeriod == 0) {
+            return getValue(x, y, z, 0, 0, 0, false);
+        }
+
+        // An axis without a period gets a period so long that the wrapping
+        // only moves its coordinate by multiples of 256.
+        return getValue(x, y, z, (xPeriod > 0) ? xPeriod / 3 : UNWRAPPED_PERIOD, (yPeriod > 0) ? yPeriod / 3 : UNWRAPPED_PERIOD,
+                (zPeriod > 0) ? zPeriod / 3 : UNWRAPPED_PERIOD, true);
+    }
+
+    /**
+     * Returns the gradient index of the skewed lattice point (i, j, k),
+     * reduced by the lattice of periods.
+     * <p>
+     * Moving the input value by a period p along the x axis moves the skewed
+     * lattice by p / 3 * (4, 1, 1) cells, and likewise by p / 3 * (1, 4, 1)
+     * and p / 3 * (1, 1, 4) along the y and z axes. Subtracting mx, my and mz
+     * times these vectors gives every equivalent lattice point the same
+     * gradient.
+     */
+    private int periodicIndex(int i, int j, int k, long mx, long my, long mz) {
+        int ii = (int) ((i - 4 * mx - my - mz) & 255);
+        int jj = (int) ((j - mx - 4 * my - mz) & 255);
+        int kk = (int) ((k - mx - my - 4 * mz) & 255);
+        return this.permMod12[ii + this.perm[jj + this.perm[kk]]];
+    }
+
+    /**
+     * Returns the quotient of (numerator + delta) / divisor, rounded down,
+     * given the quotient and remainder of numerator / divisor. The delta is
+     * smaller than the divisor.
+     */
+    private static long stepQuotient(long quotient, long remainder, int delta, long divisor) {
+        long r = remainder + delta;
+        return (r < 0) ? quotient - 1 : (r >= divisor) ? quotient + 1 : quotient;
+    }
+
+    private double getValue(double x, double y, double z, int qx, int qy, int qz, boolean isPeriodic) {
         double n0, n1, n2, n3; // Noise contributions from the four corners
 
         // Skew the input space to determine which simplex cell we're in
@@ -323,14 +388,44 @@ public class SimplexBasis {
         double z3 = z0 - 1.0 + 3.0 * G3;
 
         // Work out the hashed gradient indices of the four simplex corners
-        int ii = i & 255;
-        int jj = j & 255;
-        int kk = k & 255;
-
-        int gi0 = this.permMod12[ii + this.perm[jj + this.perm[kk]]];
-        int gi1 = this.permMod12[ii + i1 + this.perm[jj + j1 + this.perm[kk + k1]]];
-        int gi2 = this.permMod12[ii + i2 + this.perm[jj + j2 + this.perm[kk + k2]]];
-        int gi3 = this.permMod12[ii + 1 + this.perm[jj + 1 + this.perm[kk + 1]]];
+        int gi0, gi1, gi2, gi3;
+        if (!isPeriodic) {
+            int ii = i & 255;
+            int jj = j & 255;
+            int kk = k & 255;
+
+            gi0 = this.permMod12[ii + this.perm[jj + this.perm[kk]]];
+            gi1 = this.permMod12[ii + i1 + this.perm[jj + j1 + this.perm[kk + k1]]];
+            gi2 = this.permMod12[ii + i2 + this.perm[jj + j2 + this.perm[kk + k2]]];
+            gi3 = this.permMod12[ii + 1 + this.perm[jj + 1 + this.perm[kk + 1]]];
+        } else {
+            // Find the multiples of the period vectors to subtract by solving
+            // (i, j, k) = A * (cx * qx, cy * qy, cz * qz) with
+            // A = [[4, 1, 1], [1, 4, 1], [1, 1, 4]], whose inverse is
+            // [[5, -1, -1], [-1, 5, -1], [-1, -1, 5]] / 18. The other corners
+            // are at most one multiple away from the first, so only the first
+            // corner needs divisions.
+            long dx = 18L * qx;
+            long dy = 18L * qy;
+            long dz = 18L * qz;
+            long ax = 5L * i - j - k;
+            long ay = 5L * j - i - k;
+            long az = 5L * k - i - j;
+            long cx = Math.floorDiv(ax, dx);
+            long cy = Math.floorDiv(ay, dy);
+            long cz = Math.floorDiv(az, dz);
+            long rx = ax - cx * dx;
+            long ry = ay - cy * dy;
+            long rz = az - cz * dz;
+
+            gi0 = periodicIndex(i, j, k, cx * qx, cy * qy, cz * qz);
+            gi1 = periodicIndex(i + i1, j + j1, k + k1, stepQuotient(cx, rx, 5 * i1 - j1 - k1, dx) * qx,
+                    stepQuotient(cy, ry, 5 * j1 - i1 - k1, dy) * qy, stepQuotient(cz, rz, 5 * k1 - i1 - j1, dz) * qz);
+            gi2 = periodicIndex(i + i2, j + j2, k + k2, stepQuotient(cx, rx, 5 * i2 - j2 - k2, dx) * qx,
+                    stepQuotient(cy, ry, 5 * j2 - i2 - k2, dy) * qy, stepQuotient(cz, rz, 5 * k2 - i2 - j2, dz) * qz);
+            gi3 = periodicIndex(i + 1, j + 1, k + 1, stepQuotient(cx, rx, 3, dx) * qx, stepQuotient(cy, ry, 3, dy) * qy,
+                    stepQuotient(cz, rz, 3, dz) * qz);
+        }
 
         // Calculate the contribution from the four corners
         double t0 = 0.5 - x0 * x0 - y0 * y0 - z0 * z0;
@@ -97,6 +97,35 @@ public class Cylinder {
         return this.module.getValue(x, y, z);
     }
 
+    /**
+     * Returns the output values from the noise module at a row of input
+     * values with the same height.
+     * 
+     * <p>
+     * The angles are given by their cosines and sines, so an application that
+     * computes these once can evaluate many rows without calling any
+     * trigonometric functions. For an angle a, the tables hold
+     * Math.cos(Math.toRadians(a)) and Math.sin(Math.toRadians(a)), which gives
+     * the same output values as getValue().
+     * 
+     * @param height The height of the input values, in units.
+     * @param cosAngle The cosine of each angle.
+     * @param sinAngle The sine of each angle.
+     * @param start The index of the first angle in the tables.
+     * @param count The number of input values.
+     * @param values Receives the output value of angle start + i at index i.
+     *
+     * @pre A noise module was passed to the setModule() method.
+     */
+    public void getValues(double height, double[] cosAngle, double[] sinAngle, int start, int count, double[] values) {
+        assert (this.module != null);
+
+        ModuleBase module = this.module;
+        for (int i = 0; i < count; i++) {
+            values[i] = module.getValue(cosAngle[start + i], height, sinAngle[start + i]);
+        }
+    }
+
     /**
      * Returns the noise module that is used to generate the output values.
      * 
@@ -101,6 +101,38 @@ public class Sphere {
         return this.module.getValue(x, y, z);
     }
 
+    /**
+     * Returns the output values from the noise module at a row of input
+     * values with the same latitude.
+     * 
+     * <p>
+     * The latitude and longitudes are given by their cosines and sines, so an
+     * application that computes these once can evaluate many rows without
+     * calling any trigonometric functions. For a latitude lat and longitude
+     * lon, the tables hold Math.cos(Math.toRadians(lat)),
+     * Math.sin(Math.toRadians(lat)) and likewise for lon, which gives the same
+     * output values as getValue().
+     * 
+     * @param cosLat The cosine of the latitude.
+     * @param sinLat The sine of the latitude.
+     * @param cosLon The cosine of each longitude.
+     * @param sinLon The sine of each longitude.
+     * @param start The index of the first longitude in the tables.
+     * @param count The number of input values.
+     * @param values Receives the output value of longitude start + i at index
+     *            i.
+     *
+     * @pre A noise module was passed to the setModule() method.
+     */
+    public void getValues(double cosLat, double sinLat, double[] cosLon, double[] sinLon, int start, int count, double[] values) {
+        assert (this.module != null);
+
+        ModuleBase module = this.module;
+        for (int i = 0; i < count; i++) {
+            values[i] = module.getValue(cosLat * cosLon[start + i], sinLat, cosLat * sinLon[start + i]);
+        }
+    }
+
     /**
      * Returns the noise module that is used to generate the output values.
      * 
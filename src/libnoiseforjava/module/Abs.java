@@ -54,4 +54,21 @@ public class Abs extends ModuleBase {
         return Math.abs(this.sourceModules[0].getValue(x, y, z));
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+
+        double lower = range[0];
+        double upper = range[1];
+        if (lower >= 0.0) {
+            return;
+        } else if (upper <= 0.0) {
+            range[0] = -upper;
+            range[1] = -lower;
+        } else {
+            range[0] = 0.0;
+            range[1] = Math.max(-lower, upper);
+        }
+    }
+
 }
@@ -56,4 +56,13 @@ public class Add extends ModuleBase {
         return this.sourceModules[0].getValue(x, y, z) + this.sourceModules[1].getValue(x, y, z);
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        double[] range1 = new double[2];
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+        this.sourceModules[1].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range1);
+
+        setRange(range, range[0] + range1[0], range[1] + range1[1]);
+    }
+
 }
@@ -29,6 +29,7 @@ package libnoiseforjava.module;
 
 import java.util.Random;
 
+import libnoiseforjava.Misc;
 import libnoiseforjava.NoiseQuality;
 import libnoiseforjava.PerlinBasis;
 
@@ -50,7 +51,7 @@ import libnoiseforjava.PerlinBasis;
  *      href="http://libnoise.sourceforge.net/docs/classnoise_1_1module_1_1Billow.html">noise::module::Billow</a>
  * @see Perlin
  */
-public class Billow extends ModuleBase {
+public class Billow extends ModuleBase implements Periodic {
 
     /**
      * Default frequency for the Billow noise module.
@@ -89,6 +90,15 @@ public class Billow extends ModuleBase {
     int seed;
     NoiseQuality noiseQuality;
     double[] frequencies;
+    double xPeriod;
+    double yPeriod;
+    double zPeriod;
+    private double[] xFrequencies;
+    private double[] yFrequencies;
+    private double[] zFrequencies;
+    private int[] xLatticePeriods;
+    private int[] yLatticePeriods;
+    private int[] zLatticePeriods;
 
     PerlinBasis[] source;
 
@@ -110,14 +120,33 @@ public class Billow extends ModuleBase {
             this.source[i] = new PerlinBasis();
 
             if (this.seed != 0) {
-                this.seed = rnd.nextInt();
-                this.source[i].setSeed(this.seed + 1);
+                this.source[i].setSeed(rnd.nextInt() + 1);
             } else {
                 this.source[i].setSeed(this.seed);
             }
 
             this.frequencies[i] = Math.pow(this.lacunarity, i);
         }
+
+        if (this.xPeriod > 0.0 || this.yPeriod > 0.0 || this.zPeriod > 0.0) {
+            double[] octaveFrequencies = new double[this.octaveCount];
+            for (int i = 0; i < this.octaveCount; i++) {
+                octaveFrequencies[i] = this.frequency * this.frequencies[i];
+            }
+            this.xLatticePeriods = Misc.getLatticePeriods(this.xPeriod, octaveFrequencies, 1);
+            this.yLatticePeriods = Misc.getLatticePeriods(this.yPeriod, octaveFrequencies, 1);
+            this.zLatticePeriods = Misc.getLatticePeriods(this.zPeriod, octaveFrequencies, 1);
+            this.xFrequencies = Misc.getPeriodicFrequencies(this.xPeriod, octaveFrequencies, this.xLatticePeriods);
+            this.yFrequencies = Misc.getPeriodicFrequencies(this.yPeriod, octaveFrequencies, this.yLatticePeriods);
+            this.zFrequencies = Misc.getPeriodicFrequencies(this.zPeriod, octaveFrequencies, this.zLatticePeriods);
+        } else {
+            this.xLatticePeriods = null;
+            this.yLatticePeriods = null;
+            this.zLatticePeriods = null;
+            this.xFrequencies = null;
+            this.yFrequencies = null;
+            this.zFrequencies = null;
+        }
     }
 
     @Override
@@ -126,6 +155,17 @@ public class Billow extends ModuleBase {
         double signal = 0.0;
         double curPersistence = 1.0;
 
+        if (this.xLatticePeriods != null) {
+            for (int i = 0; i < this.octaveCount; i++) {
+                signal = this.source[i].getValue(x * this.xFrequencies[i], y * this.yFrequencies[i], z * this.zFrequencies[i], this.xLatticePeriods[i],
+                        this.yLatticePeriods[i], this.zLatticePeriods[i]);
+                signal = 2.0 * Math.abs(signal) - 1.0;
+                value += signal * curPersistence;
+                curPersistence *= this.persistence;
+            }
+            return value + 0.5;
+        }
+
         x *= this.frequency;
         y *= this.frequency;
         z *= this.frequency;
@@ -147,6 +187,28 @@ public class Billow extends ModuleBase {
         return value;
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        // Each octave signal lies between -1.0 and 2.0 * bound - 1.0 before
+        // it is weighted by the persistence.
+        double signalUpper = 2.0 * PerlinBasis.BOUND - 1.0;
+        double lower = 0.5;
+        double upper = 0.5;
+        double curPersistence = 1.0;
+        for (int i = 0; i < this.octaveCount; i++) {
+            if (curPersistence >= 0.0) {
+                lower -= curPersistence;
+                upper += signalUpper * curPersistence;
+            } else {
+                lower += signalUpper * curPersistence;
+                upper -= curPersistence;
+            }
+            curPersistence *= this.persistence;
+        }
+
+        setRange(range, lower, upper);
+    }
+
     public double getFrequency() {
         return this.frequency;
     }
@@ -167,6 +229,21 @@ public class Billow extends ModuleBase {
         return this.seed;
     }
 
+    @Override
+    public double getXPeriod() {
+        return this.xPeriod;
+    }
+
+    @Override
+    public double getYPeriod() {
+        return this.yPeriod;
+    }
+
+    @Override
+    public double getZPeriod() {
+        return this.zPeriod;
+    }
+
     public void setFrequency(double frequency) {
         this.frequency = frequency;
     }
@@ -186,4 +263,30 @@ public class Billow extends ModuleBase {
     public void setSeed(int seed) {
         this.seed = seed;
     }
+
+    /**
+     * Sets the periods of the billowy noise.
+     * 
+     * <p>
+     * The frequency of each octave is adjusted slightly, per axis, so that the
+     * octave repeats after a whole number of lattice cells. A period of 0
+     * turns off repetition along that axis.
+     *
+     * @param xPeriod The period along the x axis, or 0.
+     * @param yPeriod The period along the y axis, or 0.
+     * @param zPeriod The period along the z axis, or 0.
+     *
+     * @throws IllegalArgumentException A period is negative or not finite.
+     */
+    @Override
+    public void setPeriod(double xPeriod, double yPeriod, double zPeriod) throws IllegalArgumentException {
+        if (!(xPeriod >= 0.0 && yPeriod >= 0.0 && zPeriod >= 0.0) || Double.isInfinite(xPeriod) || Double.isInfinite(yPeriod)
+                || Double.isInfinite(zPeriod)) {
+            throw new IllegalArgumentException("Invalid Parameter in Billow");
+        }
+
+        this.xPeriod = xPeriod;
+        this.yPeriod = yPeriod;
+        this.zPeriod = zPeriod;
+    }
 }
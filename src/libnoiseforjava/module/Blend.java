@@ -85,4 +85,27 @@ public class Blend extends ModuleBase {
 
         return Interp.lerp(v0, v1, alpha);
     }
+
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        double[] range1 = new double[2];
+        double[] control = new double[2];
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+        this.sourceModules[1].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range1);
+        this.sourceModules[2].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, control);
+
+        // The interpolation is linear in each of the two values and in alpha,
+        // so its extremes lie at the corners of the three ranges.
+        double lowerAlpha = (control[0] + 1.0) / 2.0;
+        double upperAlpha = (control[1] + 1.0) / 2.0;
+        double v0 = range[0];
+        double v1 = range[1];
+        double[] lowerCorners = new double[2];
+        double[] upperCorners = new double[2];
+        setRange(lowerCorners, Interp.lerp(v0, range1[0], lowerAlpha), Interp.lerp(v0, range1[1], lowerAlpha), Interp.lerp(v1, range1[0], lowerAlpha),
+                Interp.lerp(v1, range1[1], lowerAlpha));
+        setRange(upperCorners, Interp.lerp(v0, range1[0], upperAlpha), Interp.lerp(v0, range1[1], upperAlpha), Interp.lerp(v1, range1[0], upperAlpha),
+                Interp.lerp(v1, range1[1], upperAlpha));
+        setRange(range, lowerCorners[0], lowerCorners[1], upperCorners[0], upperCorners[1]);
+    }
 }
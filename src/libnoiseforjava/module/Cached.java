@@ -27,6 +27,8 @@
 
 package libnoiseforjava.module;
 
+import java.util.IdentityHashMap;
+
 /**
  * Noise module that caches the last output value generated by a source module.
  * 
@@ -56,6 +58,11 @@ package libnoiseforjava.module;
  * <p>
  * This noise module requires one source module.
  * 
+ * <p>
+ * The cache is not safe to share between threads. Inside a frozen graph (see
+ * FrozenGraph), this noise module passes every value through from its source
+ * module instead.
+ * 
  * @see <a
  *      href="http://libnoise.sourceforge.net/docs/classnoise_1_1module_1_1Cached.html">noise::module::Cached</a>
  */
@@ -86,16 +93,27 @@ public class Cached extends ModuleBase {
      */
     double zCache;
 
+    /**
+     * Determines if the cache is bypassed, which is the case when this noise
+     * module is part of a frozen graph.
+     */
+    boolean isBypassed;
+
     public Cached(ModuleBase sourceModule) throws IllegalArgumentException {
         super(1);
         setSourceModule(0, sourceModule);
         this.isCached = false;
+        this.isBypassed = false;
     }
 
     @Override
     public double getValue(double x, double y, double z) {
         assert (this.sourceModules[0] != null);
 
+        if (this.isBypassed) {
+            return this.sourceModules[0].getValue(x, y, z);
+        }
+
         if (!(this.isCached && x == this.xCache && y == this.yCache && z == this.zCache)) {
             this.cachedValue = this.sourceModules[0].getValue(x, y, z);
             this.xCache = x;
@@ -107,4 +125,20 @@ public class Cached extends ModuleBase {
 
         return this.cachedValue;
     }
+
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+    }
+
+    @Override
+    protected ModuleBase createRegionModule(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ,
+            IdentityHashMap<ModuleBase, ModuleBase> regionModules) {
+        ModuleBase regionModule = super.createRegionModule(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, regionModules);
+        if (regionModule != this) {
+            // The copy has a new source module, so its cache is empty.
+            ((Cached) regionModule).isCached = false;
+        }
+        return regionModule;
+    }
 }
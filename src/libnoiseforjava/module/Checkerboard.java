@@ -70,4 +70,21 @@ public class Checkerboard extends ModuleBase {
             return 1.0;
         }
     }
+
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        // A box inside a single unit cube has a single value, as long as the
+        // coordinates are not wrapped into the 32-bit range.
+        double limit = 1073741824.0;
+        if (Math.floor(lowerX) == Math.floor(upperX) && Math.floor(lowerY) == Math.floor(upperY) && Math.floor(lowerZ) == Math.floor(upperZ)
+                && Math.max(Math.abs(lowerX), Math.abs(upperX)) < limit && Math.max(Math.abs(lowerY), Math.abs(upperY)) < limit
+                && Math.max(Math.abs(lowerZ), Math.abs(upperZ)) < limit) {
+            double value = getValue(lowerX, lowerY, lowerZ);
+            range[0] = value;
+            range[1] = value;
+        } else {
+            range[0] = -1.0;
+            range[1] = 1.0;
+        }
+    }
 }
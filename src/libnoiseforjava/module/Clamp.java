@@ -90,6 +90,14 @@ public class Clamp extends ModuleBase {
         }
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+
+        range[0] = Math.min(Math.max(range[0], this.lowerBound), this.upperBound);
+        range[1] = Math.min(Math.max(range[1], this.lowerBound), this.upperBound);
+    }
+
     public void setBounds(double lowerBound, double upperBound) {
         assert (lowerBound < upperBound);
 
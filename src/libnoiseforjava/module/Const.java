@@ -65,6 +65,12 @@ public class Const extends ModuleBase {
         return this.constValue;
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        range[0] = this.constValue;
+        range[1] = this.constValue;
+    }
+
     /**
      * Sets the constant output value for this noise module.
      *
@@ -150,6 +150,95 @@ public class Curve extends ModuleBase {
         return Interp.cubicInterp(this.controlPoints[index0].outputValue, this.controlPoints[index1].outputValue, this.controlPoints[index2].outputValue, this.controlPoints[index3].outputValue, alpha);
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+        double sourceLower = range[0];
+        double sourceUpper = range[1];
+        if (Double.isNaN(sourceLower) || Double.isNaN(sourceUpper)) {
+            setUnbounded(range);
+            return;
+        }
+
+        int lastIndex = this.controlPointCount - 1;
+        double lower = Double.POSITIVE_INFINITY;
+        double upper = Double.NEGATIVE_INFINITY;
+
+        // Outside of the control points, the output value is the output value
+        // of the nearest control point.
+        if (sourceLower < this.controlPoints[0].inputValue) {
+            lower = Math.min(lower, this.controlPoints[0].outputValue);
+            upper = Math.max(upper, this.controlPoints[0].outputValue);
+        }
+        if (sourceUpper >= this.controlPoints[lastIndex].inputValue) {
+            lower = Math.min(lower, this.controlPoints[lastIndex].outputValue);
+            upper = Math.max(upper, this.controlPoints[lastIndex].outputValue);
+        }
+
+        // Within each segment that the source values reach, the extremes of
+        // the cubic curve lie at the ends of the reached part or where its
+        // slope is zero.
+        for (int i = 0; i < lastIndex; i++) {
+            double input0 = this.controlPoints[i].inputValue;
+            double input1 = this.controlPoints[i + 1].inputValue;
+            if (sourceUpper < input0 || sourceLower >= input1) {
+                continue;
+            }
+
+            double n0 = this.controlPoints[Misc.ClampValue(i - 1, 0, lastIndex)].outputValue;
+            double n1 = this.controlPoints[i].outputValue;
+            double n2 = this.controlPoints[i + 1].outputValue;
+            double n3 = this.controlPoints[Misc.ClampValue(i + 2, 0, lastIndex)].outputValue;
+            double alpha0 = (Math.max(sourceLower, input0) - input0) / (input1 - input0);
+            double alpha1 = (Math.min(sourceUpper, input1) - input0) / (input1 - input0);
+
+            double value0 = Interp.cubicInterp(n0, n1, n2, n3, alpha0);
+            double value1 = Interp.cubicInterp(n0, n1, n2, n3, alpha1);
+            lower = Math.min(lower, Math.min(value0, value1));
+            upper = Math.max(upper, Math.max(value0, value1));
+
+            // The slope is 3 p a^2 + 2 q a + r, with the coefficients used by
+            // Interp.cubicInterp().
+            double p = (n3 - n2) - (n0 - n1);
+            double q = (n0 - n1) - p;
+            double r = n2 - n0;
+            double[] roots = new double[2];
+            int rootCount = solveQuadratic(3.0 * p, 2.0 * q, r, roots);
+            for (int j = 0; j < rootCount; j++) {
+                if (roots[j] > alpha0 && roots[j] < alpha1) {
+                    double value = Interp.cubicInterp(n0, n1, n2, n3, roots[j]);
+                    lower = Math.min(lower, value);
+                    upper = Math.max(upper, value);
+                }
+            }
+        }
+
+        setRange(range, lower, upper);
+    }
+
+    /**
+     * Stores the real roots of a x^2 + b x + c in the array and returns how
+     * many there are.
+     */
+    static int solveQuadratic(double a, double b, double c, double[] roots) {
+        if (a == 0.0) {
+            if (b == 0.0) {
+                return 0;
+            }
+            roots[0] = -c / b;
+            return 1;
+        }
+
+        double discriminant = b * b - 4.0 * a * c;
+        if (discriminant < 0.0) {
+            return 0;
+        }
+        double root = Math.sqrt(discriminant);
+        roots[0] = (-b - root) / (2.0 * a);
+        roots[1] = (-b + root) / (2.0 * a);
+        return 2;
+    }
+
     public void insertAtPos(int insertionPos, double inputValue, double outputValue) {
         // Make room for the new control point at the specified position within
         // the
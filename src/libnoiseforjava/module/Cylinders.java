@@ -95,6 +95,16 @@ public class Cylinders extends ModuleBase {
         return 1.0 - (nearestDist * 4.0);
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        double xNear = Spheres.getNearestDistance(lowerX * this.frequency, upperX * this.frequency);
+        double zNear = Spheres.getNearestDistance(lowerZ * this.frequency, upperZ * this.frequency);
+        double xFar = Math.max(Math.abs(lowerX * this.frequency), Math.abs(upperX * this.frequency));
+        double zFar = Math.max(Math.abs(lowerZ * this.frequency), Math.abs(upperZ * this.frequency));
+
+        Spheres.getShellBounds(Math.sqrt(xNear * xNear + zNear * zNear), Math.sqrt(xFar * xFar + zFar * zFar), range);
+    }
+
     /**
      * Returns the frequency of the concentric cylinders.
      * 
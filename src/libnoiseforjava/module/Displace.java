@@ -27,6 +27,8 @@
 
 package libnoiseforjava.module;
 
+import java.util.IdentityHashMap;
+
 import libnoiseforjava.exception.ExceptionNoModule;
 
 /**
@@ -91,6 +93,42 @@ public class Displace extends ModuleBase {
         return this.sourceModules[0].getValue(xDisplace, yDisplace, zDisplace);
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        double[] xDisplace = new double[2];
+        double[] yDisplace = new double[2];
+        double[] zDisplace = new double[2];
+        this.sourceModules[1].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, xDisplace);
+        this.sourceModules[2].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, yDisplace);
+        this.sourceModules[3].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, zDisplace);
+
+        // The source module is sampled anywhere in the box grown by the
+        // displacements.
+        this.sourceModules[0].getBounds(lowerX + xDisplace[0], upperX + xDisplace[1], lowerY + yDisplace[0], upperY + yDisplace[1], lowerZ + zDisplace[0],
+                upperZ + zDisplace[1], range);
+    }
+
+    @Override
+    protected ModuleBase createRegionModule(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ,
+            IdentityHashMap<ModuleBase, ModuleBase> regionModules) {
+        double[] xDisplace = new double[2];
+        double[] yDisplace = new double[2];
+        double[] zDisplace = new double[2];
+        this.sourceModules[1].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, xDisplace);
+        this.sourceModules[2].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, yDisplace);
+        this.sourceModules[3].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, zDisplace);
+
+        // The displacement modules are sampled in the box itself, and the
+        // source module in the box grown by the displacements.
+        ModuleBase[] sources = new ModuleBase[4];
+        sources[0] = this.sourceModules[0].getRegionModule(lowerX + xDisplace[0], upperX + xDisplace[1], lowerY + yDisplace[0], upperY + yDisplace[1],
+                lowerZ + zDisplace[0], upperZ + zDisplace[1]);
+        for (int i = 1; i < 4; i++) {
+            sources[i] = this.sourceModules[i].getRegionModule(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, regionModules);
+        }
+        return copyWithSources(sources);
+    }
+
     public ModuleBase getXDisplaceModule() throws ExceptionNoModule {
         if (this.sourceModules == null || this.sourceModules[1] == null) {
             throw new ExceptionNoModule("Could not retrieve a source module " + "from a noise module.");
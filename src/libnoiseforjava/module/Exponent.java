@@ -72,6 +72,29 @@ public class Exponent extends ModuleBase {
         return (Math.pow(Math.abs((value + 1.0) / 2.0), this.exponent) * 2.0 - 1.0);
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+
+        // Find the range of the magnitude that is raised to the exponent.
+        double lower = (range[0] + 1.0) / 2.0;
+        double upper = (range[1] + 1.0) / 2.0;
+        double lowerMagnitude, upperMagnitude;
+        if (lower >= 0.0) {
+            lowerMagnitude = lower;
+            upperMagnitude = upper;
+        } else if (upper <= 0.0) {
+            lowerMagnitude = -upper;
+            upperMagnitude = -lower;
+        } else {
+            lowerMagnitude = 0.0;
+            upperMagnitude = Math.max(-lower, upper);
+        }
+
+        // A power of a non-negative number is monotonic.
+        setRange(range, Math.pow(lowerMagnitude, this.exponent) * 2.0 - 1.0, Math.pow(upperMagnitude, this.exponent) * 2.0 - 1.0);
+    }
+
     /**
      * Returns the exponent value to apply to the output value from the source
      * module.
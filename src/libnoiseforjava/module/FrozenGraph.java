@@ -0,0 +1,184 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.module;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Noise module that holds an immutable, validated copy of a graph of noise
+ * modules.
+ * 
+ * <p>
+ * The freeze() method checks every noise module in a graph, copies the graph
+ * and builds the copy once. Nothing can change the copy afterwards: it is not
+ * reachable from outside this noise module, and this noise module has no
+ * source modules of its own. Changes to the original graph do not affect the
+ * frozen graph.
+ * 
+ * <p>
+ * Since nothing changes after the copy is built, a frozen graph may be shared
+ * between threads, for example by the renderers and noise map builders when
+ * they are given an executor. The caches of Cached noise modules are bypassed
+ * in the copy, as a cache would be written by every thread.
+ * 
+ * <p>
+ * A generator whose seed is zero chooses a new random seed when it is built,
+ * so the copy of such a generator does not produce the same values as the
+ * original. Give every generator a seed before freezing a graph that must be
+ * reproducible.
+ * 
+ * <p>
+ * A frozen graph may be used as a source module of another noise module, and
+ * it has the same description and fingerprint in ModuleGraphCodec as the graph
+ * it was frozen from.
+ * 
+ * <p>
+ * This noise module does not require any source modules.
+ */
+public final class FrozenGraph extends ModuleBase {
+
+    /**
+     * The root of the copied graph.
+     */
+    final ModuleBase root;
+
+    /**
+     * The fingerprint of the copied graph.
+     */
+    final long fingerprint;
+
+    /**
+     * The number of noise modules in the copied graph.
+     */
+    final int moduleCount;
+
+    private FrozenGraph(ModuleBase root, long fingerprint, int moduleCount) {
+        super(0);
+        this.root = root;
+        this.fingerprint = fingerprint;
+        this.moduleCount = moduleCount;
+    }
+
+    /**
+     * Validates and copies a graph of noise modules.
+     * 
+     * @param root The noise module whose output value the frozen graph
+     *            returns.
+     * 
+     * @return The frozen graph.
+     * 
+     * @throws IllegalArgumentException The graph is not complete, has a
+     *             cycle, contains a noise module that ModuleGraphCodec cannot
+     *             describe or has a parameter that is out of range.
+     */
+    public static FrozenGraph freeze(ModuleBase root) throws IllegalArgumentException {
+        if (root instanceof FrozenGraph) {
+            return (FrozenGraph) root;
+        }
+
+        List<ModuleBase> nodes = new ArrayList<ModuleBase>();
+        IdentityHashMap<ModuleBase, Integer> ids = ModuleGraphCodec.collect(root, nodes);
+        ModuleBase[] copies = new ModuleBase[nodes.size()];
+
+        for (int i = 0; i < copies.length; i++) {
+            ModuleBase module = nodes.get(i);
+            ModuleGraphCodec.ModuleType type = ModuleGraphCodec.TYPES[ModuleGraphCodec.TYPE_CODES.get(module.getClass())];
+            type.validate(module);
+
+            ModuleBase[] sources = new ModuleBase[type.sourceCount];
+            for (int j = 0; j < sources.length; j++) {
+                sources[j] = copies[ids.get(ModuleGraphCodec.unwrap(module.sourceModules[j]))];
+            }
+
+            ModuleBase copy = ModuleGraphCodec.createModule(type, sources, type.getParameters(module));
+            if (copy instanceof Cached) {
+                ((Cached) copy).isBypassed = true;
+            }
+            copies[i] = copy;
+        }
+
+        ModuleBase copiedRoot = copies[copies.length - 1];
+        return new FrozenGraph(copiedRoot, ModuleGraphCodec.fingerprint(copiedRoot), copies.length);
+    }
+
+    /**
+     * Returns the fingerprint of the frozen graph.
+     * 
+     * @return The same value as ModuleGraphCodec.fingerprint() returns for the
+     *         graph this graph was frozen from.
+     */
+    public long getFingerprint() {
+        return this.fingerprint;
+    }
+
+    /**
+     * Returns the number of noise modules in the frozen graph.
+     * 
+     * @return The number of distinct noise modules, counting a noise module
+     *         that is used by several others once.
+     */
+    public int getModuleCount() {
+        return this.moduleCount;
+    }
+
+    @Override
+    public double getValue(double x, double y, double z) {
+        return this.root.getValue(x, y, z);
+    }
+
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        this.root.getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+    }
+
+    @Override
+    protected ModuleBase createRegionModule(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ,
+            IdentityHashMap<ModuleBase, ModuleBase> regionModules) {
+        // The simplified graph is frozen as well: its noise modules are copies
+        // of, or the same as, the noise modules of the copied graph.
+        ModuleBase regionRoot = this.root.getRegionModule(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, regionModules);
+        if (regionRoot == this.root) {
+            return this;
+        }
+        List<ModuleBase> nodes = new ArrayList<ModuleBase>();
+        ModuleGraphCodec.collect(regionRoot, nodes);
+        return new FrozenGraph(regionRoot, ModuleGraphCodec.fingerprint(regionRoot), nodes.size());
+    }
+
+    /**
+     * A frozen graph cannot be changed.
+     * 
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public void setSourceModule(int index, ModuleBase sourceModule) throws UnsupportedOperationException {
+        throw new UnsupportedOperationException("A frozen graph cannot be changed");
+    }
+}
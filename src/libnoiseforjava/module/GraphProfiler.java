@@ -0,0 +1,505 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.module;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures where the time is spent in a graph of noise modules.
+ * 
+ * <p>
+ * The instrument() method copies a graph and places a profiling noise module in
+ * front of every noise module of the copy. Every node of the graph then
+ * records:
+ * <ul>
+ * <li>the number of times its output value was requested,</li>
+ * <li>its inclusive time, spent in the node and all of its source modules,</li>
+ * <li>its exclusive time, spent in the node itself,</li>
+ * <li>the range and a histogram of its output values.</li>
+ * </ul>
+ * 
+ * <p>
+ * Only the invocation count is recorded on every call. Calling
+ * System.nanoTime() on every call would cost more than most noise modules, so
+ * one call out of every sample interval (per thread) is timed, together with
+ * every call it makes into the graph. The times and output values are recorded
+ * for these sampled calls only, and the totals are estimated from the mean
+ * time per sampled call.
+ * 
+ * <p>
+ * If the profiler is disabled, instrument() returns the original graph, so an
+ * application can leave the call in place without any cost.
+ * 
+ * <p>
+ * A profiler and its instrumented graphs may be used by several threads at
+ * once, provided the graph itself allows it (see FrozenGraph). The copy is
+ * made through ModuleGraphCodec, so a generator whose seed is zero chooses a
+ * new random seed in the copy; the instrumented graph has the same
+ * description and fingerprint as the original.
+ */
+public class GraphProfiler {
+
+    /**
+     * Default number of calls per thread between two sampled calls.
+     */
+    public static final int DEFAULT_SAMPLE_INTERVAL = 64;
+
+    /**
+     * Default number of bins in the output value histograms.
+     */
+    public static final int DEFAULT_BIN_COUNT = 20;
+
+    /**
+     * Receives the statistics of every node, for example to forward them to
+     * a monitoring system.
+     */
+    public interface Exporter {
+
+        /**
+         * Receives one statistic of one node.
+         * 
+         * @param node The name of the node, which is unique within the
+         *            profiler.
+         * @param metric The name of the statistic.
+         * @param value The value of the statistic.
+         */
+        void export(String node, String metric, double value);
+    }
+
+    /**
+     * The statistics of one node of an instrumented graph.
+     */
+    public static final class NodeProfile {
+
+        final String name;
+
+        final String moduleType;
+
+        final LongAdder invocations;
+
+        final long[] histogram;
+
+        final double histogramLowerBound;
+
+        final double histogramUpperBound;
+
+        long sampledInvocations;
+
+        long inclusiveNanos;
+
+        long exclusiveNanos;
+
+        double minValue;
+
+        double maxValue;
+
+        NodeProfile(String name, String moduleType, int binCount, double histogramLowerBound, double histogramUpperBound) {
+            this.name = name;
+            this.moduleType = moduleType;
+            this.invocations = new LongAdder();
+            this.histogram = new long[binCount + 2];
+            this.histogramLowerBound = histogramLowerBound;
+            this.histogramUpperBound = histogramUpperBound;
+            reset();
+        }
+
+        synchronized void reset() {
+            this.invocations.reset();
+            this.sampledInvocations = 0;
+            this.inclusiveNanos = 0;
+            this.exclusiveNanos = 0;
+            this.minValue = Double.POSITIVE_INFINITY;
+            this.maxValue = Double.NEGATIVE_INFINITY;
+            Arrays.fill(this.histogram, 0);
+        }
+
+        synchronized void recordSample(long inclusiveNanos, long exclusiveNanos, double value) {
+            this.sampledInvocations++;
+            this.inclusiveNanos += inclusiveNanos;
+            this.exclusiveNanos += exclusiveNanos;
+            this.minValue = Math.min(this.minValue, value);
+            this.maxValue = Math.max(this.maxValue, value);
+
+            int binCount = this.histogram.length - 2;
+            int bin;
+            if (value < this.histogramLowerBound) {
+                bin = 0;
+            } else if (value >= this.histogramUpperBound) {
+                bin = binCount + 1;
+            } else {
+                bin = 1 + (int) ((value - this.histogramLowerBound) * binCount / (this.histogramUpperBound - this.histogramLowerBound));
+                bin = Math.min(bin, binCount);
+            }
+            this.histogram[bin]++;
+        }
+
+        /**
+         * Returns the name of the node: the module type followed by the
+         * position of the node in the graph, such as "Perlin#0".
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Returns the simple class name of the noise module.
+         */
+        public String getModuleType() {
+            return this.moduleType;
+        }
+
+        /**
+         * Returns the number of times the output value of the node was
+         * requested.
+         */
+        public long getInvocationCount() {
+            return this.invocations.sum();
+        }
+
+        /**
+         * Returns the number of calls whose time and output value were
+         * recorded.
+         */
+        public synchronized long getSampledInvocationCount() {
+            return this.sampledInvocations;
+        }
+
+        /**
+         * Returns the mean inclusive time of a sampled call, in nanoseconds.
+         */
+        public synchronized double getMeanInclusiveNanos() {
+            return (this.sampledInvocations == 0) ? 0.0 : (double) this.inclusiveNanos / this.sampledInvocations;
+        }
+
+        /**
+         * Returns the mean exclusive time of a sampled call, in nanoseconds.
+         */
+        public synchronized double getMeanExclusiveNanos() {
+            return (this.sampledInvocations == 0) ? 0.0 : (double) this.exclusiveNanos / this.sampledInvocations;
+        }
+
+        /**
+         * Returns the estimated total inclusive time of all calls, in
+         * nanoseconds.
+         */
+        public double getEstimatedInclusiveNanos() {
+            return getMeanInclusiveNanos() * getInvocationCount();
+        }
+
+        /**
+         * Returns the estimated total exclusive time of all calls, in
+         * nanoseconds.
+         */
+        public double getEstimatedExclusiveNanos() {
+            return getMeanExclusiveNanos() * getInvocationCount();
+        }
+
+        /**
+         * Returns the lowest sampled output value, or positive infinity if no
+         * call was sampled.
+         */
+        public synchronized double getMinValue() {
+            return this.minValue;
+        }
+
+        /**
+         * Returns the highest sampled output value, or negative infinity if
+         * no call was sampled.
+         */
+        public synchronized double getMaxValue() {
+            return this.maxValue;
+        }
+
+        /**
+         * Returns the histogram of the sampled output values.
+         * 
+         * @return The bin counts. The first element counts the values below
+         *         the lower bound of the histogram and the last element the
+         *         values at or above its upper bound; the elements in between
+         *         divide the range between the bounds evenly.
+         */
+        public synchronized long[] getHistogram() {
+            return this.histogram.clone();
+        }
+
+        public double getHistogramLowerBound() {
+            return this.histogramLowerBound;
+        }
+
+        public double getHistogramUpperBound() {
+            return this.histogramUpperBound;
+        }
+    }
+
+    /**
+     * The sampling state of one thread.
+     */
+    static final class Frame {
+
+        /**
+         * The number of calls left until the next sampled call.
+         */
+        int countdown;
+
+        /**
+         * Determines if the current call is being timed.
+         */
+        boolean isTiming;
+
+        /**
+         * The inclusive time of the timed source module calls made by the
+         * current call so far.
+         */
+        long childNanos;
+    }
+
+    final ThreadLocal<Frame> frames;
+
+    final List<NodeProfile> nodes;
+
+    int sampleInterval;
+
+    int binCount;
+
+    double histogramLowerBound;
+
+    double histogramUpperBound;
+
+    boolean isEnabled;
+
+    public GraphProfiler() {
+        this.frames = new ThreadLocal<Frame>() {
+
+            @Override
+            protected Frame initialValue() {
+                Frame frame = new Frame();
+                frame.countdown = 1;
+                return frame;
+            }
+        };
+        this.nodes = Collections.synchronizedList(new ArrayList<NodeProfile>());
+        this.sampleInterval = DEFAULT_SAMPLE_INTERVAL;
+        this.binCount = DEFAULT_BIN_COUNT;
+        this.histogramLowerBound = -1.0;
+        this.histogramUpperBound = 1.0;
+        this.isEnabled = true;
+    }
+
+    /**
+     * Returns a profiled copy of a graph.
+     * 
+     * @param root The noise module whose output value the graph returns.
+     * 
+     * @return The profiled copy, or the given noise module itself if this
+     *         profiler is disabled.
+     * 
+     * @throws IllegalArgumentException The graph is not complete, has a
+     *             cycle or contains a noise module that ModuleGraphCodec
+     *             cannot describe.
+     */
+    public ModuleBase instrument(ModuleBase root) throws IllegalArgumentException {
+        if (!this.isEnabled) {
+            return root;
+        }
+
+        List<ModuleBase> graphNodes = new ArrayList<ModuleBase>();
+        IdentityHashMap<ModuleBase, Integer> ids = ModuleGraphCodec.collect(root, graphNodes);
+        ModuleBase[] wrappers = new ModuleBase[graphNodes.size()];
+        int first = this.nodes.size();
+
+        for (int i = 0; i < wrappers.length; i++) {
+            ModuleBase module = graphNodes.get(i);
+            ModuleGraphCodec.ModuleType type = ModuleGraphCodec.TYPES[ModuleGraphCodec.TYPE_CODES.get(module.getClass())];
+
+            ModuleBase[] sources = new ModuleBase[type.sourceCount];
+            for (int j = 0; j < sources.length; j++) {
+                sources[j] = wrappers[ids.get(ModuleGraphCodec.unwrap(module.sourceModules[j]))];
+            }
+
+            ModuleBase copy = ModuleGraphCodec.createModule(type, sources, type.getParameters(module));
+            if (copy instanceof Cached) {
+                ((Cached) copy).isBypassed = ((Cached) module).isBypassed;
+            }
+
+            NodeProfile profile = new NodeProfile(type.name + "#" + (first + i), type.name, this.binCount, this.histogramLowerBound,
+                    this.histogramUpperBound);
+            this.nodes.add(profile);
+            wrappers[i] = new ProfiledModule(copy, this, profile);
+        }
+        return wrappers[wrappers.length - 1];
+    }
+
+    /**
+     * Returns the statistics of every node instrumented by this profiler,
+     * each source module before the noise modules that use it.
+     */
+    public List<NodeProfile> getNodeProfiles() {
+        synchronized (this.nodes) {
+            return new ArrayList<NodeProfile>(this.nodes);
+        }
+    }
+
+    /**
+     * Clears the statistics of every node.
+     */
+    public void reset() {
+        for (NodeProfile profile : getNodeProfiles()) {
+            profile.reset();
+        }
+    }
+
+    /**
+     * Passes the statistics of every node to an exporter.
+     * <p>
+     * The metrics are "invocations", "sampledInvocations",
+     * "meanInclusiveNanos", "meanExclusiveNanos", "estimatedInclusiveNanos",
+     * "estimatedExclusiveNanos", "minValue" and "maxValue".
+     * 
+     * @param exporter The exporter.
+     */
+    public void export(Exporter exporter) {
+        for (NodeProfile profile : getNodeProfiles()) {
+            exporter.export(profile.name, "invocations", profile.getInvocationCount());
+            exporter.export(profile.name, "sampledInvocations", profile.getSampledInvocationCount());
+            exporter.export(profile.name, "meanInclusiveNanos", profile.getMeanInclusiveNanos());
+            exporter.export(profile.name, "meanExclusiveNanos", profile.getMeanExclusiveNanos());
+            exporter.export(profile.name, "estimatedInclusiveNanos", profile.getEstimatedInclusiveNanos());
+            exporter.export(profile.name, "estimatedExclusiveNanos", profile.getEstimatedExclusiveNanos());
+            if (profile.getSampledInvocationCount() > 0) {
+                exporter.export(profile.name, "minValue", profile.getMinValue());
+                exporter.export(profile.name, "maxValue", profile.getMaxValue());
+            }
+        }
+    }
+
+    /**
+     * Returns a table of the statistics of every node, the node with the
+     * highest estimated exclusive time first.
+     */
+    public String getReport() {
+        StringBuilder out = new StringBuilder();
+        writeReport(out);
+        return out.toString();
+    }
+
+    /**
+     * Writes a table of the statistics of every node, the node with the
+     * highest estimated exclusive time first.
+     * 
+     * @param out The destination of the table.
+     * 
+     * @throws UncheckedIOException The destination could not be written.
+     */
+    public void writeReport(Appendable out) throws UncheckedIOException {
+        List<NodeProfile> profiles = getNodeProfiles();
+        double total = 0.0;
+        for (NodeProfile profile : profiles) {
+            total += profile.getEstimatedExclusiveNanos();
+        }
+
+        Collections.sort(profiles, new Comparator<NodeProfile>() {
+
+            @Override
+            public int compare(NodeProfile a, NodeProfile b) {
+                return Double.compare(b.getEstimatedExclusiveNanos(), a.getEstimatedExclusiveNanos());
+            }
+        });
+
+        try {
+            out.append(String.format("%-20s %14s %10s %12s %12s %7s %10s %10s%n", "node", "calls", "sampled", "incl ns", "excl ns",
+                    "excl %", "min", "max"));
+            for (NodeProfile profile : profiles) {
+                double share = (total > 0.0) ? 100.0 * profile.getEstimatedExclusiveNanos() / total : 0.0;
+                out.append(String.format("%-20s %14d %10d %12.1f %12.1f %7.1f %10.4f %10.4f%n", profile.name, profile.getInvocationCount(),
+                        profile.getSampledInvocationCount(), profile.getMeanInclusiveNanos(), profile.getMeanExclusiveNanos(), share,
+                        profile.getMinValue(), profile.getMaxValue()));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    public int getSampleInterval() {
+        return this.sampleInterval;
+    }
+
+    /**
+     * Sets the number of calls per thread between two sampled calls.
+     * 
+     * @param sampleInterval The interval; 1 times every call.
+     * 
+     * @throws IllegalArgumentException The interval is less than 1.
+     */
+    public void setSampleInterval(int sampleInterval) throws IllegalArgumentException {
+        if (sampleInterval < 1) {
+            throw new IllegalArgumentException("Invalid Parameter in GraphProfiler");
+        }
+        this.sampleInterval = sampleInterval;
+    }
+
+    /**
+     * Sets the range and resolution of the output value histograms of the
+     * nodes instrumented after this call.
+     * 
+     * @param lowerBound The lower bound of the histogram.
+     * @param upperBound The upper bound of the histogram.
+     * @param binCount The number of bins between the bounds.
+     * 
+     * @throws IllegalArgumentException The lower bound is not less than the
+     *             upper bound, or the bin count is less than 1.
+     */
+    public void setHistogram(double lowerBound, double upperBound, int binCount) throws IllegalArgumentException {
+        if (!(lowerBound < upperBound) || binCount < 1) {
+            throw new IllegalArgumentException("Invalid Parameter in GraphProfiler");
+        }
+        this.histogramLowerBound = lowerBound;
+        this.histogramUpperBound = upperBound;
+        this.binCount = binCount;
+    }
+
+    public boolean isEnabled() {
+        return this.isEnabled;
+    }
+
+    /**
+     * Enables or disables this profiler. A disabled profiler returns graphs
+     * unchanged from instrument(); graphs that are already instrumented keep
+     * recording.
+     */
+    public void setEnabled(boolean isEnabled) {
+        this.isEnabled = isEnabled;
+    }
+}
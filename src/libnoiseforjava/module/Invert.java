@@ -52,4 +52,13 @@ public class Invert extends ModuleBase {
 
         return -(this.sourceModules[0].getValue(x, y, z));
     }
+
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+
+        double lower = range[0];
+        range[0] = -range[1];
+        range[1] = -lower;
+    }
 }
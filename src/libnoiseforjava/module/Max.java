@@ -57,4 +57,14 @@ public class Max extends ModuleBase {
         double v1 = this.sourceModules[1].getValue(x, y, z);
         return Math.max(v0, v1);
     }
+
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        double[] range1 = new double[2];
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+        this.sourceModules[1].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range1);
+
+        range[0] = Math.max(range[0], range1[0]);
+        range[1] = Math.max(range[1], range1[1]);
+    }
 }
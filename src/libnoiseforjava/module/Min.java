@@ -58,4 +58,14 @@ public class Min extends ModuleBase {
         return Math.min(v0, v1);
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        double[] range1 = new double[2];
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+        this.sourceModules[1].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range1);
+
+        range[0] = Math.min(range[0], range1[0]);
+        range[1] = Math.min(range[1], range1[1]);
+    }
+
 }
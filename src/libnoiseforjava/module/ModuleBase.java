@@ -27,9 +27,11 @@
 
 package libnoiseforjava.module;
 
+import java.util.IdentityHashMap;
+
 import libnoiseforjava.exception.ExceptionNoModule;
 
-public class ModuleBase {
+public class ModuleBase implements Cloneable {
 
     /**
      * base class for noise modules.
@@ -119,6 +121,162 @@ public class ModuleBase {
         return x;
     }
 
+    /**
+     * Returns bounds of the output values over a box without sampling it.
+     * <p>
+     * The bounds are conservative: every value that getValue() returns for a
+     * point of the box lies between the lower bound, stored at index 0 of the
+     * range, and the upper bound, stored at index 1. The bounds may be wider
+     * than the actual output. Generators bound their output by the amplitudes
+     * of their octaves, and other modules propagate the bounds of their
+     * source modules with interval arithmetic. A module that cannot bound its
+     * output returns infinite bounds, which is what this implementation does.
+     * <p>
+     * Builders use the bounds to skip or simplify whole regions, for example
+     * the empty blocks of a density volume.
+     *
+     * @param lowerX The lower x coordinate of the box.
+     * @param upperX The upper x coordinate of the box.
+     * @param lowerY The lower y coordinate of the box.
+     * @param upperY The upper y coordinate of the box.
+     * @param lowerZ The lower z coordinate of the box.
+     * @param upperZ The upper z coordinate of the box.
+     * @param range Receives the lower bound at index 0 and the upper bound at
+     *            index 1.
+     *
+     * @pre All source modules required by this noise module have been passed
+     *      to the setSourceModule() method.
+     */
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        setUnbounded(range);
+    }
+
+    /**
+     * Returns a noise module that outputs the same values as this noise module
+     * inside a box, without the parts of the graph that the box does not
+     * reach.
+     * <p>
+     * A Select noise module whose control values over the box, as bounded by
+     * getBounds(), all fall on one side of the selection range and outside
+     * the falloff bands is replaced by the source module of that side. The
+     * noise modules that use a replaced module are shallow copies connected
+     * to the simplified source modules; every other noise module, including
+     * every generator, is shared with this graph. If nothing can be removed,
+     * this noise module itself is returned.
+     * <p>
+     * Builders call this method once for each block of points, so that a
+     * block inside a single branch of a Select noise module never evaluates
+     * the other branch or the control module.
+     *
+     * @param lowerX The lower x coordinate of the box.
+     * @param upperX The upper x coordinate of the box.
+     * @param lowerY The lower y coordinate of the box.
+     * @param upperY The upper y coordinate of the box.
+     * @param lowerZ The lower z coordinate of the box.
+     * @param upperZ The upper z coordinate of the box.
+     *
+     * @return A noise module that must only be evaluated inside the box. It
+     *         is as thread-safe as this noise module.
+     */
+    public ModuleBase getRegionModule(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ) {
+        return getRegionModule(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, new IdentityHashMap<ModuleBase, ModuleBase>());
+    }
+
+    /**
+     * Returns the simplified noise module of getRegionModule(), creating it
+     * only once for every noise module reached with this box, so that a noise
+     * module shared by several others stays shared.
+     */
+    protected final ModuleBase getRegionModule(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ,
+            IdentityHashMap<ModuleBase, ModuleBase> regionModules) {
+        ModuleBase regionModule = regionModules.get(this);
+        if (regionModule == null) {
+            regionModule = createRegionModule(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, regionModules);
+            regionModules.put(this, regionModule);
+        }
+        return regionModule;
+    }
+
+    /**
+     * Creates the simplified noise module of getRegionModule().
+     * <p>
+     * This implementation simplifies every source module over the same box,
+     * which is right for every noise module that passes its input value to
+     * its source modules unchanged. A noise module that moves the input value
+     * must override this method and simplify its source modules over the box
+     * they are sampled in, through the public getRegionModule(), which starts
+     * a new map.
+     */
+    protected ModuleBase createRegionModule(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ,
+            IdentityHashMap<ModuleBase, ModuleBase> regionModules) {
+        if (this.sourceModules == null) {
+            return this;
+        }
+
+        ModuleBase[] sources = new ModuleBase[this.sourceModules.length];
+        for (int i = 0; i < sources.length; i++) {
+            sources[i] = this.sourceModules[i].getRegionModule(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, regionModules);
+        }
+        return copyWithSources(sources);
+    }
+
+    /**
+     * Returns this noise module if it is connected to the given source
+     * modules, or a shallow copy of it that is connected to them.
+     */
+    protected ModuleBase copyWithSources(ModuleBase[] sources) {
+        boolean isChanged = false;
+        for (int i = 0; i < sources.length; i++) {
+            isChanged |= sources[i] != this.sourceModules[i];
+        }
+        if (!isChanged) {
+            return this;
+        }
+
+        ModuleBase copy;
+        try {
+            copy = (ModuleBase) clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException(e);
+        }
+        copy.sourceModules = sources;
+        return copy;
+    }
+
+    /**
+     * Sets a range to infinite bounds.
+     */
+    static void setUnbounded(double[] range) {
+        range[0] = Double.NEGATIVE_INFINITY;
+        range[1] = Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Sets a range to the smallest interval that holds both values, or to
+     * infinite bounds if a value is not a number.
+     */
+    static void setRange(double[] range, double a, double b) {
+        if (Double.isNaN(a) || Double.isNaN(b)) {
+            setUnbounded(range);
+        } else {
+            range[0] = Math.min(a, b);
+            range[1] = Math.max(a, b);
+        }
+    }
+
+    /**
+     * Sets a range to the smallest interval that holds all four values, or
+     * to infinite bounds if a value is not a number.
+     */
+    static void setRange(double[] range, double a, double b, double c, double d) {
+        if (Double.isNaN(a) || Double.isNaN(b) || Double.isNaN(c) || Double.isNaN(d)) {
+            setUnbounded(range);
+        } else {
+            range[0] = Math.min(Math.min(a, b), Math.min(c, d));
+            range[1] = Math.max(Math.max(a, b), Math.max(c, d));
+        }
+    }
+
     /**
      * Connects a source module to this noise module.
      * 
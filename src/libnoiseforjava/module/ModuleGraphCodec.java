@@ -0,0 +1,1634 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.module;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import libnoiseforjava.NoiseQuality;
+
+/**
+ * Converts noise-module graphs to and from a compact description, and computes
+ * a fingerprint of a graph.
+ * <p>
+ * A description lists every noise module of a graph exactly once, together
+ * with its parameters and the indices of its source modules. A noise module
+ * that is the source of several others is therefore shared again when the
+ * description is loaded. Every noise module in this package can be described;
+ * subclasses defined by the application cannot.
+ * <p>
+ * <b>JSON format</b>
+ * <p>
+ * The JSON description is an object with the members "format", "version",
+ * "root" and "nodes". Each element of "nodes" describes one noise module. Its
+ * "type" member is the simple class name of the noise module, its "sources"
+ * member lists the indices of its source modules, and the remaining members
+ * are its parameters, named after their setters:
+ *
+ * <pre>
+ * {"format":"libnoiseforjava-graph","version":3,"root":1,"nodes":[
+ * {"type":"Perlin","frequency":2.0,"lacunarity":2.0,"persistence":0.5,"octaveCount":6,"seed":7},
+ * {"type":"ScaleBias","sources":[0],"scale":0.5,"bias":0.0}]}
+ * </pre>
+ *
+ * A source module always comes before the noise modules that use it. Missing
+ * parameters keep their default values, so JSON descriptions written by an
+ * earlier version of the format can still be loaded.
+ * <p>
+ * <b>Binary format</b>
+ * <p>
+ * The binary description contains the same nodes without parameter names. It
+ * is smaller and faster to load than the JSON description, and is the format
+ * the fingerprint is computed from. Binary descriptions written by an earlier
+ * version of the format can still be loaded; the parameters added since then
+ * keep their default values.
+ * <p>
+ * <b>Loading</b>
+ * <p>
+ * The fromJson() and fromBinary() methods create every noise module, connect
+ * the source modules, set the parameters and call the build() method of the
+ * generator modules, so the returned graph is ready to use.
+ * <p>
+ * <b>Fingerprint</b>
+ * <p>
+ * The fingerprint is a 64-bit hash of the nodes of the binary description,
+ * without the magic bytes and the version. Two graphs with the same structure
+ * and the same parameters have the same fingerprint, in any process, so the
+ * fingerprint can serve as the key of a cache.
+ */
+public class ModuleGraphCodec {
+
+    /**
+     * The value of the "format" member of a JSON description.
+     */
+    public static final String FORMAT_NAME = "libnoiseforjava-graph";
+
+    /**
+     * The version of the description format.
+     */
+    public static final int VERSION = 3;
+
+    /**
+     * The magic bytes at the start of a binary description.
+     */
+    static final int BINARY_MAGIC = ('L' << 24) | ('N' << 16) | ('G' << 8) | 'F';
+
+    static final long FNV_OFFSET_BASIS = 0xcbf29ce484222325L;
+    static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Describes how a noise module class is created, and how its parameters
+     * are read and set.
+     */
+    abstract static class ModuleType {
+
+        /**
+         * The name of the type in a description.
+         */
+        final String name;
+
+        /**
+         * The noise module class.
+         */
+        final Class<? extends ModuleBase> moduleClass;
+
+        /**
+         * The number of source modules.
+         */
+        final int sourceCount;
+
+        /**
+         * The names of the parameters.
+         */
+        final String[] parameterNames;
+
+        /**
+         * The kinds of the parameters: 'd' (double), 'i' (int), 'b'
+         * (boolean), 'q' (NoiseQuality) or 'a' (array of doubles).
+         */
+        final char[] parameterKinds;
+
+        /**
+         * The version of the format that added each parameter.
+         */
+        final int[] parameterVersions;
+
+        /**
+         * @param parameters The parameters, as "name:kind" pairs separated by
+         *            commas. A kind followed by a version number marks a
+         *            parameter added in that version of the format.
+         */
+        ModuleType(Class<? extends ModuleBase> moduleClass, int sourceCount, String parameters) {
+            this.name = moduleClass.getSimpleName();
+            this.moduleClass = moduleClass;
+            this.sourceCount = sourceCount;
+
+            String[] pairs = parameters.isEmpty() ? new String[0] : parameters.split(",");
+            this.parameterNames = new String[pairs.length];
+            this.parameterKinds = new char[pairs.length];
+            this.parameterVersions = new int[pairs.length];
+            for (int i = 0; i < pairs.length; i++) {
+                int colon = pairs[i].indexOf(':');
+                this.parameterNames[i] = pairs[i].substring(0, colon);
+                this.parameterKinds[i] = pairs[i].charAt(colon + 1);
+                this.parameterVersions[i] = (pairs[i].length() > colon + 2) ? Integer.parseInt(pairs[i].substring(colon + 2)) : 1;
+            }
+        }
+
+        /**
+         * Creates a noise module connected to the given source modules.
+         */
+        abstract ModuleBase create(ModuleBase[] sources);
+
+        /**
+         * Returns the parameters of a noise module, in the order of the
+         * parameter names.
+         */
+        Object[] getParameters(ModuleBase module) {
+            return new Object[0];
+        }
+
+        /**
+         * Sets every parameter of a noise module.
+         */
+        void setParameters(ModuleBase module, Object[] values) {
+            // Most combiner modules have no parameters.
+        }
+
+        /**
+         * Checks the parameters of a noise module before it is frozen.
+         *
+         * @throws IllegalArgumentException A parameter is out of range.
+         */
+        void validate(ModuleBase module) throws IllegalArgumentException {
+            // Most noise modules accept any parameters.
+        }
+
+        /**
+         * Builds the derived state of a noise module after its parameters are
+         * set.
+         */
+        void build(ModuleBase module) {
+            // Only generator modules have derived state.
+        }
+    }
+
+    /**
+     * The module types. The index of a type is its code in the binary format,
+     * so new types must be added at the end.
+     */
+    static final ModuleType[] TYPES = { new ModuleType(ModuleBase.class, 0, "") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new ModuleBase();
+        }
+
+        @Override
+        void validate(ModuleBase module) {
+            // A placeholder returns zero for every input value, which only
+            // makes sense in a graph that is still being assembled.
+            throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: the graph contains a placeholder noise module");
+        }
+    }, new ModuleType(Abs.class, 1, "") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Abs(s[0]);
+        }
+    }, new ModuleType(Add.class, 2, "") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Add(s[0], s[1]);
+        }
+    }, new ModuleType(Billow.class, 0, "frequency:d,lacunarity:d,persistence:d,octaveCount:i,seed:i,xPeriod:d3,yPeriod:d3,zPeriod:d3") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Billow();
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            Billow m = (Billow) module;
+            return new Object[] { m.getFrequency(), m.getLacunarity(), m.getPersistence(), m.getOctaveCount(), m.getSeed(), m.getXPeriod(), m.getYPeriod(),
+                    m.getZPeriod() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            Billow m = (Billow) module;
+            m.setFrequency((Double) v[0]);
+            m.setLacunarity((Double) v[1]);
+            m.setPersistence((Double) v[2]);
+            m.setOctaveCount((Integer) v[3]);
+            m.setSeed((Integer) v[4]);
+            m.setPeriod((Double) v[5], (Double) v[6], (Double) v[7]);
+        }
+
+        @Override
+        void build(ModuleBase module) {
+            ((Billow) module).build();
+        }
+
+        @Override
+        void validate(ModuleBase module) {
+            checkOctaveCount("Billow", ((Billow) module).getOctaveCount(), Billow.BILLOW_MAX_OCTAVE);
+        }
+    }, new ModuleType(Blend.class, 3, "") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Blend(s[0], s[1], s[2]);
+        }
+    }, new ModuleType(Cached.class, 1, "") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Cached(s[0]);
+        }
+    }, new ModuleType(Checkerboard.class, 0, "") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Checkerboard();
+        }
+    }, new ModuleType(Clamp.class, 1, "lowerBound:d,upperBound:d") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Clamp(s[0]);
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            Clamp m = (Clamp) module;
+            return new Object[] { m.lowerBound, m.upperBound };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            ((Clamp) module).setBounds((Double) v[0], (Double) v[1]);
+        }
+
+        @Override
+        void validate(ModuleBase module) {
+            Clamp m = (Clamp) module;
+            checkBounds("Clamp", m.lowerBound, m.upperBound);
+        }
+    }, new ModuleType(Const.class, 0, "constValue:d") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Const();
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            return new Object[] { ((Const) module).constValue };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            ((Const) module).setConstValue((Double) v[0]);
+        }
+    }, new ModuleType(Curve.class, 1, "controlPoints:a") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Curve(s[0]);
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            // The control points are stored as (input, output) pairs.
+            Curve m = (Curve) module;
+            double[] points = new double[m.controlPointCount * 2];
+            for (int i = 0; i < m.controlPointCount; i++) {
+                points[i * 2] = m.controlPoints[i].inputValue;
+                points[i * 2 + 1] = m.controlPoints[i].outputValue;
+            }
+            return new Object[] { points };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            Curve m = (Curve) module;
+            double[] points = (double[]) v[0];
+            if (points.length % 2 != 0) {
+                throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: odd number of curve values");
+            }
+            m.clearAllControlPoints();
+            for (int i = 0; i < points.length; i += 2) {
+                m.addControlPoint(points[i], points[i + 1]);
+            }
+        }
+
+        @Override
+        void validate(ModuleBase module) {
+            if (((Curve) module).controlPointCount < 4) {
+                throw new IllegalArgumentException("Invalid Parameter in Curve: at least four control points are required");
+            }
+        }
+    }, new ModuleType(Cylinders.class, 0, "frequency:d") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Cylinders();
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            return new Object[] { ((Cylinders) module).getFrequency() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            ((Cylinders) module).setFrequency((Double) v[0]);
+        }
+    }, new ModuleType(Displace.class, 4, "") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Displace(s[0], s[1], s[2], s[3]);
+        }
+    }, new ModuleType(Exponent.class, 1, "exponent:d") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Exponent(s[0]);
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            return new Object[] { ((Exponent) module).getExponent() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            ((Exponent) module).setExponent((Double) v[0]);
+        }
+    }, new ModuleType(Invert.class, 1, "") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Invert(s[0]);
+        }
+    }, new ModuleType(Max.class, 2, "") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Max(s[0], s[1]);
+        }
+    }, new ModuleType(Min.class, 2, "") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Min(s[0], s[1]);
+        }
+    }, new ModuleType(Multiply.class, 2, "") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Multiply(s[0], s[1]);
+        }
+    }, new ModuleType(Perlin.class, 0, "frequency:d,lacunarity:d,persistence:d,octaveCount:i,seed:i,xPeriod:d2,yPeriod:d2,zPeriod:d2") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Perlin();
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            Perlin m = (Perlin) module;
+            return new Object[] { m.getFrequency(), m.getLacunarity(), m.getPersistence(), m.getOctaveCount(), m.getSeed(), m.getXPeriod(), m.getYPeriod(),
+                    m.getZPeriod() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            Perlin m = (Perlin) module;
+            m.setFrequency((Double) v[0]);
+            m.setLacunarity((Double) v[1]);
+            m.setPersistence((Double) v[2]);
+            m.setOctaveCount((Integer) v[3]);
+            m.setSeed((Integer) v[4]);
+            m.setPeriod((Double) v[5], (Double) v[6], (Double) v[7]);
+        }
+
+        @Override
+        void build(ModuleBase module) {
+            ((Perlin) module).build();
+        }
+
+        @Override
+        void validate(ModuleBase module) {
+            checkOctaveCount("Perlin", ((Perlin) module).getOctaveCount(), Perlin.PERLIN_MAX_OCTAVE);
+        }
+    }, new ModuleType(Power.class, 2, "") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Power(s[0], s[1]);
+        }
+    }, new ModuleType(RidgedMulti.class, 0, "frequency:d,lacunarity:d,octaveCount:i,seed:i,xPeriod:d3,yPeriod:d3,zPeriod:d3") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new RidgedMulti();
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            RidgedMulti m = (RidgedMulti) module;
+            return new Object[] { m.getFrequency(), m.getLacunarity(), m.getOctaveCount(), m.getSeed(), m.getXPeriod(), m.getYPeriod(), m.getZPeriod() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            RidgedMulti m = (RidgedMulti) module;
+            m.setFrequency((Double) v[0]);
+            m.setLacunarity((Double) v[1]);
+            m.setOctaveCount((Integer) v[2]);
+            m.setSeed((Integer) v[3]);
+            m.setPeriod((Double) v[4], (Double) v[5], (Double) v[6]);
+        }
+
+        @Override
+        void build(ModuleBase module) {
+            ((RidgedMulti) module).build();
+        }
+
+        @Override
+        void validate(ModuleBase module) {
+            checkOctaveCount("RidgedMulti", ((RidgedMulti) module).getOctaveCount(), RidgedMulti.RIDGED_MAX_OCTAVE);
+        }
+    }, new ModuleType(RotatePoint.class, 1, "xAngle:d,yAngle:d,zAngle:d") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new RotatePoint(s[0]);
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            RotatePoint m = (RotatePoint) module;
+            return new Object[] { m.getXAngle(), m.getYAngle(), m.getZAngle() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            ((RotatePoint) module).setAngles((Double) v[0], (Double) v[1], (Double) v[2]);
+        }
+    }, new ModuleType(ScaleBias.class, 1, "scale:d,bias:d") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new ScaleBias(s[0]);
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            ScaleBias m = (ScaleBias) module;
+            return new Object[] { m.getScale(), m.getBias() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            ScaleBias m = (ScaleBias) module;
+            m.setScale((Double) v[0]);
+            m.setBias((Double) v[1]);
+        }
+    }, new ModuleType(ScalePoint.class, 1, "xScale:d,yScale:d,zScale:d") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new ScalePoint(s[0]);
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            ScalePoint m = (ScalePoint) module;
+            return new Object[] { m.getXScale(), m.getYScale(), m.getZScale() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            ((ScalePoint) module).setScale((Double) v[0], (Double) v[1], (Double) v[2]);
+        }
+    }, new ModuleType(Select.class, 3, "lowerBound:d,upperBound:d,edgeFalloff:d") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Select(s[0], s[1], s[2]);
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            Select m = (Select) module;
+            return new Object[] { m.getLowerBound(), m.getUpperBound(), m.getEdgeFalloff() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            Select m = (Select) module;
+            m.setBounds((Double) v[0], (Double) v[1]);
+            m.setEdgeFalloff((Double) v[2]);
+        }
+
+        @Override
+        void validate(ModuleBase module) {
+            Select m = (Select) module;
+            checkBounds("Select", m.getLowerBound(), m.getUpperBound());
+        }
+    }, new ModuleType(Simplex.class, 0, "frequency:d,lacunarity:d,persistence:d,octaveCount:i,seed:i,noiseQuality:q,xPeriod:d2,yPeriod:d2,zPeriod:d2") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Simplex();
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            Simplex m = (Simplex) module;
+            return new Object[] { m.getFrequency(), m.getLacunarity(), m.getPersistence(), m.getOctaveCount(), m.getSeed(), m.getNoiseQuality(),
+                    m.getXPeriod(), m.getYPeriod(), m.getZPeriod() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            Simplex m = (Simplex) module;
+            m.setFrequency((Double) v[0]);
+            m.setLacunarity((Double) v[1]);
+            m.setPersistence((Double) v[2]);
+            m.setOctaveCount((Integer) v[3]);
+            m.setSeed((Integer) v[4]);
+            m.setNoiseQuality((NoiseQuality) v[5]);
+            m.setPeriod((Double) v[6], (Double) v[7], (Double) v[8]);
+        }
+
+        @Override
+        void build(ModuleBase module) {
+            ((Simplex) module).build();
+        }
+
+        @Override
+        void validate(ModuleBase module) {
+            checkOctaveCount("Simplex", ((Simplex) module).getOctaveCount(), Simplex.SIMPLEX_MAX_OCTAVE);
+        }
+    }, new ModuleType(SimplexVoronoi.class, 0, "displacement:d,distance:b,frequency:d,seed:i") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new SimplexVoronoi();
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            SimplexVoronoi m = (SimplexVoronoi) module;
+            return new Object[] { m.getDisplacement(), m.IsDistanceEnabled(), m.GetFrequency(), m.getSeed() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            SimplexVoronoi m = (SimplexVoronoi) module;
+            m.setDisplacement((Double) v[0]);
+            m.enableDistance((Boolean) v[1]);
+            m.setFrequency((Double) v[2]);
+            m.setSeed((Integer) v[3]);
+        }
+
+        @Override
+        void build(ModuleBase module) {
+            ((SimplexVoronoi) module).build();
+        }
+    }, new ModuleType(Spheres.class, 0, "frequency:d") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Spheres();
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            return new Object[] { ((Spheres) module).getFrequency() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            ((Spheres) module).setFrequency((Double) v[0]);
+        }
+    }, new ModuleType(Terrace.class, 1, "controlPoints:a,invertTerraces:b") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Terrace(s[0]);
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            Terrace m = (Terrace) module;
+            return new Object[] { Arrays.copyOf(m.getControlPointArray(), m.getControlPointCount()), m.isTerracesInverted() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            Terrace m = (Terrace) module;
+            m.clearAllControlPoints();
+            for (double point : (double[]) v[0]) {
+                m.addControlPoint(point);
+            }
+            m.invertTerraces((Boolean) v[1]);
+        }
+
+        @Override
+        void validate(ModuleBase module) {
+            if (((Terrace) module).getControlPointCount() < 2) {
+                throw new IllegalArgumentException("Invalid Parameter in Terrace: at least two control points are required");
+            }
+        }
+    }, new ModuleType(TranslatePoint.class, 1, "xTranslation:d,yTranslation:d,zTranslation:d") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new TranslatePoint(s[0]);
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            TranslatePoint m = (TranslatePoint) module;
+            return new Object[] { m.getXTranslation(), m.getYTranslation(), m.getZTranslation() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            ((TranslatePoint) module).setTranslation((Double) v[0], (Double) v[1], (Double) v[2]);
+        }
+    }, new ModuleType(Turbulence.class, 1, "frequency:d,power:d,roughness:i,seed:i") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Turbulence(s[0]);
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            Turbulence m = (Turbulence) module;
+            return new Object[] { m.getFrequency(), m.getPower(), m.getRoughness(), m.getSeed() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            Turbulence m = (Turbulence) module;
+            m.setFrequency((Double) v[0]);
+            m.setPower((Double) v[1]);
+            m.setRoughness((Integer) v[2]);
+            m.setSeed((Integer) v[3]);
+        }
+
+        @Override
+        void build(ModuleBase module) {
+            ((Turbulence) module).build();
+        }
+
+        @Override
+        void validate(ModuleBase module) {
+            checkOctaveCount("Turbulence", ((Turbulence) module).getRoughness(), Perlin.PERLIN_MAX_OCTAVE);
+        }
+    }, new ModuleType(Voronoi.class, 0, "displacement:d,distance:b,frequency:d,seed:i,xPeriod:d3,yPeriod:d3,zPeriod:d3") {
+
+        @Override
+        ModuleBase create(ModuleBase[] s) {
+            return new Voronoi();
+        }
+
+        @Override
+        Object[] getParameters(ModuleBase module) {
+            Voronoi m = (Voronoi) module;
+            return new Object[] { m.getDisplacement(), m.IsDistanceEnabled(), m.GetFrequency(), m.getSeed(), m.getXPeriod(), m.getYPeriod(),
+                    m.getZPeriod() };
+        }
+
+        @Override
+        void setParameters(ModuleBase module, Object[] v) {
+            Voronoi m = (Voronoi) module;
+            m.setDisplacement((Double) v[0]);
+            m.enableDistance((Boolean) v[1]);
+            m.setFrequency((Double) v[2]);
+            m.setSeed((Integer) v[3]);
+            m.setPeriod((Double) v[4], (Double) v[5], (Double) v[6]);
+        }
+
+        @Override
+        void build(ModuleBase module) {
+            ((Voronoi) module).build();
+        }
+    } };
+
+    static final Map<String, ModuleType> TYPES_BY_NAME = new HashMap<String, ModuleType>();
+    static final Map<Class<?>, Integer> TYPE_CODES = new HashMap<Class<?>, Integer>();
+
+    static {
+        for (int i = 0; i < TYPES.length; i++) {
+            TYPES_BY_NAME.put(TYPES[i].name, TYPES[i]);
+            TYPE_CODES.put(TYPES[i].moduleClass, i);
+        }
+    }
+
+    private ModuleGraphCodec() {
+    }
+
+    /**
+     * Returns the fingerprint of a graph.
+     *
+     * @param root The noise module at the root of the graph.
+     *
+     * @return The fingerprint of the graph.
+     *
+     * @throws IllegalArgumentException The graph cannot be described; see
+     *             the toBinary() method.
+     */
+    public static long fingerprint(ModuleBase root) throws IllegalArgumentException {
+        if (root instanceof FrozenGraph) {
+            return ((FrozenGraph) root).getFingerprint();
+        }
+
+        // Hash the nodes without the header, so that a new version of the
+        // format keeps the fingerprints of graphs it describes the same way.
+        byte[] data = describe(root, false);
+        long hash = FNV_OFFSET_BASIS;
+        for (byte b : data) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Determines if a graph contains a generator whose seed is zero.
+     * <p>
+     * Such a generator chooses a new random seed whenever it is built, so
+     * every copy of the graph produces different values.
+     *
+     * @param root The noise module at the root of the graph.
+     *
+     * @return true if a seed parameter of a noise module is zero.
+     *
+     * @throws IllegalArgumentException The graph cannot be described; see
+     *             the toBinary() method.
+     */
+    public static boolean hasRandomSeed(ModuleBase root) throws IllegalArgumentException {
+        List<ModuleBase> nodes = new ArrayList<ModuleBase>();
+        collect(root, nodes);
+
+        for (ModuleBase module : nodes) {
+            ModuleType type = TYPES[TYPE_CODES.get(module.getClass())];
+            Object[] values = type.getParameters(module);
+            for (int i = 0; i < values.length; i++) {
+                if (type.parameterNames[i].equals("seed") && (Integer) values[i] == 0) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the binary description of a graph.
+     *
+     * @param root The noise module at the root of the graph.
+     *
+     * @return The binary description.
+     *
+     * @pre Every noise module in the graph is a class of this package.
+     * @pre Every source module is connected.
+     * @pre The graph has no cycles.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public static byte[] toBinary(ModuleBase root) throws IllegalArgumentException {
+        return describe(root, true);
+    }
+
+    /**
+     * Returns the binary description of a graph, with or without the magic
+     * bytes and the version.
+     */
+    static byte[] describe(ModuleBase root, boolean isHeaderWritten) throws IllegalArgumentException {
+        List<ModuleBase> nodes = new ArrayList<ModuleBase>();
+        IdentityHashMap<ModuleBase, Integer> ids = collect(root, nodes);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + nodes.size() * 32);
+        DataOutputStream out = new DataOutputStream(bytes);
+        try {
+            if (isHeaderWritten) {
+                out.writeInt(BINARY_MAGIC);
+                writeVarInt(out, VERSION);
+            }
+            writeVarInt(out, nodes.size());
+            writeVarInt(out, nodes.size() - 1);
+
+            for (ModuleBase module : nodes) {
+                int code = TYPE_CODES.get(module.getClass());
+                ModuleType type = TYPES[code];
+                writeVarInt(out, code);
+                for (int i = 0; i < type.sourceCount; i++) {
+                    writeVarInt(out, ids.get(unwrap(module.sourceModules[i])));
+                }
+
+                Object[] values = type.getParameters(module);
+                for (int i = 0; i < values.length; i++) {
+                    switch (type.parameterKinds[i]) {
+                    case 'd':
+                        out.writeDouble((Double) values[i]);
+                        break;
+                    case 'i':
+                        out.writeInt((Integer) values[i]);
+                        break;
+                    case 'b':
+                        out.writeBoolean((Boolean) values[i]);
+                        break;
+                    case 'q':
+                        out.writeByte(((NoiseQuality) values[i]).ordinal());
+                        break;
+                    default:
+                        double[] array = (double[]) values[i];
+                        writeVarInt(out, array.length);
+                        for (double value : array) {
+                            out.writeDouble(value);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // A ByteArrayOutputStream does not throw.
+            throw new IllegalStateException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Loads a graph from its binary description.
+     *
+     * @param data The binary description.
+     *
+     * @return The noise module at the root of the graph, built and ready to
+     *         use.
+     *
+     * @throws IllegalArgumentException The description is invalid.
+     */
+    public static ModuleBase fromBinary(byte[] data) throws IllegalArgumentException {
+        ByteBuffer in = ByteBuffer.wrap(data);
+        try {
+            if (in.getInt() != BINARY_MAGIC) {
+                throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: not a binary graph description");
+            }
+            int version = readVarInt(in);
+            if (version < 1 || version > VERSION) {
+                throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: unsupported graph description");
+            }
+
+            int count = readVarInt(in);
+            int root = readVarInt(in);
+            if (count < 1 || root < 0 || root >= count || count > data.length) {
+                throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: bad node count");
+            }
+
+            ModuleBase[] nodes = new ModuleBase[count];
+            for (int n = 0; n < count; n++) {
+                int code = readVarInt(in);
+                if (code < 0 || code >= TYPES.length) {
+                    throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: unknown type code " + code);
+                }
+                ModuleType type = TYPES[code];
+
+                ModuleBase[] sources = new ModuleBase[type.sourceCount];
+                for (int i = 0; i < sources.length; i++) {
+                    sources[i] = getSource(nodes, n, readVarInt(in));
+                }
+
+                // Parameters added after the version of the description keep
+                // their default values.
+                Object[] values = new Object[type.parameterKinds.length];
+                for (int i = 0; i < values.length; i++) {
+                    if (type.parameterVersions[i] > version) {
+                        continue;
+                    }
+                    switch (type.parameterKinds[i]) {
+                    case 'd':
+                        values[i] = in.getDouble();
+                        break;
+                    case 'i':
+                        values[i] = in.getInt();
+                        break;
+                    case 'b':
+                        values[i] = in.get() != 0;
+                        break;
+                    case 'q':
+                        values[i] = toNoiseQuality(in.get());
+                        break;
+                    default:
+                        int length = readVarInt(in);
+                        if (length < 0 || length > in.remaining() / 8) {
+                            throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: bad array length");
+                        }
+                        double[] array = new double[length];
+                        for (int j = 0; j < length; j++) {
+                            array[j] = in.getDouble();
+                        }
+                        values[i] = array;
+                    }
+                }
+
+                nodes[n] = createModule(type, sources, values);
+            }
+            return nodes[root];
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: truncated description");
+        }
+    }
+
+    /**
+     * Returns the JSON description of a graph.
+     *
+     * @param root The noise module at the root of the graph.
+     *
+     * @return The JSON description.
+     *
+     * @pre Every noise module in the graph is a class of this package.
+     * @pre Every source module is connected.
+     * @pre The graph has no cycles.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public static String toJson(ModuleBase root) throws IllegalArgumentException {
+        List<ModuleBase> nodes = new ArrayList<ModuleBase>();
+        IdentityHashMap<ModuleBase, Integer> ids = collect(root, nodes);
+
+        StringBuilder out = new StringBuilder(64 + nodes.size() * 96);
+        out.append("{\"format\":\"").append(FORMAT_NAME).append("\",\"version\":").append(VERSION);
+        out.append(",\"root\":").append(nodes.size() - 1).append(",\"nodes\":[");
+
+        for (int n = 0; n < nodes.size(); n++) {
+            ModuleBase module = nodes.get(n);
+            ModuleType type = TYPES[TYPE_CODES.get(module.getClass())];
+            out.append(n == 0 ? "\n{" : ",\n{").append("\"type\":\"").append(type.name).append('"');
+
+            if (type.sourceCount > 0) {
+                out.append(",\"sources\":[");
+                for (int i = 0; i < type.sourceCount; i++) {
+                    out.append(i == 0 ? "" : ",").append(ids.get(unwrap(module.sourceModules[i])));
+                }
+                out.append(']');
+            }
+
+            Object[] values = type.getParameters(module);
+            for (int i = 0; i < values.length; i++) {
+                out.append(",\"").append(type.parameterNames[i]).append("\":");
+                if (values[i] instanceof Double) {
+                    appendDouble(out, (Double) values[i]);
+                } else if (values[i] instanceof double[]) {
+                    double[] array = (double[]) values[i];
+                    out.append('[');
+                    for (int j = 0; j < array.length; j++) {
+                        if (j > 0) {
+                            out.append(',');
+                        }
+                        appendDouble(out, array[j]);
+                    }
+                    out.append(']');
+                } else if (values[i] instanceof NoiseQuality) {
+                    out.append('"').append(((NoiseQuality) values[i]).name()).append('"');
+                } else {
+                    out.append(values[i]);
+                }
+            }
+            out.append('}');
+        }
+        out.append("]}");
+        return out.toString();
+    }
+
+    /**
+     * Loads a graph from its JSON description.
+     *
+     * @param json The JSON description.
+     *
+     * @return The noise module at the root of the graph, built and ready to
+     *         use.
+     *
+     * @throws IllegalArgumentException The description is invalid.
+     */
+    public static ModuleBase fromJson(CharSequence json) throws IllegalArgumentException {
+        Object document = new JsonParser(json).parseDocument();
+        if (!(document instanceof Map) || !FORMAT_NAME.equals(((Map<?, ?>) document).get("format"))) {
+            throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: not a graph description");
+        }
+
+        Map<?, ?> graph = (Map<?, ?>) document;
+        int version = toInt(graph.get("version"), "version");
+        if (version < 1 || version > VERSION || !(graph.get("nodes") instanceof List)) {
+            throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: unsupported graph description");
+        }
+
+        List<?> nodeList = (List<?>) graph.get("nodes");
+        ModuleBase[] nodes = new ModuleBase[nodeList.size()];
+        for (int n = 0; n < nodes.length; n++) {
+            if (!(nodeList.get(n) instanceof Map)) {
+                throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: node " + n + " is not an object");
+            }
+            Map<?, ?> node = (Map<?, ?>) nodeList.get(n);
+
+            ModuleType type = TYPES_BY_NAME.get(node.get("type"));
+            if (type == null) {
+                throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: unknown type " + node.get("type"));
+            }
+
+            Object sourceList = node.get("sources");
+            List<?> sourceIds = (sourceList instanceof List) ? (List<?>) sourceList : new ArrayList<Object>();
+            if (sourceIds.size() != type.sourceCount) {
+                throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: " + type.name + " needs " + type.sourceCount
+                        + " sources");
+            }
+            ModuleBase[] sources = new ModuleBase[type.sourceCount];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = getSource(nodes, n, toInt(sourceIds.get(i), "sources"));
+            }
+
+            // Missing parameters keep their default values.
+            Object[] values = new Object[type.parameterKinds.length];
+            for (int i = 0; i < values.length; i++) {
+                Object value = node.get(type.parameterNames[i]);
+                if (value != null) {
+                    values[i] = toParameter(value, type.parameterKinds[i], type.parameterNames[i]);
+                }
+            }
+
+            nodes[n] = createModule(type, sources, values);
+        }
+
+        int root = toInt(graph.get("root"), "root");
+        if (root < 0 || root >= nodes.length) {
+            throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: bad root index");
+        }
+        return nodes[root];
+    }
+
+    /**
+     * Collects the noise modules of a graph, each source module before the
+     * noise modules that use it and the root last.
+     * <p>
+     * A frozen graph is collected as the copy of the graph it contains, and
+     * profiling noise modules are skipped.
+     *
+     * @return The index of each noise module in the list.
+     */
+    static IdentityHashMap<ModuleBase, Integer> collect(ModuleBase root, List<ModuleBase> nodes) throws IllegalArgumentException {
+        return collect(root, nodes, new IdentityHashMap<ModuleBase, Integer>());
+    }
+
+    /**
+     * Adds the noise modules of a graph that are not collected yet.
+     * <p>
+     * Collecting several graphs into the same list and map gives every noise
+     * module shared by the graphs a single index.
+     *
+     * @return The map of indices, which is also updated.
+     */
+    static IdentityHashMap<ModuleBase, Integer> collect(ModuleBase root, List<ModuleBase> nodes, IdentityHashMap<ModuleBase, Integer> ids)
+            throws IllegalArgumentException {
+        if (root == null) {
+            throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec");
+        }
+
+        root = unwrap(root);
+        if (ids.containsKey(root)) {
+            return ids;
+        }
+
+        IdentityHashMap<ModuleBase, Boolean> visiting = new IdentityHashMap<ModuleBase, Boolean>();
+
+        // An explicit stack keeps long chains of noise modules from
+        // overflowing the call stack.
+        List<ModuleBase> stack = new ArrayList<ModuleBase>();
+        List<Integer> nextSource = new ArrayList<Integer>();
+        stack.add(root);
+        nextSource.add(0);
+        visiting.put(root, Boolean.TRUE);
+
+        while (!stack.isEmpty()) {
+            int top = stack.size() - 1;
+            ModuleBase module = stack.get(top);
+            int index = nextSource.get(top);
+
+            if (index == 0 && !TYPE_CODES.containsKey(module.getClass())) {
+                throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: cannot describe " + module.getClass().getName());
+            }
+
+            if (index < module.getSourceModuleCount()) {
+                nextSource.set(top, index + 1);
+                ModuleBase source = (module.sourceModules != null) ? unwrap(module.sourceModules[index]) : null;
+                if (source == null) {
+                    throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: source module " + index + " of "
+                            + module.getClass().getSimpleName() + " is not connected");
+                }
+                if (visiting.containsKey(source)) {
+                    throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: the graph has a cycle");
+                }
+                if (!ids.containsKey(source)) {
+                    stack.add(source);
+                    nextSource.add(0);
+                    visiting.put(source, Boolean.TRUE);
+                }
+            } else {
+                stack.remove(top);
+                nextSource.remove(top);
+                visiting.remove(module);
+                ids.put(module, nodes.size());
+                nodes.add(module);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Replaces the copies of noise modules while a graph is copied.
+     */
+    public interface Substitution {
+
+        /**
+         * Returns the noise module that takes the place of a copy.
+         * <p>
+         * This method is called once for every noise module of the graph,
+         * each source module before the noise modules that use it.
+         *
+         * @param original The noise module of the original graph.
+         * @param copy The copy of the noise module, connected to the
+         *            substitutes of its source modules.
+         *
+         * @return The noise module that the copies of the noise modules that
+         *         use the original are connected to, usually the copy itself.
+         */
+        ModuleBase substitute(ModuleBase original, ModuleBase copy);
+    }
+
+    /**
+     * Copies a graph.
+     * <p>
+     * The copies are made from the descriptions of the noise modules, so a
+     * generator whose seed is zero chooses a new random seed in the copy.
+     *
+     * @param root The root of the graph.
+     * @param substitution The substitution applied to every copy, or null.
+     *
+     * @return The substitute of the copy of the root.
+     *
+     * @throws IllegalArgumentException The graph is not complete, has a cycle
+     *             or contains a noise module that cannot be described.
+     */
+    public static ModuleBase copy(ModuleBase root, Substitution substitution) throws IllegalArgumentException {
+        List<ModuleBase> nodes = new ArrayList<ModuleBase>();
+        IdentityHashMap<ModuleBase, Integer> ids = collect(root, nodes);
+
+        ModuleBase[] copies = new ModuleBase[nodes.size()];
+        for (int n = 0; n < copies.length; n++) {
+            ModuleBase module = nodes.get(n);
+            ModuleType type = TYPES[TYPE_CODES.get(module.getClass())];
+            ModuleBase[] sources = new ModuleBase[type.sourceCount];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = copies[ids.get(unwrap(module.sourceModules[i]))];
+            }
+
+            ModuleBase copy = createModule(type, sources, type.getParameters(module));
+            copies[n] = (substitution != null) ? substitution.substitute(module, copy) : copy;
+        }
+        return copies[copies.length - 1];
+    }
+
+    /**
+     * Copies several graphs so that they can be evaluated together.
+     * <p>
+     * A noise module shared by the graphs, or by several noise modules within
+     * one graph, is copied once and placed behind a Cached noise module. If
+     * every returned root is evaluated at the same input value, one after the
+     * other, each shared noise module computes its output value only once.
+     * <p>
+     * The copies are made from the descriptions of the noise modules, so a
+     * generator whose seed is zero chooses a new random seed in the copy. The
+     * copies are not thread-safe.
+     *
+     * @param roots The roots of the graphs.
+     *
+     * @return The roots of the copies, in the same order.
+     *
+     * @throws IllegalArgumentException A graph is not complete, has a cycle or
+     *             contains a noise module that cannot be described.
+     */
+    public static ModuleBase[] copySharing(ModuleBase[] roots) throws IllegalArgumentException {
+        List<ModuleBase> nodes = new ArrayList<ModuleBase>();
+        IdentityHashMap<ModuleBase, Integer> ids = new IdentityHashMap<ModuleBase, Integer>();
+        for (ModuleBase root : roots) {
+            collect(root, nodes, ids);
+        }
+
+        // Count the uses of every noise module, a root counting as one use.
+        int[] useCounts = new int[nodes.size()];
+        for (ModuleBase root : roots) {
+            useCounts[ids.get(unwrap(root))]++;
+        }
+        for (ModuleBase module : nodes) {
+            for (int i = 0; i < module.getSourceModuleCount(); i++) {
+                useCounts[ids.get(unwrap(module.sourceModules[i]))]++;
+            }
+        }
+
+        ModuleBase[] copies = new ModuleBase[nodes.size()];
+        for (int n = 0; n < copies.length; n++) {
+            ModuleBase module = nodes.get(n);
+            ModuleType type = TYPES[TYPE_CODES.get(module.getClass())];
+            ModuleBase[] sources = new ModuleBase[type.sourceCount];
+            for (int i = 0; i < sources.length; i++) {
+                sources[i] = copies[ids.get(unwrap(module.sourceModules[i]))];
+            }
+
+            ModuleBase copy = createModule(type, sources, type.getParameters(module));
+            if (useCounts[n] > 1 && !(copy instanceof Cached) && !(copy instanceof Const)) {
+                copy = new Cached(copy);
+            }
+            copies[n] = copy;
+        }
+
+        ModuleBase[] result = new ModuleBase[roots.length];
+        for (int i = 0; i < roots.length; i++) {
+            result[i] = copies[ids.get(unwrap(roots[i]))];
+        }
+        return result;
+    }
+
+    /**
+     * Returns the graph inside a frozen graph, the noise module behind a
+     * profiling noise module, or the given noise module.
+     */
+    static ModuleBase unwrap(ModuleBase module) {
+        while (module instanceof ProfiledModule) {
+            module = module.sourceModules[0];
+        }
+        return (module instanceof FrozenGraph) ? ((FrozenGraph) module).root : module;
+    }
+
+    /**
+     * Creates a noise module, sets its parameters and builds it.
+     *
+     * @param values The parameters; null values keep their defaults.
+     */
+    static ModuleBase createModule(ModuleType type, ModuleBase[] sources, Object[] values) throws IllegalArgumentException {
+        ModuleBase module = type.create(sources);
+        if (values.length > 0) {
+            Object[] defaults = type.getParameters(module);
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null) {
+                    values[i] = defaults[i];
+                }
+            }
+            type.setParameters(module, values);
+        }
+        type.build(module);
+        return module;
+    }
+
+    static ModuleBase getSource(ModuleBase[] nodes, int node, int source) throws IllegalArgumentException {
+        // Sources come before the noise modules that use them, which also
+        // rules out cycles.
+        if (source < 0 || source >= node) {
+            throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: node " + node + " has bad source " + source);
+        }
+        return nodes[source];
+    }
+
+    static void checkOctaveCount(String typeName, int octaveCount, int maxOctaveCount) throws IllegalArgumentException {
+        if (octaveCount < 1 || octaveCount > maxOctaveCount) {
+            throw new IllegalArgumentException("Invalid Parameter in " + typeName + ": octave count " + octaveCount + " is out of range");
+        }
+    }
+
+    static void checkBounds(String typeName, double lowerBound, double upperBound) throws IllegalArgumentException {
+        if (!(lowerBound < upperBound)) {
+            throw new IllegalArgumentException("Invalid Parameter in " + typeName + ": the lower bound is not less than the upper bound");
+        }
+    }
+
+    static Object toParameter(Object value, char kind, String name) throws IllegalArgumentException {
+        switch (kind) {
+        case 'd':
+            return toDouble(value, name);
+        case 'i':
+            return toInt(value, name);
+        case 'b':
+            if (!(value instanceof Boolean)) {
+                throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: " + name + " must be a boolean");
+            }
+            return value;
+        case 'q':
+            try {
+                return NoiseQuality.valueOf(String.valueOf(value));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: bad noise quality " + value);
+            }
+        default:
+            if (!(value instanceof List)) {
+                throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: " + name + " must be an array");
+            }
+            List<?> list = (List<?>) value;
+            double[] array = new double[list.size()];
+            for (int i = 0; i < array.length; i++) {
+                array[i] = toDouble(list.get(i), name);
+            }
+            return array;
+        }
+    }
+
+    static double toDouble(Object value, String name) throws IllegalArgumentException {
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if ("NaN".equals(value) || "Infinity".equals(value) || "-Infinity".equals(value)) {
+            return Double.parseDouble((String) value);
+        }
+        throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: " + name + " must be a number");
+    }
+
+    static int toInt(Object value, String name) throws IllegalArgumentException {
+        if (value instanceof Long && (Long) value == ((Long) value).intValue()) {
+            return ((Long) value).intValue();
+        }
+        throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: " + name + " must be an integer");
+    }
+
+    static NoiseQuality toNoiseQuality(int ordinal) throws IllegalArgumentException {
+        NoiseQuality[] qualities = NoiseQuality.values();
+        if (ordinal < 0 || ordinal >= qualities.length) {
+            throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: bad noise quality " + ordinal);
+        }
+        return qualities[ordinal];
+    }
+
+    static void appendDouble(StringBuilder out, double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            // JSON has no literal for these values.
+            out.append('"').append(value).append('"');
+        } else {
+            out.append(value);
+        }
+    }
+
+    static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    static int readVarInt(ByteBuffer in) throws IllegalArgumentException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.get();
+            value |= (b & 0x7f) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: bad variable-length integer");
+    }
+
+    /**
+     * Parses the subset of JSON used by graph descriptions.
+     * <p>
+     * Objects become maps, arrays become lists, integers become Long values
+     * and other numbers become Double values.
+     */
+    static class JsonParser {
+
+        final CharSequence text;
+        int pos;
+
+        JsonParser(CharSequence text) {
+            this.text = text;
+            this.pos = 0;
+        }
+
+        Object parseDocument() throws IllegalArgumentException {
+            Object value = parseValue();
+            skipWhitespace();
+            if (this.pos != this.text.length()) {
+                throw error("unexpected text after the document");
+            }
+            return value;
+        }
+
+        Object parseValue() throws IllegalArgumentException {
+            skipWhitespace();
+            if (this.pos >= this.text.length()) {
+                throw error("unexpected end of text");
+            }
+
+            char c = this.text.charAt(this.pos);
+            if (c == '{') {
+                this.pos++;
+                Map<String, Object> map = new LinkedHashMap<String, Object>();
+                if (consume('}')) {
+                    return map;
+                }
+                do {
+                    skipWhitespace();
+                    if (this.pos >= this.text.length() || this.text.charAt(this.pos) != '"') {
+                        throw error("expected a member name");
+                    }
+                    String name = parseString();
+                    expect(':');
+                    map.put(name, parseValue());
+                } while (consume(','));
+                expect('}');
+                return map;
+            } else if (c == '[') {
+                this.pos++;
+                List<Object> list = new ArrayList<Object>();
+                if (consume(']')) {
+                    return list;
+                }
+                do {
+                    list.add(parseValue());
+                } while (consume(','));
+                expect(']');
+                return list;
+            } else if (c == '"') {
+                return parseString();
+            } else if (startsWith("true")) {
+                return Boolean.TRUE;
+            } else if (startsWith("false")) {
+                return Boolean.FALSE;
+            } else if (startsWith("null")) {
+                return null;
+            } else {
+                return parseNumber();
+            }
+        }
+
+        Object parseNumber() throws IllegalArgumentException {
+            int start = this.pos;
+            boolean isInteger = true;
+            while (this.pos < this.text.length()) {
+                char c = this.text.charAt(this.pos);
+                if (c == '.' || c == 'e' || c == 'E') {
+                    isInteger = false;
+                } else if (!(c == '-' || c == '+' || (c >= '0' && c <= '9'))) {
+                    break;
+                }
+                this.pos++;
+            }
+
+            String token = this.text.subSequence(start, this.pos).toString();
+            try {
+                return isInteger ? (Object) Long.valueOf(token) : (Object) Double.valueOf(token);
+            } catch (NumberFormatException e) {
+                this.pos = start;
+                throw error("bad value");
+            }
+        }
+
+        String parseString() throws IllegalArgumentException {
+            this.pos++;
+
+            // Most strings have no escapes.
+            int start = this.pos;
+            while (this.pos < this.text.length()) {
+                char c = this.text.charAt(this.pos);
+                if (c == '"') {
+                    this.pos++;
+                    return this.text.subSequence(start, this.pos - 1).toString();
+                } else if (c == '\\') {
+                    break;
+                }
+                this.pos++;
+            }
+
+            StringBuilder out = new StringBuilder(this.text.subSequence(start, this.pos));
+            while (this.pos < this.text.length()) {
+                char c = this.text.charAt(this.pos++);
+                if (c == '"') {
+                    return out.toString();
+                } else if (c != '\\') {
+                    out.append(c);
+                } else if (this.pos < this.text.length()) {
+                    char e = this.text.charAt(this.pos++);
+                    switch (e) {
+                    case 'b':
+                        out.append('\b');
+                        break;
+                    case 'f':
+                        out.append('\f');
+                        break;
+                    case 'n':
+                        out.append('\n');
+                        break;
+                    case 'r':
+                        out.append('\r');
+                        break;
+                    case 't':
+                        out.append('\t');
+                        break;
+                    case 'u':
+                        if (this.pos + 4 > this.text.length()) {
+                            throw error("bad escape");
+                        }
+                        try {
+                            out.append((char) Integer.parseInt(this.text.subSequence(this.pos, this.pos + 4).toString(), 16));
+                        } catch (NumberFormatException ex) {
+                            throw error("bad escape");
+                        }
+                        this.pos += 4;
+                        break;
+                    default:
+                        out.append(e);
+                    }
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        boolean startsWith(String word) {
+            int end = this.pos + word.length();
+            if (end > this.text.length()) {
+                return false;
+            }
+            for (int i = 0; i < word.length(); i++) {
+                if (this.text.charAt(this.pos + i) != word.charAt(i)) {
+                    return false;
+                }
+            }
+            this.pos = end;
+            return true;
+        }
+
+        boolean consume(char c) {
+            skipWhitespace();
+            if (this.pos < this.text.length() && this.text.charAt(this.pos) == c) {
+                this.pos++;
+                return true;
+            }
+            return false;
+        }
+
+        void expect(char c) throws IllegalArgumentException {
+            if (!consume(c)) {
+                throw error("expected '" + c + "'");
+            }
+        }
+
+        void skipWhitespace() {
+            while (this.pos < this.text.length() && Character.isWhitespace(this.text.charAt(this.pos))) {
+                this.pos++;
+            }
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid Parameter in ModuleGraphCodec: " + message + " at offset " + this.pos);
+        }
+    }
+}
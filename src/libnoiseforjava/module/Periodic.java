@@ -0,0 +1,65 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.module;
+
+/**
+ * A noise module whose output can repeat along each axis.
+ * <p>
+ * A periodic noise module wraps its lattice, so a periodic texture costs the
+ * same as any other. Its output at (x + xPeriod, y, z) equals its output at
+ * (x, y, z), and likewise for the other axes. The noise module adjusts the
+ * frequency of each octave slightly, per axis, so that every octave repeats
+ * after a whole number of lattice cells.
+ */
+public interface Periodic {
+
+    /**
+     * Sets the periods of the output.
+     * <p>
+     * The new periods take effect when build() is called.
+     *
+     * @param xPeriod The period along the x axis, in input units, or 0 if
+     *            the output does not repeat along that axis.
+     * @param yPeriod The period along the y axis, or 0.
+     * @param zPeriod The period along the z axis, or 0.
+     *
+     * @throws IllegalArgumentException A period is negative or not finite.
+     */
+    void setPeriod(double xPeriod, double yPeriod, double zPeriod) throws IllegalArgumentException;
+
+    double getXPeriod();
+
+    double getYPeriod();
+
+    double getZPeriod();
+
+    /**
+     * Builds the noise module after its parameters are changed.
+     */
+    void build();
+}
@@ -29,6 +29,7 @@ package libnoiseforjava.module;
 
 import java.util.Random;
 
+import libnoiseforjava.Misc;
 import libnoiseforjava.PerlinBasis;
 
 /**
@@ -149,7 +150,7 @@ import libnoiseforjava.PerlinBasis;
  * @see <a
  *      href="http://libnoise.sourceforge.net/docs/classnoise_1_1module_1_1Perlin.html">noise::module:Perlin</a>
  */
-public class Perlin extends ModuleBase {
+public class Perlin extends ModuleBase implements Periodic {
 
     /**
      * Default frequency for the noise::module::Perlin noise module.
@@ -206,9 +207,23 @@ public class Perlin extends ModuleBase {
      */
     int seed;
 
+    /**
+     * Periods of the output along each axis, or 0 if the output does not
+     * repeat along that axis.
+     */
+    double xPeriod;
+    double yPeriod;
+    double zPeriod;
+
     private PerlinBasis[] source;
     double[] frequencies;
     double[] amplitudes;
+    private double[] xFrequencies;
+    private double[] yFrequencies;
+    private double[] zFrequencies;
+    private int[] xLatticePeriods;
+    private int[] yLatticePeriods;
+    private int[] zLatticePeriods;
 
     public Perlin() {
         super(0);
@@ -238,6 +253,22 @@ public class Perlin extends ModuleBase {
             this.frequencies[i] = this.frequency * Math.pow(this.lacunarity, i);
             this.amplitudes[i] = Math.pow(this.persistence, i);
         }
+
+        if (this.xPeriod > 0.0 || this.yPeriod > 0.0 || this.zPeriod > 0.0) {
+            this.xLatticePeriods = Misc.getLatticePeriods(this.xPeriod, this.frequencies, 1);
+            this.yLatticePeriods = Misc.getLatticePeriods(this.yPeriod, this.frequencies, 1);
+            this.zLatticePeriods = Misc.getLatticePeriods(this.zPeriod, this.frequencies, 1);
+            this.xFrequencies = Misc.getPeriodicFrequencies(this.xPeriod, this.frequencies, this.xLatticePeriods);
+            this.yFrequencies = Misc.getPeriodicFrequencies(this.yPeriod, this.frequencies, this.yLatticePeriods);
+            this.zFrequencies = Misc.getPeriodicFrequencies(this.zPeriod, this.frequencies, this.zLatticePeriods);
+        } else {
+            this.xLatticePeriods = null;
+            this.yLatticePeriods = null;
+            this.zLatticePeriods = null;
+            this.xFrequencies = null;
+            this.yFrequencies = null;
+            this.zFrequencies = null;
+        }
     }
 
     @Override
@@ -245,6 +276,15 @@ public class Perlin extends ModuleBase {
         double value = 0;
         double signal = 0;
 
+        if (this.xLatticePeriods != null) {
+            for (int i = 0; i < this.source.length; i++) {
+                signal = this.source[i].getValue(x * this.xFrequencies[i], y * this.yFrequencies[i], z * this.zFrequencies[i], this.xLatticePeriods[i],
+                        this.yLatticePeriods[i], this.zLatticePeriods[i]);
+                value += signal * this.amplitudes[i];
+            }
+            return value;
+        }
+
         for (int i = 0; i < this.source.length; i++) {
             signal = this.source[i].getValue(x * this.frequencies[i], y * this.frequencies[i], z * this.frequencies[i]);
             value += signal * this.amplitudes[i];
@@ -253,6 +293,47 @@ public class Perlin extends ModuleBase {
         return value;
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        // Each octave adds its amplitude times the bounds of the basis over
+        // the box, which are tight for the octaves whose lattice cells are
+        // larger than the box.
+        double[] signal = new double[2];
+        double lower = 0.0;
+        double upper = 0.0;
+        for (int i = 0; i < this.source.length; i++) {
+            if (this.xLatticePeriods != null) {
+                getOctaveBounds(i, lowerX, upperX, lowerY, upperY, lowerZ, upperZ, this.xFrequencies[i], this.yFrequencies[i], this.zFrequencies[i],
+                        this.xLatticePeriods[i], this.yLatticePeriods[i], this.zLatticePeriods[i], signal);
+            } else {
+                getOctaveBounds(i, lowerX, upperX, lowerY, upperY, lowerZ, upperZ, this.frequencies[i], this.frequencies[i], this.frequencies[i], 0, 0, 0,
+                        signal);
+            }
+
+            double amplitude = this.amplitudes[i];
+            lower += Math.min(signal[0] * amplitude, signal[1] * amplitude);
+            upper += Math.max(signal[0] * amplitude, signal[1] * amplitude);
+        }
+
+        setRange(range, lower, upper);
+    }
+
+    /**
+     * Stores the bounds of the basis of one octave over a box at index 0 and
+     * 1 of the range.
+     */
+    private void getOctaveBounds(int octave, double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double xFrequency,
+            double yFrequency, double zFrequency, int xLatticePeriod, int yLatticePeriod, int zLatticePeriod, double[] range) {
+        double x0 = lowerX * xFrequency;
+        double x1 = upperX * xFrequency;
+        double y0 = lowerY * yFrequency;
+        double y1 = upperY * yFrequency;
+        double z0 = lowerZ * zFrequency;
+        double z1 = upperZ * zFrequency;
+        this.source[octave].getBounds(Math.min(x0, x1), Math.max(x0, x1), Math.min(y0, y1), Math.max(y0, y1), Math.min(z0, z1), Math.max(z0, z1),
+                xLatticePeriod, yLatticePeriod, zLatticePeriod, range);
+    }
+
     /**
      * Returns the frequency of the first octave.
      *
@@ -307,6 +388,21 @@ public class Perlin extends ModuleBase {
         return this.seed;
     }
 
+    @Override
+    public double getXPeriod() {
+        return this.xPeriod;
+    }
+
+    @Override
+    public double getYPeriod() {
+        return this.yPeriod;
+    }
+
+    @Override
+    public double getZPeriod() {
+        return this.zPeriod;
+    }
+
     /**
      * Sets the frequency of the first octave.
      *
@@ -380,4 +476,34 @@ public class Perlin extends ModuleBase {
         this.seed = seed;
     }
 
+    /**
+     * Sets the periods of the Perlin noise.
+     * 
+     * <p>
+     * The frequency of each octave is adjusted slightly, per axis, so that the
+     * octave repeats after a whole number of lattice cells. A period
+     * of 0 turns off repetition along that axis.
+     * 
+     * <p>
+     * A periodic Perlin noise module costs about the same to evaluate as a
+     * regular one, so it is the cheapest way to create a seamless texture.
+     *
+     * @param xPeriod The period along the x axis, or 0.
+     * @param yPeriod The period along the y axis, or 0.
+     * @param zPeriod The period along the z axis, or 0.
+     *
+     * @throws IllegalArgumentException A period is negative or not finite.
+     */
+    @Override
+    public void setPeriod(double xPeriod, double yPeriod, double zPeriod) throws IllegalArgumentException {
+        if (!(xPeriod >= 0.0 && yPeriod >= 0.0 && zPeriod >= 0.0) || Double.isInfinite(xPeriod) || Double.isInfinite(yPeriod)
+                || Double.isInfinite(zPeriod)) {
+            throw new IllegalArgumentException("Invalid Parameter in Perlin");
+        }
+
+        this.xPeriod = xPeriod;
+        this.yPeriod = yPeriod;
+        this.zPeriod = zPeriod;
+    }
+
 }
@@ -61,4 +61,21 @@ public class Power extends ModuleBase {
 
         return Math.pow(this.sourceModules[0].getValue(x, y, z), this.sourceModules[1].getValue(x, y, z));
     }
+
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        double[] range1 = new double[2];
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+        this.sourceModules[1].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range1);
+
+        // A negative base makes the power undefined or oscillating. For a
+        // non-negative base, the logarithm of the power is the product of the
+        // exponent and the logarithm of the base, whose extremes lie at the
+        // corners of the two ranges.
+        if (range[0] < 0.0) {
+            setUnbounded(range);
+            return;
+        }
+        setRange(range, Math.pow(range[0], range1[0]), Math.pow(range[0], range1[1]), Math.pow(range[1], range1[0]), Math.pow(range[1], range1[1]));
+    }
 }
@@ -0,0 +1,92 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.module;
+
+/**
+ * Noise module that records the statistics of its source module for a
+ * GraphProfiler.
+ * 
+ * <p>
+ * This noise module requires one source module.
+ */
+final class ProfiledModule extends ModuleBase {
+
+    final GraphProfiler profiler;
+
+    final GraphProfiler.NodeProfile profile;
+
+    ProfiledModule(ModuleBase sourceModule, GraphProfiler profiler, GraphProfiler.NodeProfile profile) throws IllegalArgumentException {
+        super(1);
+        setSourceModule(0, sourceModule);
+        this.profiler = profiler;
+        this.profile = profile;
+    }
+
+    @Override
+    public double getValue(double x, double y, double z) {
+        assert (this.sourceModules[0] != null);
+
+        this.profile.invocations.increment();
+        GraphProfiler.Frame frame = this.profiler.frames.get();
+
+        // A call is timed if a call further up the graph is being timed, or
+        // if it is the next sampled call of this thread.
+        boolean isSampleRoot = false;
+        if (!frame.isTiming) {
+            if (--frame.countdown > 0) {
+                return this.sourceModules[0].getValue(x, y, z);
+            }
+            frame.countdown = this.profiler.sampleInterval;
+            frame.isTiming = true;
+            isSampleRoot = true;
+        }
+
+        long parentChildNanos = frame.childNanos;
+        frame.childNanos = 0;
+        long start = System.nanoTime();
+        double value;
+        try {
+            value = this.sourceModules[0].getValue(x, y, z);
+        } finally {
+            if (isSampleRoot) {
+                frame.isTiming = false;
+            }
+        }
+        long inclusiveNanos = System.nanoTime() - start;
+        long exclusiveNanos = inclusiveNanos - frame.childNanos;
+        frame.childNanos = parentChildNanos + inclusiveNanos;
+
+        this.profile.recordSample(inclusiveNanos, exclusiveNanos, value);
+        return value;
+    }
+
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+    }
+}
@@ -29,6 +29,7 @@ package libnoiseforjava.module;
 
 import java.util.Random;
 
+import libnoiseforjava.Misc;
 import libnoiseforjava.NoiseGen;
 import libnoiseforjava.NoiseQuality;
 import libnoiseforjava.PerlinBasis;
@@ -118,7 +119,7 @@ import libnoiseforjava.PerlinBasis;
  * @see <a
  *      href="http://libnoise.sourceforge.net/docs/classnoise_1_1module_1_1RidgedMulti.html">noise::module:RidgedMulti</a>
  */
-public class RidgedMulti extends ModuleBase {
+public class RidgedMulti extends ModuleBase implements Periodic {
 
     /**
      * Default frequency for the noise::module::RidgedMulti noise module.
@@ -177,9 +178,22 @@ public class RidgedMulti extends ModuleBase {
      */
     int seed;
 
+    /**
+     * Periods of the output along each axis, or 0 if the output does not
+     * repeat along that axis.
+     */
+    double xPeriod;
+    double yPeriod;
+    double zPeriod;
     private PerlinBasis[] source;
     double[] frequencies;
     double[] amplitudes;
+    private double[] xFrequencies;
+    private double[] yFrequencies;
+    private double[] zFrequencies;
+    private int[] xLatticePeriods;
+    private int[] yLatticePeriods;
+    private int[] zLatticePeriods;
 
     public RidgedMulti() {
         super(0);
@@ -201,9 +215,7 @@ public class RidgedMulti extends ModuleBase {
             this.source[i] = new PerlinBasis();
 
             if (this.seed != 0) {
-
-                this.seed = rnd.nextInt();
-                this.source[i].setSeed(this.seed + i);
+                this.source[i].setSeed(rnd.nextInt() + i);
             } else {
                 this.source[i].setSeed(this.seed);
             }
@@ -213,12 +225,36 @@ public class RidgedMulti extends ModuleBase {
             this.spectralWeights[i] = Math.pow(frequency1, -h);
             frequency1 *= this.lacunarity;
         }
+
+        if (this.xPeriod > 0.0 || this.yPeriod > 0.0 || this.zPeriod > 0.0) {
+            double[] octaveFrequencies = new double[this.octaveCount];
+            for (int i = 0; i < this.octaveCount; i++) {
+                octaveFrequencies[i] = this.frequency * this.frequencies[i];
+            }
+            this.xLatticePeriods = Misc.getLatticePeriods(this.xPeriod, octaveFrequencies, 1);
+            this.yLatticePeriods = Misc.getLatticePeriods(this.yPeriod, octaveFrequencies, 1);
+            this.zLatticePeriods = Misc.getLatticePeriods(this.zPeriod, octaveFrequencies, 1);
+            this.xFrequencies = Misc.getPeriodicFrequencies(this.xPeriod, octaveFrequencies, this.xLatticePeriods);
+            this.yFrequencies = Misc.getPeriodicFrequencies(this.yPeriod, octaveFrequencies, this.yLatticePeriods);
+            this.zFrequencies = Misc.getPeriodicFrequencies(this.zPeriod, octaveFrequencies, this.zLatticePeriods);
+        } else {
+            this.xLatticePeriods = null;
+            this.yLatticePeriods = null;
+            this.zLatticePeriods = null;
+            this.xFrequencies = null;
+            this.yFrequencies = null;
+            this.zFrequencies = null;
+        }
     }
 
     // Multifractal code originally written by F. Kenton "Doc Mojo" Musgrave,
     // 1998. Modified by jas for use with libnoise.
     @Override
     public double getValue(double x, double y, double z) {
+        double xOriginal = x;
+        double yOriginal = y;
+        double zOriginal = z;
+
         x *= this.frequency;
         y *= this.frequency;
         z *= this.frequency;
@@ -233,13 +269,20 @@ public class RidgedMulti extends ModuleBase {
         double gain = 2.0;
 
         for (int curOctave = 0; curOctave < this.octaveCount; curOctave++) {
-            double nx, ny, nz;
+            if (this.xLatticePeriods != null) {
+                // The lattice wraps, so the input needs no range reduction.
+                signal = this.source[curOctave].getValue(xOriginal * this.xFrequencies[curOctave], yOriginal * this.yFrequencies[curOctave],
+                        zOriginal * this.zFrequencies[curOctave], this.xLatticePeriods[curOctave], this.yLatticePeriods[curOctave],
+                        this.zLatticePeriods[curOctave]);
+            } else {
+                double nx, ny, nz;
 
-            nx = NoiseGen.MakeInt32Range(x);
-            ny = NoiseGen.MakeInt32Range(y);
-            nz = NoiseGen.MakeInt32Range(z);
+                nx = NoiseGen.MakeInt32Range(x);
+                ny = NoiseGen.MakeInt32Range(y);
+                nz = NoiseGen.MakeInt32Range(z);
 
-            signal = this.source[curOctave].getValue(nx, ny, nz);
+                signal = this.source[curOctave].getValue(nx, ny, nz);
+            }
             // signal = source[curOctave].getValue(x, y, z);
             // int curSeed = (seed + curOctave) & 0x7fffffff;
             // signal = NoiseGen.GradientCoherentNoise3D(nx, ny, nz, curSeed,
@@ -278,6 +321,21 @@ public class RidgedMulti extends ModuleBase {
         return (value * 1.25) - 1.0;
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        // Each weighted octave signal lies between 0.0 and 1.0: the ridge is
+        // at most the offset of 1.0 and at least 1.0 - bound, it is squared,
+        // and the weight lies between 0.0 and 1.0.
+        double lower = 0.0;
+        double upper = 0.0;
+        for (int i = 0; i < this.octaveCount; i++) {
+            lower += Math.min(this.spectralWeights[i], 0.0);
+            upper += Math.max(this.spectralWeights[i], 0.0);
+        }
+
+        setRange(range, (lower * 1.25) - 1.0, (upper * 1.25) - 1.0);
+    }
+
     public double getFrequency() {
         return this.frequency;
     }
@@ -318,6 +376,21 @@ public class RidgedMulti extends ModuleBase {
         return this.seed;
     }
 
+    @Override
+    public double getXPeriod() {
+        return this.xPeriod;
+    }
+
+    @Override
+    public double getYPeriod() {
+        return this.yPeriod;
+    }
+
+    @Override
+    public double getZPeriod() {
+        return this.zPeriod;
+    }
+
     /**
      * Sets the frequency of the first octave.
      *
@@ -383,4 +456,30 @@ public class RidgedMulti extends ModuleBase {
         this.spectralWeights = spectralWeights;
     }
 
+    /**
+     * Sets the periods of the ridged-multifractal noise.
+     * 
+     * <p>
+     * The frequency of each octave is adjusted slightly, per axis, so that the
+     * octave repeats after a whole number of lattice cells. A period of 0
+     * turns off repetition along that axis.
+     *
+     * @param xPeriod The period along the x axis, or 0.
+     * @param yPeriod The period along the y axis, or 0.
+     * @param zPeriod The period along the z axis, or 0.
+     *
+     * @throws IllegalArgumentException A period is negative or not finite.
+     */
+    @Override
+    public void setPeriod(double xPeriod, double yPeriod, double zPeriod) throws IllegalArgumentException {
+        if (!(xPeriod >= 0.0 && yPeriod >= 0.0 && zPeriod >= 0.0) || Double.isInfinite(xPeriod) || Double.isInfinite(yPeriod)
+                || Double.isInfinite(zPeriod)) {
+            throw new IllegalArgumentException("Invalid Parameter in RidgedMulti");
+        }
+
+        this.xPeriod = xPeriod;
+        this.yPeriod = yPeriod;
+        this.zPeriod = zPeriod;
+    }
+
 }
@@ -27,6 +27,8 @@
 
 package libnoiseforjava.module;
 
+import java.util.IdentityHashMap;
+
 /**
  * Noise module that rotates the input value around the origin before returning
  * the output value from a source module.
@@ -153,6 +155,42 @@ public class RotatePoint extends ModuleBase {
         return this.sourceModules[0].getValue(nx, ny, nz);
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        double[] box = getSourceBox(lowerX, upperX, lowerY, upperY, lowerZ, upperZ);
+        this.sourceModules[0].getBounds(box[0], box[1], box[2], box[3], box[4], box[5], range);
+    }
+
+    @Override
+    protected ModuleBase createRegionModule(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ,
+            IdentityHashMap<ModuleBase, ModuleBase> regionModules) {
+        double[] box = getSourceBox(lowerX, upperX, lowerY, upperY, lowerZ, upperZ);
+        return copyWithSources(new ModuleBase[] { this.sourceModules[0].getRegionModule(box[0], box[1], box[2], box[3], box[4], box[5]) });
+    }
+
+    /**
+     * Returns the box, as lower x, upper x, lower y, upper y, lower z and
+     * upper z, in which the source module is sampled for a box of input
+     * values.
+     */
+    double[] getSourceBox(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ) {
+        // Each rotated coordinate is a sum of scaled input coordinates, so
+        // its extremes come from the extremes of each term.
+        double nxLower = (Math.min(this.x1Matrix * lowerX, this.x1Matrix * upperX) + Math.min(this.y1Matrix * lowerY, this.y1Matrix * upperY))
+                + Math.min(this.z1Matrix * lowerZ, this.z1Matrix * upperZ);
+        double nxUpper = (Math.max(this.x1Matrix * lowerX, this.x1Matrix * upperX) + Math.max(this.y1Matrix * lowerY, this.y1Matrix * upperY))
+                + Math.max(this.z1Matrix * lowerZ, this.z1Matrix * upperZ);
+        double nyLower = (Math.min(this.x2Matrix * lowerX, this.x2Matrix * upperX) + Math.min(this.y2Matrix * lowerY, this.y2Matrix * upperY))
+                + Math.min(this.z2Matrix * lowerZ, this.z2Matrix * upperZ);
+        double nyUpper = (Math.max(this.x2Matrix * lowerX, this.x2Matrix * upperX) + Math.max(this.y2Matrix * lowerY, this.y2Matrix * upperY))
+                + Math.max(this.z2Matrix * lowerZ, this.z2Matrix * upperZ);
+        double nzLower = (Math.min(this.x3Matrix * lowerX, this.x3Matrix * upperX) + Math.min(this.y3Matrix * lowerY, this.y3Matrix * upperY))
+                + Math.min(this.z3Matrix * lowerZ, this.z3Matrix * upperZ);
+        double nzUpper = (Math.max(this.x3Matrix * lowerX, this.x3Matrix * upperX) + Math.max(this.y3Matrix * lowerY, this.y3Matrix * upperY))
+                + Math.max(this.z3Matrix * lowerZ, this.z3Matrix * upperZ);
+        return new double[] { nxLower, nxUpper, nyLower, nyUpper, nzLower, nzUpper };
+    }
+
     public void setAngles(double xAngle, double yAngle, double zAngle) {
         double xCos, yCos, zCos, xSin, ySin, zSin;
         xCos = Math.cos(Math.toRadians(xAngle));
@@ -80,6 +80,18 @@ public class ScaleBias extends ModuleBase {
         return this.sourceModules[0].getValue(x, y, z) * this.scale + this.bias;
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        if (this.scale == 0.0) {
+            range[0] = this.bias;
+            range[1] = this.bias;
+            return;
+        }
+
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+        setRange(range, range[0] * this.scale + this.bias, range[1] * this.scale + this.bias);
+    }
+
     /**
      * Returns the bias to apply to the scaled output value from the source
      * module.
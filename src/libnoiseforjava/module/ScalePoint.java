@@ -27,6 +27,8 @@
 
 package libnoiseforjava.module;
 
+import java.util.IdentityHashMap;
+
 /**
  * Noise module that scales the coordinates of the input value before returning
  * the output value from a source module.
@@ -103,6 +105,34 @@ public class ScalePoint extends ModuleBase {
         return this.sourceModules[0].getValue(x * this.xScale, y * this.yScale, z * this.zScale);
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        double[] box = getSourceBox(lowerX, upperX, lowerY, upperY, lowerZ, upperZ);
+        this.sourceModules[0].getBounds(box[0], box[1], box[2], box[3], box[4], box[5], range);
+    }
+
+    @Override
+    protected ModuleBase createRegionModule(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ,
+            IdentityHashMap<ModuleBase, ModuleBase> regionModules) {
+        double[] box = getSourceBox(lowerX, upperX, lowerY, upperY, lowerZ, upperZ);
+        return copyWithSources(new ModuleBase[] { this.sourceModules[0].getRegionModule(box[0], box[1], box[2], box[3], box[4], box[5]) });
+    }
+
+    /**
+     * Returns the box, as lower x, upper x, lower y, upper y, lower z and
+     * upper z, in which the source module is sampled for a box of input
+     * values.
+     */
+    double[] getSourceBox(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ) {
+        double x0 = lowerX * this.xScale;
+        double x1 = upperX * this.xScale;
+        double y0 = lowerY * this.yScale;
+        double y1 = upperY * this.yScale;
+        double z0 = lowerZ * this.zScale;
+        double z1 = upperZ * this.zScale;
+        return new double[] { Math.min(x0, x1), Math.max(x0, x1), Math.min(y0, y1), Math.max(y0, y1), Math.min(z0, z1), Math.max(z0, z1) };
+    }
+
     /**
      * Returns the scaling factor applied to the @a x coordinate of the input
      * value.
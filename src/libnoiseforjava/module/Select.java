@@ -27,6 +27,8 @@
 
 package libnoiseforjava.module;
 
+import java.util.IdentityHashMap;
+
 import libnoiseforjava.Interp;
 
 /**
@@ -85,6 +87,13 @@ public class Select extends ModuleBase {
      */
     static final double DEFAULT_SELECT_UPPER_BOUND = 1.0;
 
+    /**
+     * Flags returned by getSelectedParts() for the first and the second
+     * source module.
+     */
+    static final int FIRST_SOURCE = 1;
+    static final int SECOND_SOURCE = 2;
+
     /**
      * Edge-falloff value.
      */
@@ -138,7 +147,7 @@ public class Select extends ModuleBase {
                 double lowerCurve = (this.lowerBound - this.edgeFalloff);
                 double upperCurve = (this.lowerBound + this.edgeFalloff);
                 alpha = Interp.SCurve3((controlValue - lowerCurve) / (upperCurve - lowerCurve));
-                return Interp.lerp(this.sourceModules[0].getValue(x, y, z), this.sourceModules[2].getValue(x, y, z), alpha);
+                return Interp.lerp(this.sourceModules[0].getValue(x, y, z), this.sourceModules[1].getValue(x, y, z), alpha);
             } else if (controlValue < (this.upperBound - this.edgeFalloff)) {
                 /*
                  * The output value from the control module is within the
@@ -174,6 +183,73 @@ public class Select extends ModuleBase {
         }
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        double[] control = new double[2];
+        this.sourceModules[2].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, control);
+        int parts = getSelectedParts(control);
+
+        if ((parts & (FIRST_SOURCE | SECOND_SOURCE)) == 0) {
+            // The control bounds are not numbers.
+            setUnbounded(range);
+            return;
+        }
+
+        double lower = Double.POSITIVE_INFINITY;
+        double upper = Double.NEGATIVE_INFINITY;
+        if ((parts & FIRST_SOURCE) != 0) {
+            this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+            lower = range[0];
+            upper = range[1];
+        }
+        if ((parts & SECOND_SOURCE) != 0) {
+            this.sourceModules[1].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+            lower = Math.min(lower, range[0]);
+            upper = Math.max(upper, range[1]);
+        }
+        setRange(range, lower, upper);
+    }
+
+    @Override
+    protected ModuleBase createRegionModule(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ,
+            IdentityHashMap<ModuleBase, ModuleBase> regionModules) {
+        double[] control = new double[2];
+        this.sourceModules[2].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, control);
+        int parts = getSelectedParts(control);
+
+        // Inside a single branch, getValue() returns the output value of that
+        // source module unchanged.
+        if (parts == FIRST_SOURCE) {
+            return this.sourceModules[0].getRegionModule(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, regionModules);
+        } else if (parts == SECOND_SOURCE) {
+            return this.sourceModules[1].getRegionModule(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, regionModules);
+        }
+        return super.createRegionModule(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, regionModules);
+    }
+
+    /**
+     * Returns the source modules that a range of control values selects, as a
+     * combination of FIRST_SOURCE and SECOND_SOURCE. In the falloff bands,
+     * getValue() blends both source modules, and a blend lies between its two
+     * values.
+     */
+    int getSelectedParts(double[] control) {
+        boolean usesFirst, usesSecond;
+        if (this.edgeFalloff > 0.0) {
+            double lowerCurve0 = this.lowerBound - this.edgeFalloff;
+            double upperCurve0 = this.lowerBound + this.edgeFalloff;
+            double lowerCurve1 = this.upperBound - this.edgeFalloff;
+            double upperCurve1 = this.upperBound + this.edgeFalloff;
+            usesSecond = control[0] < upperCurve1 && control[1] >= lowerCurve0;
+            usesFirst = control[0] < upperCurve0 || control[1] >= lowerCurve1;
+        } else {
+            usesSecond = control[1] >= this.lowerBound && control[0] <= this.upperBound;
+            usesFirst = control[0] < this.lowerBound || control[1] > this.upperBound;
+        }
+
+        return (usesFirst ? FIRST_SOURCE : 0) | (usesSecond ? SECOND_SOURCE : 0);
+    }
+
     /**
      * Sets the lower and upper bounds of the selection range.
      *
@@ -228,7 +304,7 @@ public class Select extends ModuleBase {
     public void setEdgeFalloff(double edgeFalloff) {
         // Make sure that the edge falloff curves do not overlap.
         double boundSize = this.upperBound - this.lowerBound;
-        edgeFalloff = (edgeFalloff > boundSize / 2) ? boundSize / 2 : edgeFalloff;
+        this.edgeFalloff = (edgeFalloff > boundSize / 2) ? boundSize / 2 : edgeFalloff;
     }
 
     /**
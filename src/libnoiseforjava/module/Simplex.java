@@ -29,6 +29,7 @@ package libnoiseforjava.module;
 
 import java.util.Random;
 
+import libnoiseforjava.Misc;
 import libnoiseforjava.NoiseQuality;
 import libnoiseforjava.SimplexBasis;
 
@@ -144,7 +145,7 @@ import libnoiseforjava.SimplexBasis;
  * coherent-noise function called <i>gradient noise</i>. This version of the
  * Simplex module uses gradient coherent noise to generate Simplex noise.
  */
-public class Simplex extends ModuleBase {
+public class Simplex extends ModuleBase implements Periodic {
 
     // Default frequency for the noise::module::Simplex noise module.
     static final double DEFAULT_SIMPLEX_FREQUENCY = 1.0;
@@ -185,9 +186,21 @@ public class Simplex extends ModuleBase {
     // Seed value used by the Simplex-noise function.
     int seed;
 
+    // Periods of the output along each axis, or 0 if the output does not
+    // repeat along that axis.
+    double xPeriod;
+    double yPeriod;
+    double zPeriod;
+
     private SimplexBasis[] source;
     double[] frequencies;
     double[] amplitudes;
+    private double[] xFrequencies;
+    private double[] yFrequencies;
+    private double[] zFrequencies;
+    private int[] xLatticePeriods;
+    private int[] yLatticePeriods;
+    private int[] zLatticePeriods;
 
     public Simplex() {
         super(0);
@@ -218,6 +231,22 @@ public class Simplex extends ModuleBase {
             this.frequencies[i] = this.frequency * Math.pow(this.lacunarity, i);
             this.amplitudes[i] = Math.pow(this.persistence, i);
         }
+
+        if (this.xPeriod > 0.0 || this.yPeriod > 0.0 || this.zPeriod > 0.0) {
+            this.xLatticePeriods = Misc.getLatticePeriods(this.xPeriod, this.frequencies, 3);
+            this.yLatticePeriods = Misc.getLatticePeriods(this.yPeriod, this.frequencies, 3);
+            this.zLatticePeriods = Misc.getLatticePeriods(this.zPeriod, this.frequencies, 3);
+            this.xFrequencies = Misc.getPeriodicFrequencies(this.xPeriod, this.frequencies, this.xLatticePeriods);
+            this.yFrequencies = Misc.getPeriodicFrequencies(this.yPeriod, this.frequencies, this.yLatticePeriods);
+            this.zFrequencies = Misc.getPeriodicFrequencies(this.zPeriod, this.frequencies, this.zLatticePeriods);
+        } else {
+            this.xLatticePeriods = null;
+            this.yLatticePeriods = null;
+            this.zLatticePeriods = null;
+            this.xFrequencies = null;
+            this.yFrequencies = null;
+            this.zFrequencies = null;
+        }
     }
 
     @Override
@@ -225,6 +254,15 @@ public class Simplex extends ModuleBase {
         double value = 0;
         double signal = 0;
 
+        if (this.xLatticePeriods != null) {
+            for (int i = 0; i < this.source.length; i++) {
+                signal = this.source[i].getValue(x * this.xFrequencies[i], y * this.yFrequencies[i], z * this.zFrequencies[i], this.xLatticePeriods[i],
+                        this.yLatticePeriods[i], this.zLatticePeriods[i]);
+                value += signal * this.amplitudes[i];
+            }
+            return value;
+        }
+
         for (int i = 0; i < this.source.length; i++) {
             signal = this.source[i].getValue(x * this.frequencies[i], y * this.frequencies[i], z * this.frequencies[i]);
             value += signal * this.amplitudes[i];
@@ -233,6 +271,19 @@ public class Simplex extends ModuleBase {
         return value;
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        // Each octave adds at most its amplitude times the bound of the basis.
+        double bound = 0.0;
+        for (int i = 0; i < this.source.length; i++) {
+            bound += Math.abs(this.amplitudes[i]);
+        }
+        bound *= SimplexBasis.BOUND_3D;
+
+        range[0] = -bound;
+        range[1] = bound;
+    }
+
     /**
      * Returns the frequency of the first octave.
      *
@@ -298,6 +349,21 @@ public class Simplex extends ModuleBase {
         return this.seed;
     }
 
+    @Override
+    public double getXPeriod() {
+        return this.xPeriod;
+    }
+
+    @Override
+    public double getYPeriod() {
+        return this.yPeriod;
+    }
+
+    @Override
+    public double getZPeriod() {
+        return this.zPeriod;
+    }
+
     /**
      * Sets the frequency of the first octave.
      *
@@ -381,4 +447,35 @@ public class Simplex extends ModuleBase {
     public void setSeed(int seed) {
         this.seed = seed;
     }
+
+    /**
+     * Sets the periods of the Simplex noise.
+     * 
+     * <p>
+     * The frequency of each octave is adjusted slightly, per axis, so that the
+     * octave repeats after a whole number of (a multiple of three) lattice cells. A period
+     * of 0 turns off repetition along that axis.
+     * 
+     * <p>
+     * A periodic Simplex noise module costs about the same to evaluate as a
+     * regular one, so it is the cheapest way to create a seamless texture.
+     *
+     * @param xPeriod The period along the x axis, or 0.
+     * @param yPeriod The period along the y axis, or 0.
+     * @param zPeriod The period along the z axis, or 0.
+     *
+     * @throws IllegalArgumentException A period is negative or not finite.
+     */
+    @Override
+    public void setPeriod(double xPeriod, double yPeriod, double zPeriod) throws IllegalArgumentException {
+        if (!(xPeriod >= 0.0 && yPeriod >= 0.0 && zPeriod >= 0.0) || Double.isInfinite(xPeriod) || Double.isInfinite(yPeriod)
+                || Double.isInfinite(zPeriod)) {
+            throw new IllegalArgumentException("Invalid Parameter in Simplex");
+        }
+
+        this.xPeriod = xPeriod;
+        this.yPeriod = yPeriod;
+        this.zPeriod = zPeriod;
+    }
+
 }
@@ -198,6 +198,18 @@ public class SimplexVoronoi extends ModuleBase {
         return Math.abs(value + (this.displacement * this.noisesource[0].getValue((int) (Math.floor(xCandidate)), (int) (Math.floor(yCandidate)), (int) (Math.floor(zCandidate)))));
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        // The seed point of the unit cube that holds the point is at most
+        // 1.0 + bound away from it on each axis.
+        double offset = 1.0 + SimplexBasis.BOUND_3D;
+        double displacement = Math.abs(this.displacement) * SimplexBasis.BOUND_3D;
+        double value = this.enableDistance ? offset * SQRT_3 * SQRT_3 - 1.0 : 0.0;
+
+        range[0] = 0.0;
+        range[1] = value + displacement;
+    }
+
     /**
      * Enables or disables applying the distance from the nearest seed point to
      * the output value
@@ -93,6 +93,66 @@ public class Spheres extends ModuleBase {
         return 1.0 - (nearestDist * 4.0); // Puts it in the -1.0 to +1.0 range.
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        double xNear = getNearestDistance(lowerX * this.frequency, upperX * this.frequency);
+        double yNear = getNearestDistance(lowerY * this.frequency, upperY * this.frequency);
+        double zNear = getNearestDistance(lowerZ * this.frequency, upperZ * this.frequency);
+        double xFar = Math.max(Math.abs(lowerX * this.frequency), Math.abs(upperX * this.frequency));
+        double yFar = Math.max(Math.abs(lowerY * this.frequency), Math.abs(upperY * this.frequency));
+        double zFar = Math.max(Math.abs(lowerZ * this.frequency), Math.abs(upperZ * this.frequency));
+
+        getShellBounds(Math.sqrt(xNear * xNear + yNear * yNear + zNear * zNear), Math.sqrt(xFar * xFar + yFar * yFar + zFar * zFar), range);
+    }
+
+    /**
+     * Returns the smallest distance from zero to the interval between two
+     * coordinates, given in either order.
+     */
+    static double getNearestDistance(double a, double b) {
+        if ((a <= 0.0 && b >= 0.0) || (a >= 0.0 && b <= 0.0)) {
+            return 0.0;
+        }
+        return Math.min(Math.abs(a), Math.abs(b));
+    }
+
+    /**
+     * Returns the range of the output value for distances from the center
+     * between the given distances, in scaled units.
+     */
+    static void getShellBounds(double nearDist, double farDist, double[] range) {
+        if (!(farDist - nearDist < 1.0)) {
+            range[0] = -1.0;
+            range[1] = 1.0;
+            return;
+        }
+
+        double nearValue = getShellValue(nearDist);
+        double farValue = getShellValue(farDist);
+        range[0] = Math.min(nearValue, farValue);
+        range[1] = Math.max(nearValue, farValue);
+
+        // The output reaches +1.0 on each integer distance and -1.0 halfway
+        // between them.
+        if (Math.floor(farDist) > Math.floor(nearDist)) {
+            range[1] = 1.0;
+        }
+        if (Math.floor(farDist - 0.5) > Math.floor(nearDist - 0.5)) {
+            range[0] = -1.0;
+        }
+    }
+
+    /**
+     * Returns the output value at a distance from the center, in scaled
+     * units.
+     */
+    static double getShellValue(double distFromCenter) {
+        double distFromSmallerSphere = distFromCenter - Math.floor(distFromCenter);
+        double distFromLargerSphere = 1.0 - distFromSmallerSphere;
+        double nearestDist = Math.min(distFromSmallerSphere, distFromLargerSphere);
+        return 1.0 - (nearestDist * 4.0);
+    }
+
     /**
      * Returns the frequency of the concentric spheres.
      *
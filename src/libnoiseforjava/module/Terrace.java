@@ -218,6 +218,64 @@ public class Terrace extends ModuleBase {
         return Interp.lerp(value0, value1, alpha);
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+        double sourceLower = range[0];
+        double sourceUpper = range[1];
+        if (Double.isNaN(sourceLower) || Double.isNaN(sourceUpper)) {
+            setUnbounded(range);
+            return;
+        }
+
+        int lastIndex = this.controlPointCount - 1;
+        double lower = Double.POSITIVE_INFINITY;
+        double upper = Double.NEGATIVE_INFINITY;
+
+        // Outside of the control points, the output value is the value of the
+        // nearest control point.
+        if (sourceLower < this.controlPoints[0]) {
+            lower = Math.min(lower, this.controlPoints[0]);
+            upper = Math.max(upper, this.controlPoints[0]);
+        }
+        if (sourceUpper >= this.controlPoints[lastIndex]) {
+            lower = Math.min(lower, this.controlPoints[lastIndex]);
+            upper = Math.max(upper, this.controlPoints[lastIndex]);
+        }
+
+        // Within a terrace, the output value is monotonic, so its extremes lie
+        // at the ends of the part that the source values reach.
+        for (int i = 0; i < lastIndex; i++) {
+            if (sourceUpper < this.controlPoints[i] || sourceLower >= this.controlPoints[i + 1]) {
+                continue;
+            }
+            double value0 = getTerraceValue(i, Math.max(sourceLower, this.controlPoints[i]));
+            double value1 = getTerraceValue(i, Math.min(sourceUpper, this.controlPoints[i + 1]));
+            lower = Math.min(lower, Math.min(value0, value1));
+            upper = Math.max(upper, Math.max(value0, value1));
+        }
+
+        setRange(range, lower, upper);
+    }
+
+    /**
+     * Returns the output value for a source value within the terrace that
+     * starts at the given control point, as computed by getValue().
+     */
+    double getTerraceValue(int index, double sourceModuleValue) {
+        double value0 = this.controlPoints[index];
+        double value1 = this.controlPoints[index + 1];
+        double alpha = (sourceModuleValue - value0) / (value1 - value0);
+        if (this.invertTerraces) {
+            alpha = 1.0 - alpha;
+            double tempValue = value0;
+            value0 = value1;
+            value1 = tempValue;
+        }
+        alpha *= alpha;
+        return Interp.lerp(value0, value1, alpha);
+    }
+
     /**
      * Inserts the control point at the specified position in the internal
      * control point array.
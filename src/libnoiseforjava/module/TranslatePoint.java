@@ -27,6 +27,8 @@
 
 package libnoiseforjava.module;
 
+import java.util.IdentityHashMap;
+
 /**
  * Noise module that moves the coordinates of the input value before returning
  * the output value from a source module.
@@ -93,6 +95,20 @@ public class TranslatePoint extends ModuleBase {
         return this.sourceModules[0].getValue(x + this.xTranslation, y + this.yTranslation, z + this.zTranslation);
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        this.sourceModules[0].getBounds(lowerX + this.xTranslation, upperX + this.xTranslation, lowerY + this.yTranslation, upperY + this.yTranslation,
+                lowerZ + this.zTranslation, upperZ + this.zTranslation, range);
+    }
+
+    @Override
+    protected ModuleBase createRegionModule(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ,
+            IdentityHashMap<ModuleBase, ModuleBase> regionModules) {
+        ModuleBase source = this.sourceModules[0].getRegionModule(lowerX + this.xTranslation, upperX + this.xTranslation, lowerY + this.yTranslation,
+                upperY + this.yTranslation, lowerZ + this.zTranslation, upperZ + this.zTranslation);
+        return copyWithSources(new ModuleBase[] { source });
+    }
+
     /**
      * Returns the translation amount to apply to the x coordinate of the input
      * value.
@@ -27,6 +27,8 @@
 
 package libnoiseforjava.module;
 
+import java.util.IdentityHashMap;
+
 /**
  * Noise module that randomly displaces the input value before returning the
  * output value from a source module.
@@ -222,6 +224,44 @@ public class Turbulence extends ModuleBase {
         return this.sourceModules[0].getValue(xDistort, yDistort, zDistort);
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        double[] box = getSourceBox(lowerX, upperX, lowerY, upperY, lowerZ, upperZ);
+        this.sourceModules[0].getBounds(box[0], box[1], box[2], box[3], box[4], box[5], range);
+    }
+
+    @Override
+    protected ModuleBase createRegionModule(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ,
+            IdentityHashMap<ModuleBase, ModuleBase> regionModules) {
+        double[] box = getSourceBox(lowerX, upperX, lowerY, upperY, lowerZ, upperZ);
+        return copyWithSources(new ModuleBase[] { this.sourceModules[0].getRegionModule(box[0], box[1], box[2], box[3], box[4], box[5]) });
+    }
+
+    /**
+     * Returns the box, as lower x, upper x, lower y, upper y, lower z and
+     * upper z, in which the source module is sampled for a box of input
+     * values: the box moved by the bounds of the distortion.
+     */
+    double[] getSourceBox(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ) {
+        // Each distortion module is sampled at the same offsets as in
+        // getValue().
+        double[] distort = new double[2];
+        double[] box = new double[6];
+        this.xDistortModule.getBounds(lowerX + (12414.0 / 65536.0), upperX + (12414.0 / 65536.0), lowerY + (65124.0 / 65536.0),
+                upperY + (65124.0 / 65536.0), lowerZ + (31337.0 / 65536.0), upperZ + (31337.0 / 65536.0), distort);
+        box[0] = lowerX + Math.min(distort[0] * this.power, distort[1] * this.power);
+        box[1] = upperX + Math.max(distort[0] * this.power, distort[1] * this.power);
+        this.yDistortModule.getBounds(lowerX + (26519.0 / 65536.0), upperX + (26519.0 / 65536.0), lowerY + (18128.0 / 65536.0),
+                upperY + (18128.0 / 65536.0), lowerZ + (60493.0 / 65536.0), upperZ + (60493.0 / 65536.0), distort);
+        box[2] = lowerY + Math.min(distort[0] * this.power, distort[1] * this.power);
+        box[3] = upperY + Math.max(distort[0] * this.power, distort[1] * this.power);
+        this.zDistortModule.getBounds(lowerX + (53820.0 / 65536.0), upperX + (53820.0 / 65536.0), lowerY + (11213.0 / 65536.0),
+                upperY + (11213.0 / 65536.0), lowerZ + (44845.0 / 65536.0), upperZ + (44845.0 / 65536.0), distort);
+        box[4] = lowerZ + Math.min(distort[0] * this.power, distort[1] * this.power);
+        box[5] = upperZ + Math.max(distort[0] * this.power, distort[1] * this.power);
+        return box;
+    }
+
     /**
      * Sets the seed value of the internal noise modules that are used to
      * displace the input values.
@@ -27,6 +27,7 @@
 
 package libnoiseforjava.module;
 
+import libnoiseforjava.Misc;
 import libnoiseforjava.NoiseGen;
 import libnoiseforjava.PerlinBasis;
 
@@ -75,7 +76,7 @@ import libnoiseforjava.PerlinBasis;
  * @see <a
  *      href="http://libnoise.sourceforge.net/docs/classnoise_1_1module_1_1Voronoi.html">noise::module:Voronoi</a>
  */
-public class Voronoi extends ModuleBase {
+public class Voronoi extends ModuleBase implements Periodic {
 
     /**
      * Default displacement to apply to each cell for the Voronoi noise module.
@@ -116,8 +117,29 @@ public class Voronoi extends ModuleBase {
      */
     int seed;
 
+    /**
+     * Periods of the output along each axis, or 0 if the output does not
+     * repeat along that axis.
+     */
+    double xPeriod;
+    double yPeriod;
+    double zPeriod;
+
     PerlinBasis[] noisesource;
 
+    /**
+     * Number of unit cubes in each period, or 0 for an axis that does not
+     * repeat, and the frequency along each axis that fits them into the
+     * period.
+     */
+    private int xCells;
+    private int yCells;
+    private int zCells;
+    private double xFrequency;
+    private double yFrequency;
+    private double zFrequency;
+    private boolean isPeriodic;
+
     public Voronoi() {
         super(0);
         this.displacement = DEFAULT_VORONOI_DISPLACEMENT;
@@ -133,6 +155,26 @@ public class Voronoi extends ModuleBase {
             this.noisesource[i] = new PerlinBasis();
             this.noisesource[i].setSeed(this.seed + i);
         }
+
+        double[] frequencies = { this.frequency };
+        int[] xPeriods = Misc.getLatticePeriods(this.xPeriod, frequencies, 1);
+        int[] yPeriods = Misc.getLatticePeriods(this.yPeriod, frequencies, 1);
+        int[] zPeriods = Misc.getLatticePeriods(this.zPeriod, frequencies, 1);
+        this.xCells = xPeriods[0];
+        this.yCells = yPeriods[0];
+        this.zCells = zPeriods[0];
+        this.xFrequency = Misc.getPeriodicFrequencies(this.xPeriod, frequencies, xPeriods)[0];
+        this.yFrequency = Misc.getPeriodicFrequencies(this.yPeriod, frequencies, yPeriods)[0];
+        this.zFrequency = Misc.getPeriodicFrequencies(this.zPeriod, frequencies, zPeriods)[0];
+        this.isPeriodic = this.xCells > 0 || this.yCells > 0 || this.zCells > 0;
+    }
+
+    /**
+     * Returns a cube coordinate wrapped to the period, or the coordinate
+     * itself if the period is 0.
+     */
+    private static int wrap(int coordinate, int period) {
+        return (period > 0) ? Math.floorMod(coordinate, period) : coordinate;
     }
 
     @Override
@@ -140,9 +182,15 @@ public class Voronoi extends ModuleBase {
         // This method could be more efficient by caching the seed values. Fix
         // later.
 
-        x *= this.frequency;
-        y *= this.frequency;
-        z *= this.frequency;
+        if (this.isPeriodic) {
+            x *= this.xFrequency;
+            y *= this.yFrequency;
+            z *= this.zFrequency;
+        } else {
+            x *= this.frequency;
+            y *= this.frequency;
+            z *= this.frequency;
+        }
 
         int xInt = (x > 0.0 ? (int) x : (int) x - 1);
         int yInt = (y > 0.0 ? (int) y : (int) y - 1);
@@ -162,10 +210,14 @@ public class Voronoi extends ModuleBase {
                 for (int xCur = xInt - 2; xCur <= xInt + 2; xCur++) {
                     // Calculate the position and distance to the seed point
                     // inside of
-                    // this unit cube.
-                    double xPos = xCur + NoiseGen.ValueNoise3D(xCur, yCur, zCur, this.seed);
-                    double yPos = yCur + NoiseGen.ValueNoise3D(xCur, yCur, zCur, this.seed + 1);
-                    double zPos = zCur + NoiseGen.ValueNoise3D(xCur, yCur, zCur, this.seed + 2);
+                    // this unit cube. A periodic cube gets the seed point of
+                    // the cube one period away.
+                    int xHash = wrap(xCur, this.xCells);
+                    int yHash = wrap(yCur, this.yCells);
+                    int zHash = wrap(zCur, this.zCells);
+                    double xPos = xCur + NoiseGen.ValueNoise3D(xHash, yHash, zHash, this.seed);
+                    double yPos = yCur + NoiseGen.ValueNoise3D(xHash, yHash, zHash, this.seed + 1);
+                    double zPos = zCur + NoiseGen.ValueNoise3D(xHash, yHash, zHash, this.seed + 2);
                     double xDist = xPos - x;
                     double yDist = yPos - y;
                     double zDist = zPos - z;
@@ -192,14 +244,34 @@ public class Voronoi extends ModuleBase {
             double zDist = zCandidate - z;
             value = (Math.sqrt(xDist * xDist + yDist * yDist + zDist * zDist)) * SQRT_3 - 1.0;
 
+            if (this.isPeriodic) {
+                return Math.abs(value + (this.displacement * this.noisesource[0].getValue((int) (Math.floor(xCandidate)), (int) (Math.floor(yCandidate)),
+                        (int) (Math.floor(zCandidate)), this.xCells, this.yCells, this.zCells)));
+            }
             return Math.abs(value + (this.displacement * this.noisesource[0].getValue((int) (Math.floor(xCandidate)), (int) (Math.floor(yCandidate)), (int) (Math.floor(zCandidate)))));
         } else {
             value = 0.0;
 
+            if (this.isPeriodic) {
+                return Math.abs(value + (this.displacement * this.noisesource[0].getValue(xCandidate, yCandidate, zCandidate, this.xCells,
+                        this.yCells, this.zCells)));
+            }
             return Math.abs(value + (this.displacement * this.noisesource[0].getValue(xCandidate, yCandidate, zCandidate)));
         }
     }
 
+    @Override
+    public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+        // The seed point of the unit cube that holds the point is at most 2.0
+        // away from it on each axis, so the nearest seed point is at most
+        // 2.0 * sqrt(3) away.
+        double displacement = Math.abs(this.displacement) * PerlinBasis.BOUND;
+        double value = this.enableDistance ? 2.0 * SQRT_3 * SQRT_3 - 1.0 : 0.0;
+
+        range[0] = 0.0;
+        range[1] = value + displacement;
+    }
+
     /**
      * Enables or disables applying the distance from the nearest seed point to
      * the output value.
@@ -315,4 +387,45 @@ public class Voronoi extends ModuleBase {
         this.seed = seed;
     }
 
+    @Override
+    public double getXPeriod() {
+        return this.xPeriod;
+    }
+
+    @Override
+    public double getYPeriod() {
+        return this.yPeriod;
+    }
+
+    @Override
+    public double getZPeriod() {
+        return this.zPeriod;
+    }
+
+    /**
+     * Sets the periods of the Voronoi cells.
+     * 
+     * <p>
+     * The frequency of the seed points is adjusted slightly, per axis, so
+     * that a whole number of unit cubes fits into each period. A period of 0
+     * turns off repetition along that axis.
+     *
+     * @param xPeriod The period along the x axis, or 0.
+     * @param yPeriod The period along the y axis, or 0.
+     * @param zPeriod The period along the z axis, or 0.
+     *
+     * @throws IllegalArgumentException A period is negative or not finite.
+     */
+    @Override
+    public void setPeriod(double xPeriod, double yPeriod, double zPeriod) throws IllegalArgumentException {
+        if (!(xPeriod >= 0.0 && yPeriod >= 0.0 && zPeriod >= 0.0) || Double.isInfinite(xPeriod) || Double.isInfinite(yPeriod)
+                || Double.isInfinite(zPeriod)) {
+            throw new IllegalArgumentException("Invalid Parameter in Voronoi");
+        }
+
+        this.xPeriod = xPeriod;
+        this.yPeriod = yPeriod;
+        this.zPeriod = zPeriod;
+    }
+
 }
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Build metrics that keep running totals.
+ * <p>
+ * The totals can be read at any time, for example by a monitoring system that
+ * polls them. An instance may be shared by any number of builders and
+ * renderers. Every event is also passed on to a second BuildMetrics object, if
+ * one is given, so that the totals can be combined with JfrBuildMetrics.
+ */
+public class BuildCounters implements BuildMetrics {
+
+    /**
+     * The metrics that receive every event after this object, or null.
+     */
+    final BuildMetrics next;
+
+    final AtomicLong builds;
+
+    final AtomicLong samples;
+
+    final AtomicLong evaluationNanos;
+
+    final AtomicLong writeNanos;
+
+    final AtomicLong tiles;
+
+    final AtomicLong tileNanos;
+
+    final AtomicLong maxTileNanos;
+
+    final AtomicLong renders;
+
+    final AtomicLong renderedPixels;
+
+    final AtomicLong renderNanos;
+
+    public BuildCounters() {
+        this(null);
+    }
+
+    /**
+     * @param next The metrics that receive every event after this object, or
+     *            null.
+     */
+    public BuildCounters(BuildMetrics next) {
+        this.next = next;
+        this.builds = new AtomicLong();
+        this.samples = new AtomicLong();
+        this.evaluationNanos = new AtomicLong();
+        this.writeNanos = new AtomicLong();
+        this.tiles = new AtomicLong();
+        this.tileNanos = new AtomicLong();
+        this.maxTileNanos = new AtomicLong();
+        this.renders = new AtomicLong();
+        this.renderedPixels = new AtomicLong();
+        this.renderNanos = new AtomicLong();
+    }
+
+    @Override
+    public void buildStarted(String builder, int width, int height) {
+        if (this.next != null) {
+            this.next.buildStarted(builder, width, height);
+        }
+    }
+
+    @Override
+    public void tileCompleted(String builder, int tileX, int tileY, long sampleCount, long evaluationNanos, long writeNanos) {
+        long nanos = evaluationNanos + writeNanos;
+        this.tiles.incrementAndGet();
+        this.tileNanos.addAndGet(nanos);
+        long max = this.maxTileNanos.get();
+        while (nanos > max && !this.maxTileNanos.compareAndSet(max, nanos)) {
+            max = this.maxTileNanos.get();
+        }
+
+        if (this.next != null) {
+            this.next.tileCompleted(builder, tileX, tileY, sampleCount, evaluationNanos, writeNanos);
+        }
+    }
+
+    @Override
+    public void buildCompleted(String builder, long sampleCount, long evaluationNanos, long writeNanos) {
+        this.builds.incrementAndGet();
+        this.samples.addAndGet(sampleCount);
+        this.evaluationNanos.addAndGet(evaluationNanos);
+        this.writeNanos.addAndGet(writeNanos);
+
+        if (this.next != null) {
+            this.next.buildCompleted(builder, sampleCount, evaluationNanos, writeNanos);
+        }
+    }
+
+    @Override
+    public void renderStarted(String renderer, int width, int height) {
+        if (this.next != null) {
+            this.next.renderStarted(renderer, width, height);
+        }
+    }
+
+    @Override
+    public void renderCompleted(String renderer, int width, int height, long nanos) {
+        this.renders.incrementAndGet();
+        this.renderedPixels.addAndGet((long) width * height);
+        this.renderNanos.addAndGet(nanos);
+
+        if (this.next != null) {
+            this.next.renderCompleted(renderer, width, height, nanos);
+        }
+    }
+
+    /**
+     * Returns the number of noise maps built.
+     */
+    public long getBuildCount() {
+        return this.builds.get();
+    }
+
+    /**
+     * Returns the number of noise-map points built.
+     */
+    public long getSampleCount() {
+        return this.samples.get();
+    }
+
+    /**
+     * Returns the total time spent computing noise-map values, in
+     * nanoseconds.
+     */
+    public long getEvaluationNanos() {
+        return this.evaluationNanos.get();
+    }
+
+    /**
+     * Returns the total time spent writing noise maps, in nanoseconds.
+     */
+    public long getWriteNanos() {
+        return this.writeNanos.get();
+    }
+
+    /**
+     * Returns the number of noise-map points built per second of build time,
+     * including the time spent writing.
+     */
+    public double getSamplesPerSecond() {
+        long nanos = this.evaluationNanos.get() + this.writeNanos.get();
+        return (nanos == 0) ? 0.0 : this.samples.get() * 1.0e9 / nanos;
+    }
+
+    /**
+     * Returns the number of tiles built by buildTiles().
+     */
+    public long getTileCount() {
+        return this.tiles.get();
+    }
+
+    /**
+     * Returns the mean time to build and write a tile, in nanoseconds.
+     */
+    public double getMeanTileNanos() {
+        long count = this.tiles.get();
+        return (count == 0) ? 0.0 : (double) this.tileNanos.get() / count;
+    }
+
+    /**
+     * Returns the longest time to build and write a tile, in nanoseconds.
+     */
+    public long getMaxTileNanos() {
+        return this.maxTileNanos.get();
+    }
+
+    /**
+     * Returns the number of images rendered.
+     */
+    public long getRenderCount() {
+        return this.renders.get();
+    }
+
+    /**
+     * Returns the number of pixels rendered.
+     */
+    public long getRenderedPixelCount() {
+        return this.renderedPixels.get();
+    }
+
+    /**
+     * Returns the total time spent rendering, in nanoseconds.
+     */
+    public long getRenderNanos() {
+        return this.renderNanos.get();
+    }
+
+    /**
+     * Clears every total.
+     */
+    public void reset() {
+        this.builds.set(0);
+        this.samples.set(0);
+        this.evaluationNanos.set(0);
+        this.writeNanos.set(0);
+        this.tiles.set(0);
+        this.tileNanos.set(0);
+        this.maxTileNanos.set(0);
+        this.renders.set(0);
+        this.renderedPixels.set(0);
+        this.renderNanos.set(0);
+    }
+}
@@ -0,0 +1,94 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+/**
+ * Receives timing information from the noise-map builders and the renderers.
+ * <p>
+ * Set an implementation with the setMetrics() method of a builder or
+ * renderer. BuildCounters keeps running totals that can be exported to a
+ * monitoring system, and JfrBuildMetrics records Java Flight Recorder events.
+ * <p>
+ * The methods are called on the thread that calls one of the build methods or
+ * render(). An implementation shared by several builders or renderers must be
+ * thread-safe.
+ */
+public interface BuildMetrics {
+
+    /**
+     * Called when a noise-map builder starts to build a noise map.
+     *
+     * @param builder The simple class name of the builder.
+     * @param width The width of the noise map, in points.
+     * @param height The height of the noise map, in points.
+     */
+    void buildStarted(String builder, int width, int height);
+
+    /**
+     * Called when a noise-map builder has built and written one tile of a
+     * tiled noise map.
+     *
+     * @param builder The simple class name of the builder.
+     * @param tileX The column of the tile.
+     * @param tileY The row of the tile.
+     * @param sampleCount The number of points in the tile.
+     * @param evaluationNanos The time spent computing the values of the tile.
+     * @param writeNanos The time spent writing the tile.
+     */
+    void tileCompleted(String builder, int tileX, int tileY, long sampleCount, long evaluationNanos, long writeNanos);
+
+    /**
+     * Called when a noise-map builder has finished a noise map.
+     *
+     * @param builder The simple class name of the builder.
+     * @param sampleCount The number of points in the noise map.
+     * @param evaluationNanos The time spent computing the values.
+     * @param writeNanos The time spent in the row callback (for example a
+     *            RowWriter) or writing tiles.
+     */
+    void buildCompleted(String builder, long sampleCount, long evaluationNanos, long writeNanos);
+
+    /**
+     * Called when a renderer starts to render an image.
+     *
+     * @param renderer The simple class name of the renderer.
+     * @param width The width of the image, in pixels.
+     * @param height The height of the image, in pixels.
+     */
+    void renderStarted(String renderer, int width, int height);
+
+    /**
+     * Called when a renderer has finished an image.
+     *
+     * @param renderer The simple class name of the renderer.
+     * @param width The width of the image, in pixels.
+     * @param height The height of the image, in pixels.
+     * @param nanos The time spent rendering the image.
+     */
+    void renderCompleted(String renderer, int width, int height, long nanos);
+}
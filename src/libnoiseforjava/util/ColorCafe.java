@@ -74,6 +74,44 @@ public class ColorCafe {
         this.alpha = alpha;
     }
 
+    /**
+     * Creates a color from a packed 32-bit ARGB value.
+     *
+     * @param argb The packed color value, with alpha in the highest byte and
+     *            blue in the lowest byte.
+     *
+     * @return The new color.
+     */
+    public static ColorCafe fromARGB(int argb) {
+        return new ColorCafe((argb >> 16) & 0xff, (argb >> 8) & 0xff, argb & 0xff, (argb >>> 24));
+    }
+
+    /**
+     * Packs the four channels of this color into a 32-bit ARGB value.
+     * <p>
+     * Only the low eight bits of each channel are used.
+     *
+     * @return The packed color value, with alpha in the highest byte and blue
+     *         in the lowest byte.
+     */
+    public int getARGB() {
+        return packARGB(this.red, this.green, this.blue, this.alpha);
+    }
+
+    /**
+     * Packs four 8-bit channel values into a 32-bit ARGB value.
+     *
+     * @param red Value of the red channel.
+     * @param green Value of the green channel.
+     * @param blue Value of the blue channel.
+     * @param alpha Value of the alpha (transparency) channel.
+     *
+     * @return The packed color value.
+     */
+    public static int packARGB(int red, int green, int blue, int alpha) {
+        return ((alpha & 0xff) << 24) | ((red & 0xff) << 16) | ((green & 0xff) << 8) | (blue & 0xff);
+    }
+
     public int getAlpha() {
         return this.alpha;
     }
@@ -61,7 +61,6 @@ public class GradientColor {
 
     GradientPoint[] gradientPoints;
     int gradientPointCount;
-    ColorCafe workingColor;
 
     public GradientColor() {
         this.gradientPoints = new GradientPoint[1];
@@ -165,8 +164,7 @@ public class GradientColor {
          * and exit now.
          */
         if (index0 == index1) {
-            this.workingColor = this.gradientPoints[index1].color;
-            return this.workingColor;
+            return this.gradientPoints[index1].color;
         }
 
         // Compute the alpha value used for linear interpolation.
@@ -177,8 +175,7 @@ public class GradientColor {
         // Now perform the linear interpolation given the alpha value.
         ColorCafe color0 = this.gradientPoints[index0].color;
         ColorCafe color1 = this.gradientPoints[index1].color;
-        this.workingColor = MiscUtilities.linearInterpColor(color0, color1, (float) alpha);
-        return this.workingColor;
+        return MiscUtilities.linearInterpColor(color0, color1, (float) alpha);
     }
 
     /**
@@ -0,0 +1,864 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+
+import libnoiseforjava.Interp;
+
+/**
+ * Turns a noise map into a heightfield triangle mesh with normals.
+ * <p>
+ * Point (x, y) of the noise map becomes the vertex (x * spacing, value *
+ * heightScale, y * spacing), so the noise map lies in the x-z plane of the
+ * mesh and its values raise the mesh along the y axis. The triangles are
+ * wound counter-clockwise when seen from above.
+ * <p>
+ * The normals follow the convention of RendererNormalMap: the normal of a
+ * point is computed from the point and its right and up neighbors, with a
+ * bump height of heightScale / spacing, and the neighbors of the points on
+ * the edges are wrapped, cropped or taken from the apron in the same way. The
+ * (x, y, z) components of the normal that RendererNormalMap encodes are the
+ * (x, z, y) components of the mesh normal.
+ * <p>
+ * <b>Building the mesh</b>
+ * <p>
+ * To build the mesh, perform the following steps:
+ * <ol>
+ * <li>Pass a NoiseMap object to the setSourceNoiseMap() method.
+ * <li>Call the build() method, which lays out the mesh.
+ * <li>Allocate arrays or buffers of at least 3 * getVertexCount() floats for
+ * the positions and the normals and getIndexCount() ints for the indices.
+ * <li>Pass them to one of the write() methods.
+ * </ol>
+ * The positions, normals and indices are written at absolute indices starting
+ * at 0, so the positions of the buffers do not change. Direct buffers can be
+ * handed to a graphics API without a copy.
+ * <p>
+ * <b>Decimation</b>
+ * <p>
+ * With decimation enabled, the mesh is simplified with a quadtree. The cells
+ * of the noise map are grouped into square blocks of at most maxLeafSize
+ * cells, which are split into quarters until the fan of four triangles that
+ * joins the center of a block to its corners stays within maxError of every
+ * point of the block, or until the block is a single cell. Each block with
+ * more than one cell is drawn as a fan around its center that includes every
+ * corner of a smaller neighboring block on its edges, so that the mesh has no
+ * cracks.
+ * <p>
+ * To build the mesh on several threads, pass an Executor to the
+ * setExecutor() method. The rows of the mesh are split into bands, and the
+ * mesh is identical to the mesh built on the calling thread.
+ */
+public class HeightfieldMesher {
+
+    /**
+     * The default largest size of a block of a decimated mesh, in cells.
+     */
+    public static final int DEFAULT_MAX_LEAF_SIZE = 64;
+
+    /**
+     * Flags of a point of a decimated mesh.
+     */
+    static final byte CORNER = 1;
+    static final byte CENTER = 2;
+
+    /**
+     * A pointer to the source noise map.
+     */
+    NoiseMap sourceNoiseMap;
+
+    /**
+     * The distance between neighboring points of the mesh, in units.
+     */
+    double spacing;
+
+    /**
+     * The factor applied to the values of the noise map.
+     */
+    double heightScale;
+
+    /**
+     * A flag specifying whether wrapping is enabled.
+     */
+    boolean isWrapEnabled;
+
+    /**
+     * The number of points around each side of the source noise map that are
+     * only used as neighbors for the normals.
+     */
+    int apron;
+
+    /**
+     * A flag specifying whether the mesh is decimated.
+     */
+    boolean isDecimationEnabled;
+
+    /**
+     * The largest vertical distance between a point of the noise map and a
+     * decimated mesh, in units.
+     */
+    double maxError;
+
+    /**
+     * The largest size of a block of a decimated mesh, in cells.
+     */
+    int maxLeafSize;
+
+    /**
+     * The executor that builds bands of rows in parallel, or null to build
+     * on the calling thread.
+     */
+    Executor executor;
+
+    /**
+     * The number of rows in each band built by the executor, or zero to
+     * choose it from the number of available processors.
+     */
+    int bandHeight;
+
+    /**
+     * The layout of the last build: the noise map, settings and counts that
+     * write() uses.
+     */
+    NoiseMap builtNoiseMap;
+    int builtApron;
+    double builtSpacing;
+    double builtHeightScale;
+    boolean builtWrap;
+    int meshWidth;
+    int meshHeight;
+    int vertexCount;
+    int indexCount;
+
+    /**
+     * The layout of the last decimated build, or null: the flags and vertex
+     * index of each point, the blocks of each row of top-level blocks as
+     * (x, y, size) triples, and the first index of each row of top-level
+     * blocks.
+     */
+    byte[] pointFlags;
+    int[] vertexIndices;
+    int[][] leaves;
+    int[] leafCounts;
+    int[] indexOffsets;
+    int builtLeafSize;
+
+    public HeightfieldMesher() {
+        this.sourceNoiseMap = null;
+        this.spacing = 1.0;
+        this.heightScale = 1.0;
+        this.isWrapEnabled = false;
+        this.apron = 0;
+        this.isDecimationEnabled = false;
+        this.maxError = 0.0;
+        this.maxLeafSize = DEFAULT_MAX_LEAF_SIZE;
+        this.executor = null;
+        this.bandHeight = 0;
+        this.builtNoiseMap = null;
+        this.vertexCount = 0;
+        this.indexCount = 0;
+    }
+
+    /**
+     * Lays out the mesh of the source noise map.
+     * <p>
+     * Without decimation, the mesh has a vertex for every point of the noise
+     * map outside of the apron and two triangles for every cell. With
+     * decimation, this method builds the quadtree, which is used by the next
+     * calls to write().
+     *
+     * @pre setSourceNoiseMap() has been previously called.
+     * @pre The noise map has at least two points along each side, outside of
+     *      the apron.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void build() throws IllegalArgumentException {
+        if (this.sourceNoiseMap == null || this.sourceNoiseMap.getWidth() - 2 * this.apron < 2 || this.sourceNoiseMap.getHeight() - 2 * this.apron < 2) {
+            throw new IllegalArgumentException("Invalid Parameter in HeightfieldMesher");
+        }
+
+        int width = this.sourceNoiseMap.getWidth() - 2 * this.apron;
+        int height = this.sourceNoiseMap.getHeight() - 2 * this.apron;
+        if ((long) width * height * 3 > Integer.MAX_VALUE || (long) (width - 1) * (height - 1) * 6 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid Parameter in HeightfieldMesher");
+        }
+
+        this.builtNoiseMap = this.sourceNoiseMap;
+        this.builtApron = this.apron;
+        this.builtSpacing = this.spacing;
+        this.builtHeightScale = this.heightScale;
+        this.builtWrap = this.isWrapEnabled;
+        this.meshWidth = width;
+        this.meshHeight = height;
+        this.pointFlags = null;
+        this.vertexIndices = null;
+        this.leaves = null;
+        this.leafCounts = null;
+        this.indexOffsets = null;
+
+        if (this.isDecimationEnabled) {
+            buildQuadtree();
+        } else {
+            this.vertexCount = width * height;
+            this.indexCount = (width - 1) * (height - 1) * 6;
+        }
+    }
+
+    /**
+     * Splits the cells into quadtree blocks, then numbers the vertices and
+     * counts the indices of each row of top-level blocks.
+     */
+    void buildQuadtree() {
+        final int width = this.meshWidth;
+        final int height = this.meshHeight;
+        final int leafSize = this.maxLeafSize;
+        final double maxError = this.maxError;
+        int blockRows = (height - 2) / leafSize + 1;
+
+        this.builtLeafSize = leafSize;
+        this.pointFlags = new byte[width * height];
+        this.vertexIndices = new int[width * height];
+        this.leaves = new int[blockRows][];
+        this.leafCounts = new int[blockRows];
+        this.indexOffsets = new int[blockRows + 1];
+
+        // The bands write the flags of the points on their common edges, but
+        // they only ever set the same flag.
+        RowBands.run(this.executor, blockRows, 0, new RowBands.Band() {
+
+            @Override
+            public void processRows(int rowStart, int rowEnd) {
+                for (int row = rowStart; row < rowEnd; row++) {
+                    splitBlockRow(row, leafSize, maxError);
+                }
+            }
+        });
+
+        // Number the vertices row by row.
+        final int[] rowCounts = new int[height + 1];
+        RowBands.run(this.executor, height, this.bandHeight, new RowBands.Band() {
+
+            @Override
+            public void processRows(int yStart, int yEnd) {
+                for (int y = yStart; y < yEnd; y++) {
+                    int count = 0;
+                    for (int p = y * width; p < (y + 1) * width; p++) {
+                        if (HeightfieldMesher.this.pointFlags[p] != 0) {
+                            count++;
+                        }
+                    }
+                    rowCounts[y + 1] = count;
+                }
+            }
+        });
+        for (int y = 0; y < height; y++) {
+            rowCounts[y + 1] += rowCounts[y];
+        }
+        RowBands.run(this.executor, height, this.bandHeight, new RowBands.Band() {
+
+            @Override
+            public void processRows(int yStart, int yEnd) {
+                for (int y = yStart; y < yEnd; y++) {
+                    int vertex = rowCounts[y];
+                    for (int p = y * width; p < (y + 1) * width; p++) {
+                        HeightfieldMesher.this.vertexIndices[p] = (HeightfieldMesher.this.pointFlags[p] != 0) ? vertex++ : -1;
+                    }
+                }
+            }
+        });
+        this.vertexCount = rowCounts[height];
+
+        // Count the indices of each row of top-level blocks.
+        final int[] indexCounts = this.indexOffsets;
+        RowBands.run(this.executor, blockRows, 0, new RowBands.Band() {
+
+            @Override
+            public void processRows(int rowStart, int rowEnd) {
+                for (int row = rowStart; row < rowEnd; row++) {
+                    indexCounts[row + 1] = writeBlockRow(row, null, 0);
+                }
+            }
+        });
+        for (int row = 0; row < blockRows; row++) {
+            this.indexOffsets[row + 1] += this.indexOffsets[row];
+        }
+        this.indexCount = this.indexOffsets[blockRows];
+    }
+
+    /**
+     * Splits the top-level blocks of a row until they are flat enough, and
+     * flags the corners and centers of the resulting blocks.
+     */
+    void splitBlockRow(int row, int leafSize, double maxError) {
+        int cellsX = this.meshWidth - 1;
+        int cellsY = this.meshHeight - 1;
+        byte[] flags = this.pointFlags;
+        int width = this.meshWidth;
+        int[] rowLeaves = new int[48];
+        int leafCount = 0;
+        int[] stack = new int[192];
+
+        for (int blockX = 0; blockX < cellsX; blockX += leafSize) {
+            int top = 0;
+            stack[top++] = blockX;
+            stack[top++] = row * leafSize;
+            stack[top++] = leafSize;
+            while (top > 0) {
+                int size = stack[--top];
+                int y = stack[--top];
+                int x = stack[--top];
+                if (x >= cellsX || y >= cellsY) {
+                    continue;
+                }
+
+                if (size > 1 && (x + size > cellsX || y + size > cellsY || getBlockError(x, y, size) > maxError)) {
+                    int half = size / 2;
+                    if (top + 12 > stack.length) {
+                        stack = Arrays.copyOf(stack, stack.length * 2);
+                    }
+                    for (int i = 3; i >= 0; i--) {
+                        stack[top++] = x + (i & 1) * half;
+                        stack[top++] = y + (i >> 1) * half;
+                        stack[top++] = half;
+                    }
+                    continue;
+                }
+
+                if (leafCount * 3 + 3 > rowLeaves.length) {
+                    rowLeaves = Arrays.copyOf(rowLeaves, rowLeaves.length * 2);
+                }
+                rowLeaves[leafCount * 3] = x;
+                rowLeaves[leafCount * 3 + 1] = y;
+                rowLeaves[leafCount * 3 + 2] = size;
+                leafCount++;
+
+                flags[y * width + x] |= CORNER;
+                flags[y * width + x + size] |= CORNER;
+                flags[(y + size) * width + x] |= CORNER;
+                flags[(y + size) * width + x + size] |= CORNER;
+                if (size > 1) {
+                    flags[(y + size / 2) * width + x + size / 2] |= CENTER;
+                }
+            }
+        }
+
+        this.leaves[row] = rowLeaves;
+        this.leafCounts[row] = leafCount;
+    }
+
+    /**
+     * Returns the largest vertical distance between the points of a block
+     * and the fan of four triangles that joins its center to its corners.
+     */
+    double getBlockError(int x, int y, int size) {
+        double h00 = getHeight(x, y);
+        double h10 = getHeight(x + size, y);
+        double h01 = getHeight(x, y + size);
+        double h11 = getHeight(x + size, y + size);
+        double hc = getHeight(x + size / 2, y + size / 2);
+        double error = 0.0;
+
+        for (int j = 0; j <= size; j++) {
+            double dy = (double) j / size - 0.5;
+            for (int i = 0; i <= size; i++) {
+                double dx = (double) i / size - 0.5;
+
+                // The point lies on the segment from the center to a point
+                // of the nearest edge, at a fraction t of the way.
+                double t = 2.0 * Math.max(Math.abs(dx), Math.abs(dy));
+                double approximation = hc;
+                if (t > 0.0) {
+                    double edge;
+                    if (Math.abs(dx) >= Math.abs(dy)) {
+                        edge = (dx < 0.0) ? Interp.lerp(h00, h01, 0.5 + dy / t) : Interp.lerp(h10, h11, 0.5 + dy / t);
+                    } else {
+                        edge = (dy < 0.0) ? Interp.lerp(h00, h10, 0.5 + dx / t) : Interp.lerp(h01, h11, 0.5 + dx / t);
+                    }
+                    approximation += t * (edge - hc);
+                }
+                error = Math.max(error, Math.abs(getHeight(x + i, y + j) - approximation));
+            }
+        }
+        return error * Math.abs(this.builtHeightScale);
+    }
+
+    double getHeight(int x, int y) {
+        return this.builtNoiseMap.noiseMap[x + this.builtApron][y + this.builtApron];
+    }
+
+    /**
+     * Writes the mesh into arrays.
+     *
+     * @param positions The array that receives the positions, three per
+     *            vertex.
+     * @param normals The array that receives the normals, three per vertex,
+     *            or null to skip the normals.
+     * @param indices The array that receives the vertex indices of the
+     *            triangles, three per triangle.
+     *
+     * @pre build() has been previously called.
+     * @pre The arrays are large enough.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void write(float[] positions, float[] normals, int[] indices) throws IllegalArgumentException {
+        if (positions == null || indices == null) {
+            throw new IllegalArgumentException("Invalid Parameter in HeightfieldMesher");
+        }
+        write(FloatBuffer.wrap(positions), (normals != null) ? FloatBuffer.wrap(normals) : null, IntBuffer.wrap(indices));
+    }
+
+    /**
+     * Writes the mesh into buffers, at absolute indices starting at 0.
+     *
+     * @param positions The buffer that receives the positions, three per
+     *            vertex.
+     * @param normals The buffer that receives the normals, three per vertex,
+     *            or null to skip the normals.
+     * @param indices The buffer that receives the vertex indices of the
+     *            triangles, three per triangle.
+     *
+     * @pre build() has been previously called, and the source noise map has
+     *      not changed since.
+     * @pre The limits of the buffers are large enough.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void write(final FloatBuffer positions, final FloatBuffer normals, final IntBuffer indices) throws IllegalArgumentException {
+        if (this.builtNoiseMap == null || positions == null || indices == null || positions.limit() < 3L * this.vertexCount
+                || (normals != null && normals.limit() < 3L * this.vertexCount) || indices.limit() < this.indexCount) {
+            throw new IllegalArgumentException("Invalid Parameter in HeightfieldMesher");
+        }
+
+        RowBands.run(this.executor, this.meshHeight, this.bandHeight, new RowBands.Band() {
+
+            @Override
+            public void processRows(int yStart, int yEnd) {
+                writeVertexRows(yStart, yEnd, positions, normals);
+            }
+        });
+
+        if (this.pointFlags == null) {
+            RowBands.run(this.executor, this.meshHeight - 1, this.bandHeight, new RowBands.Band() {
+
+                @Override
+                public void processRows(int yStart, int yEnd) {
+                    writeCellRows(yStart, yEnd, indices);
+                }
+            });
+        } else {
+            RowBands.run(this.executor, this.leaves.length, 0, new RowBands.Band() {
+
+                @Override
+                public void processRows(int rowStart, int rowEnd) {
+                    for (int row = rowStart; row < rowEnd; row++) {
+                        writeBlockRow(row, indices, HeightfieldMesher.this.indexOffsets[row]);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Writes the positions and normals of the vertices of the rows from
+     * yStart (inclusive) to yEnd (exclusive).
+     */
+    void writeVertexRows(int yStart, int yEnd, FloatBuffer positions, FloatBuffer normals) {
+        int apron = this.builtApron;
+        int width = this.meshWidth;
+        int height = this.meshHeight;
+        double spacing = this.builtSpacing;
+        double heightScale = this.builtHeightScale;
+        double bumpHeight = heightScale / spacing;
+        double[][] values = this.builtNoiseMap.noiseMap;
+
+        for (int y = yStart; y < yEnd; y++) {
+            int sourceY = y + apron;
+
+            // Find the up neighbors the same way RendererNormalMap does.
+            int yUpOffset;
+            if (apron > 0) {
+                yUpOffset = 1;
+            } else if (y == height - 1) {
+                yUpOffset = this.builtWrap ? -(height - 1) : 0;
+            } else {
+                yUpOffset = 1;
+            }
+
+            for (int x = 0; x < width; x++) {
+                int vertex = (this.vertexIndices != null) ? this.vertexIndices[y * width + x] : y * width + x;
+                if (vertex < 0) {
+                    continue;
+                }
+                int sourceX = x + apron;
+                double nc = values[sourceX][sourceY];
+
+                positions.put(3 * vertex, (float) (x * spacing));
+                positions.put(3 * vertex + 1, (float) (nc * heightScale));
+                positions.put(3 * vertex + 2, (float) (y * spacing));
+
+                if (normals != null) {
+                    int xRightOffset;
+                    if (apron > 0) {
+                        xRightOffset = 1;
+                    } else if (x == width - 1) {
+                        xRightOffset = this.builtWrap ? -(width - 1) : 0;
+                    } else {
+                        xRightOffset = 1;
+                    }
+                    double ncr = (nc - values[sourceX + xRightOffset][sourceY]) * bumpHeight;
+                    double ncu = (nc - values[sourceX][sourceY + yUpOffset]) * bumpHeight;
+                    double d = Math.sqrt((ncu * ncu) + (ncr * ncr) + 1);
+
+                    normals.put(3 * vertex, (float) (ncr / d));
+                    normals.put(3 * vertex + 1, (float) (1.0 / d));
+                    normals.put(3 * vertex + 2, (float) (ncu / d));
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes the triangles of the rows of cells from yStart (inclusive) to
+     * yEnd (exclusive) of a full mesh.
+     */
+    void writeCellRows(int yStart, int yEnd, IntBuffer indices) {
+        int width = this.meshWidth;
+        for (int y = yStart; y < yEnd; y++) {
+            int index = y * (width - 1) * 6;
+            for (int x = 0; x < width - 1; x++) {
+                int v00 = y * width + x;
+                index = putCell(indices, index, v00, v00 + 1, v00 + width, v00 + width + 1);
+            }
+        }
+    }
+
+    /**
+     * Writes the two triangles of a cell, given the vertices at its corners,
+     * and returns the next index.
+     */
+    static int putCell(IntBuffer indices, int index, int v00, int v10, int v01, int v11) {
+        indices.put(index, v00);
+        indices.put(index + 1, v01);
+        indices.put(index + 2, v10);
+        indices.put(index + 3, v10);
+        indices.put(index + 4, v01);
+        indices.put(index + 5, v11);
+        return index + 6;
+    }
+
+    /**
+     * Writes the triangles of the blocks of a row of top-level blocks of a
+     * decimated mesh, starting at the given index, and returns the number of
+     * indices. If the buffer is null, the indices are only counted.
+     */
+    int writeBlockRow(int row, IntBuffer indices, int index) {
+        int width = this.meshWidth;
+        byte[] flags = this.pointFlags;
+        int[] vertexIndices = this.vertexIndices;
+        int[] rowLeaves = this.leaves[row];
+        int[] fan = new int[4 * this.builtLeafSize];
+        int start = index;
+
+        for (int leaf = 0; leaf < this.leafCounts[row]; leaf++) {
+            int x = rowLeaves[leaf * 3];
+            int y = rowLeaves[leaf * 3 + 1];
+            int size = rowLeaves[leaf * 3 + 2];
+            int p00 = y * width + x;
+
+            if (size == 1) {
+                if (indices != null) {
+                    putCell(indices, index, vertexIndices[p00], vertexIndices[p00 + 1], vertexIndices[p00 + width], vertexIndices[p00 + width + 1]);
+                }
+                index += 6;
+                continue;
+            }
+
+            // Walk around the block, counter-clockwise when seen from above:
+            // up the low x edge, along the high y edge, down the high x edge
+            // and back along the low y edge. The corners of the neighbors on
+            // the edges are included.
+            int count = 0;
+            for (int j = 0; j < size; j++) {
+                count = addFanPoint(fan, count, p00 + j * width, flags, vertexIndices);
+            }
+            for (int i = 0; i < size; i++) {
+                count = addFanPoint(fan, count, p00 + size * width + i, flags, vertexIndices);
+            }
+            for (int j = size; j > 0; j--) {
+                count = addFanPoint(fan, count, p00 + j * width + size, flags, vertexIndices);
+            }
+            for (int i = size; i > 0; i--) {
+                count = addFanPoint(fan, count, p00 + i, flags, vertexIndices);
+            }
+
+            if (indices != null) {
+                int center = vertexIndices[p00 + (size / 2) * width + size / 2];
+                for (int k = 0; k < count; k++) {
+                    indices.put(index + 3 * k, center);
+                    indices.put(index + 3 * k + 1, fan[k]);
+                    indices.put(index + 3 * k + 2, fan[(k + 1) % count]);
+                }
+            }
+            index += 3 * count;
+        }
+        return index - start;
+    }
+
+    static int addFanPoint(int[] fan, int count, int point, byte[] flags, int[] vertexIndices) {
+        if ((flags[point] & CORNER) != 0) {
+            fan[count++] = vertexIndices[point];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the number of vertices of the last build.
+     *
+     * @return The number of vertices.
+     */
+    public int getVertexCount() {
+        return this.vertexCount;
+    }
+
+    /**
+     * Returns the number of triangle indices of the last build, three per
+     * triangle.
+     *
+     * @return The number of indices.
+     */
+    public int getIndexCount() {
+        return this.indexCount;
+    }
+
+    /**
+     * Enables or disables noise-map wrapping for the normals.
+     * <p>
+     * If wrapping is enabled, the right and up neighbors of the points on the
+     * edges of the noise map wrap to the opposite sides, as in
+     * RendererNormalMap.enableWrap(). Otherwise, they are cropped to the edges
+     * of the noise map. The mesh itself does not wrap.
+     *
+     * @param enable A flag that enables or disables noise-map wrapping.
+     */
+    public void enableWrap(boolean enable) {
+        this.isWrapEnabled = enable;
+    }
+
+    /**
+     * Determines if noise-map wrapping is enabled.
+     *
+     * @return True if wrapping is enabled.
+     */
+    public boolean isWrapEnabled() {
+        return this.isWrapEnabled;
+    }
+
+    /**
+     * Enables or disables decimation.
+     *
+     * @param enable A flag that enables or disables decimation.
+     */
+    public void enableDecimation(boolean enable) {
+        this.isDecimationEnabled = enable;
+    }
+
+    /**
+     * Determines if the mesh is decimated.
+     *
+     * @return True if decimation is enabled.
+     */
+    public boolean isDecimationEnabled() {
+        return this.isDecimationEnabled;
+    }
+
+    /**
+     * Returns the number of points around each side of the source noise map
+     * that are only used as neighbors for the normals.
+     *
+     * @return The width of the apron, in points.
+     */
+    public int getApron() {
+        return this.apron;
+    }
+
+    /**
+     * Sets the number of points around each side of the source noise map that
+     * are only used as neighbors for the normals.
+     * <p>
+     * With an apron, the mesh covers the points inside the apron, and the
+     * normals of its edge points use the apron points as neighbors, so that
+     * the meshes of neighboring tiles have matching normals along their
+     * common edges.
+     *
+     * @param apron The width of the apron, in points.
+     *
+     * @throws IllegalArgumentException The apron is negative.
+     */
+    public void setApron(int apron) throws IllegalArgumentException {
+        if (apron < 0) {
+            throw new IllegalArgumentException("Invalid Parameter in HeightfieldMesher");
+        }
+        this.apron = apron;
+    }
+
+    public double getHeightScale() {
+        return this.heightScale;
+    }
+
+    /**
+     * Sets the factor applied to the values of the noise map to get the
+     * heights of the mesh.
+     *
+     * @param heightScale The height scale.
+     */
+    public void setHeightScale(double heightScale) {
+        this.heightScale = heightScale;
+    }
+
+    public double getSpacing() {
+        return this.spacing;
+    }
+
+    /**
+     * Sets the distance between neighboring points of the mesh.
+     *
+     * @param spacing The spacing, in units.
+     *
+     * @throws IllegalArgumentException The spacing is not positive.
+     */
+    public void setSpacing(double spacing) throws IllegalArgumentException {
+        if (!(spacing > 0.0) || Double.isInfinite(spacing)) {
+            throw new IllegalArgumentException("Invalid Parameter in HeightfieldMesher");
+        }
+        this.spacing = spacing;
+    }
+
+    public double getMaxError() {
+        return this.maxError;
+    }
+
+    /**
+     * Sets the largest vertical distance between a point of the noise map and
+     * a decimated mesh.
+     * <p>
+     * The distance is measured against the fan of four triangles of each
+     * block. The corners of smaller neighbors that are added to the fan move
+     * the surface a little, so the mesh may stray slightly further from the
+     * noise map.
+     *
+     * @param maxError The error, in units of the mesh.
+     *
+     * @throws IllegalArgumentException The error is negative.
+     */
+    public void setMaxError(double maxError) throws IllegalArgumentException {
+        if (!(maxError >= 0.0)) {
+            throw new IllegalArgumentException("Invalid Parameter in HeightfieldMesher");
+        }
+        this.maxError = maxError;
+    }
+
+    public int getMaxLeafSize() {
+        return this.maxLeafSize;
+    }
+
+    /**
+     * Sets the largest size of a block of a decimated mesh.
+     * <p>
+     * Larger blocks let flat regions be drawn with fewer triangles, but give
+     * fewer rows of blocks to build in parallel.
+     *
+     * @param maxLeafSize The size, in cells, a power of two from 1 to 2^14.
+     *
+     * @throws IllegalArgumentException The size is not a power of two or is
+     *             out of range.
+     */
+    public void setMaxLeafSize(int maxLeafSize) throws IllegalArgumentException {
+        if (maxLeafSize < 1 || maxLeafSize > (1 << 14) || Integer.bitCount(maxLeafSize) != 1) {
+            throw new IllegalArgumentException("Invalid Parameter in HeightfieldMesher");
+        }
+        this.maxLeafSize = maxLeafSize;
+    }
+
+    /**
+     * Returns the number of rows in each band built by the executor.
+     *
+     * @return The number of rows in each band, or zero if it is chosen from
+     *         the number of available processors.
+     */
+    public int getBandHeight() {
+        return this.bandHeight;
+    }
+
+    /**
+     * Returns the executor that builds bands of rows in parallel.
+     *
+     * @return The executor, or null if the mesh is built on the calling
+     *         thread.
+     */
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Sets the number of rows in each band built by the executor.
+     *
+     * @param bandHeight The number of rows in each band, or zero to choose it
+     *            from the number of available processors.
+     *
+     * @throws IllegalArgumentException The band height is negative.
+     */
+    public void setBandHeight(int bandHeight) throws IllegalArgumentException {
+        if (bandHeight < 0) {
+            throw new IllegalArgumentException("Invalid Parameter in HeightfieldMesher");
+        }
+        this.bandHeight = bandHeight;
+    }
+
+    /**
+     * Sets the executor that builds bands of rows in parallel.
+     *
+     * @param executor The executor, or null to build on the calling thread.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public NoiseMap getSourceNoiseMap() {
+        return this.sourceNoiseMap;
+    }
+
+    public void setSourceNoiseMap(NoiseMap sourceNoiseMap) {
+        this.sourceNoiseMap = sourceNoiseMap;
+    }
+}
@@ -27,6 +27,17 @@
 
 package libnoiseforjava.util;
 
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.awt.image.DataBufferInt;
+import java.awt.image.DirectColorModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
 /**
  * Implements an image, a 2-dimensional array of color values.
  * <p>
@@ -40,6 +51,25 @@ package libnoiseforjava.util;
  * The getValue() and setValue() methods can be used to access individual color
  * values stored in the image.
  * <p>
+ * <b>Pixel storage</b>
+ * <p>
+ * The color values are stored as packed 32-bit ARGB integers (alpha in the
+ * highest byte, blue in the lowest byte), one row after another. This is the
+ * layout used by a BufferedImage of type TYPE_INT_ARGB, so an image can share
+ * its pixels with a BufferedImage without copying them:
+ * <ul>
+ * <li>Call the toBufferedImage() method to view this image as a BufferedImage.
+ * <li>Pass a BufferedImage to the ImageCafe(BufferedImage) constructor so that
+ * a renderer writes directly into the raster of that BufferedImage.
+ * </ul>
+ * To hand the pixels to native code (image encoders, texture uploads), create
+ * the image with the allocateDirect() method. The pixels of such an image are
+ * stored in a direct ByteBuffer that can be retrieved by calling the
+ * getByteBuffer() method.
+ * <p>
+ * The getARGB() and setARGB() methods access the packed color values without
+ * creating ColorCafe objects.
+ * <p>
  * <b>Border Values</b>
  * <p>
  * All of the color values outside of the image are assumed to have a common
@@ -68,14 +98,105 @@ public class ImageCafe {
     int width;
 
     /**
-     * Array of ColorCafes holding the color values.
+     * The packed ARGB color values, stored row by row.
+     */
+    IntBuffer pixels;
+
+    /**
+     * The direct buffer holding the color values, or null if the color values
+     * are stored in an int array.
      */
-    ColorCafe[][] imageCafeColors;
+    ByteBuffer directBuffer;
 
     public ImageCafe(int width, int height) throws IllegalArgumentException {
         setSize(width, height);
         this.borderValue = new ColorCafe(0, 0, 0, 0);
-        this.imageCafeColors = new ColorCafe[width][height];
+    }
+
+    /**
+     * Creates an image that stores its color values in the given array.
+     * <p>
+     * The array holds packed ARGB color values, one row after another. The
+     * image keeps using this array until its size is changed.
+     *
+     * @param width The width of the image.
+     * @param height The height of the image.
+     * @param pixels The array that stores the color values.
+     *
+     * @pre The width and height values are positive.
+     * @pre The array can hold width * height color values.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public ImageCafe(int width, int height, int[] pixels) throws IllegalArgumentException {
+        if (width < 0 || height < 0 || pixels == null || pixels.length < (long) width * height) {
+            throw new IllegalArgumentException("Invalid Parameter in ImageCafe");
+        }
+
+        this.width = width;
+        this.height = height;
+        this.pixels = IntBuffer.wrap(pixels);
+        this.borderValue = new ColorCafe(0, 0, 0, 0);
+    }
+
+    /**
+     * Creates an image that shares its color values with a BufferedImage.
+     * <p>
+     * Writing to this image writes directly into the raster of the given
+     * BufferedImage.
+     *
+     * @param image The image that stores the color values.
+     *
+     * @pre The BufferedImage is of type TYPE_INT_ARGB.
+     * @pre The BufferedImage is not a sub-image of another BufferedImage.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public ImageCafe(BufferedImage image) throws IllegalArgumentException {
+        this(image.getWidth(), image.getHeight(), getPixelArray(image));
+    }
+
+    /**
+     * Creates an image that stores its color values in a direct ByteBuffer.
+     * <p>
+     * Each color value takes four bytes in the buffer. The bytes are stored in
+     * the native byte order, so on little-endian platforms each pixel is laid
+     * out as blue, green, red, alpha.
+     *
+     * @param width The width of the image.
+     * @param height The height of the image.
+     *
+     * @return The new image.
+     *
+     * @pre The width and height values are positive.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public static ImageCafe allocateDirect(int width, int height) throws IllegalArgumentException {
+        ImageCafe image = new ImageCafe(0, 0);
+        image.directBuffer = ByteBuffer.allocateDirect(0).order(ByteOrder.nativeOrder());
+        image.pixels = image.directBuffer.asIntBuffer();
+        image.setSize(width, height);
+        return image;
+    }
+
+    /**
+     * Returns the int array behind a TYPE_INT_ARGB BufferedImage.
+     */
+    static int[] getPixelArray(BufferedImage image) throws IllegalArgumentException {
+        if (image.getType() != BufferedImage.TYPE_INT_ARGB) {
+            throw new IllegalArgumentException("Invalid Parameter in ImageCafe");
+        }
+
+        WritableRaster raster = image.getRaster();
+        SinglePixelPackedSampleModel sampleModel = (SinglePixelPackedSampleModel) raster.getSampleModel();
+        DataBuffer dataBuffer = raster.getDataBuffer();
+        if (raster.getSampleModelTranslateX() != 0 || raster.getSampleModelTranslateY() != 0 || sampleModel.getScanlineStride() != image.getWidth()
+                || dataBuffer.getNumBanks() != 1 || dataBuffer.getOffset() != 0) {
+            throw new IllegalArgumentException("Invalid Parameter in ImageCafe");
+        }
+
+        return ((DataBufferInt) dataBuffer).getData();
     }
 
     /**
@@ -91,7 +212,7 @@ public class ImageCafe {
      */
     public ColorCafe getValue(int x, int y) {
         if (x >= 0 && x < this.width && y >= 0 && y < this.height) {
-            return this.imageCafeColors[x][y];
+            return ColorCafe.fromARGB(this.pixels.get(y * this.width + x));
         } else {
             // The coordinates specified are outside the image. Return the
             // border
@@ -100,8 +221,29 @@ public class ImageCafe {
         }
     }
 
+    /**
+     * Returns a packed ARGB color value from the specified position in the
+     * image.
+     *
+     * @param x The x coordinate of the position.
+     * @param y The y coordinate of the position.
+     *
+     * @return The packed color value at that position, or the packed border
+     *         value if the coordinates exist outside of the image.
+     */
+    public int getARGB(int x, int y) {
+        if (x >= 0 && x < this.width && y >= 0 && y < this.height) {
+            return this.pixels.get(y * this.width + x);
+        } else {
+            return this.borderValue.getARGB();
+        }
+    }
+
     /**
      * Sets the new size for the image.
+     * <p>
+     * If the size changes, the color values are moved to new storage of the
+     * same kind (heap or direct) and their contents are undefined.
      *
      * @param width The new width for the image.
      * @param height The new height for the image.
@@ -113,10 +255,19 @@ public class ImageCafe {
      * @throws IllegalArgumentException See the preconditions.
      */
     public void setSize(int width, int height) throws IllegalArgumentException {
-        if (width < 0 || height < 0) {
+        // An int array holds at most Integer.MAX_VALUE color values, and a
+        // direct buffer at most Integer.MAX_VALUE bytes.
+        long maxPixelCount = (this.directBuffer != null) ? Integer.MAX_VALUE / 4 : Integer.MAX_VALUE;
+        if (width < 0 || height < 0 || (long) width * height > maxPixelCount) {
             // Invalid width or height.
             throw new IllegalArgumentException("Invalid Parameter in ImageCafe");
-        } else {
+        } else if (this.pixels == null || width != this.width || height != this.height) {
+            if (this.directBuffer != null) {
+                this.directBuffer = ByteBuffer.allocateDirect(width * height * 4).order(this.directBuffer.order());
+                this.pixels = this.directBuffer.asIntBuffer();
+            } else {
+                this.pixels = IntBuffer.wrap(new int[width * height]);
+            }
             this.width = width;
             this.height = height;
         }
@@ -134,10 +285,89 @@ public class ImageCafe {
      */
     public void setValue(int x, int y, ColorCafe value) {
         if (x >= 0 && x < this.width && y >= 0 && y < this.height) {
-            this.imageCafeColors[x][y] = value;
+            this.pixels.put(y * this.width + x, value.getARGB());
         }
     }
 
+    /**
+     * Sets a packed ARGB color value at a specified position in the image.
+     * <p>
+     * This method does nothing if the image is empty or the position is outside
+     * the bounds of the image.
+     *
+     * @param x The x coordinate of the position.
+     * @param y The y coordinate of the position.
+     * @param argb The packed color value to set at the given position.
+     */
+    public void setARGB(int x, int y, int argb) {
+        if (x >= 0 && x < this.width && y >= 0 && y < this.height) {
+            this.pixels.put(y * this.width + x, argb);
+        }
+    }
+
+    /**
+     * Returns the array that stores the packed ARGB color values.
+     * <p>
+     * The color values are stored row by row; the color value at (x, y) is at
+     * index y * getWidth() + x. Changes to the array are visible in this
+     * image.
+     *
+     * @return The array that stores the color values.
+     *
+     * @pre The image was not created by the allocateDirect() method.
+     *
+     * @throws IllegalStateException See the preconditions.
+     */
+    public int[] getPixels() throws IllegalStateException {
+        if (!this.pixels.hasArray()) {
+            throw new IllegalStateException("ImageCafe is not backed by an array");
+        }
+        return this.pixels.array();
+    }
+
+    /**
+     * Returns the direct buffer that stores the color values.
+     * <p>
+     * The returned buffer shares its contents with this image. Its position is
+     * zero and its limit is the size of the image in bytes.
+     *
+     * @return The buffer that stores the color values.
+     *
+     * @pre The image was created by the allocateDirect() method.
+     *
+     * @throws IllegalStateException See the preconditions.
+     */
+    public ByteBuffer getByteBuffer() throws IllegalStateException {
+        if (this.directBuffer == null) {
+            throw new IllegalStateException("ImageCafe is not backed by a direct buffer");
+        }
+        ByteBuffer buffer = this.directBuffer.duplicate().order(this.directBuffer.order());
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a BufferedImage of type TYPE_INT_ARGB that shares its pixels
+     * with this image.
+     * <p>
+     * No color values are copied; changes to either image are visible in the
+     * other one. The BufferedImage stops sharing the pixels once the size of
+     * this image changes.
+     *
+     * @return The BufferedImage.
+     *
+     * @pre The image was not created by the allocateDirect() method.
+     *
+     * @throws IllegalStateException See the preconditions.
+     */
+    public BufferedImage toBufferedImage() throws IllegalStateException {
+        int[] data = getPixels();
+        DirectColorModel colorModel = new DirectColorModel(32, 0x00ff0000, 0x0000ff00, 0x000000ff, 0xff000000);
+        DataBufferInt dataBuffer = new DataBufferInt(data, this.width * this.height);
+        WritableRaster raster = Raster.createPackedRaster(dataBuffer, this.width, this.height, this.width, colorModel.getMasks(), null);
+        return new BufferedImage(colorModel, raster, false, null);
+    }
+
     /**
      * Returns the color value used for all positions outside of the image.
      * <p>
@@ -0,0 +1,811 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.util.Arrays;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import libnoiseforjava.module.ModuleBase;
+
+/**
+ * Extracts the isosurface of a noise module as triangle meshes, one chunk at
+ * a time.
+ * <p>
+ * The space is divided into a lattice of points spacing units apart, starting
+ * at the origin, and the lattice is divided into cubic chunks of chunkSize
+ * cells along each edge. The points where the output value of the source
+ * module is greater than the iso-level are inside the surface, the others are
+ * outside.
+ * <p>
+ * The meshes are built with surface nets: every cell that the surface passes
+ * through gets one vertex, at the mean of the points where the surface
+ * crosses the edges of the cell, and every lattice edge that the surface
+ * crosses gets a quad that joins the vertices of the four cells around it.
+ * The vertices are shared by the triangles of a mesh, which are wound
+ * counter-clockwise when seen from outside the surface. A cell that two
+ * sheets of the surface pass through gets a single vertex, which joins the
+ * sheets; a lattice spacing that resolves the finest octave of the source
+ * module keeps such cells rare.
+ * <p>
+ * Each lattice point that a chunk needs is evaluated exactly once, into the
+ * values of a Scratch object that is reused from chunk to chunk. A chunk
+ * also evaluates the points of a thin border around it, so that the meshes of
+ * neighbouring chunks meet without cracks; the vertices along their common
+ * faces are computed from the same lattice points and are identical.
+ * <p>
+ * The normals point out of the surface, along the negated gradient of the
+ * output value. The gradient is computed by central differences, either over
+ * the lattice itself (NormalMode.LATTICE), which needs a second row of border
+ * points, or by sampling the source module around each vertex
+ * (NormalMode.SAMPLED), which costs six more evaluations per vertex but
+ * follows the surface more closely.
+ * <p>
+ * To mesh several chunks in parallel, pass an Executor to the setExecutor()
+ * method and call meshChunks(). Each finished mesh is handed to a
+ * MeshListener as soon as it is ready, so the meshes of a large region do not
+ * need to be kept in memory at once.
+ */
+public class IsosurfaceMesher {
+
+    /**
+     * The largest number of cells along each edge of a chunk.
+     */
+    public static final int MAX_CHUNK_SIZE = 256;
+
+    /**
+     * The distance between the samples of NormalMode.SAMPLED and the vertex,
+     * as a fraction of the lattice spacing.
+     */
+    static final double SAMPLED_NORMAL_STEP = 0.5;
+
+    /**
+     * Enumerates the ways the normals of the vertices are computed.
+     */
+    public enum NormalMode {
+        /**
+         * Interpolates the central differences of the lattice points around
+         * the cell of the vertex. This needs no evaluations besides the
+         * border points of the chunk.
+         */
+        LATTICE,
+
+        /**
+         * Takes the central differences of six samples of the source module
+         * around the vertex.
+         */
+        SAMPLED
+    }
+
+    /**
+     * The mesh of a chunk.
+     * <p>
+     * The positions are relative to the lower corner of the chunk, so that
+     * they keep their precision far from the origin.
+     */
+    public static final class Mesh {
+
+        final int chunkX;
+        final int chunkY;
+        final int chunkZ;
+        final double originX;
+        final double originY;
+        final double originZ;
+        final float[] positions;
+        final float[] normals;
+        final int[] indices;
+
+        Mesh(int chunkX, int chunkY, int chunkZ, double originX, double originY, double originZ, float[] positions, float[] normals, int[] indices) {
+            this.chunkX = chunkX;
+            this.chunkY = chunkY;
+            this.chunkZ = chunkZ;
+            this.originX = originX;
+            this.originY = originY;
+            this.originZ = originZ;
+            this.positions = positions;
+            this.normals = normals;
+            this.indices = indices;
+        }
+
+        public int getChunkX() {
+            return this.chunkX;
+        }
+
+        public int getChunkY() {
+            return this.chunkY;
+        }
+
+        public int getChunkZ() {
+            return this.chunkZ;
+        }
+
+        /**
+         * Returns the x coordinate of the lower corner of the chunk.
+         *
+         * @return The x coordinate, in units.
+         */
+        public double getOriginX() {
+            return this.originX;
+        }
+
+        public double getOriginY() {
+            return this.originY;
+        }
+
+        public double getOriginZ() {
+            return this.originZ;
+        }
+
+        /**
+         * Returns the positions of the vertices, three values per vertex,
+         * relative to the lower corner of the chunk. The array must not be
+         * changed.
+         *
+         * @return The positions.
+         */
+        public float[] getPositions() {
+            return this.positions;
+        }
+
+        /**
+         * Returns the unit normals of the vertices, three values per vertex.
+         * The array must not be changed.
+         *
+         * @return The normals.
+         */
+        public float[] getNormals() {
+            return this.normals;
+        }
+
+        /**
+         * Returns the vertex indices of the triangles, three per triangle.
+         * The array must not be changed.
+         *
+         * @return The indices.
+         */
+        public int[] getIndices() {
+            return this.indices;
+        }
+
+        public int getVertexCount() {
+            return this.positions.length / 3;
+        }
+
+        public int getTriangleCount() {
+            return this.indices.length / 3;
+        }
+
+        /**
+         * Determines if the surface does not pass through the chunk.
+         *
+         * @return True if the mesh has no triangles.
+         */
+        public boolean isEmpty() {
+            return this.indices.length == 0;
+        }
+    }
+
+    /**
+     * Receives the meshes of meshChunks() as they are finished.
+     */
+    public interface MeshListener {
+
+        /**
+         * Called on the meshing thread after the mesh of a chunk is finished,
+         * whether or not it is empty. With an executor, this method is
+         * called from several threads at once.
+         *
+         * @param mesh The mesh of the chunk.
+         */
+        void chunkMeshed(Mesh mesh);
+    }
+
+    /**
+     * The buffers used while meshing a chunk.
+     * <p>
+     * A scratch object can be reused for any number of chunks, of any
+     * mesher, but only by one thread at a time.
+     */
+    public static final class Scratch {
+
+        double[] values;
+        double[] xCoords;
+        int[] cellVertices;
+        int[] cornerIndex;
+        float[] positions;
+        float[] normals;
+        int[] indices;
+        int vertexCount;
+        int indexCount;
+        double[] range;
+        boolean isSkipped;
+
+        public Scratch() {
+            this.values = new double[0];
+            this.xCoords = new double[0];
+            this.cellVertices = new int[0];
+            this.cornerIndex = new int[8];
+            this.positions = new float[192];
+            this.normals = new float[192];
+            this.indices = new int[384];
+            this.vertexCount = 0;
+            this.indexCount = 0;
+            this.range = new double[2];
+            this.isSkipped = false;
+        }
+    }
+
+    final ModuleBase sourceModule;
+    final double originX;
+    final double originY;
+    final double originZ;
+    final double spacing;
+    final int chunkSize;
+
+    double isoLevel;
+    NormalMode normalMode;
+
+    /**
+     * The bound that lets chunks without a crossing be skipped, or null to
+     * evaluate every chunk.
+     */
+    VolumeBound volumeBound;
+
+    /**
+     * The number of chunks skipped by the last call to meshChunks().
+     */
+    long skippedChunkCount;
+
+    /**
+     * The executor that meshes bands of chunks in parallel, or null to mesh
+     * on the calling thread.
+     */
+    Executor executor;
+
+    /**
+     * The number of chunks in each band meshed by the executor, or zero to
+     * choose it from the number of available processors.
+     */
+    int bandSize;
+
+    /**
+     * Creates an isosurface mesher.
+     *
+     * @param sourceModule The noise module whose isosurface is extracted.
+     * @param originX The x coordinate of lattice point (0, 0, 0), in units.
+     * @param originY The y coordinate of lattice point (0, 0, 0), in units.
+     * @param originZ The z coordinate of lattice point (0, 0, 0), in units.
+     * @param spacing The distance between neighbouring lattice points, in
+     *            units.
+     * @param chunkSize The number of cells along each edge of a chunk, from
+     *            1 to MAX_CHUNK_SIZE.
+     *
+     * @throws IllegalArgumentException The source module is null, the
+     *             spacing is not positive or the chunk size is out of range.
+     */
+    public IsosurfaceMesher(ModuleBase sourceModule, double originX, double originY, double originZ, double spacing, int chunkSize)
+            throws IllegalArgumentException {
+        if (sourceModule == null || !(spacing > 0.0) || Double.isInfinite(spacing) || chunkSize < 1 || chunkSize > MAX_CHUNK_SIZE) {
+            throw new IllegalArgumentException("Invalid parameter in IsosurfaceMesher");
+        }
+
+        this.sourceModule = sourceModule;
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.spacing = spacing;
+        this.chunkSize = chunkSize;
+        this.isoLevel = 0.0;
+        this.normalMode = NormalMode.LATTICE;
+        this.volumeBound = null;
+        this.skippedChunkCount = 0;
+        this.executor = null;
+        this.bandSize = 0;
+    }
+
+    /**
+     * Meshes a chunk with new buffers.
+     *
+     * @param chunkX The x index of the chunk.
+     * @param chunkY The y index of the chunk.
+     * @param chunkZ The z index of the chunk.
+     *
+     * @return The mesh of the chunk.
+     */
+    public Mesh meshChunk(int chunkX, int chunkY, int chunkZ) {
+        return meshChunk(chunkX, chunkY, chunkZ, new Scratch());
+    }
+
+    /**
+     * Meshes a chunk.
+     * <p>
+     * Chunk (i, j, k) holds the cells whose lower corners are the lattice
+     * points from (i, j, k) * chunkSize to (i + 1, j + 1, k + 1) * chunkSize -
+     * 1. The mesh has its own arrays, so the scratch object can be reused as
+     * soon as this method returns.
+     *
+     * @param chunkX The x index of the chunk.
+     * @param chunkY The y index of the chunk.
+     * @param chunkZ The z index of the chunk.
+     * @param scratch The buffers to use.
+     *
+     * @return The mesh of the chunk.
+     */
+    public Mesh meshChunk(int chunkX, int chunkY, int chunkZ, Scratch scratch) {
+        return meshChunk(chunkX, chunkY, chunkZ, scratch, this.isoLevel, this.normalMode, this.volumeBound);
+    }
+
+    /**
+     * Meshes a chunk with the given settings, which meshChunks() reads once
+     * for all of its chunks.
+     */
+    Mesh meshChunk(int chunkX, int chunkY, int chunkZ, Scratch scratch, double isoLevel, NormalMode normalMode, VolumeBound volumeBound) {
+        int n = this.chunkSize;
+        long xFirst = (long) chunkX * n;
+        long yFirst = (long) chunkY * n;
+        long zFirst = (long) chunkZ * n;
+        double chunkOriginX = getCoordinate(this.originX, xFirst, 0);
+        double chunkOriginY = getCoordinate(this.originY, yFirst, 0);
+        double chunkOriginZ = getCoordinate(this.originZ, zFirst, 0);
+
+        scratch.vertexCount = 0;
+        scratch.indexCount = 0;
+        scratch.isSkipped = false;
+
+        // The cells from -1 to n - 1 along each axis need the lattice points
+        // from -1 to n, and the lattice normals need one more point on each
+        // side.
+        if (volumeBound != null) {
+            volumeBound.getBounds(getCoordinate(this.originX, xFirst, -1), getCoordinate(this.originX, xFirst, n), getCoordinate(this.originY, yFirst, -1),
+                    getCoordinate(this.originY, yFirst, n), getCoordinate(this.originZ, zFirst, -1), getCoordinate(this.originZ, zFirst, n), scratch.range);
+            if (scratch.range[0] > isoLevel || scratch.range[1] <= isoLevel) {
+                scratch.isSkipped = true;
+                return createMesh(chunkX, chunkY, chunkZ, chunkOriginX, chunkOriginY, chunkOriginZ, scratch);
+            }
+        }
+
+        int border = (normalMode == NormalMode.LATTICE) ? 2 : 1;
+        int points = n + 2 * border;
+        evaluatePoints(xFirst, yFirst, zFirst, border, points, scratch);
+
+        int cells = n + 1;
+        if (scratch.cellVertices.length < cells * cells * cells) {
+            scratch.cellVertices = new int[cells * cells * cells];
+        }
+        Arrays.fill(scratch.cellVertices, 0, cells * cells * cells, -1);
+
+        double[] values = scratch.values;
+        int[] stride = { 1, points, points * points };
+        int[] point = new int[3];
+        int[] cell = new int[3];
+        int[] quad = new int[4];
+        for (int k = 0; k < n; k++) {
+            for (int j = 0; j < n; j++) {
+                for (int i = 0; i < n; i++) {
+                    int index = ((k + border) * points + j + border) * points + i + border;
+                    boolean inside = values[index] > isoLevel;
+                    for (int a = 0; a < 3; a++) {
+                        if ((values[index + stride[a]] > isoLevel) == inside) {
+                            continue;
+                        }
+
+                        // The four cells around the edge, counter-clockwise
+                        // when seen from the end of the edge.
+                        int b = (a + 1) % 3;
+                        int c = (a + 2) % 3;
+                        point[0] = i;
+                        point[1] = j;
+                        point[2] = k;
+                        for (int q = 0; q < 4; q++) {
+                            System.arraycopy(point, 0, cell, 0, 3);
+                            cell[b] -= (q == 1 || q == 2) ? 0 : 1;
+                            cell[c] -= (q >= 2) ? 0 : 1;
+                            quad[q] = getVertex(cell[0], cell[1], cell[2], border, points, chunkOriginX, chunkOriginY, chunkOriginZ, isoLevel,
+                                    normalMode, scratch);
+                        }
+
+                        // The surface faces away from the inside point.
+                        if (inside) {
+                            addTriangle(quad[0], quad[1], quad[2], scratch);
+                            addTriangle(quad[0], quad[2], quad[3], scratch);
+                        } else {
+                            addTriangle(quad[0], quad[2], quad[1], scratch);
+                            addTriangle(quad[0], quad[3], quad[2], scratch);
+                        }
+                    }
+                }
+            }
+        }
+
+        return createMesh(chunkX, chunkY, chunkZ, chunkOriginX, chunkOriginY, chunkOriginZ, scratch);
+    }
+
+    /**
+     * Returns the coordinate of a lattice point, given the index of the first
+     * point of its chunk and its offset from that point. Neighbouring chunks
+     * compute the same coordinate for the points they share.
+     */
+    double getCoordinate(double origin, long first, int offset) {
+        return origin + (first + offset) * this.spacing;
+    }
+
+    /**
+     * Evaluates the source module at every lattice point of a chunk and its
+     * border, x varying fastest.
+     */
+    void evaluatePoints(long xFirst, long yFirst, long zFirst, int border, int points, Scratch scratch) {
+        if (scratch.values.length < points * points * points) {
+            scratch.values = new double[points * points * points];
+        }
+        if (scratch.xCoords.length < points) {
+            scratch.xCoords = new double[points];
+        }
+
+        double[] values = scratch.values;
+        double[] xCoords = scratch.xCoords;
+        for (int i = 0; i < points; i++) {
+            xCoords[i] = getCoordinate(this.originX, xFirst, i - border);
+        }
+
+        ModuleBase sourceModule = this.sourceModule;
+        int index = 0;
+        for (int k = 0; k < points; k++) {
+            double z = getCoordinate(this.originZ, zFirst, k - border);
+            for (int j = 0; j < points; j++) {
+                double y = getCoordinate(this.originY, yFirst, j - border);
+                for (int i = 0; i < points; i++) {
+                    values[index++] = sourceModule.getValue(xCoords[i], y, z);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the index of the vertex of a cell, creating the vertex if the
+     * cell does not have one yet. The cell is given by its lower corner,
+     * from -1 to n - 1 along each axis.
+     */
+    int getVertex(int i, int j, int k, int border, int points, double chunkOriginX, double chunkOriginY, double chunkOriginZ, double isoLevel,
+            NormalMode normalMode, Scratch scratch) {
+        int cells = this.chunkSize + 1;
+        int cellIndex = ((k + 1) * cells + j + 1) * cells + i + 1;
+        int vertex = scratch.cellVertices[cellIndex];
+        if (vertex >= 0) {
+            return vertex;
+        }
+
+        // The corners are numbered with the x offset in bit 0, the y offset
+        // in bit 1 and the z offset in bit 2.
+        double[] values = scratch.values;
+        int base = ((k + border) * points + j + border) * points + i + border;
+        int[] cornerIndex = scratch.cornerIndex;
+        for (int corner = 0; corner < 8; corner++) {
+            cornerIndex[corner] = base + (corner & 1) + ((corner >> 1) & 1) * points + (corner >> 2) * points * points;
+        }
+
+        // Average the points where the surface crosses the edges of the cell.
+        double sumX = 0.0;
+        double sumY = 0.0;
+        double sumZ = 0.0;
+        int crossings = 0;
+        for (int axis = 0; axis < 3; axis++) {
+            int bit = 1 << axis;
+            for (int corner = 0; corner < 8; corner++) {
+                if ((corner & bit) != 0) {
+                    continue;
+                }
+                double v0 = values[cornerIndex[corner]];
+                double v1 = values[cornerIndex[corner | bit]];
+                if ((v0 > isoLevel) == (v1 > isoLevel)) {
+                    continue;
+                }
+                double t = (isoLevel - v0) / (v1 - v0);
+                sumX += (axis == 0) ? t : (corner & 1);
+                sumY += (axis == 1) ? t : ((corner >> 1) & 1);
+                sumZ += (axis == 2) ? t : (corner >> 2);
+                crossings++;
+            }
+        }
+        double rx = sumX / crossings;
+        double ry = sumY / crossings;
+        double rz = sumZ / crossings;
+
+        double nx;
+        double ny;
+        double nz;
+        if (normalMode == NormalMode.LATTICE) {
+            // Blend the central differences at the corners of the cell.
+            nx = 0.0;
+            ny = 0.0;
+            nz = 0.0;
+            int yStride = points;
+            int zStride = points * points;
+            for (int corner = 0; corner < 8; corner++) {
+                double weight = (((corner & 1) != 0) ? rx : 1.0 - rx) * ((((corner >> 1) & 1) != 0) ? ry : 1.0 - ry)
+                        * (((corner >> 2) != 0) ? rz : 1.0 - rz);
+                int index = cornerIndex[corner];
+                nx -= weight * (values[index + 1] - values[index - 1]);
+                ny -= weight * (values[index + yStride] - values[index - yStride]);
+                nz -= weight * (values[index + zStride] - values[index - zStride]);
+            }
+        } else {
+            double x = chunkOriginX + (i + rx) * this.spacing;
+            double y = chunkOriginY + (j + ry) * this.spacing;
+            double z = chunkOriginZ + (k + rz) * this.spacing;
+            double h = this.spacing * SAMPLED_NORMAL_STEP;
+            ModuleBase sourceModule = this.sourceModule;
+            nx = sourceModule.getValue(x - h, y, z) - sourceModule.getValue(x + h, y, z);
+            ny = sourceModule.getValue(x, y - h, z) - sourceModule.getValue(x, y + h, z);
+            nz = sourceModule.getValue(x, y, z - h) - sourceModule.getValue(x, y, z + h);
+        }
+
+        double length = Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (length > 0.0) {
+            nx /= length;
+            ny /= length;
+            nz /= length;
+        } else {
+            // The gradient vanishes; any direction is as good as another.
+            nx = 0.0;
+            ny = 1.0;
+            nz = 0.0;
+        }
+
+        vertex = scratch.vertexCount;
+        if (3 * vertex + 3 > scratch.positions.length) {
+            scratch.positions = Arrays.copyOf(scratch.positions, scratch.positions.length * 2);
+            scratch.normals = Arrays.copyOf(scratch.normals, scratch.normals.length * 2);
+        }
+        scratch.positions[3 * vertex] = (float) ((i + rx) * this.spacing);
+        scratch.positions[3 * vertex + 1] = (float) ((j + ry) * this.spacing);
+        scratch.positions[3 * vertex + 2] = (float) ((k + rz) * this.spacing);
+        scratch.normals[3 * vertex] = (float) nx;
+        scratch.normals[3 * vertex + 1] = (float) ny;
+        scratch.normals[3 * vertex + 2] = (float) nz;
+        scratch.vertexCount++;
+        scratch.cellVertices[cellIndex] = vertex;
+        return vertex;
+    }
+
+    static void addTriangle(int v0, int v1, int v2, Scratch scratch) {
+        if (scratch.indexCount + 3 > scratch.indices.length) {
+            scratch.indices = Arrays.copyOf(scratch.indices, scratch.indices.length * 2);
+        }
+        scratch.indices[scratch.indexCount++] = v0;
+        scratch.indices[scratch.indexCount++] = v1;
+        scratch.indices[scratch.indexCount++] = v2;
+    }
+
+    static Mesh createMesh(int chunkX, int chunkY, int chunkZ, double originX, double originY, double originZ, Scratch scratch) {
+        return new Mesh(chunkX, chunkY, chunkZ, originX, originY, originZ, Arrays.copyOf(scratch.positions, 3 * scratch.vertexCount), Arrays.copyOf(
+                scratch.normals, 3 * scratch.vertexCount), Arrays.copyOf(scratch.indices, scratch.indexCount));
+    }
+
+    /**
+     * Meshes a box of chunks and hands each mesh to a listener.
+     * <p>
+     * The chunks are split into bands, which are meshed on the executor if
+     * one is set. Each band reuses one Scratch object for all of its chunks.
+     * This method returns after every chunk is meshed.
+     *
+     * @param lowerChunkX The x index of the first chunk.
+     * @param lowerChunkY The y index of the first chunk.
+     * @param lowerChunkZ The z index of the first chunk.
+     * @param countX The number of chunks along the x axis.
+     * @param countY The number of chunks along the y axis.
+     * @param countZ The number of chunks along the z axis.
+     * @param listener The listener that receives the meshes.
+     *
+     * @throws IllegalArgumentException The listener is null, a count is
+     *             negative or there are more than Integer.MAX_VALUE chunks.
+     */
+    public void meshChunks(final int lowerChunkX, final int lowerChunkY, final int lowerChunkZ, final int countX, final int countY, int countZ,
+            final MeshListener listener) throws IllegalArgumentException {
+        if (listener == null || countX < 0 || countY < 0 || countZ < 0 || (long) countX * countY * countZ > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid parameter in IsosurfaceMesher");
+        }
+
+        final double isoLevel = this.isoLevel;
+        final NormalMode normalMode = this.normalMode;
+        final VolumeBound volumeBound = this.volumeBound;
+        final AtomicLong skipped = new AtomicLong();
+
+        RowBands.run(this.executor, countX * countY * countZ, this.bandSize, new RowBands.Band() {
+
+            @Override
+            public void processRows(int chunkStart, int chunkEnd) {
+                Scratch scratch = new Scratch();
+                long skippedChunks = 0;
+                for (int chunk = chunkStart; chunk < chunkEnd; chunk++) {
+                    int chunkX = lowerChunkX + chunk % countX;
+                    int chunkY = lowerChunkY + (chunk / countX) % countY;
+                    int chunkZ = lowerChunkZ + chunk / countX / countY;
+                    Mesh mesh = meshChunk(chunkX, chunkY, chunkZ, scratch, isoLevel, normalMode, volumeBound);
+                    if (scratch.isSkipped) {
+                        skippedChunks++;
+                    }
+                    listener.chunkMeshed(mesh);
+                }
+                skipped.addAndGet(skippedChunks);
+            }
+        });
+
+        this.skippedChunkCount = skipped.get();
+    }
+
+    /**
+     * Returns the number of chunks that the last call to meshChunks() skipped
+     * because the volume bound proved that the surface does not pass through
+     * them.
+     *
+     * @return The number of skipped chunks.
+     */
+    public long getSkippedChunkCount() {
+        return this.skippedChunkCount;
+    }
+
+    /**
+     * Returns the bound used to skip chunks.
+     *
+     * @return The volume bound, or null if every chunk is evaluated.
+     */
+    public VolumeBound getVolumeBound() {
+        return this.volumeBound;
+    }
+
+    /**
+     * Sets the bound used to skip chunks.
+     * <p>
+     * A chunk is skipped, and gets an empty mesh, if the bound proves that
+     * the output values around it are all greater than the iso-level or all
+     * less than or equal to it. NoiseVolumeBuilder.getModuleBound() returns a
+     * bound that uses the interval bounds of a noise module.
+     *
+     * @param volumeBound The volume bound, or null to evaluate every chunk.
+     */
+    public void setVolumeBound(VolumeBound volumeBound) {
+        this.volumeBound = volumeBound;
+    }
+
+    /**
+     * Returns the output value that separates the inside from the outside of
+     * the surface.
+     *
+     * @return The iso-level.
+     */
+    public double getIsoLevel() {
+        return this.isoLevel;
+    }
+
+    /**
+     * Sets the output value that separates the inside from the outside of
+     * the surface.
+     * <p>
+     * The points whose output values are greater than the iso-level are
+     * inside the surface.
+     *
+     * @param isoLevel The iso-level.
+     */
+    public void setIsoLevel(double isoLevel) {
+        this.isoLevel = isoLevel;
+    }
+
+    /**
+     * Returns the way the normals of the vertices are computed.
+     *
+     * @return The normal mode.
+     */
+    public NormalMode getNormalMode() {
+        return this.normalMode;
+    }
+
+    /**
+     * Sets the way the normals of the vertices are computed.
+     *
+     * @param normalMode The normal mode.
+     *
+     * @throws IllegalArgumentException The normal mode is null.
+     */
+    public void setNormalMode(NormalMode normalMode) throws IllegalArgumentException {
+        if (normalMode == null) {
+            throw new IllegalArgumentException("Invalid parameter in IsosurfaceMesher");
+        }
+        this.normalMode = normalMode;
+    }
+
+    /**
+     * Returns the number of chunks in each band meshed by the executor.
+     *
+     * @return The number of chunks in each band, or zero if it is chosen from
+     *         the number of available processors.
+     */
+    public int getBandSize() {
+        return this.bandSize;
+    }
+
+    /**
+     * Sets the number of chunks in each band meshed by the executor.
+     *
+     * @param bandSize The number of chunks in each band, or zero to choose
+     *            it from the number of available processors.
+     *
+     * @throws IllegalArgumentException The band size is negative.
+     */
+    public void setBandSize(int bandSize) throws IllegalArgumentException {
+        if (bandSize < 0) {
+            throw new IllegalArgumentException("Invalid parameter in IsosurfaceMesher");
+        }
+        this.bandSize = bandSize;
+    }
+
+    /**
+     * Returns the executor that meshes bands of chunks in parallel.
+     *
+     * @return The executor, or null if the chunks are meshed on the calling
+     *         thread.
+     */
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Sets the executor that meshes bands of chunks in parallel.
+     * <p>
+     * The source module and the volume bound are used from several threads
+     * at once, so they must be safe for concurrent use (see FrozenGraph).
+     *
+     * @param executor The executor, or null to mesh on the calling thread.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public int getChunkSize() {
+        return this.chunkSize;
+    }
+
+    public double getOriginX() {
+        return this.originX;
+    }
+
+    public double getOriginY() {
+        return this.originY;
+    }
+
+    public double getOriginZ() {
+        return this.originZ;
+    }
+
+    public double getSpacing() {
+        return this.spacing;
+    }
+
+    public ModuleBase getSourceModule() {
+        return this.sourceModule;
+    }
+}
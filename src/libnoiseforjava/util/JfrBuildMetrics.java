@@ -0,0 +1,267 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Build metrics that record Java Flight Recorder events.
+ * <p>
+ * The events are named libnoiseforjava.BuildStarted,
+ * libnoiseforjava.BuildCompleted, libnoiseforjava.TileCompleted and
+ * libnoiseforjava.RenderCompleted. An event is only created while a recording
+ * has it enabled, so an instance costs almost nothing when no recording is
+ * running. An instance may be shared by any number of builders and renderers.
+ * <p>
+ * A BuildCompleted event spans the whole build, from buildStarted(), and a
+ * RenderCompleted event the whole render. A TileCompleted event spans the
+ * time since the previous tile of the build ended, or since the build
+ * started. An event whose start was missed, because the recording started
+ * in between, has a duration of zero.
+ */
+public class JfrBuildMetrics implements BuildMetrics {
+
+    @Name("libnoiseforjava.BuildStarted")
+    @Label("Noise Map Build Started")
+    @Category("libnoiseforjava")
+    static class BuildStartedEvent extends Event {
+
+        @Label("Builder")
+        String builder;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+    }
+
+    @Name("libnoiseforjava.BuildCompleted")
+    @Label("Noise Map Build Completed")
+    @Category("libnoiseforjava")
+    static class BuildCompletedEvent extends Event {
+
+        @Label("Builder")
+        String builder;
+
+        @Label("Samples")
+        long sampleCount;
+
+        @Label("Evaluation Time")
+        @Timespan
+        long evaluationNanos;
+
+        @Label("Write Time")
+        @Timespan
+        long writeNanos;
+
+        @Label("Samples per Second")
+        double samplesPerSecond;
+    }
+
+    @Name("libnoiseforjava.TileCompleted")
+    @Label("Noise Map Tile Completed")
+    @Category("libnoiseforjava")
+    static class TileCompletedEvent extends Event {
+
+        @Label("Builder")
+        String builder;
+
+        @Label("Tile X")
+        int tileX;
+
+        @Label("Tile Y")
+        int tileY;
+
+        @Label("Samples")
+        long sampleCount;
+
+        @Label("Evaluation Time")
+        @Timespan
+        long evaluationNanos;
+
+        @Label("Write Time")
+        @Timespan
+        long writeNanos;
+    }
+
+    @Name("libnoiseforjava.RenderCompleted")
+    @Label("Render Completed")
+    @Category("libnoiseforjava")
+    @Description("An image was rendered from a noise map")
+    static class RenderCompletedEvent extends Event {
+
+        @Label("Renderer")
+        String renderer;
+
+        @Label("Width")
+        int width;
+
+        @Label("Height")
+        int height;
+
+        @Label("Render Time")
+        @Timespan
+        long nanos;
+    }
+
+    /**
+     * The completion events whose span is running on one thread, begun when
+     * the build, tile or render started.
+     */
+    static final class Spans {
+
+        BuildCompletedEvent build;
+
+        TileCompletedEvent tile;
+
+        RenderCompletedEvent render;
+    }
+
+    static final EventType BUILD_STARTED_TYPE = EventType.getEventType(BuildStartedEvent.class);
+
+    static final EventType BUILD_COMPLETED_TYPE = EventType.getEventType(BuildCompletedEvent.class);
+
+    static final EventType TILE_COMPLETED_TYPE = EventType.getEventType(TileCompletedEvent.class);
+
+    static final EventType RENDER_COMPLETED_TYPE = EventType.getEventType(RenderCompletedEvent.class);
+
+    /**
+     * The spans running on each thread. The builders and renderers report on
+     * the thread that calls them, so a span ends on the thread that began it.
+     */
+    final ThreadLocal<Spans> spans;
+
+    public JfrBuildMetrics() {
+        this.spans = new ThreadLocal<Spans>() {
+
+            @Override
+            protected Spans initialValue() {
+                return new Spans();
+            }
+        };
+    }
+
+    @Override
+    public void buildStarted(String builder, int width, int height) {
+        if (BUILD_STARTED_TYPE.isEnabled()) {
+            BuildStartedEvent event = new BuildStartedEvent();
+            event.builder = builder;
+            event.width = width;
+            event.height = height;
+            event.commit();
+        }
+
+        Spans spans = this.spans.get();
+        spans.build = null;
+        spans.tile = null;
+        if (BUILD_COMPLETED_TYPE.isEnabled()) {
+            spans.build = new BuildCompletedEvent();
+            spans.build.begin();
+        }
+        if (TILE_COMPLETED_TYPE.isEnabled()) {
+            spans.tile = new TileCompletedEvent();
+            spans.tile.begin();
+        }
+    }
+
+    @Override
+    public void tileCompleted(String builder, int tileX, int tileY, long sampleCount, long evaluationNanos, long writeNanos) {
+        if (!TILE_COMPLETED_TYPE.isEnabled()) {
+            return;
+        }
+
+        Spans spans = this.spans.get();
+        TileCompletedEvent event = (spans.tile != null) ? spans.tile : new TileCompletedEvent();
+        event.end();
+        event.builder = builder;
+        event.tileX = tileX;
+        event.tileY = tileY;
+        event.sampleCount = sampleCount;
+        event.evaluationNanos = evaluationNanos;
+        event.writeNanos = writeNanos;
+        event.commit();
+
+        // The next tile starts where this one ended.
+        spans.tile = new TileCompletedEvent();
+        spans.tile.begin();
+    }
+
+    @Override
+    public void buildCompleted(String builder, long sampleCount, long evaluationNanos, long writeNanos) {
+        if (!BUILD_COMPLETED_TYPE.isEnabled()) {
+            return;
+        }
+
+        Spans spans = this.spans.get();
+        BuildCompletedEvent event = (spans.build != null) ? spans.build : new BuildCompletedEvent();
+        spans.build = null;
+        spans.tile = null;
+        event.end();
+        long nanos = evaluationNanos + writeNanos;
+        event.builder = builder;
+        event.sampleCount = sampleCount;
+        event.evaluationNanos = evaluationNanos;
+        event.writeNanos = writeNanos;
+        event.samplesPerSecond = (nanos == 0) ? 0.0 : sampleCount * 1.0e9 / nanos;
+        event.commit();
+    }
+
+    @Override
+    public void renderStarted(String renderer, int width, int height) {
+        Spans spans = this.spans.get();
+        spans.render = null;
+        if (RENDER_COMPLETED_TYPE.isEnabled()) {
+            spans.render = new RenderCompletedEvent();
+            spans.render.begin();
+        }
+    }
+
+    @Override
+    public void renderCompleted(String renderer, int width, int height, long nanos) {
+        if (!RENDER_COMPLETED_TYPE.isEnabled()) {
+            return;
+        }
+
+        Spans spans = this.spans.get();
+        RenderCompletedEvent event = (spans.render != null) ? spans.render : new RenderCompletedEvent();
+        spans.render = null;
+        event.end();
+        event.renderer = renderer;
+        event.width = width;
+        event.height = height;
+        event.nanos = nanos;
+        event.commit();
+    }
+}
@@ -27,6 +27,10 @@
 
 package libnoiseforjava.util;
 
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import libnoiseforjava.Interp;
 import libnoiseforjava.module.ModuleBase;
 
 /**
@@ -62,6 +66,63 @@ public class NoiseMapBuilder {
      */
     int callback;
 
+    /**
+     * The callback that is called each time a row is completed, or null.
+     */
+    NoiseMapCallback rowCallback;
+
+    /**
+     * The metrics that receive the timing of each build, or null.
+     */
+    BuildMetrics metrics;
+
+    /**
+     * Time spent in the row callback during the current build, in
+     * nanoseconds. Only measured if metrics are set.
+     */
+    long callbackNanos;
+
+    /**
+     * The distances between computed points at each level of a progressive
+     * build, from the coarsest level to the final level.
+     */
+    int[] progressiveSteps;
+
+    /**
+     * The number of progressive builds requested. A progressive build stops
+     * as soon as a newer one is requested.
+     */
+    final AtomicInteger progressiveRequests;
+
+    /**
+     * Held while a progressive build writes the destination noise map.
+     */
+    final Object progressiveLock;
+
+    /**
+     * The distance between the points of the coarse grid of an adaptive
+     * build, in points.
+     */
+    int adaptiveGridStep;
+
+    /**
+     * The number of points computed by the last adaptive build.
+     */
+    long adaptiveSampleCount;
+
+    /**
+     * The size of the square blocks that are each built from the source
+     * module simplified for the block, in points, or 0 to build every point
+     * from the source module itself.
+     */
+    int regionBlockSize;
+
+    /**
+     * The number of blocks of the last build that were built from a
+     * simplified noise module.
+     */
+    long simplifiedBlockCount;
+
     /**
      * Height of the destination noise map, in points.
      */
@@ -88,6 +149,15 @@ public class NoiseMapBuilder {
         this.destWidth = 0;
         this.destNoiseMap = new NoiseMap(1, 1);
         this.sourceModule = new ModuleBase(0);
+        this.rowCallback = null;
+        this.metrics = null;
+        this.progressiveSteps = new int[] { 16, 4, 1 };
+        this.progressiveRequests = new AtomicInteger();
+        this.progressiveLock = new Object();
+        this.adaptiveGridStep = 8;
+        this.adaptiveSampleCount = 0;
+        this.regionBlockSize = 0;
+        this.simplifiedBlockCount = 0;
     }
 
     public NoiseMapBuilder(int height, int width) throws IllegalArgumentException {
@@ -96,6 +166,15 @@ public class NoiseMapBuilder {
         this.destWidth = 0;
         this.destNoiseMap = new NoiseMap(height, width);
         this.sourceModule = new ModuleBase(0);
+        this.rowCallback = null;
+        this.metrics = null;
+        this.progressiveSteps = new int[] { 16, 4, 1 };
+        this.progressiveRequests = new AtomicInteger();
+        this.progressiveLock = new Object();
+        this.adaptiveGridStep = 8;
+        this.adaptiveSampleCount = 0;
+        this.regionBlockSize = 0;
+        this.simplifiedBlockCount = 0;
     }
 
     /**
@@ -121,6 +200,753 @@ public class NoiseMapBuilder {
         // override in child classes
     }
 
+    /**
+     * Builds the noise map one tile at a time and writes each tile to a tiled
+     * noise-map file.
+     * <p>
+     * Only one tile is held in memory, so this method can build noise maps
+     * that are far larger than the available memory. The values are the same
+     * as the values that the build() method writes into the destination noise
+     * map. The destination noise map is not used.
+     *
+     * @param writer The writer of the tiled noise-map file.
+     *
+     * @pre setBounds() was previously called.
+     * @pre setSourceModule() was previously called.
+     * @pre The size of the tiled noise map equals the size specified by
+     *      setDestSize().
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     * @throws IllegalStateException This builder does not build tiles.
+     * @throws IOException A tile could not be written.
+     */
+    public void buildTiles(TiledNoiseMapWriter writer) throws IllegalArgumentException, IllegalStateException, IOException {
+        checkRegionBuildSupported();
+        checkParameters();
+        if (writer.getWidth() != this.destWidth || writer.getHeight() != this.destHeight) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilder");
+        }
+
+        this.simplifiedBlockCount = 0;
+        int tileWidth = writer.getTileWidth();
+        int tileHeight = writer.getTileHeight();
+        NoiseMap tile = new NoiseMap(tileWidth, tileHeight);
+        BuildMetrics metrics = this.metrics;
+        String name = getClass().getSimpleName();
+        long evaluationNanos = 0;
+        long writeNanos = 0;
+
+        if (metrics != null) {
+            metrics.buildStarted(name, this.destWidth, this.destHeight);
+        }
+
+        for (int tileY = 0; tileY < writer.getTileCountY(); tileY++) {
+            for (int tileX = 0; tileX < writer.getTileCountX(); tileX++) {
+                int xStart = tileX * tileWidth;
+                int yStart = tileY * tileHeight;
+                int width = Math.min(tileWidth, this.destWidth - xStart);
+                int height = Math.min(tileHeight, this.destHeight - yStart);
+                if (metrics == null) {
+                    buildRegion(tile, xStart, yStart, width, height);
+                    writer.writeTile(tileX, tileY, tile, 0, 0);
+                } else {
+                    long start = System.nanoTime();
+                    buildRegion(tile, xStart, yStart, width, height);
+                    long built = System.nanoTime();
+                    writer.writeTile(tileX, tileY, tile, 0, 0);
+                    long written = System.nanoTime();
+                    evaluationNanos += built - start;
+                    writeNanos += written - built;
+                    metrics.tileCompleted(name, tileX, tileY, (long) width * height, built - start, written - built);
+                }
+            }
+        }
+
+        if (metrics != null) {
+            metrics.buildCompleted(name, (long) this.destWidth * this.destHeight, evaluationNanos, writeNanos);
+        }
+    }
+
+    /**
+     * Builds the noise map one tile at a time, with an apron of points from
+     * the neighbouring tiles around each tile.
+     * <p>
+     * Each tile passed to the listener is (tileWidth + 2 * apron) x
+     * (tileHeight + 2 * apron) points in size; the last column and row of
+     * tiles are narrower when the noise map size is not a multiple of the
+     * tile size. The apron lets the renderers light the edges of a tile
+     * exactly like the same points of the whole noise map (see
+     * RendererImage.setApron()). The apron around the outer edges of the
+     * noise map continues the noise beyond the bounds.
+     * <p>
+     * The tiles are built row by row. Neighbouring tiles share 2 * apron
+     * columns or rows of points, and every shared point is computed only
+     * once: a tile copies the columns it shares with the tile to its left and
+     * the rows it shares with the tile above it, including the corners, and
+     * computes the rest. Only the shared strips of the previous tile and of
+     * the row of tiles above are kept. The values are the same as the values
+     * that the build() method writes into the destination noise map. The
+     * destination noise map is not used.
+     *
+     * @param tileWidth The width of a tile, in points, without the apron.
+     * @param tileHeight The height of a tile, in points, without the apron.
+     * @param apron The number of points around each side of a tile.
+     * @param listener The listener that receives each tile.
+     *
+     * @pre setBounds() was previously called.
+     * @pre setSourceModule() was previously called.
+     * @pre The tile width and height are positive.
+     * @pre The apron is not negative.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     * @throws IllegalStateException This builder does not build tiles.
+     */
+    public void buildTiles(int tileWidth, int tileHeight, int apron, TileListener listener) throws IllegalArgumentException, IllegalStateException {
+        checkRegionBuildSupported();
+        checkParameters();
+        if (tileWidth < 1 || tileHeight < 1 || apron < 0 || listener == null) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilder");
+        }
+
+        this.simplifiedBlockCount = 0;
+        int tileCountX = (this.destWidth + tileWidth - 1) / tileWidth;
+        int tileCountY = (this.destHeight + tileHeight - 1) / tileHeight;
+        int overlap = 2 * apron;
+
+        // The bottom rows of each tile in the previous row of tiles, and the
+        // right columns of the previous tile in this row.
+        NoiseMap[] aboveStrips = new NoiseMap[tileCountX];
+        NoiseMap leftStrip = null;
+        NoiseMap region = new NoiseMap(tileWidth + overlap, tileHeight + overlap);
+
+        BuildMetrics metrics = this.metrics;
+        String name = getClass().getSimpleName();
+        long sampleCount = 0;
+        long evaluationNanos = 0;
+        long listenerNanos = 0;
+
+        if (metrics != null) {
+            metrics.buildStarted(name, this.destWidth, this.destHeight);
+        }
+
+        for (int tileY = 0; tileY < tileCountY; tileY++) {
+            for (int tileX = 0; tileX < tileCountX; tileX++) {
+                int xStart = tileX * tileWidth - apron;
+                int yStart = tileY * tileHeight - apron;
+                int width = Math.min(tileWidth, this.destWidth - tileX * tileWidth) + overlap;
+                int height = Math.min(tileHeight, this.destHeight - tileY * tileHeight) + overlap;
+                int copiedColumns = tileX > 0 ? overlap : 0;
+                int copiedRows = tileY > 0 ? overlap : 0;
+                NoiseMap tile = new NoiseMap(width, height);
+                long start = (metrics != null) ? System.nanoTime() : 0;
+
+                if (copiedRows > 0) {
+                    copyPoints(aboveStrips[tileX], 0, 0, tile, 0, 0, width, copiedRows);
+                }
+                if (copiedColumns > 0) {
+                    copyPoints(leftStrip, 0, copiedRows, tile, 0, copiedRows, copiedColumns, height - copiedRows);
+                }
+
+                int regionWidth = width - copiedColumns;
+                int regionHeight = height - copiedRows;
+                if (regionWidth > 0 && regionHeight > 0) {
+                    buildRegion(region, xStart + copiedColumns, yStart + copiedRows, regionWidth, regionHeight);
+                    copyPoints(region, 0, 0, tile, copiedColumns, copiedRows, regionWidth, regionHeight);
+                }
+
+                // Keep the strips that the next tiles share before the
+                // listener owns the tile.
+                if (overlap > 0) {
+                    leftStrip = new NoiseMap(overlap, height);
+                    copyPoints(tile, width - overlap, 0, leftStrip, 0, 0, overlap, height);
+                    aboveStrips[tileX] = new NoiseMap(width, overlap);
+                    copyPoints(tile, 0, height - overlap, aboveStrips[tileX], 0, 0, width, overlap);
+                }
+
+                long tileSamples = (long) Math.max(regionWidth, 0) * Math.max(regionHeight, 0);
+                sampleCount += tileSamples;
+                if (metrics == null) {
+                    listener.tileCompleted(tileX, tileY, tile);
+                } else {
+                    long built = System.nanoTime();
+                    listener.tileCompleted(tileX, tileY, tile);
+                    long notified = System.nanoTime();
+                    evaluationNanos += built - start;
+                    listenerNanos += notified - built;
+                    metrics.tileCompleted(name, tileX, tileY, tileSamples, built - start, notified - built);
+                }
+            }
+        }
+
+        if (metrics != null) {
+            metrics.buildCompleted(name, sampleCount, evaluationNanos, listenerNanos);
+        }
+    }
+
+    /**
+     * Copies a block of points from one noise map to another.
+     */
+    static void copyPoints(NoiseMap source, int sourceX, int sourceY, NoiseMap dest, int destX, int destY, int width, int height) {
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                dest.setValue(destX + x, destY + y, source.getValue(sourceX + x, sourceY + y));
+            }
+        }
+    }
+
+    /**
+     * Fills the whole destination noise map and reports the timing to the
+     * metrics, if any. The destination noise map must already have the
+     * destination size.
+     */
+    void buildDestNoiseMap() {
+        this.simplifiedBlockCount = 0;
+        BuildMetrics metrics = this.metrics;
+        if (metrics == null) {
+            buildRegion(this.destNoiseMap, 0, 0, this.destWidth, this.destHeight);
+            return;
+        }
+
+        String name = getClass().getSimpleName();
+        metrics.buildStarted(name, this.destWidth, this.destHeight);
+        this.callbackNanos = 0;
+        long start = System.nanoTime();
+        buildRegion(this.destNoiseMap, 0, 0, this.destWidth, this.destHeight);
+        long nanos = System.nanoTime() - start;
+        metrics.buildCompleted(name, (long) this.destWidth * this.destHeight, nanos - this.callbackNanos, this.callbackNanos);
+    }
+
+    /**
+     * Builds the noise map from coarse to fine.
+     * <p>
+     * The first level computes one point in every block of 16 x 16 points and
+     * repeats it over the block, the second level one point in every block of
+     * 4 x 4 points, and the final level every point (see
+     * setProgressiveSteps()). A level does not compute the points that a
+     * coarser level already computed. The listener is called after each level,
+     * so that an application can render a preview while the refinement
+     * continues. The final noise map is identical to the noise map built by
+     * build().
+     * <p>
+     * Calling this method again, from any thread, or calling
+     * cancelProgressive() stops a progressive build that is still running.
+     * The newer build starts once the stale one has stopped writing the
+     * destination noise map.
+     * <p>
+     * A completed build is reported to the metrics, if any, with the time
+     * spent in the row callback and the listener as the write time; a
+     * cancelled build is only reported as started.
+     *
+     * @param listener The listener called after each level, or null.
+     *
+     * @return True if the build completed, false if it was cancelled.
+     *
+     * @throws IllegalArgumentException See the preconditions of build().
+     * @throws IllegalStateException This builder does not build single
+     *             points.
+     */
+    public boolean buildProgressive(ProgressiveBuildListener listener) throws IllegalArgumentException, IllegalStateException {
+        checkPointBuildSupported();
+        int request = this.progressiveRequests.incrementAndGet();
+
+        synchronized (this.progressiveLock) {
+            if (this.destNoiseMap == null) {
+                throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilder");
+            }
+            checkParameters();
+            this.destNoiseMap.setSize(this.destWidth, this.destHeight);
+
+            BuildMetrics metrics = this.metrics;
+            String name = getClass().getSimpleName();
+            long start = 0;
+            long listenerNanos = 0;
+            if (metrics != null) {
+                metrics.buildStarted(name, this.destWidth, this.destHeight);
+                this.callbackNanos = 0;
+                start = System.nanoTime();
+            }
+
+            int previousStep = 0;
+            for (int step : this.progressiveSteps) {
+                for (int y = 0; y < this.destHeight; y += step) {
+                    if (this.progressiveRequests.get() != request) {
+                        return false;
+                    }
+
+                    boolean isReusedRow = previousStep != 0 && y % previousStep == 0;
+                    for (int x = 0; x < this.destWidth; x += step) {
+                        if (isReusedRow && x % previousStep == 0) {
+                            // Computed by a coarser level, and already
+                            // repeated over the block of this level.
+                            continue;
+                        }
+
+                        double value = getPointValue(x, y);
+                        if (step == 1) {
+                            this.destNoiseMap.setValue(x, y, value);
+                        } else {
+                            int xEnd = Math.min(x + step, this.destWidth);
+                            int yEnd = Math.min(y + step, this.destHeight);
+                            for (int blockY = y; blockY < yEnd; blockY++) {
+                                for (int blockX = x; blockX < xEnd; blockX++) {
+                                    this.destNoiseMap.setValue(blockX, blockY, value);
+                                }
+                            }
+                        }
+                    }
+                    if (step == 1) {
+                        setCallback(y);
+                    }
+                }
+
+                if (listener != null) {
+                    if (metrics == null) {
+                        listener.levelCompleted(this.destNoiseMap, step);
+                    } else {
+                        long levelStart = System.nanoTime();
+                        listener.levelCompleted(this.destNoiseMap, step);
+                        listenerNanos += System.nanoTime() - levelStart;
+                    }
+                }
+                previousStep = step;
+            }
+
+            if (metrics != null) {
+                long nanos = System.nanoTime() - start;
+                long writeNanos = this.callbackNanos + listenerNanos;
+                metrics.buildCompleted(name, (long) this.destWidth * this.destHeight, nanos - writeNanos, writeNanos);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Stops the progressive build that is running, if any.
+     */
+    public void cancelProgressive() {
+        this.progressiveRequests.incrementAndGet();
+    }
+
+    /**
+     * Returns the distances between computed points at each level of a
+     * progressive build.
+     */
+    public int[] getProgressiveSteps() {
+        return this.progressiveSteps.clone();
+    }
+
+    /**
+     * Sets the distances between computed points at each level of a
+     * progressive build.
+     *
+     * @param progressiveSteps The steps, from the coarsest level to the final
+     *            level. The default is 16, 4, 1.
+     *
+     * @pre Each step divides the step before it.
+     * @pre The last step is 1.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void setProgressiveSteps(int... progressiveSteps) throws IllegalArgumentException {
+        if (progressiveSteps.length == 0 || progressiveSteps[progressiveSteps.length - 1] != 1) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilder");
+        }
+        for (int i = 0; i < progressiveSteps.length; i++) {
+            if (progressiveSteps[i] < 1 || (i > 0 && progressiveSteps[i - 1] % progressiveSteps[i] != 0)) {
+                throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilder");
+            }
+        }
+        this.progressiveSteps = progressiveSteps.clone();
+    }
+
+    /**
+     * Builds the noise map, interpolating the points of smooth regions.
+     * <p>
+     * This method computes the points of a coarse grid (see
+     * setAdaptiveGridStep()) and divides the noise map into the cells between
+     * them. In each cell it also computes the center and the midpoints of the
+     * upper and left edges, and compares them with the bicubic interpolation
+     * (Interp.cubicInterp()) of the surrounding grid points. If no difference
+     * exceeds the tolerance, the other points of the cell are interpolated;
+     * otherwise every point of the cell is computed. Smooth or constant
+     * regions, such as clamped oceans, Terrace steps or Const regions behind a
+     * Select, then cost a few points per cell.
+     * <p>
+     * A feature smaller than a cell that lies between the tested points may be
+     * smoothed over, so the tolerance does not bound the error at every point.
+     * getAdaptiveSampleCount() returns the number of points computed.
+     * <p>
+     * The callback is called for every row once the whole noise map is
+     * complete. The metrics, if any, receive the number of points computed.
+     *
+     * @param tolerance The largest accepted difference between a computed
+     *            and an interpolated value; 0 only interpolates cells that
+     *            are exactly predicted, such as constant regions.
+     *
+     * @throws IllegalArgumentException The tolerance is negative, or see the
+     *             preconditions of build().
+     * @throws IllegalStateException This builder does not build single
+     *             points.
+     */
+    public void buildAdaptive(double tolerance) throws IllegalArgumentException, IllegalStateException {
+        checkPointBuildSupported();
+        if (this.destNoiseMap == null || !(tolerance >= 0.0)) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilder");
+        }
+        checkParameters();
+        this.destNoiseMap.setSize(this.destWidth, this.destHeight);
+
+        BuildMetrics metrics = this.metrics;
+        if (metrics == null) {
+            buildAdaptiveMap(tolerance);
+            return;
+        }
+
+        String name = getClass().getSimpleName();
+        metrics.buildStarted(name, this.destWidth, this.destHeight);
+        this.callbackNanos = 0;
+        long start = System.nanoTime();
+        buildAdaptiveMap(tolerance);
+        long nanos = System.nanoTime() - start;
+        metrics.buildCompleted(name, this.adaptiveSampleCount, nanos - this.callbackNanos, this.callbackNanos);
+    }
+
+    /**
+     * Fills the destination noise map for buildAdaptive(), which checked the
+     * parameters.
+     */
+    void buildAdaptiveMap(double tolerance) {
+        if (this.destWidth < 2 || this.destHeight < 2) {
+            // No cells to interpolate.
+            for (int y = 0; y < this.destHeight; y++) {
+                for (int x = 0; x < this.destWidth; x++) {
+                    this.destNoiseMap.setValue(x, y, getPointValue(x, y));
+                }
+                setCallback(y);
+            }
+            this.adaptiveSampleCount = (long) this.destWidth * this.destHeight;
+            return;
+        }
+
+        int step = this.adaptiveGridStep;
+        int[] gridX = getGridLines(this.destWidth, step);
+        int[] gridY = getGridLines(this.destHeight, step);
+        double[][] grid = new double[gridY.length][gridX.length];
+        long sampleCount = 0;
+
+        for (int j = 0; j < gridY.length; j++) {
+            for (int i = 0; i < gridX.length; i++) {
+                grid[j][i] = getPointValue(gridX[i], gridY[j]);
+                this.destNoiseMap.setValue(gridX[i], gridY[j], grid[j][i]);
+            }
+        }
+        sampleCount += (long) gridX.length * gridY.length;
+
+        // Each cell covers [gridX[i], gridX[i + 1]) x [gridY[j], gridY[j + 1]),
+        // and the last cells also cover the last column and row.
+        for (int j = 0; j + 1 < gridY.length; j++) {
+            int yStart = gridY[j];
+            int yEnd = (j + 2 == gridY.length) ? gridY[j + 1] + 1 : gridY[j + 1];
+            for (int i = 0; i + 1 < gridX.length; i++) {
+                int xStart = gridX[i];
+                int xEnd = (i + 2 == gridX.length) ? gridX[i + 1] + 1 : gridX[i + 1];
+                int xMid = (gridX[i] + gridX[i + 1]) / 2;
+                int yMid = (gridY[j] + gridY[j + 1]) / 2;
+
+                boolean isSmooth = false;
+                double center = 0.0, top = 0.0, left = 0.0;
+                if (xMid > xStart && yMid > yStart) {
+                    center = getPointValue(xMid, yMid);
+                    top = getPointValue(xMid, yStart);
+                    left = getPointValue(xStart, yMid);
+                    sampleCount += 3;
+                    isSmooth = Math.abs(center - interpolateGrid(grid, gridX, gridY, i, j, xMid, yMid)) <= tolerance
+                            && Math.abs(top - interpolateGrid(grid, gridX, gridY, i, j, xMid, yStart)) <= tolerance
+                            && Math.abs(left - interpolateGrid(grid, gridX, gridY, i, j, xStart, yMid)) <= tolerance;
+                }
+
+                if (isSmooth) {
+                    fillCell(grid, gridX, gridY, i, j, xEnd, yEnd);
+                    this.destNoiseMap.setValue(xMid, yMid, center);
+                    this.destNoiseMap.setValue(xMid, yStart, top);
+                    this.destNoiseMap.setValue(xStart, yMid, left);
+                } else {
+                    boolean isTested = xMid > xStart && yMid > yStart;
+                    for (int y = yStart; y < yEnd; y++) {
+                        for (int x = xStart; x < xEnd; x++) {
+                            boolean isKnown = (x == xStart || x == gridX[i + 1]) && (y == yStart || y == gridY[j + 1]);
+                            if (isTested && x == xMid && (y == yMid || y == yStart)) {
+                                this.destNoiseMap.setValue(x, y, (y == yMid) ? center : top);
+                            } else if (isTested && x == xStart && y == yMid) {
+                                this.destNoiseMap.setValue(x, y, left);
+                            } else if (!isKnown) {
+                                this.destNoiseMap.setValue(x, y, getPointValue(x, y));
+                                sampleCount++;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        this.adaptiveSampleCount = sampleCount;
+        for (int y = 0; y < this.destHeight; y++) {
+            setCallback(y);
+        }
+    }
+
+    /**
+     * Returns the coordinates of the coarse grid lines along one axis: every
+     * step points, and the last point.
+     */
+    static int[] getGridLines(int size, int step) {
+        int count = (size - 1 + step - 1) / step + 1;
+        int[] lines = new int[Math.max(count, 1)];
+        for (int i = 0; i < lines.length; i++) {
+            lines[i] = Math.min(i * step, size - 1);
+        }
+        return lines;
+    }
+
+    /**
+     * Fills cell (i, j) of the destination noise map by bicubic interpolation
+     * of the surrounding 4 x 4 grid points, repeating the grid points at the
+     * edges.
+     */
+    void fillCell(double[][] grid, int[] gridX, int[] gridY, int i, int j, int xEnd, int yEnd) {
+        int i0 = Math.max(i - 1, 0);
+        int i3 = Math.min(i + 2, gridX.length - 1);
+        double[][] rows = new double[4][];
+        for (int k = 0; k < 4; k++) {
+            rows[k] = grid[Math.min(Math.max(j - 1 + k, 0), gridY.length - 1)];
+        }
+
+        // Interpolate along x once per column, then along y for every point of
+        // the column.
+        for (int x = gridX[i]; x < xEnd; x++) {
+            double xAlpha = (double) (x - gridX[i]) / (gridX[i + 1] - gridX[i]);
+            double n0 = Interp.cubicInterp(rows[0][i0], rows[0][i], rows[0][i + 1], rows[0][i3], xAlpha);
+            double n1 = Interp.cubicInterp(rows[1][i0], rows[1][i], rows[1][i + 1], rows[1][i3], xAlpha);
+            double n2 = Interp.cubicInterp(rows[2][i0], rows[2][i], rows[2][i + 1], rows[2][i3], xAlpha);
+            double n3 = Interp.cubicInterp(rows[3][i0], rows[3][i], rows[3][i + 1], rows[3][i3], xAlpha);
+            for (int y = gridY[j]; y < yEnd; y++) {
+                double yAlpha = (double) (y - gridY[j]) / (gridY[j + 1] - gridY[j]);
+                this.destNoiseMap.setValue(x, y, Interp.cubicInterp(n0, n1, n2, n3, yAlpha));
+            }
+        }
+    }
+
+    /**
+     * Interpolates a point of cell (i, j) bicubically from the surrounding
+     * 4 x 4 grid points, repeating the grid points at the edges.
+     */
+    static double interpolateGrid(double[][] grid, int[] gridX, int[] gridY, int i, int j, int x, int y) {
+        double xAlpha = (double) (x - gridX[i]) / (gridX[i + 1] - gridX[i]);
+        double yAlpha = (double) (y - gridY[j]) / (gridY[j + 1] - gridY[j]);
+        int i0 = Math.max(i - 1, 0);
+        int i3 = Math.min(i + 2, gridX.length - 1);
+
+        double[] rows = new double[4];
+        for (int k = 0; k < 4; k++) {
+            double[] row = grid[Math.min(Math.max(j - 1 + k, 0), gridY.length - 1)];
+            rows[k] = Interp.cubicInterp(row[i0], row[i], row[i + 1], row[i3], xAlpha);
+        }
+        return Interp.cubicInterp(rows[0], rows[1], rows[2], rows[3], yAlpha);
+    }
+
+    /**
+     * Returns the number of points that the last call to buildAdaptive()
+     * computed.
+     *
+     * @return The number of points computed; the other points of the noise
+     *         map were interpolated.
+     */
+    public long getAdaptiveSampleCount() {
+        return this.adaptiveSampleCount;
+    }
+
+    /**
+     * Returns the distance between the points of the coarse grid of an
+     * adaptive build.
+     */
+    public int getAdaptiveGridStep() {
+        return this.adaptiveGridStep;
+    }
+
+    /**
+     * Sets the distance between the points of the coarse grid of an adaptive
+     * build.
+     *
+     * @param adaptiveGridStep The distance, in points. Larger cells save
+     *            more points in smooth regions and cost more in detailed
+     *            ones. The default is 8.
+     *
+     * @throws IllegalArgumentException The distance is less than 2.
+     */
+    public void setAdaptiveGridStep(int adaptiveGridStep) throws IllegalArgumentException {
+        if (adaptiveGridStep < 2) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilder");
+        }
+        this.adaptiveGridStep = adaptiveGridStep;
+    }
+
+    /**
+     * Returns the size of the blocks that are built from a simplified noise
+     * module.
+     *
+     * @return The size of the blocks, in points, or 0 if every point is built
+     *         from the source module.
+     */
+    public int getRegionBlockSize() {
+        return this.regionBlockSize;
+    }
+
+    /**
+     * Sets the size of the blocks that are built from a simplified noise
+     * module.
+     * <p>
+     * Before building a block of points, the builder asks the source module
+     * for a version of itself simplified for the input values of the block
+     * (see ModuleBase.getRegionModule()). Where the control module of a
+     * Select noise module is bounded to one branch over the whole block, such
+     * as inside a large ocean or desert, the block is built from that branch
+     * alone. The values are the same as without blocks. Smaller blocks find
+     * more single-branch regions but simplify the graph more often.
+     * <p>
+     * This applies to build() and buildTiles() of the planar, spherical and
+     * cylindrical builders. Noise modules from outside the module package
+     * must pass their input values to their source modules unchanged, or
+     * override ModuleBase.createRegionModule().
+     *
+     * @param regionBlockSize The size of the blocks, in points, or 0 (the
+     *            default) to build every point from the source module.
+     *
+     * @throws IllegalArgumentException The size is negative.
+     */
+    public void setRegionBlockSize(int regionBlockSize) throws IllegalArgumentException {
+        if (regionBlockSize < 0) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilder");
+        }
+        this.regionBlockSize = regionBlockSize;
+    }
+
+    /**
+     * Returns the number of blocks of the last build that were built from a
+     * simplified noise module.
+     *
+     * @return The number of blocks, which is zero if region blocks are
+     *         disabled.
+     */
+    public long getSimplifiedBlockCount() {
+        return this.simplifiedBlockCount;
+    }
+
+    /**
+     * Returns the noise module to build a block from, given the bounds of the
+     * input values of the block, and counts the blocks that are simplified.
+     */
+    ModuleBase getBlockModule(ModuleBase module, double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ) {
+        ModuleBase blockModule = module.getRegionModule(lowerX, upperX, lowerY, upperY, lowerZ, upperZ);
+        if (blockModule != module) {
+            this.simplifiedBlockCount++;
+        }
+        return blockModule;
+    }
+
+    /**
+     * Stores the smallest and largest of count entries of a table, starting
+     * at the given index, at index 0 and 1 of the range.
+     */
+    static void getTableRange(double[] table, int start, int count, double[] range) {
+        double lower = Double.POSITIVE_INFINITY;
+        double upper = Double.NEGATIVE_INFINITY;
+        for (int i = start; i < start + count; i++) {
+            lower = Math.min(lower, table[i]);
+            upper = Math.max(upper, table[i]);
+        }
+        range[0] = lower;
+        range[1] = upper;
+    }
+
+    /**
+     * Returns the value of one point of the noise map, exactly as build()
+     * computes it.
+     *
+     * @param x The x coordinate of the point.
+     * @param y The y coordinate of the point.
+     */
+    double getPointValue(int x, int y) {
+        // override in child classes
+        return 0.0;
+    }
+
+    /**
+     * Returns true if this builder implements getPointValue(), which the
+     * buildProgressive() and buildAdaptive() methods require.
+     */
+    boolean isPointBuildSupported() {
+        return false;
+    }
+
+    /**
+     * Checks that this builder can build single points of the noise map.
+     *
+     * @throws IllegalStateException This builder does not build single
+     *             points.
+     */
+    void checkPointBuildSupported() throws IllegalStateException {
+        if (!isPointBuildSupported()) {
+            throw new IllegalStateException(getClass().getSimpleName() + " does not build single points");
+        }
+    }
+
+    /**
+     * Checks the parameters shared by the build() and buildTiles() methods.
+     *
+     * @throws IllegalArgumentException A parameter is invalid.
+     */
+    void checkParameters() throws IllegalArgumentException {
+        if (this.destWidth <= 0 || this.destHeight <= 0 || this.sourceModule == null) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilder");
+        }
+    }
+
+    /**
+     * Fills a region of the noise map.
+     * <p>
+     * The point (x, y) of the noise map, in points, is written to position
+     * (x - xStart, y - yStart) of the given noise map. If that noise map is the
+     * destination noise map, the callback is called after each row.
+     *
+     * @param dest The noise map that receives the values.
+     * @param xStart The x coordinate of the first column of the region.
+     * @param yStart The y coordinate of the first row of the region.
+     * @param width The width of the region, in points.
+     * @param height The height of the region, in points.
+     */
+    void buildRegion(NoiseMap dest, int xStart, int yStart, int width, int height) {
+        // override in child classes
+    }
+
+    /**
+     * Returns true if this builder implements buildRegion(), which the
+     * buildTiles() methods require.
+     */
+    boolean isRegionBuildSupported() {
+        return false;
+    }
+
+    /**
+     * Checks that this builder can build regions of the noise map.
+     *
+     * @throws IllegalStateException This builder does not build regions.
+     */
+    void checkRegionBuildSupported() throws IllegalStateException {
+        if (!isRegionBuildSupported()) {
+            throw new IllegalStateException(getClass().getSimpleName() + " does not build tiles");
+        }
+    }
+
     /**
      * Returns the height of the destination noise map.
      * <p>
@@ -193,7 +1019,62 @@ public class NoiseMapBuilder {
         return this.destNoiseMap;
     }
 
+    /**
+     * Returns the callback that is called each time a row is completed.
+     *
+     * @return The callback, or null if no callback is set.
+     */
+    public NoiseMapCallback getCallback() {
+        return this.rowCallback;
+    }
+
+    /**
+     * Sets the callback that is called each time a row of the destination
+     * noise map is completed.
+     * <p>
+     * The build() method calls the callback on the building thread after each
+     * row, in increasing row order. The callback may read the completed row
+     * from the destination noise map.
+     *
+     * @param callback The callback, or null to remove the callback.
+     */
+    public void setCallback(NoiseMapCallback callback) {
+        this.rowCallback = callback;
+    }
+
+    /**
+     * Returns the metrics that receive the timing of each build.
+     *
+     * @return The metrics, or null if no metrics are set.
+     */
+    public BuildMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Sets the metrics that receive the timing of each build.
+     * <p>
+     * The build(), buildProgressive() and buildAdaptive() methods report the
+     * time spent computing values separately from the time spent in the row
+     * callback, and the buildTiles() method reports every tile as well as the
+     * whole noise map.
+     *
+     * @param metrics The metrics, or null to stop reporting.
+     */
+    public void setMetrics(BuildMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     void setCallback(int callback) {
         this.callback = callback;
+        if (this.rowCallback != null) {
+            if (this.metrics == null) {
+                this.rowCallback.rowCompleted(callback);
+            } else {
+                long start = System.nanoTime();
+                this.rowCallback.rowCompleted(callback);
+                this.callbackNanos += System.nanoTime() - start;
+            }
+        }
     }
 }
@@ -0,0 +1,445 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.util.concurrent.Executor;
+
+import libnoiseforjava.module.ModuleBase;
+
+/**
+ * Builds the six faces of a cube map of a spherical noise map.
+ * <p>
+ * An equirectangular noise map, as built by NoiseMapBuilderSphere, spends
+ * most of its points near the poles, where a row of points covers a tiny
+ * circle. This class instead projects each face of a cube onto the sphere, so
+ * the points are spread almost evenly over the surface. It fills one noise
+ * map per face.
+ * <p>
+ * The sphere has a radius of 1.0 unit and its center is at the origin, like
+ * the sphere of model.Sphere, so a cube map and an equirectangular noise map
+ * of the same source module show the same planet. The faces follow the
+ * OpenGL cube-map layout: face f at face coordinates (s, t), which range from
+ * -1 to +1 across the face, shows the direction returned by getDirection().
+ * Point (x, y) of a face with width w and height h is at s = (x + 0.5) * 2 /
+ * w - 1 and t = (y + 0.5) * 2 / h - 1.
+ * <p>
+ * Without warping, points near the corners of a face cover about one fifth
+ * of the area of points near its center. Call enableEqualAngleWarp() to space
+ * the points by equal angles instead, which brings that ratio to about 0.7
+ * at no extra cost per point.
+ * <p>
+ * To build the faces on several threads, pass an Executor to the
+ * setExecutor() method. The rows of all six faces are split into bands, so
+ * more than six threads can be kept busy. The faces are identical to the
+ * faces built on the calling thread.
+ * <p>
+ * For level-of-detail streaming, the buildTile() method builds one tile of a
+ * face subdivided as a quadtree. A tile is identical to the same region of
+ * the face built at the matching resolution.
+ * <p>
+ * To build the faces, pass six noise maps to setDestNoiseMaps(), pass the
+ * size of each face to setDestSize(), pass the source module to
+ * setSourceModule() and call build().
+ * <p>
+ * This builder only builds whole faces and tiles of faces: the inherited
+ * buildTiles(), buildProgressive() and buildAdaptive() methods throw an
+ * IllegalStateException, and setDestNoiseMap() rejects its argument.
+ */
+public class NoiseMapBuilderCubeSphere extends NoiseMapBuilder {
+
+    /**
+     * The face that faces the positive x axis.
+     */
+    public static final int FACE_POSITIVE_X = 0;
+
+    /**
+     * The face that faces the negative x axis.
+     */
+    public static final int FACE_NEGATIVE_X = 1;
+
+    /**
+     * The face that faces the positive y axis.
+     */
+    public static final int FACE_POSITIVE_Y = 2;
+
+    /**
+     * The face that faces the negative y axis.
+     */
+    public static final int FACE_NEGATIVE_Y = 3;
+
+    /**
+     * The face that faces the positive z axis.
+     */
+    public static final int FACE_POSITIVE_Z = 4;
+
+    /**
+     * The face that faces the negative z axis.
+     */
+    public static final int FACE_NEGATIVE_Z = 5;
+
+    /**
+     * The number of faces of a cube map.
+     */
+    public static final int FACE_COUNT = 6;
+
+    /**
+     * The deepest level of subdivision supported by buildTile().
+     */
+    public static final int MAX_TILE_LEVEL = 30;
+
+    /**
+     * For each face, the center of the face followed by the directions in
+     * which s and t increase.
+     */
+    private static final double[][] FACE_AXES = {
+        { 1, 0, 0, 0, 0, -1, 0, -1, 0 },
+        { -1, 0, 0, 0, 0, 1, 0, -1, 0 },
+        { 0, 1, 0, 1, 0, 0, 0, 0, 1 },
+        { 0, -1, 0, 1, 0, 0, 0, 0, -1 },
+        { 0, 0, 1, 1, 0, 0, 0, -1, 0 },
+        { 0, 0, -1, -1, 0, 0, 0, -1, 0 } };
+
+    /**
+     * The destination noise map of each face.
+     */
+    NoiseMap[] destNoiseMaps;
+
+    /**
+     * A flag specifying whether the points are spaced by equal angles.
+     */
+    boolean isEqualAngleWarpEnabled;
+
+    /**
+     * The executor that builds bands of rows in parallel, or null to build on
+     * the calling thread.
+     */
+    Executor executor;
+
+    /**
+     * The number of rows in each band built by the executor, or zero to
+     * choose it from the number of available processors.
+     */
+    int bandHeight;
+
+    public NoiseMapBuilderCubeSphere() throws IllegalArgumentException {
+        super();
+        this.destNoiseMaps = null;
+        this.isEqualAngleWarpEnabled = false;
+        this.executor = null;
+        this.bandHeight = 0;
+    }
+
+    /**
+     * Builds the six faces.
+     * <p>
+     * The callback is called after each row, numbering the rows of all faces
+     * consecutively from face 0 to face 5, unless an executor is set, in
+     * which case it is not called.
+     *
+     * @pre setDestNoiseMaps() was previously called.
+     * @pre setSourceModule() was previously called.
+     * @pre The width and height values specified by setDestSize() are positive.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    @Override
+    public void build() throws IllegalArgumentException {
+        checkParameters();
+
+        final NoiseMap[] faces = this.destNoiseMaps.clone();
+        for (NoiseMap face : faces) {
+            face.setSize(this.destWidth, this.destHeight);
+        }
+
+        final ModuleBase module = this.sourceModule;
+        final int faceHeight = this.destHeight;
+        final double[] sTable = getFaceCoordinates(0, this.destWidth, this.destWidth, this.isEqualAngleWarpEnabled);
+        final double[] tTable = getFaceCoordinates(0, this.destHeight, this.destHeight, this.isEqualAngleWarpEnabled);
+        final boolean isSerial = this.executor == null;
+
+        BuildMetrics metrics = this.metrics;
+        String name = getClass().getSimpleName();
+        long start = 0;
+        if (metrics != null) {
+            metrics.buildStarted(name, this.destWidth, this.destHeight * FACE_COUNT);
+            this.callbackNanos = 0;
+            start = System.nanoTime();
+        }
+
+        RowBands.run(this.executor, faceHeight * FACE_COUNT, this.bandHeight, new RowBands.Band() {
+
+            @Override
+            public void processRows(int yStart, int yEnd) {
+                for (int row = yStart; row < yEnd; row++) {
+                    int face = row / faceHeight;
+                    int y = row % faceHeight;
+                    fillRow(module, face, tTable[y], sTable, faces[face], y);
+                    if (isSerial) {
+                        setCallback(row);
+                    }
+                }
+            }
+        });
+
+        if (metrics != null) {
+            long nanos = System.nanoTime() - start;
+            metrics.buildCompleted(name, (long) this.destWidth * this.destHeight * FACE_COUNT, nanos - this.callbackNanos, this.callbackNanos);
+        }
+    }
+
+    /**
+     * Builds one tile of a face subdivided as a quadtree.
+     * <p>
+     * At level n, a face is divided into 2^n x 2^n tiles, and tile (0, 0) is
+     * the tile with the smallest s and t coordinates. The tile is sampled at
+     * the size of the given noise map, so its points are the points of the
+     * face built at 2^n times that size. Neighbouring tiles do not share any
+     * points.
+     * <p>
+     * This method uses the source module and the warp setting of this
+     * builder, but not the destination noise maps, the destination size or
+     * the executor. Several tiles may be built at once on different threads
+     * if the source module can be used from several threads.
+     *
+     * @param face The face, from FACE_POSITIVE_X to FACE_NEGATIVE_Z.
+     * @param level The level of subdivision, from 0 to MAX_TILE_LEVEL.
+     * @param tileX The column of the tile, from 0 to 2^level - 1.
+     * @param tileY The row of the tile, from 0 to 2^level - 1.
+     * @param dest The noise map that receives the tile. Its size is not
+     *            changed.
+     *
+     * @throws IllegalArgumentException A parameter is out of range, the noise
+     *             map is empty or no source module was set.
+     */
+    public void buildTile(int face, int level, int tileX, int tileY, NoiseMap dest) throws IllegalArgumentException {
+        if (face < 0 || face >= FACE_COUNT || level < 0 || level > MAX_TILE_LEVEL || tileX < 0 || tileY < 0 || tileX >= (1 << level)
+                || tileY >= (1 << level) || dest == null || dest.getWidth() <= 0 || dest.getHeight() <= 0 || this.sourceModule == null) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilderCubeSphere");
+        }
+
+        int width = dest.getWidth();
+        int height = dest.getHeight();
+        double[] sTable = getFaceCoordinates((long) tileX * width, width, (double) width * (1 << level), this.isEqualAngleWarpEnabled);
+        double[] tTable = getFaceCoordinates((long) tileY * height, height, (double) height * (1 << level), this.isEqualAngleWarpEnabled);
+
+        for (int y = 0; y < height; y++) {
+            fillRow(this.sourceModule, face, tTable[y], sTable, dest, y);
+        }
+    }
+
+    /**
+     * Returns the face coordinate of a run of points, before the points are
+     * projected onto the sphere.
+     *
+     * @param first The index of the first point along the whole face.
+     * @param count The number of points.
+     * @param size The number of points across the whole face.
+     * @param isWarped Whether the points are spaced by equal angles.
+     */
+    static double[] getFaceCoordinates(long first, int count, double size, boolean isWarped) {
+        double[] coordinates = new double[count];
+        for (int i = 0; i < count; i++) {
+            double s = (first + i + 0.5) / size * 2.0 - 1.0;
+            coordinates[i] = isWarped ? Math.tan(s * (Math.PI / 4.0)) : s;
+        }
+        return coordinates;
+    }
+
+    /**
+     * Fills one row of a face from the face coordinates of its points.
+     */
+    static void fillRow(ModuleBase module, int face, double t, double[] sTable, NoiseMap dest, int y) {
+        double[] axes = FACE_AXES[face];
+        double xBase = axes[0] + t * axes[6];
+        double yBase = axes[1] + t * axes[7];
+        double zBase = axes[2] + t * axes[8];
+        double tSquared = t * t + 1.0;
+
+        for (int x = 0; x < sTable.length; x++) {
+            double s = sTable[x];
+            double scale = 1.0 / Math.sqrt(s * s + tSquared);
+            double value = module.getValue((xBase + s * axes[3]) * scale, (yBase + s * axes[4]) * scale, (zBase + s * axes[5]) * scale);
+            dest.setValue(x, y, value);
+        }
+    }
+
+    /**
+     * Returns the direction from the center of the sphere to a point of a
+     * face.
+     * <p>
+     * This method does not apply the equal-angle warp; to find the direction
+     * of a warped point, pass tan(s * pi / 4) and tan(t * pi / 4) instead of
+     * s and t.
+     *
+     * @param face The face, from FACE_POSITIVE_X to FACE_NEGATIVE_Z.
+     * @param s The s coordinate on the face, from -1 to +1.
+     * @param t The t coordinate on the face, from -1 to +1.
+     * @param direction Receives the (x, y, z) components of the unit-length
+     *            direction.
+     *
+     * @throws IllegalArgumentException The face is out of range.
+     */
+    public static void getDirection(int face, double s, double t, double[] direction) throws IllegalArgumentException {
+        if (face < 0 || face >= FACE_COUNT) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilderCubeSphere");
+        }
+
+        double[] axes = FACE_AXES[face];
+        double scale = 1.0 / Math.sqrt(s * s + t * t + 1.0);
+        direction[0] = (axes[0] + s * axes[3] + t * axes[6]) * scale;
+        direction[1] = (axes[1] + s * axes[4] + t * axes[7]) * scale;
+        direction[2] = (axes[2] + s * axes[5] + t * axes[8]) * scale;
+    }
+
+    @Override
+    void checkParameters() throws IllegalArgumentException {
+        super.checkParameters();
+        if (this.destNoiseMaps == null) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilderCubeSphere");
+        }
+    }
+
+    /**
+     * Enables or disables the equal-angle warp.
+     * <p>
+     * With the warp, the points of a face are spaced by equal angles as seen
+     * from the center of the sphere, so the smallest point covers about 0.7
+     * of the area of the largest one instead of about one fifth. The areas
+     * are not equal. Without the warp, the points are spaced evenly on the
+     * face of the cube, which matches a cube map sampled by the direction
+     * vector.
+     *
+     * @param enable A flag that enables or disables the warp.
+     */
+    public void enableEqualAngleWarp(boolean enable) {
+        this.isEqualAngleWarpEnabled = enable;
+    }
+
+    /**
+     * Determines if the equal-angle warp is enabled.
+     *
+     * @return true if the points are spaced by equal angles.
+     */
+    public boolean isEqualAngleWarpEnabled() {
+        return this.isEqualAngleWarpEnabled;
+    }
+
+    /**
+     * Returns the destination noise maps of the faces.
+     *
+     * @return The noise maps, indexed by face, or null if none were set.
+     */
+    public NoiseMap[] getDestNoiseMaps() {
+        return (this.destNoiseMaps == null) ? null : this.destNoiseMaps.clone();
+    }
+
+    /**
+     * Sets the destination noise maps of the faces.
+     * <p>
+     * The build() method resizes each noise map to the destination size.
+     *
+     * @param destNoiseMaps One noise map per face, indexed by face.
+     *
+     * @throws IllegalArgumentException There are not six noise maps, or one
+     *             of them is null.
+     */
+    public void setDestNoiseMaps(NoiseMap... destNoiseMaps) throws IllegalArgumentException {
+        if (destNoiseMaps == null || destNoiseMaps.length != FACE_COUNT) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilderCubeSphere");
+        }
+        for (NoiseMap destNoiseMap : destNoiseMaps) {
+            if (destNoiseMap == null) {
+                throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilderCubeSphere");
+            }
+        }
+
+        this.destNoiseMaps = destNoiseMaps.clone();
+    }
+
+    /**
+     * Rejects a single destination noise map; this builder fills one noise
+     * map per face.
+     *
+     * @throws IllegalArgumentException Always; call setDestNoiseMaps()
+     *             instead.
+     */
+    @Override
+    public void setDestNoiseMap(NoiseMap destNoiseMap) throws IllegalArgumentException {
+        throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilderCubeSphere");
+    }
+
+    /**
+     * Returns the number of rows in each band built by the executor.
+     *
+     * @return The number of rows in each band, or zero if it is chosen from the
+     *         number of available processors.
+     */
+    public int getBandHeight() {
+        return this.bandHeight;
+    }
+
+    /**
+     * Returns the executor that builds bands of rows in parallel.
+     *
+     * @return The executor, or null if the faces are built on the calling
+     *         thread.
+     */
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Sets the number of rows in each band built by the executor.
+     *
+     * @param bandHeight The number of rows in each band, or zero to choose it
+     *            from the number of available processors.
+     *
+     * @pre The band height is not negative.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void setBandHeight(int bandHeight) throws IllegalArgumentException {
+        if (bandHeight < 0) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilderCubeSphere");
+        }
+
+        this.bandHeight = bandHeight;
+    }
+
+    /**
+     * Sets the executor that builds bands of rows in parallel.
+     * <p>
+     * The source module must be safe to use from several threads at once, for
+     * example a graph frozen with FrozenGraph.freeze().
+     *
+     * @param executor The executor, or null to build on the calling thread.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+}
@@ -74,6 +74,13 @@ public class NoiseMapBuilderCylinder extends NoiseMapBuilder {
      */
     double upperHeightBound;
 
+    /**
+     * Cosine and sine of the angle of each column, computed before each
+     * build.
+     */
+    double[] cosAngleTable;
+    double[] sinAngleTable;
+
     public NoiseMapBuilderCylinder() throws IllegalArgumentException {
         super();
         this.lowerAngleBound = 0.0;
@@ -84,43 +91,133 @@ public class NoiseMapBuilderCylinder extends NoiseMapBuilder {
 
     @Override
     public void build() throws IllegalArgumentException {
+        if (this.destNoiseMap == null) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilderCylinder");
+        }
+        checkParameters();
+
+        // Resize the destination noise map so that it can store the new output
+        // values from the source model.
+        this.destNoiseMap.setSize(this.destWidth, this.destHeight);
+
+        buildDestNoiseMap();
+    }
+
+    @Override
+    void checkParameters() throws IllegalArgumentException {
         if (this.upperAngleBound <= this.lowerAngleBound 
                 || this.upperHeightBound <= this.lowerHeightBound 
                 || this.destWidth <= 0 
                 || this.destHeight <= 0 
-                || this.sourceModule == null 
-                || this.destNoiseMap == null) {
+                || this.sourceModule == null) {
             throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilderCylinder");
         }
 
-        // Resize the destination noise map so that it can store the new output
-        // values from the source model.
-        this.destNoiseMap.setSize(this.destWidth, this.destHeight);
+        prepareTables();
+    }
 
+    /**
+     * Computes the cosine and sine of the angle of every column, so that no
+     * point of the build needs a trigonometric function.
+     * <p>
+     * New tables are created each time, so a build that is still running
+     * keeps the tables it started with.
+     */
+    void prepareTables() {
+        double[] cosAngle = new double[this.destWidth];
+        double[] sinAngle = new double[this.destWidth];
+        fillAngleTables(0, cosAngle, sinAngle);
+
+        this.cosAngleTable = cosAngle;
+        this.sinAngleTable = sinAngle;
+    }
+
+    /**
+     * Fills the tables with the cosine and sine of the angle of the columns
+     * starting at the given column, which may lie outside the noise map.
+     */
+    void fillAngleTables(int xStart, double[] cosAngle, double[] sinAngle) {
+        double xDelta = (this.upperAngleBound - this.lowerAngleBound) / this.destWidth;
+        for (int i = 0; i < cosAngle.length; i++) {
+            double curAngle = Math.toRadians(this.lowerAngleBound + (xStart + i) * xDelta);
+            cosAngle[i] = Math.cos(curAngle);
+            sinAngle[i] = Math.sin(curAngle);
+        }
+    }
+
+    @Override
+    boolean isRegionBuildSupported() {
+        return true;
+    }
+
+    @Override
+    void buildRegion(NoiseMap dest, int xStart, int yStart, int width, int height) {
         // Create the cylinder model.
         Cylinder cylinderModel = new Cylinder();
         cylinderModel.setModule(this.sourceModule);
 
-        double angleExtent = this.upperAngleBound - this.lowerAngleBound;
         double heightExtent = this.upperHeightBound - this.lowerHeightBound;
-        double xDelta = angleExtent / this.destWidth;
         double yDelta = heightExtent / this.destHeight;
-        double curAngle = this.lowerAngleBound;
-        double curHeight = this.lowerHeightBound;
-
-        // Fill every point in the noise map with the output values from the model.
-        for (int y = 0; y < this.destHeight; y++) {
-            curAngle = this.lowerAngleBound;
-            for (int x = 0; x < this.destWidth; x++) {
-                float curValue = (float) cylinderModel.getValue(curAngle, curHeight);
-                this.destNoiseMap.setValue(x, y, curValue);
-                curAngle += xDelta;
+        double[] cosAngle = this.cosAngleTable;
+        double[] sinAngle = this.sinAngleTable;
+        int angleOffset = xStart;
+
+        // A region that reaches outside the noise map gets its own tables.
+        if (xStart < 0 || xStart + width > cosAngle.length) {
+            cosAngle = new double[width];
+            sinAngle = new double[width];
+            fillAngleTables(xStart, cosAngle, sinAngle);
+            angleOffset = 0;
+        }
+        // Without region blocks, every row is a block of its own.
+        int blockSize = this.regionBlockSize;
+        int blockWidth = (blockSize > 0) ? blockSize : width;
+        int blockHeight = (blockSize > 0) ? blockSize : 1;
+        double[] values = new double[Math.min(blockWidth, width)];
+        double[] xRange = new double[2];
+        double[] zRange = new double[2];
+
+        // Fill every point in the region with the output values from the
+        // model, one row of a block at a time.
+        for (int yBlock = yStart; yBlock < yStart + height; yBlock += blockHeight) {
+            int yEnd = Math.min(yBlock + blockHeight, yStart + height);
+            for (int xBlock = 0; xBlock < width; xBlock += blockWidth) {
+                int count = Math.min(blockWidth, width - xBlock);
+                if (blockSize > 0) {
+                    double lowerHeight = this.lowerHeightBound + yBlock * yDelta;
+                    double upperHeight = this.lowerHeightBound + (yEnd - 1) * yDelta;
+                    getTableRange(cosAngle, angleOffset + xBlock, count, xRange);
+                    getTableRange(sinAngle, angleOffset + xBlock, count, zRange);
+                    cylinderModel.setModule(getBlockModule(this.sourceModule, xRange[0], xRange[1], lowerHeight, upperHeight, zRange[0], zRange[1]));
+                }
+
+                for (int y = yBlock; y < yEnd; y++) {
+                    double curHeight = this.lowerHeightBound + y * yDelta;
+                    cylinderModel.getValues(curHeight, cosAngle, sinAngle, angleOffset + xBlock, count, values);
+                    for (int x = 0; x < count; x++) {
+                        dest.setValue(xBlock + x, y - yStart, (float) values[x]);
+                    }
+                }
+            }
+            if (dest == this.destNoiseMap) {
+                for (int y = yBlock; y < yEnd; y++) {
+                    setCallback(y);
+                }
             }
-            curHeight += yDelta;
-            setCallback(y);
         }
     }
 
+    @Override
+    boolean isPointBuildSupported() {
+        return true;
+    }
+
+    @Override
+    double getPointValue(int x, int y) {
+        double curHeight = this.lowerHeightBound + y * ((this.upperHeightBound - this.lowerHeightBound) / this.destHeight);
+        return (float) this.sourceModule.getValue(this.cosAngleTable[x], curHeight, this.sinAngleTable[x]);
+    }
+
     /**
      * Returns the lower angle boundary of the cylindrical noise map.
      *
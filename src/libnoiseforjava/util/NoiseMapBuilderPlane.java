@@ -29,6 +29,9 @@ package libnoiseforjava.util;
 
 import libnoiseforjava.Interp;
 import libnoiseforjava.model.Plane;
+import libnoiseforjava.module.ModuleBase;
+import libnoiseforjava.module.ModuleGraphCodec;
+import libnoiseforjava.module.Periodic;
 
 /**
  * Builds a planar noise map.
@@ -44,7 +47,10 @@ import libnoiseforjava.model.Plane;
  * map, in units.
  * <p>
  * To make a tileable noise map with no seams at the edges, call the
- * enableSeamless() method.
+ * enableSeamless() method. By default, a seamless noise map blends four
+ * samples of the source module at every point; call setSeamlessMode() with
+ * SeamlessMode.PERIODIC to build it from a periodic copy of the source module
+ * instead, at the cost of a regular build.
  */
 public class NoiseMapBuilderPlane extends NoiseMapBuilder {
 
@@ -53,6 +59,17 @@ public class NoiseMapBuilderPlane extends NoiseMapBuilder {
      */
     boolean isSeamlessEnabled;
 
+    /**
+     * The way a seamless noise map is made.
+     */
+    SeamlessMode seamlessMode;
+
+    /**
+     * The periodic copy of the source module for the current build, or null
+     * if the noise map is not built in periodic mode.
+     */
+    ModuleBase periodicModule;
+
     /**
      * Lower x boundary of the planar noise map, in units.
      */
@@ -76,6 +93,8 @@ public class NoiseMapBuilderPlane extends NoiseMapBuilder {
     public NoiseMapBuilderPlane() throws IllegalArgumentException {
         super();
         this.isSeamlessEnabled = false;
+        this.seamlessMode = SeamlessMode.BLEND;
+        this.periodicModule = null;
         this.lowerXBound = 0.0;
         this.lowerZBound = 0.0;
         this.upperXBound = 0.0;
@@ -85,6 +104,8 @@ public class NoiseMapBuilderPlane extends NoiseMapBuilder {
     public NoiseMapBuilderPlane(int height, int width) throws IllegalArgumentException {
         super(height, width);
         this.isSeamlessEnabled = false;
+        this.seamlessMode = SeamlessMode.BLEND;
+        this.periodicModule = null;
         this.lowerXBound = 0.0;
         this.lowerZBound = 0.0;
         this.upperXBound = 0.0;
@@ -93,9 +114,10 @@ public class NoiseMapBuilderPlane extends NoiseMapBuilder {
 
     @Override
     public void build() throws IllegalArgumentException {
-        if (this.upperXBound <= this.lowerXBound || this.upperZBound <= this.lowerZBound || this.destWidth <= 0 || this.destHeight <= 0 || this.sourceModule == null || this.destNoiseMap == null) {
+        if (this.destNoiseMap == null) {
             throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlane");
         }
+        checkParameters();
 
         /*
          * Resize the destination noise map so that it can store the new output
@@ -103,47 +125,147 @@ public class NoiseMapBuilderPlane extends NoiseMapBuilder {
          */
         this.destNoiseMap.setSize(this.destWidth, this.destHeight);
 
+        buildDestNoiseMap();
+    }
+
+    @Override
+    void checkParameters() throws IllegalArgumentException {
+        if (this.upperXBound <= this.lowerXBound || this.upperZBound <= this.lowerZBound || this.destWidth <= 0 || this.destHeight <= 0 || this.sourceModule == null) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlane");
+        }
+
+        if (this.isSeamlessEnabled && this.seamlessMode == SeamlessMode.PERIODIC) {
+            this.periodicModule = createPeriodicModule();
+        } else {
+            this.periodicModule = null;
+        }
+    }
+
+    /**
+     * Copies the source module with every periodic generator repeating with
+     * the extent of the noise map.
+     */
+    ModuleBase createPeriodicModule() throws IllegalArgumentException {
+        final double xExtent = this.upperXBound - this.lowerXBound;
+        final double zExtent = this.upperZBound - this.lowerZBound;
+
+        return ModuleGraphCodec.copy(this.sourceModule, new ModuleGraphCodec.Substitution() {
+
+            @Override
+            public ModuleBase substitute(ModuleBase original, ModuleBase copy) {
+                if (copy instanceof Periodic) {
+                    Periodic periodic = (Periodic) copy;
+                    periodic.setPeriod(xExtent, 0.0, zExtent);
+                    periodic.build();
+                }
+                return copy;
+            }
+        });
+    }
+
+    @Override
+    boolean isRegionBuildSupported() {
+        return true;
+    }
+
+    @Override
+    void buildRegion(NoiseMap dest, int xStart, int yStart, int width, int height) {
         // Create the plane model.
         Plane planeModel = new Plane();
-        planeModel.setModule(this.sourceModule);
+        ModuleBase periodicModule = this.periodicModule;
+        ModuleBase module = (periodicModule != null) ? periodicModule : this.sourceModule;
+        planeModel.setModule(module);
 
         double xExtent = this.upperXBound - this.lowerXBound;
         double zExtent = this.upperZBound - this.lowerZBound;
         double xDelta = xExtent / this.destWidth;
         double zDelta = zExtent / this.destHeight;
-        double xCur = this.lowerXBound;
-        double zCur = this.lowerZBound;
-
-        // Fill every point in the noise map with the output values from the
-        // model.
-        for (int z = 0; z < this.destHeight; z++) {
-            xCur = this.lowerXBound;
-            for (int x = 0; x < this.destWidth; x++) {
-                double finalValue;
-
-                if (!this.isSeamlessEnabled) {
-                    finalValue = planeModel.getValue(xCur, zCur);
-                } else {
-                    double swValue, seValue, nwValue, neValue;
-                    swValue = planeModel.getValue(xCur, zCur);
-                    seValue = planeModel.getValue(xCur + xExtent, zCur);
-                    nwValue = planeModel.getValue(xCur, zCur + zExtent);
-                    neValue = planeModel.getValue(xCur + xExtent, zCur + zExtent);
-                    double xBlend = 1.0 - ((xCur - this.lowerXBound) / xExtent);
-                    double zBlend = 1.0 - ((zCur - this.lowerZBound) / zExtent);
-                    double z0 = Interp.lerp(swValue, seValue, xBlend);
-                    double z1 = Interp.lerp(nwValue, neValue, xBlend);
-                    finalValue = Interp.lerp(z0, z1, zBlend);
+        boolean isBlending = this.isSeamlessEnabled && periodicModule == null;
+
+        // Without region blocks, every row is a block of its own.
+        int blockSize = this.regionBlockSize;
+        int blockWidth = (blockSize > 0) ? blockSize : width;
+        int blockHeight = (blockSize > 0) ? blockSize : 1;
+
+        // Fill every point in the region with the output values from the
+        // model. The coordinates are computed from the point indices, so a
+        // region gets exactly the values of the whole noise map.
+        for (int zBlock = yStart; zBlock < yStart + height; zBlock += blockHeight) {
+            int zEnd = Math.min(zBlock + blockHeight, yStart + height);
+            for (int xBlock = xStart; xBlock < xStart + width; xBlock += blockWidth) {
+                int xEnd = Math.min(xBlock + blockWidth, xStart + width);
+                if (blockSize > 0) {
+                    // A blended point also samples the source module one
+                    // extent further along each axis.
+                    double lowerX = this.lowerXBound + xBlock * xDelta;
+                    double upperX = this.lowerXBound + (xEnd - 1) * xDelta + (isBlending ? xExtent : 0.0);
+                    double lowerZ = this.lowerZBound + zBlock * zDelta;
+                    double upperZ = this.lowerZBound + (zEnd - 1) * zDelta + (isBlending ? zExtent : 0.0);
+                    planeModel.setModule(getBlockModule(module, lowerX, upperX, 0.0, 0.0, lowerZ, upperZ));
                 }
 
-                this.destNoiseMap.setValue(x, z, finalValue);
-                xCur += xDelta;
+                for (int z = zBlock; z < zEnd; z++) {
+                    double zCur = this.lowerZBound + z * zDelta;
+                    for (int x = xBlock; x < xEnd; x++) {
+                        double xCur = this.lowerXBound + x * xDelta;
+                        double finalValue;
+
+                        if (!isBlending) {
+                            finalValue = planeModel.getValue(xCur, zCur);
+                        } else {
+                            double swValue, seValue, nwValue, neValue;
+                            swValue = planeModel.getValue(xCur, zCur);
+                            seValue = planeModel.getValue(xCur + xExtent, zCur);
+                            nwValue = planeModel.getValue(xCur, zCur + zExtent);
+                            neValue = planeModel.getValue(xCur + xExtent, zCur + zExtent);
+                            double xBlend = 1.0 - ((xCur - this.lowerXBound) / xExtent);
+                            double zBlend = 1.0 - ((zCur - this.lowerZBound) / zExtent);
+                            double z0 = Interp.lerp(swValue, seValue, xBlend);
+                            double z1 = Interp.lerp(nwValue, neValue, xBlend);
+                            finalValue = Interp.lerp(z0, z1, zBlend);
+                        }
+
+                        dest.setValue(x - xStart, z - yStart, finalValue);
+                    }
+                }
+            }
+            if (dest == this.destNoiseMap) {
+                for (int z = zBlock; z < zEnd; z++) {
+                    setCallback(z);
+                }
             }
-            zCur += zDelta;
-            setCallback(z);
         }
     }
 
+    @Override
+    boolean isPointBuildSupported() {
+        return true;
+    }
+
+    @Override
+    double getPointValue(int x, int y) {
+        double xExtent = this.upperXBound - this.lowerXBound;
+        double zExtent = this.upperZBound - this.lowerZBound;
+        double xCur = this.lowerXBound + x * (xExtent / this.destWidth);
+        double zCur = this.lowerZBound + y * (zExtent / this.destHeight);
+
+        if (this.periodicModule != null) {
+            return this.periodicModule.getValue(xCur, 0, zCur);
+        } else if (!this.isSeamlessEnabled) {
+            return this.sourceModule.getValue(xCur, 0, zCur);
+        }
+
+        double swValue = this.sourceModule.getValue(xCur, 0, zCur);
+        double seValue = this.sourceModule.getValue(xCur + xExtent, 0, zCur);
+        double nwValue = this.sourceModule.getValue(xCur, 0, zCur + zExtent);
+        double neValue = this.sourceModule.getValue(xCur + xExtent, 0, zCur + zExtent);
+        double xBlend = 1.0 - ((xCur - this.lowerXBound) / xExtent);
+        double zBlend = 1.0 - ((zCur - this.lowerZBound) / zExtent);
+        double z0 = Interp.lerp(swValue, seValue, xBlend);
+        double z1 = Interp.lerp(nwValue, neValue, xBlend);
+        return Interp.lerp(z0, z1, zBlend);
+    }
+
     /**
      * Enables or disables seamless tiling.
      * 
@@ -174,6 +296,15 @@ public class NoiseMapBuilderPlane extends NoiseMapBuilder {
         return this.lowerZBound;
     }
 
+    /**
+     * Returns the way a seamless noise map is made.
+     *
+     * @return The seamless mode.
+     */
+    public SeamlessMode getSeamlessMode() {
+        return this.seamlessMode;
+    }
+
     /**
      * Returns the upper x boundary of the planar noise map.
      *
@@ -205,6 +336,24 @@ public class NoiseMapBuilderPlane extends NoiseMapBuilder {
         return this.isSeamlessEnabled;
     }
 
+    /**
+     * Sets the way a seamless noise map is made.
+     * <p>
+     * The mode only matters if seamless tiling is enabled. In periodic mode,
+     * every build copies the source module, so a generator whose seed is 0
+     * chooses a new random seed in each build.
+     *
+     * @param seamlessMode The seamless mode.
+     *
+     * @throws IllegalArgumentException The seamless mode is null.
+     */
+    public void setSeamlessMode(SeamlessMode seamlessMode) throws IllegalArgumentException {
+        if (seamlessMode == null) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlane");
+        }
+        this.seamlessMode = seamlessMode;
+    }
+
     /**
      * Sets the boundaries of the planar noise map.
      *
@@ -0,0 +1,432 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+import libnoiseforjava.Interp;
+import libnoiseforjava.module.Cached;
+import libnoiseforjava.module.ModuleBase;
+import libnoiseforjava.module.ModuleGraphCodec;
+
+/**
+ * Planar noise-map builder that only recomputes what changed since the
+ * previous build.
+ * <p>
+ * Every Cached noise module in the source graph marks an intermediate result.
+ * This builder stores the output value of each intermediate result at every
+ * point of the noise map. When the graph is built again, an intermediate
+ * result whose subgraph has the same description (see ModuleGraphCodec) is read
+ * from its stored values instead of being evaluated. After changing a
+ * parameter downstream of the intermediate results, such as a Curve control
+ * point or a Select bound, only the noise modules between the intermediate
+ * results and the output are evaluated. If the description of the whole graph
+ * is unchanged, build() does nothing.
+ * <p>
+ * If a change only affects part of the noise map, for example an edit with a
+ * brush mask, the rebuild() method recomputes just that region. The caller is
+ * responsible for the region covering every point whose value changes.
+ * <p>
+ * The stored values are only used where a noise module requests an
+ * intermediate result at the point being built. A noise module that moves its
+ * input value, such as Turbulence or TranslatePoint, evaluates the
+ * intermediate result as usual.
+ * <p>
+ * Each intermediate result holds width * height doubles. The graph is copied
+ * at every build, and a generator whose seed is zero would choose a new
+ * random seed in every copy, mixing stored values of one seed with fresh
+ * values of another. build() and rebuild() therefore reject a graph that
+ * contains such a generator.
+ */
+public class NoiseMapBuilderPlaneIncremental extends NoiseMapBuilderPlane {
+
+    /**
+     * The stored values of an intermediate result.
+     */
+    static final class Intermediate {
+
+        /**
+         * The fingerprint of the subgraph that computed the values.
+         */
+        final long fingerprint;
+
+        /**
+         * The value at point (x, y), at index y * width + x.
+         */
+        final double[] values;
+
+        Intermediate(long fingerprint, double[] values) {
+            this.fingerprint = fingerprint;
+            this.values = values;
+        }
+    }
+
+    /**
+     * Noise module that returns or records the stored values of an
+     * intermediate result at the point being built.
+     */
+    final class IntermediateModule extends ModuleBase {
+
+        final double[] values;
+
+        final boolean isRecording;
+
+        IntermediateModule(ModuleBase sourceModule, double[] values, boolean isRecording) throws IllegalArgumentException {
+            super(1);
+            setSourceModule(0, sourceModule);
+            this.values = values;
+            this.isRecording = isRecording;
+        }
+
+        @Override
+        public double getValue(double x, double y, double z) {
+            if (x != NoiseMapBuilderPlaneIncremental.this.xCur || y != 0.0 || z != NoiseMapBuilderPlaneIncremental.this.zCur) {
+                return this.sourceModules[0].getValue(x, y, z);
+            }
+
+            int index = NoiseMapBuilderPlaneIncremental.this.index;
+            if (this.isRecording) {
+                double value = this.sourceModules[0].getValue(x, y, z);
+                this.values[index] = value;
+                return value;
+            }
+            return this.values[index];
+        }
+
+        @Override
+        public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+            this.sourceModules[0].getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+        }
+    }
+
+    /**
+     * The stored intermediate results of the previous build, by noise module.
+     */
+    IdentityHashMap<ModuleBase, Intermediate> intermediates;
+
+    /**
+     * The fingerprint of the graph of the previous build.
+     */
+    long builtFingerprint;
+
+    /**
+     * Determines if the destination noise map holds a complete build with the
+     * current size and bounds.
+     */
+    boolean isBuilt;
+
+    int builtWidth;
+
+    int builtHeight;
+
+    double builtLowerXBound;
+
+    double builtUpperXBound;
+
+    double builtLowerZBound;
+
+    double builtUpperZBound;
+
+    boolean builtSeamless;
+
+    NoiseMap builtNoiseMap;
+
+    /**
+     * The number of points evaluated by the previous build.
+     */
+    long evaluatedPointCount;
+
+    /**
+     * The point being built.
+     */
+    double xCur;
+
+    double zCur;
+
+    int index;
+
+    public NoiseMapBuilderPlaneIncremental() throws IllegalArgumentException {
+        super();
+        this.intermediates = new IdentityHashMap<ModuleBase, Intermediate>();
+        this.isBuilt = false;
+        this.evaluatedPointCount = 0;
+    }
+
+    /**
+     * Brings the destination noise map up to date with the source module.
+     * <p>
+     * If the size, the bounds, the seamless setting or the destination noise
+     * map changed, or if no previous build exists, every point is computed.
+     * Otherwise, only the noise modules that are not covered by unchanged
+     * intermediate results are evaluated, and nothing is done if the whole
+     * graph is unchanged.
+     *
+     * @throws IllegalArgumentException A generator in the graph has a seed
+     *             of zero, or see the preconditions of
+     *             NoiseMapBuilderPlane.build().
+     */
+    @Override
+    public void build() throws IllegalArgumentException {
+        if (this.destNoiseMap == null) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlaneIncremental");
+        }
+        checkParameters();
+        checkSeeds();
+
+        if (!isBuildCurrent()) {
+            invalidate();
+        } else if (ModuleGraphCodec.fingerprint(this.sourceModule) == this.builtFingerprint) {
+            this.evaluatedPointCount = 0;
+            return;
+        }
+
+        update(0, 0, this.destWidth, this.destHeight, false);
+    }
+
+    /**
+     * Recomputes one region of the destination noise map.
+     * <p>
+     * The points outside the region, and the stored intermediate results
+     * outside the region, keep their values from the previous build. If no
+     * previous build with the current size and bounds exists, or if the graph
+     * has a new intermediate result, the whole noise map is built instead.
+     *
+     * @param xStart The x coordinate of the first column of the region.
+     * @param yStart The y coordinate of the first row of the region.
+     * @param width The width of the region, in points.
+     * @param height The height of the region, in points.
+     *
+     * @throws IllegalArgumentException The region is not inside the noise
+     *             map, or see the preconditions of build().
+     */
+    public void rebuild(int xStart, int yStart, int width, int height) throws IllegalArgumentException {
+        if (this.destNoiseMap == null) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlaneIncremental");
+        }
+        checkParameters();
+        checkSeeds();
+        if (xStart < 0 || yStart < 0 || width < 0 || height < 0 || xStart + width > this.destWidth || yStart + height > this.destHeight) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlaneIncremental");
+        }
+
+        if (!isBuildCurrent()) {
+            invalidate();
+            update(0, 0, this.destWidth, this.destHeight, false);
+        } else {
+            update(xStart, yStart, width, height, true);
+        }
+    }
+
+    @Override
+    void checkParameters() throws IllegalArgumentException {
+        super.checkParameters();
+        if ((long) this.destWidth * this.destHeight > Integer.MAX_VALUE) {
+            // An intermediate result stores every point in one array.
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlaneIncremental");
+        }
+    }
+
+    /**
+     * Checks that every generator of the graph has a fixed seed.
+     *
+     * @throws IllegalArgumentException A generator has a seed of zero.
+     */
+    void checkSeeds() throws IllegalArgumentException {
+        if (ModuleGraphCodec.hasRandomSeed(this.sourceModule)) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlaneIncremental");
+        }
+    }
+
+    /**
+     * Discards the previous build and every stored intermediate result.
+     */
+    public void invalidate() {
+        this.intermediates = new IdentityHashMap<ModuleBase, Intermediate>();
+        this.isBuilt = false;
+    }
+
+    /**
+     * Returns the number of points that the previous call to build() or
+     * rebuild() evaluated.
+     *
+     * @return The number of points, which is zero if nothing changed.
+     */
+    public long getEvaluatedPointCount() {
+        return this.evaluatedPointCount;
+    }
+
+    /**
+     * Returns the number of intermediate results stored.
+     */
+    public int getIntermediateCount() {
+        return this.intermediates.size();
+    }
+
+    boolean isBuildCurrent() {
+        return this.isBuilt && this.builtNoiseMap == this.destNoiseMap && this.builtWidth == this.destWidth && this.builtHeight == this.destHeight
+                && this.builtLowerXBound == this.lowerXBound && this.builtUpperXBound == this.upperXBound && this.builtLowerZBound == this.lowerZBound
+                && this.builtUpperZBound == this.upperZBound && this.builtSeamless == this.isSeamlessEnabled
+                && this.destNoiseMap.getWidth() == this.destWidth && this.destNoiseMap.getHeight() == this.destHeight;
+    }
+
+    /**
+     * Computes a region with the stored intermediate results.
+     *
+     * @param isPartial Determines if the region is a partial update of a
+     *            current build.
+     */
+    void update(int xStart, int yStart, int width, int height, final boolean isPartial) {
+        final int pointCount = this.destWidth * this.destHeight;
+        final IdentityHashMap<ModuleBase, Intermediate> previous = this.intermediates;
+        final IdentityHashMap<ModuleBase, Intermediate> current = new IdentityHashMap<ModuleBase, Intermediate>();
+        final List<IntermediateModule> recording = new ArrayList<IntermediateModule>();
+        final boolean[] isComplete = { true };
+
+        ModuleBase root = ModuleGraphCodec.copy(this.sourceModule, new ModuleGraphCodec.Substitution() {
+
+            @Override
+            public ModuleBase substitute(ModuleBase original, ModuleBase copy) {
+                if (!(original instanceof Cached)) {
+                    return copy;
+                }
+
+                long fingerprint = ModuleGraphCodec.fingerprint(original);
+                Intermediate stored = previous.get(original);
+                IntermediateModule module;
+                if (stored != null && stored.fingerprint == fingerprint) {
+                    module = new IntermediateModule(copy, stored.values, false);
+                } else if (isPartial && stored != null) {
+                    // Update the old values inside the region only.
+                    module = new IntermediateModule(copy, stored.values, true);
+                    recording.add(module);
+                } else {
+                    isComplete[0] &= !isPartial;
+                    module = new IntermediateModule(copy, new double[pointCount], true);
+                    recording.add(module);
+                }
+                current.put(original, new Intermediate(fingerprint, module.values));
+                return module;
+            }
+        });
+
+        if (!isComplete[0]) {
+            // A new intermediate result has no values outside the region.
+            invalidate();
+            update(0, 0, this.destWidth, this.destHeight, false);
+            return;
+        }
+
+        if (!isPartial) {
+            this.destNoiseMap.setSize(this.destWidth, this.destHeight);
+        }
+
+        BuildMetrics metrics = this.metrics;
+        String name = getClass().getSimpleName();
+        long start = 0;
+        if (metrics != null) {
+            metrics.buildStarted(name, width, height);
+            this.callbackNanos = 0;
+            start = System.nanoTime();
+        }
+
+        double xDelta = (this.upperXBound - this.lowerXBound) / this.destWidth;
+        double zDelta = (this.upperZBound - this.lowerZBound) / this.destHeight;
+        double xExtent = this.upperXBound - this.lowerXBound;
+        double zExtent = this.upperZBound - this.lowerZBound;
+        IntermediateModule[] recorders = recording.toArray(new IntermediateModule[recording.size()]);
+
+        for (int z = yStart; z < yStart + height; z++) {
+            this.zCur = this.lowerZBound + z * zDelta;
+            for (int x = xStart; x < xStart + width; x++) {
+                this.xCur = this.lowerXBound + x * xDelta;
+                this.index = z * this.destWidth + x;
+
+                // A recorded intermediate result must be stored at every
+                // point, even where no noise module requests it, such as the
+                // unselected source of a Select noise module.
+                for (IntermediateModule recorder : recorders) {
+                    recorder.getValue(this.xCur, 0.0, this.zCur);
+                }
+
+                double finalValue;
+                if (!this.isSeamlessEnabled) {
+                    finalValue = root.getValue(this.xCur, 0.0, this.zCur);
+                } else {
+                    double swValue = root.getValue(this.xCur, 0.0, this.zCur);
+                    double seValue = root.getValue(this.xCur + xExtent, 0.0, this.zCur);
+                    double nwValue = root.getValue(this.xCur, 0.0, this.zCur + zExtent);
+                    double neValue = root.getValue(this.xCur + xExtent, 0.0, this.zCur + zExtent);
+                    double xBlend = 1.0 - ((this.xCur - this.lowerXBound) / xExtent);
+                    double zBlend = 1.0 - ((this.zCur - this.lowerZBound) / zExtent);
+                    double z0 = Interp.lerp(swValue, seValue, xBlend);
+                    double z1 = Interp.lerp(nwValue, neValue, xBlend);
+                    finalValue = Interp.lerp(z0, z1, zBlend);
+                }
+                this.destNoiseMap.setValue(x, z, finalValue);
+            }
+            setCallback(z);
+        }
+
+        if (metrics != null) {
+            long nanos = System.nanoTime() - start;
+            metrics.buildCompleted(name, (long) width * height, nanos - this.callbackNanos, this.callbackNanos);
+        }
+
+        this.intermediates = current;
+        this.builtFingerprint = ModuleGraphCodec.fingerprint(this.sourceModule);
+        this.evaluatedPointCount = (long) width * height;
+        this.isBuilt = true;
+        this.builtNoiseMap = this.destNoiseMap;
+        this.builtWidth = this.destWidth;
+        this.builtHeight = this.destHeight;
+        this.builtLowerXBound = this.lowerXBound;
+        this.builtUpperXBound = this.upperXBound;
+        this.builtLowerZBound = this.lowerZBound;
+        this.builtUpperZBound = this.upperZBound;
+        this.builtSeamless = this.isSeamlessEnabled;
+    }
+
+    /**
+     * Sets the way a seamless noise map is made.
+     * <p>
+     * This builder only supports SeamlessMode.BLEND.
+     *
+     * @param seamlessMode The seamless mode.
+     *
+     * @throws IllegalArgumentException The seamless mode is not BLEND.
+     */
+    @Override
+    public void setSeamlessMode(SeamlessMode seamlessMode) throws IllegalArgumentException {
+        if (seamlessMode != SeamlessMode.BLEND) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlaneIncremental");
+        }
+        super.setSeamlessMode(seamlessMode);
+    }
+}
@@ -0,0 +1,321 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.nio.FloatBuffer;
+
+import libnoiseforjava.Interp;
+import libnoiseforjava.module.ModuleBase;
+import libnoiseforjava.module.ModuleGraphCodec;
+
+/**
+ * Builds several planar noise maps over the same bounds in one pass.
+ * <p>
+ * Applications often build several maps, such as height, moisture and
+ * temperature, from graphs that share noise modules. Building them one at a
+ * time computes every coordinate once per map and evaluates the shared noise
+ * modules once per map. This builder takes one source module per channel and
+ * visits every point once, evaluating all channels at that point. The graphs
+ * are copied with ModuleGraphCodec.copySharing() before each build, so a noise
+ * module shared by several channels computes its output value once per point.
+ * <p>
+ * The values are written to one noise map per channel, to an interleaved
+ * buffer of floats, or both. In the buffer, the value of channel c at point
+ * (x, y) is at index (y * width + x) * channelCount + c.
+ * <p>
+ * Because the graphs are copied, a generator whose seed is zero would choose
+ * a new random seed at every build, so build() rejects graphs that contain
+ * such a generator. The buildTiles(), buildProgressive() and buildAdaptive()
+ * methods build a single noise map, so they throw an IllegalStateException.
+ */
+public class NoiseMapBuilderPlaneMulti extends NoiseMapBuilderPlane {
+
+    /**
+     * The source module of each channel.
+     */
+    ModuleBase[] sourceModules;
+
+    /**
+     * The destination noise map of each channel, or null.
+     */
+    NoiseMap[] destNoiseMaps;
+
+    /**
+     * The destination buffer of interleaved channels, or null.
+     */
+    FloatBuffer destBuffer;
+
+    public NoiseMapBuilderPlaneMulti() throws IllegalArgumentException {
+        super();
+        this.sourceModules = new ModuleBase[0];
+        this.destNoiseMaps = null;
+        this.destBuffer = null;
+    }
+
+    /**
+     * Builds every channel.
+     *
+     * @throws IllegalArgumentException A generator in one of the graphs has a
+     *             seed of zero, or see the preconditions of
+     *             NoiseMapBuilderPlane.build().
+     */
+    @Override
+    public void build() throws IllegalArgumentException {
+        checkParameters();
+        checkSeeds();
+
+        if (this.destNoiseMaps != null) {
+            for (NoiseMap destNoiseMap : this.destNoiseMaps) {
+                if (destNoiseMap != null) {
+                    destNoiseMap.setSize(this.destWidth, this.destHeight);
+                }
+            }
+        }
+
+        ModuleBase[] roots = ModuleGraphCodec.copySharing(this.sourceModules);
+
+        BuildMetrics metrics = this.metrics;
+        if (metrics == null) {
+            buildChannels(roots);
+            return;
+        }
+
+        String name = getClass().getSimpleName();
+        metrics.buildStarted(name, this.destWidth, this.destHeight);
+        this.callbackNanos = 0;
+        long start = System.nanoTime();
+        buildChannels(roots);
+        long nanos = System.nanoTime() - start;
+        metrics.buildCompleted(name, (long) this.destWidth * this.destHeight * roots.length, nanos - this.callbackNanos, this.callbackNanos);
+    }
+
+    @Override
+    void checkParameters() throws IllegalArgumentException {
+        super.checkParameters();
+
+        int channelCount = this.sourceModules.length;
+        if (channelCount == 0 || (this.destNoiseMaps == null && this.destBuffer == null)) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlaneMulti");
+        }
+        for (ModuleBase sourceModule : this.sourceModules) {
+            if (sourceModule == null) {
+                throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlaneMulti");
+            }
+        }
+        if (this.destNoiseMaps != null && this.destNoiseMaps.length != channelCount) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlaneMulti");
+        }
+        if (this.destBuffer != null && this.destBuffer.limit() < (long) this.destWidth * this.destHeight * channelCount) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlaneMulti");
+        }
+    }
+
+    /**
+     * Checks that every generator of the graphs has a fixed seed.
+     *
+     * @throws IllegalArgumentException A generator has a seed of zero.
+     */
+    void checkSeeds() throws IllegalArgumentException {
+        for (ModuleBase sourceModule : this.sourceModules) {
+            if (ModuleGraphCodec.hasRandomSeed(sourceModule)) {
+                throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlaneMulti");
+            }
+        }
+    }
+
+    @Override
+    boolean isRegionBuildSupported() {
+        // A region holds a single channel.
+        return false;
+    }
+
+    @Override
+    boolean isPointBuildSupported() {
+        return false;
+    }
+
+    /**
+     * Fills every channel at every point of the noise maps.
+     *
+     * @param roots The source module of each channel, with shared noise
+     *            modules cached.
+     */
+    void buildChannels(ModuleBase[] roots) {
+        int channelCount = roots.length;
+        double xExtent = this.upperXBound - this.lowerXBound;
+        double zExtent = this.upperZBound - this.lowerZBound;
+        double xDelta = xExtent / this.destWidth;
+        double zDelta = zExtent / this.destHeight;
+
+        double[] values = new double[channelCount];
+        double[] seValues = new double[channelCount];
+        double[] nwValues = new double[channelCount];
+        double[] neValues = new double[channelCount];
+
+        for (int z = 0; z < this.destHeight; z++) {
+            double zCur = this.lowerZBound + z * zDelta;
+            for (int x = 0; x < this.destWidth; x++) {
+                double xCur = this.lowerXBound + x * xDelta;
+
+                // Every channel is evaluated at one input value before the
+                // next, so that the caches of the shared noise modules hit.
+                for (int c = 0; c < channelCount; c++) {
+                    values[c] = roots[c].getValue(xCur, 0, zCur);
+                }
+
+                if (this.isSeamlessEnabled) {
+                    for (int c = 0; c < channelCount; c++) {
+                        seValues[c] = roots[c].getValue(xCur + xExtent, 0, zCur);
+                    }
+                    for (int c = 0; c < channelCount; c++) {
+                        nwValues[c] = roots[c].getValue(xCur, 0, zCur + zExtent);
+                    }
+                    for (int c = 0; c < channelCount; c++) {
+                        neValues[c] = roots[c].getValue(xCur + xExtent, 0, zCur + zExtent);
+                    }
+                    double xBlend = 1.0 - ((xCur - this.lowerXBound) / xExtent);
+                    double zBlend = 1.0 - ((zCur - this.lowerZBound) / zExtent);
+                    for (int c = 0; c < channelCount; c++) {
+                        double z0 = Interp.lerp(values[c], seValues[c], xBlend);
+                        double z1 = Interp.lerp(nwValues[c], neValues[c], xBlend);
+                        values[c] = Interp.lerp(z0, z1, zBlend);
+                    }
+                }
+
+                if (this.destNoiseMaps != null) {
+                    for (int c = 0; c < channelCount; c++) {
+                        if (this.destNoiseMaps[c] != null) {
+                            this.destNoiseMaps[c].setValue(x, z, values[c]);
+                        }
+                    }
+                }
+                if (this.destBuffer != null) {
+                    int index = (z * this.destWidth + x) * channelCount;
+                    for (int c = 0; c < channelCount; c++) {
+                        this.destBuffer.put(index + c, (float) values[c]);
+                    }
+                }
+            }
+            setCallback(z);
+        }
+    }
+
+    /**
+     * Returns the number of channels.
+     *
+     * @return The number of source modules.
+     */
+    public int getChannelCount() {
+        return this.sourceModules.length;
+    }
+
+    public ModuleBase[] getSourceModules() {
+        return this.sourceModules.clone();
+    }
+
+    /**
+     * Sets the source module of each channel.
+     *
+     * @param sourceModules The source modules, one per channel.
+     */
+    public void setSourceModules(ModuleBase... sourceModules) {
+        this.sourceModules = sourceModules.clone();
+        this.sourceModule = (sourceModules.length > 0) ? sourceModules[0] : null;
+    }
+
+    /**
+     * Sets a single channel.
+     *
+     * @param sourceModule The source module of the only channel.
+     */
+    @Override
+    public void setSourceModule(ModuleBase sourceModule) {
+        setSourceModules(sourceModule);
+    }
+
+    public NoiseMap[] getDestNoiseMaps() {
+        return (this.destNoiseMaps == null) ? null : this.destNoiseMaps.clone();
+    }
+
+    /**
+     * Sets the destination noise map of each channel.
+     * <p>
+     * The build() method resizes each noise map to the destination size.
+     *
+     * @param destNoiseMaps The noise maps, one per channel; a null element
+     *            skips its channel. Null writes no noise maps.
+     */
+    public void setDestNoiseMaps(NoiseMap... destNoiseMaps) {
+        this.destNoiseMaps = (destNoiseMaps == null) ? null : destNoiseMaps.clone();
+        this.destNoiseMap = (destNoiseMaps != null && destNoiseMaps.length > 0) ? destNoiseMaps[0] : null;
+    }
+
+    /**
+     * Sets the destination noise map of a single channel.
+     *
+     * @param destNoiseMap The noise map of the only channel.
+     */
+    @Override
+    public void setDestNoiseMap(NoiseMap destNoiseMap) {
+        setDestNoiseMaps(destNoiseMap);
+    }
+
+    public FloatBuffer getDestBuffer() {
+        return this.destBuffer;
+    }
+
+    /**
+     * Sets the buffer that receives the interleaved channels.
+     * <p>
+     * The values are written at absolute indices, so the position of the
+     * buffer does not change.
+     *
+     * @param destBuffer The buffer, which must hold at least width * height *
+     *            channelCount values, or null to write no buffer.
+     */
+    public void setDestBuffer(FloatBuffer destBuffer) {
+        this.destBuffer = destBuffer;
+    }
+
+    /**
+     * Sets the way a seamless noise map is made.
+     * <p>
+     * This builder only supports SeamlessMode.BLEND.
+     *
+     * @param seamlessMode The seamless mode.
+     *
+     * @throws IllegalArgumentException The seamless mode is not BLEND.
+     */
+    @Override
+    public void setSeamlessMode(SeamlessMode seamlessMode) throws IllegalArgumentException {
+        if (seamlessMode != SeamlessMode.BLEND) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseMapBuilderPlaneMulti");
+        }
+        super.setSeamlessMode(seamlessMode);
+    }
+}
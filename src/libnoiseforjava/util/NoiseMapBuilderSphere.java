@@ -70,6 +70,20 @@ public class NoiseMapBuilderSphere extends NoiseMapBuilder {
      */
     double westLonBound;
 
+    /**
+     * Cosine and sine of the latitude of each row, computed before each
+     * build.
+     */
+    double[] cosLatTable;
+    double[] sinLatTable;
+
+    /**
+     * Cosine and sine of the longitude of each column, computed before each
+     * build.
+     */
+    double[] cosLonTable;
+    double[] sinLonTable;
+
     public NoiseMapBuilderSphere() throws IllegalArgumentException {
         super();
         this.eastLonBound = 0.0;
@@ -80,41 +94,176 @@ public class NoiseMapBuilderSphere extends NoiseMapBuilder {
 
     @Override
     public void build() throws IllegalArgumentException {
-        if (this.eastLonBound <= this.westLonBound || this.northLatBound <= this.southLatBound || this.destWidth <= 0 || this.destHeight <= 0
-                || this.sourceModule == null || this.destNoiseMap == null) {
+        if (this.destNoiseMap == null) {
             throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilderSphere");
         }
+        checkParameters();
 
         // Resize the destination noise map so that it can store the new output
         // values from the source model.
         this.destNoiseMap.setSize(this.destWidth, this.destHeight);
 
-        // Create the plane model.
+        buildDestNoiseMap();
+    }
+
+    @Override
+    void checkParameters() throws IllegalArgumentException {
+        if (this.eastLonBound <= this.westLonBound || this.northLatBound <= this.southLatBound || this.destWidth <= 0 || this.destHeight <= 0
+                || this.sourceModule == null) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapBuilderSphere");
+        }
+
+        prepareTables();
+    }
+
+    /**
+     * Computes the cosine and sine of the latitude of every row and of the
+     * longitude of every column, so that no point of the build needs a
+     * trigonometric function.
+     * <p>
+     * New tables are created each time, so a build that is still running
+     * keeps the tables it started with.
+     */
+    void prepareTables() {
+        double[] cosLat = new double[this.destHeight];
+        double[] sinLat = new double[this.destHeight];
+        fillLatTables(0, cosLat, sinLat);
+
+        double[] cosLon = new double[this.destWidth];
+        double[] sinLon = new double[this.destWidth];
+        fillLonTables(0, cosLon, sinLon);
+
+        this.cosLatTable = cosLat;
+        this.sinLatTable = sinLat;
+        this.cosLonTable = cosLon;
+        this.sinLonTable = sinLon;
+    }
+
+    /**
+     * Fills the tables with the cosine and sine of the latitude of the rows
+     * starting at the given row, which may lie outside the noise map.
+     */
+    void fillLatTables(int yStart, double[] cosLat, double[] sinLat) {
+        double yDelta = (this.northLatBound - this.southLatBound) / this.destHeight;
+        for (int i = 0; i < cosLat.length; i++) {
+            double curLat = Math.toRadians(this.southLatBound + (yStart + i) * yDelta);
+            cosLat[i] = Math.cos(curLat);
+            sinLat[i] = Math.sin(curLat);
+        }
+    }
+
+    /**
+     * Fills the tables with the cosine and sine of the longitude of the
+     * columns starting at the given column, which may lie outside the noise
+     * map.
+     */
+    void fillLonTables(int xStart, double[] cosLon, double[] sinLon) {
+        double xDelta = (this.eastLonBound - this.westLonBound) / this.destWidth;
+        for (int i = 0; i < cosLon.length; i++) {
+            double curLon = Math.toRadians(this.westLonBound + (xStart + i) * xDelta);
+            cosLon[i] = Math.cos(curLon);
+            sinLon[i] = Math.sin(curLon);
+        }
+    }
+
+    @Override
+    boolean isRegionBuildSupported() {
+        return true;
+    }
+
+    @Override
+    void buildRegion(NoiseMap dest, int xStart, int yStart, int width, int height) {
+        // Create the sphere model.
         Sphere sphereModel = new Sphere();
         sphereModel.setModule(this.sourceModule);
 
-        double lonExtent = this.eastLonBound - this.westLonBound;
-        double latExtent = this.northLatBound - this.southLatBound;
-        double xDelta = lonExtent / this.destWidth;
-        double yDelta = latExtent / this.destHeight;
-        double curLon = this.westLonBound;
-        double curLat = this.southLatBound;
-
-        // Fill every point in the noise map with the output values from the
-        // model.
-        for (int y = 0; y < this.destHeight; y++) {
-            curLon = this.westLonBound;
-            for (int x = 0; x < this.destWidth; x++) {
-                float curValue = (float) sphereModel.getValue(curLat, curLon);
-                this.destNoiseMap.setValue(x, y, curValue);
-                curLon += xDelta;
-            }
-            curLat += yDelta;
-            setCallback(y);
+        double[] cosLat = this.cosLatTable;
+        double[] sinLat = this.sinLatTable;
+        double[] cosLon = this.cosLonTable;
+        double[] sinLon = this.sinLonTable;
+        int latOffset = 0;
+        int lonOffset = xStart;
+
+        // A region that reaches outside the noise map gets its own tables.
+        if (yStart < 0 || yStart + height > cosLat.length) {
+            cosLat = new double[height];
+            sinLat = new double[height];
+            fillLatTables(yStart, cosLat, sinLat);
+            latOffset = yStart;
+        }
+        if (xStart < 0 || xStart + width > cosLon.length) {
+            cosLon = new double[width];
+            sinLon = new double[width];
+            fillLonTables(xStart, cosLon, sinLon);
+            lonOffset = 0;
+        }
+        // Without region blocks, every row is a block of its own.
+        int blockSize = this.regionBlockSize;
+        int blockWidth = (blockSize > 0) ? blockSize : width;
+        int blockHeight = (blockSize > 0) ? blockSize : 1;
+        double[] values = new double[Math.min(blockWidth, width)];
+        double[] cosLatRange = new double[2];
+        double[] sinLatRange = new double[2];
+        double[] cosLonRange = new double[2];
+        double[] sinLonRange = new double[2];
+        double[] xRange = new double[2];
+        double[] zRange = new double[2];
 
+        // Fill every point in the region with the output values from the
+        // model, one row of a block at a time.
+        for (int yBlock = yStart; yBlock < yStart + height; yBlock += blockHeight) {
+            int yEnd = Math.min(yBlock + blockHeight, yStart + height);
+            for (int xBlock = 0; xBlock < width; xBlock += blockWidth) {
+                int count = Math.min(blockWidth, width - xBlock);
+                if (blockSize > 0) {
+                    getTableRange(cosLat, yBlock - latOffset, yEnd - yBlock, cosLatRange);
+                    getTableRange(sinLat, yBlock - latOffset, yEnd - yBlock, sinLatRange);
+                    getTableRange(cosLon, lonOffset + xBlock, count, cosLonRange);
+                    getTableRange(sinLon, lonOffset + xBlock, count, sinLonRange);
+                    getProductRange(cosLatRange, cosLonRange, xRange);
+                    getProductRange(cosLatRange, sinLonRange, zRange);
+                    sphereModel.setModule(getBlockModule(this.sourceModule, xRange[0], xRange[1], sinLatRange[0], sinLatRange[1], zRange[0], zRange[1]));
+                }
+
+                for (int y = yBlock; y < yEnd; y++) {
+                    sphereModel.getValues(cosLat[y - latOffset], sinLat[y - latOffset], cosLon, sinLon, lonOffset + xBlock, count, values);
+                    for (int x = 0; x < count; x++) {
+                        dest.setValue(xBlock + x, y - yStart, (float) values[x]);
+                    }
+                }
+            }
+            if (dest == this.destNoiseMap) {
+                for (int y = yBlock; y < yEnd; y++) {
+                    setCallback(y);
+                }
+            }
         }
     }
 
+    /**
+     * Stores the range of the products of a value from one range and a value
+     * from another. The extremes of a product are at the corners.
+     */
+    static void getProductRange(double[] a, double[] b, double[] range) {
+        double p0 = a[0] * b[0];
+        double p1 = a[0] * b[1];
+        double p2 = a[1] * b[0];
+        double p3 = a[1] * b[1];
+        range[0] = Math.min(Math.min(p0, p1), Math.min(p2, p3));
+        range[1] = Math.max(Math.max(p0, p1), Math.max(p2, p3));
+    }
+
+    @Override
+    boolean isPointBuildSupported() {
+        return true;
+    }
+
+    @Override
+    double getPointValue(int x, int y) {
+        double cosLat = this.cosLatTable[y];
+        return (float) this.sourceModule.getValue(cosLat * this.cosLonTable[x], this.sinLatTable[y], cosLat * this.sinLonTable[x]);
+    }
+
     /**
      * Returns the eastern boundary of the spherical noise map.
      *
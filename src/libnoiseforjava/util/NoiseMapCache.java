@@ -0,0 +1,618 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+import libnoiseforjava.module.ModuleBase;
+import libnoiseforjava.module.ModuleGraphCodec;
+
+/**
+ * Caches planar noise maps so that a region is only built once.
+ * <p>
+ * A region is identified by the fingerprint of its noise module, its bounds,
+ * its size, in points, and whether seamless tiling is enabled. The fingerprint
+ * must identify the values that the noise module produces. By default it is
+ * computed by the ModuleGraphCodec class from the description of the graph,
+ * which records the seed of every generator but not the random seed that a
+ * generator with a seed of zero chooses when it is built; such graphs are
+ * therefore rejected. An application that already knows the fingerprint can
+ * pass it instead.
+ * <p>
+ * <b>Tiers</b>
+ * <p>
+ * The memory tier keeps the most recently used noise maps, up to a maximum
+ * number of bytes. When it is full, the least recently used noise maps are
+ * evicted.
+ * <p>
+ * If a disk directory is set, every built noise map is also written to that
+ * directory as a tiled noise-map file, and noise maps missing from the memory
+ * tier are read back from it. The disk tier stores values as 32-bit
+ * floating-point numbers and is never evicted.
+ * <p>
+ * <b>Concurrent requests</b>
+ * <p>
+ * Any number of threads may call the getNoiseMap() method. If several threads
+ * request the same region while it is being built, the region is built once
+ * and every thread receives the same noise map. The noise module must
+ * therefore be safe to use from several threads; the Cached module is not.
+ * <p>
+ * The returned noise maps are shared, and must not be modified.
+ * <p>
+ * <b>Statistics</b>
+ * <p>
+ * The cache counts memory hits, disk hits, misses, coalesced requests and
+ * evictions, and measures the time spent building. Use these numbers to size
+ * the memory tier.
+ */
+public class NoiseMapCache {
+
+    /**
+     * Approximate memory used by a cached noise map in addition to its values,
+     * in bytes.
+     */
+    static final long ENTRY_OVERHEAD = 128;
+
+    /**
+     * Size of the tiles in the files of the disk tier, in points.
+     */
+    static final int DISK_TILE_SIZE = 256;
+
+    /**
+     * Identifies a cached region.
+     */
+    static class Key {
+
+        final long fingerprint;
+        final double lowerXBound;
+        final double upperXBound;
+        final double lowerZBound;
+        final double upperZBound;
+        final int width;
+        final int height;
+        final boolean isSeamlessEnabled;
+
+        Key(long fingerprint, double lowerXBound, double upperXBound, double lowerZBound, double upperZBound, int width, int height,
+                boolean isSeamlessEnabled) {
+            this.fingerprint = fingerprint;
+            this.lowerXBound = lowerXBound;
+            this.upperXBound = upperXBound;
+            this.lowerZBound = lowerZBound;
+            this.upperZBound = upperZBound;
+            this.width = width;
+            this.height = height;
+            this.isSeamlessEnabled = isSeamlessEnabled;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return this.fingerprint == k.fingerprint && Double.compare(this.lowerXBound, k.lowerXBound) == 0
+                    && Double.compare(this.upperXBound, k.upperXBound) == 0 && Double.compare(this.lowerZBound, k.lowerZBound) == 0
+                    && Double.compare(this.upperZBound, k.upperZBound) == 0 && this.width == k.width && this.height == k.height
+                    && this.isSeamlessEnabled == k.isSeamlessEnabled;
+        }
+
+        @Override
+        public int hashCode() {
+            long h = this.fingerprint;
+            h = h * 31 + Double.doubleToLongBits(this.lowerXBound);
+            h = h * 31 + Double.doubleToLongBits(this.upperXBound);
+            h = h * 31 + Double.doubleToLongBits(this.lowerZBound);
+            h = h * 31 + Double.doubleToLongBits(this.upperZBound);
+            h = h * 31 + this.width;
+            h = h * 31 + this.height;
+            h = h * 31 + (this.isSeamlessEnabled ? 1 : 0);
+            return (int) (h ^ (h >>> 32));
+        }
+
+        /**
+         * Returns the name of the file that stores this region in the disk
+         * tier.
+         */
+        String getFileName() {
+            return String.format("%016x_%016x_%016x_%016x_%016x_%dx%d%s.nmt", this.fingerprint, Double.doubleToLongBits(this.lowerXBound),
+                    Double.doubleToLongBits(this.upperXBound), Double.doubleToLongBits(this.lowerZBound),
+                    Double.doubleToLongBits(this.upperZBound), this.width, this.height, this.isSeamlessEnabled ? "s" : "");
+        }
+    }
+
+    /**
+     * The memory tier, in least recently used order.
+     */
+    LinkedHashMap<Key, NoiseMap> memoryTier;
+
+    /**
+     * The regions being built or read from disk.
+     */
+    ConcurrentHashMap<Key, FutureTask<NoiseMap>> pending;
+
+    /**
+     * The directory of the disk tier, or null.
+     */
+    Path diskDirectory;
+
+    /**
+     * Maximum size of the memory tier, in bytes.
+     */
+    long maxMemoryBytes;
+
+    /**
+     * Current size of the memory tier, in bytes.
+     */
+    long memoryBytes;
+
+    /**
+     * Number of requests served from the memory tier.
+     */
+    AtomicLong memoryHits;
+
+    /**
+     * Number of requests served from the disk tier.
+     */
+    AtomicLong diskHits;
+
+    /**
+     * Number of noise maps built.
+     */
+    AtomicLong misses;
+
+    /**
+     * Number of requests that waited for another request's build.
+     */
+    AtomicLong coalescedRequests;
+
+    /**
+     * Number of noise maps evicted from the memory tier.
+     */
+    AtomicLong evictions;
+
+    /**
+     * Total time spent building, in nanoseconds.
+     */
+    AtomicLong buildNanos;
+
+    /**
+     * Longest time spent building a noise map, in nanoseconds.
+     */
+    AtomicLong maxBuildNanos;
+
+    /**
+     * Creates a cache with a memory tier of the given size and no disk tier.
+     *
+     * @param maxMemoryBytes Maximum size of the memory tier, in bytes.
+     *
+     * @pre The size is not negative.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public NoiseMapCache(long maxMemoryBytes) throws IllegalArgumentException {
+        if (maxMemoryBytes < 0) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapCache");
+        }
+
+        this.memoryTier = new LinkedHashMap<Key, NoiseMap>(16, 0.75f, true);
+        this.pending = new ConcurrentHashMap<Key, FutureTask<NoiseMap>>();
+        this.diskDirectory = null;
+        this.maxMemoryBytes = maxMemoryBytes;
+        this.memoryBytes = 0;
+        this.memoryHits = new AtomicLong();
+        this.diskHits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.coalescedRequests = new AtomicLong();
+        this.evictions = new AtomicLong();
+        this.buildNanos = new AtomicLong();
+        this.maxBuildNanos = new AtomicLong();
+    }
+
+    /**
+     * Returns the noise map of a planar region, building it if it is not
+     * cached.
+     * <p>
+     * The fingerprint of the noise module is computed from its graph, which
+     * costs about as much as describing the graph. See the ModuleGraphCodec
+     * class.
+     * <p>
+     * A generator with a seed of zero produces values that its description
+     * does not identify, so a graph that contains one is rejected.
+     *
+     * @param sourceModule The noise module.
+     * @param lowerXBound The lower x boundary of the noise map, in units.
+     * @param upperXBound The upper x boundary of the noise map, in units.
+     * @param lowerZBound The lower z boundary of the noise map, in units.
+     * @param upperZBound The upper z boundary of the noise map, in units.
+     * @param width The width of the noise map, in points.
+     * @param height The height of the noise map, in points.
+     * @param isSeamlessEnabled A flag that enables seamless tiling.
+     *
+     * @return The noise map, which must not be modified.
+     *
+     * @pre The lower boundaries are less than the upper boundaries.
+     * @pre The width and height are positive.
+     * @pre The graph of the noise module can be described.
+     * @pre No generator in the graph has a seed of zero.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     * @throws UncheckedIOException The disk tier could not be read or
+     *             written.
+     */
+    public NoiseMap getNoiseMap(ModuleBase sourceModule, double lowerXBound, double upperXBound, double lowerZBound, double upperZBound, int width,
+            int height, boolean isSeamlessEnabled) throws IllegalArgumentException, UncheckedIOException {
+        if (sourceModule == null || ModuleGraphCodec.hasRandomSeed(sourceModule)) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapCache");
+        }
+        return getNoiseMap(ModuleGraphCodec.fingerprint(sourceModule), sourceModule, lowerXBound, upperXBound, lowerZBound, upperZBound, width, height,
+                isSeamlessEnabled);
+    }
+
+    /**
+     * Returns the noise map of a planar region, building it if it is not
+     * cached.
+     * <p>
+     * The values are those that a NoiseMapBuilderPlane with the same
+     * parameters builds.
+     *
+     * @param fingerprint The fingerprint of the noise module.
+     * @param sourceModule The noise module.
+     * @param lowerXBound The lower x boundary of the noise map, in units.
+     * @param upperXBound The upper x boundary of the noise map, in units.
+     * @param lowerZBound The lower z boundary of the noise map, in units.
+     * @param upperZBound The upper z boundary of the noise map, in units.
+     * @param width The width of the noise map, in points.
+     * @param height The height of the noise map, in points.
+     * @param isSeamlessEnabled A flag that enables seamless tiling.
+     *
+     * @return The noise map, which must not be modified.
+     *
+     * @pre The lower boundaries are less than the upper boundaries.
+     * @pre The width and height are positive.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     * @throws UncheckedIOException The disk tier could not be read or
+     *             written.
+     */
+    public NoiseMap getNoiseMap(long fingerprint, final ModuleBase sourceModule, double lowerXBound, double upperXBound, double lowerZBound,
+            double upperZBound, int width, int height, boolean isSeamlessEnabled) throws IllegalArgumentException, UncheckedIOException {
+        if (sourceModule == null || lowerXBound >= upperXBound || lowerZBound >= upperZBound || width < 1 || height < 1) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapCache");
+        }
+
+        final Key key = new Key(fingerprint, lowerXBound, upperXBound, lowerZBound, upperZBound, width, height, isSeamlessEnabled);
+        synchronized (this) {
+            NoiseMap noiseMap = this.memoryTier.get(key);
+            if (noiseMap != null) {
+                this.memoryHits.incrementAndGet();
+                return noiseMap;
+            }
+        }
+
+        FutureTask<NoiseMap> task = new FutureTask<NoiseMap>(new Callable<NoiseMap>() {
+
+            @Override
+            public NoiseMap call() throws IOException {
+                return load(key, sourceModule);
+            }
+        });
+        FutureTask<NoiseMap> existing = this.pending.putIfAbsent(key, task);
+        if (existing != null) {
+            this.coalescedRequests.incrementAndGet();
+            task = existing;
+        } else {
+            try {
+                task.run();
+            } finally {
+                this.pending.remove(key);
+            }
+        }
+
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    return task.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw new UncheckedIOException((IOException) cause);
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Reads a region from the disk tier, or builds it, and adds it to the
+     * memory tier.
+     */
+    NoiseMap load(Key key, ModuleBase sourceModule) throws IOException {
+        NoiseMap noiseMap;
+
+        // Another request may have finished loading the region after this
+        // request missed the memory tier.
+        synchronized (this) {
+            noiseMap = this.memoryTier.get(key);
+            if (noiseMap != null) {
+                this.memoryHits.incrementAndGet();
+                return noiseMap;
+            }
+        }
+
+        Path file = (this.diskDirectory != null) ? this.diskDirectory.resolve(key.getFileName()) : null;
+
+        if (file != null && Files.exists(file)) {
+            TiledNoiseMapReader reader = new TiledNoiseMapReader(file);
+            try {
+                noiseMap = reader.readRegion(0, 0, key.width, key.height);
+            } finally {
+                reader.close();
+            }
+            this.diskHits.incrementAndGet();
+        }
+
+        if (noiseMap == null) {
+            this.misses.incrementAndGet();
+            long start = System.nanoTime();
+
+            noiseMap = new NoiseMap(key.width, key.height);
+            NoiseMapBuilderPlane builder = new NoiseMapBuilderPlane();
+            builder.setSourceModule(sourceModule);
+            builder.setDestNoiseMap(noiseMap);
+            builder.setDestSize(key.width, key.height);
+            builder.setBounds(key.lowerXBound, key.upperXBound, key.lowerZBound, key.upperZBound);
+            builder.enableSeamless(key.isSeamlessEnabled);
+            builder.build();
+
+            long elapsed = System.nanoTime() - start;
+            this.buildNanos.addAndGet(elapsed);
+            long max = this.maxBuildNanos.get();
+            while (elapsed > max && !this.maxBuildNanos.compareAndSet(max, elapsed)) {
+                max = this.maxBuildNanos.get();
+            }
+
+            if (file != null) {
+                // Write to a temporary file first so that readers never see a
+                // partial file.
+                Path temp = Files.createTempFile(this.diskDirectory, "tile", ".tmp");
+                try {
+                    TiledNoiseMapWriter writer = new TiledNoiseMapWriter(temp, key.width, key.height, DISK_TILE_SIZE, DISK_TILE_SIZE);
+                    try {
+                        writer.writeNoiseMap(noiseMap);
+                    } finally {
+                        writer.close();
+                    }
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+        }
+
+        synchronized (this) {
+            if (this.memoryTier.put(key, noiseMap) == null) {
+                this.memoryBytes += getEntryBytes(key);
+            }
+            evict();
+        }
+        return noiseMap;
+    }
+
+    /**
+     * Evicts the least recently used noise maps until the memory tier fits
+     * its maximum size.
+     */
+    void evict() {
+        Iterator<Map.Entry<Key, NoiseMap>> iterator = this.memoryTier.entrySet().iterator();
+        while (this.memoryBytes > this.maxMemoryBytes && iterator.hasNext()) {
+            Key key = iterator.next().getKey();
+            iterator.remove();
+            this.memoryBytes -= getEntryBytes(key);
+            this.evictions.incrementAndGet();
+        }
+    }
+
+    static long getEntryBytes(Key key) {
+        return (long) key.width * key.height * 8 + ENTRY_OVERHEAD;
+    }
+
+    /**
+     * Removes every noise map from the memory tier.
+     * <p>
+     * The disk tier is not changed.
+     */
+    public synchronized void clear() {
+        this.memoryTier.clear();
+        this.memoryBytes = 0;
+    }
+
+    /**
+     * Resets every statistic to zero.
+     */
+    public void resetStatistics() {
+        this.memoryHits.set(0);
+        this.diskHits.set(0);
+        this.misses.set(0);
+        this.coalescedRequests.set(0);
+        this.evictions.set(0);
+        this.buildNanos.set(0);
+        this.maxBuildNanos.set(0);
+    }
+
+    /**
+     * Returns the number of requests that waited for a build started by
+     * another request.
+     *
+     * @return The number of coalesced requests.
+     */
+    public long getCoalescedRequests() {
+        return this.coalescedRequests.get();
+    }
+
+    /**
+     * Returns the directory of the disk tier.
+     *
+     * @return The directory, or null if there is no disk tier.
+     */
+    public Path getDiskDirectory() {
+        return this.diskDirectory;
+    }
+
+    /**
+     * Returns the number of requests served from the disk tier.
+     *
+     * @return The number of disk hits.
+     */
+    public long getDiskHits() {
+        return this.diskHits.get();
+    }
+
+    /**
+     * Returns the number of noise maps in the memory tier.
+     *
+     * @return The number of noise maps in the memory tier.
+     */
+    public synchronized int getEntryCount() {
+        return this.memoryTier.size();
+    }
+
+    /**
+     * Returns the number of noise maps evicted from the memory tier.
+     *
+     * @return The number of evictions.
+     */
+    public long getEvictions() {
+        return this.evictions.get();
+    }
+
+    /**
+     * Returns the longest time spent building a noise map.
+     *
+     * @return The longest build time, in nanoseconds.
+     */
+    public long getMaxBuildNanos() {
+        return this.maxBuildNanos.get();
+    }
+
+    /**
+     * Returns the maximum size of the memory tier.
+     *
+     * @return The maximum size of the memory tier, in bytes.
+     */
+    public long getMaxMemoryBytes() {
+        return this.maxMemoryBytes;
+    }
+
+    /**
+     * Returns the current size of the memory tier.
+     *
+     * @return The size of the memory tier, in bytes.
+     */
+    public synchronized long getMemoryBytes() {
+        return this.memoryBytes;
+    }
+
+    /**
+     * Returns the number of requests served from the memory tier.
+     *
+     * @return The number of memory hits.
+     */
+    public long getMemoryHits() {
+        return this.memoryHits.get();
+    }
+
+    /**
+     * Returns the number of noise maps that were built.
+     *
+     * @return The number of misses.
+     */
+    public long getMisses() {
+        return this.misses.get();
+    }
+
+    /**
+     * Returns the total time spent building noise maps.
+     *
+     * @return The total build time, in nanoseconds.
+     */
+    public long getTotalBuildNanos() {
+        return this.buildNanos.get();
+    }
+
+    /**
+     * Sets the directory of the disk tier.
+     *
+     * @param diskDirectory The directory, which must exist, or null to
+     *            disable the disk tier.
+     */
+    public void setDiskDirectory(Path diskDirectory) {
+        this.diskDirectory = diskDirectory;
+    }
+
+    /**
+     * Sets the maximum size of the memory tier, and evicts noise maps if the
+     * memory tier no longer fits.
+     *
+     * @param maxMemoryBytes Maximum size of the memory tier, in bytes.
+     *
+     * @pre The size is not negative.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public synchronized void setMaxMemoryBytes(long maxMemoryBytes) throws IllegalArgumentException {
+        if (maxMemoryBytes < 0) {
+            throw new IllegalArgumentException("Invalid Parameter in NoiseMapCache");
+        }
+        this.maxMemoryBytes = maxMemoryBytes;
+        evict();
+    }
+}
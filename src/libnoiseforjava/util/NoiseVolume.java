@@ -0,0 +1,339 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+
+/**
+ * Implements a noise volume, a 3-dimensional array of floating-point values.
+ * <p>
+ * A noise volume stores coherent-noise values over a box, for example the
+ * density field of voxel terrain with caves and overhangs. It is the
+ * 3-dimensional counterpart of NoiseMap and is filled by NoiseVolumeBuilder.
+ * <p>
+ * The values are stored in one flat array per z slice, with x varying
+ * fastest, so a volume may hold more values than fit in a single Java array.
+ * A volume created as direct stores its slices in direct buffers outside of
+ * the Java heap; the getSlice() method exposes a slice to native code or
+ * graphics APIs without a copy.
+ */
+public class NoiseVolume {
+
+    /**
+     * The largest number of values in a slice of a direct noise volume.
+     */
+    static final int MAX_DIRECT_SLICE_SIZE = Integer.MAX_VALUE / 8;
+
+    /**
+     * The width of the noise volume.
+     */
+    final int width;
+
+    /**
+     * The height of the noise volume.
+     */
+    final int height;
+
+    /**
+     * The depth of the noise volume.
+     */
+    final int depth;
+
+    /**
+     * The values of each z slice, or null if the volume is direct.
+     */
+    final double[][] slices;
+
+    /**
+     * The direct buffer of each z slice, or null if the volume is on the
+     * heap.
+     */
+    final DoubleBuffer[] directSlices;
+
+    double borderValue;
+
+    public NoiseVolume(int width, int height, int depth) throws IllegalArgumentException {
+        this(width, height, depth, false);
+    }
+
+    /**
+     * Creates a noise volume.
+     *
+     * @param width The width of the noise volume.
+     * @param height The height of the noise volume.
+     * @param depth The depth of the noise volume.
+     * @param direct True to store the values outside of the Java heap.
+     *
+     * @pre The width, height and depth are positive.
+     * @pre A slice of width x height values fits in an array, or in a direct
+     *      buffer if the volume is direct.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public NoiseVolume(int width, int height, int depth, boolean direct) throws IllegalArgumentException {
+        long sliceSize = (long) width * height;
+        if (width < 1 || height < 1 || depth < 1 || sliceSize > (direct ? MAX_DIRECT_SLICE_SIZE : Integer.MAX_VALUE - 8)) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseVolume");
+        }
+
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+        this.borderValue = 0.0;
+
+        if (direct) {
+            this.slices = null;
+            this.directSlices = new DoubleBuffer[depth];
+            for (int z = 0; z < depth; z++) {
+                this.directSlices[z] = ByteBuffer.allocateDirect((int) sliceSize * 8).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+            }
+        } else {
+            this.slices = new double[depth][(int) sliceSize];
+            this.directSlices = null;
+        }
+    }
+
+    /**
+     * Returns a value from the specified position in the noise volume.
+     * <p>
+     * This method returns the border value if the coordinates exist outside
+     * of the noise volume.
+     *
+     * @param x The x coordinate of the position.
+     * @param y The y coordinate of the position.
+     * @param z The z coordinate of the position.
+     *
+     * @return The value at that position.
+     */
+    public double getValue(int x, int y, int z) {
+        if (x >= 0 && x < this.width && y >= 0 && y < this.height && z >= 0 && z < this.depth) {
+            int index = x + y * this.width;
+            return (this.slices != null) ? this.slices[z][index] : this.directSlices[z].get(index);
+        } else {
+            // The coordinates specified are outside the noise volume. Return
+            // the border value.
+            return this.borderValue;
+        }
+    }
+
+    /**
+     * Sets a value at a specified position in the noise volume.
+     * <p>
+     * This method does nothing if the position is outside the bounds of the
+     * noise volume.
+     *
+     * @param x The x coordinate of the position.
+     * @param y The y coordinate of the position.
+     * @param z The z coordinate of the position.
+     * @param value The value to set at the given position.
+     */
+    public void setValue(int x, int y, int z, double value) {
+        if (x >= 0 && x < this.width && y >= 0 && y < this.height && z >= 0 && z < this.depth) {
+            int index = x + y * this.width;
+            if (this.slices != null) {
+                this.slices[z][index] = value;
+            } else {
+                this.directSlices[z].put(index, value);
+            }
+        }
+    }
+
+    /**
+     * Copies consecutive values of a row of the noise volume into an array.
+     *
+     * @param xStart The x coordinate of the first value.
+     * @param y The y coordinate of the row.
+     * @param z The z coordinate of the row.
+     * @param count The number of values.
+     * @param values The array that receives the values, starting at index 0.
+     *
+     * @pre The values lie within the noise volume.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void getValues(int xStart, int y, int z, int count, double[] values) throws IllegalArgumentException {
+        checkRow(xStart, y, z, count);
+        int index = xStart + y * this.width;
+        if (this.slices != null) {
+            System.arraycopy(this.slices[z], index, values, 0, count);
+        } else {
+            DoubleBuffer slice = this.directSlices[z].duplicate();
+            slice.position(index);
+            slice.get(values, 0, count);
+        }
+    }
+
+    /**
+     * Copies values from an array into consecutive values of a row of the
+     * noise volume.
+     *
+     * @param xStart The x coordinate of the first value.
+     * @param y The y coordinate of the row.
+     * @param z The z coordinate of the row.
+     * @param count The number of values.
+     * @param values The values, starting at index 0.
+     *
+     * @pre The values lie within the noise volume.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void setValues(int xStart, int y, int z, int count, double[] values) throws IllegalArgumentException {
+        checkRow(xStart, y, z, count);
+        int index = xStart + y * this.width;
+        if (this.slices != null) {
+            System.arraycopy(values, 0, this.slices[z], index, count);
+        } else {
+            DoubleBuffer slice = this.directSlices[z].duplicate();
+            slice.position(index);
+            slice.put(values, 0, count);
+        }
+    }
+
+    /**
+     * Sets every value of a box within the noise volume.
+     *
+     * @param xStart The x coordinate of the first corner of the box.
+     * @param yStart The y coordinate of the first corner of the box.
+     * @param zStart The z coordinate of the first corner of the box.
+     * @param width The width of the box.
+     * @param height The height of the box.
+     * @param depth The depth of the box.
+     * @param value The value to set.
+     *
+     * @pre The box lies within the noise volume.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void fill(int xStart, int yStart, int zStart, int width, int height, int depth, double value) throws IllegalArgumentException {
+        if (height < 0 || depth < 0 || yStart < 0 || yStart + height > this.height || zStart < 0 || zStart + depth > this.depth) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseVolume");
+        }
+        checkRow(xStart, yStart, zStart, width);
+
+        for (int z = zStart; z < zStart + depth; z++) {
+            for (int y = yStart; y < yStart + height; y++) {
+                int index = xStart + y * this.width;
+                if (this.slices != null) {
+                    Arrays.fill(this.slices[z], index, index + width, value);
+                } else {
+                    DoubleBuffer slice = this.directSlices[z];
+                    for (int i = index; i < index + width; i++) {
+                        slice.put(i, value);
+                    }
+                }
+            }
+        }
+    }
+
+    private void checkRow(int xStart, int y, int z, int count) throws IllegalArgumentException {
+        if (count < 0 || xStart < 0 || xStart + count > this.width || y < 0 || y >= this.height || z < 0 || z >= this.depth) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseVolume");
+        }
+    }
+
+    /**
+     * Returns a z slice of the noise volume as a buffer.
+     * <p>
+     * The buffer shares the values of the noise volume, with the value at
+     * (x, y) at index x + y * width. It is a direct buffer if the noise volume
+     * is direct. Each call returns a new buffer, so the position and limit of
+     * the buffer can be changed freely.
+     *
+     * @param z The z coordinate of the slice.
+     *
+     * @return The values of the slice.
+     *
+     * @throws IllegalArgumentException The slice lies outside the noise
+     *             volume.
+     */
+    public DoubleBuffer getSlice(int z) throws IllegalArgumentException {
+        if (z < 0 || z >= this.depth) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseVolume");
+        }
+        return (this.slices != null) ? DoubleBuffer.wrap(this.slices[z]) : this.directSlices[z].duplicate();
+    }
+
+    /**
+     * Returns the value used for all positions outside of the noise volume.
+     *
+     * @return The value used for all positions outside of the noise volume.
+     */
+    public double getBorderValue() {
+        return this.borderValue;
+    }
+
+    /**
+     * Returns the depth of the noise volume.
+     *
+     * @return The depth of the noise volume.
+     */
+    public int getDepth() {
+        return this.depth;
+    }
+
+    /**
+     * Returns the height of the noise volume.
+     *
+     * @return The height of the noise volume.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Returns the width of the noise volume.
+     *
+     * @return The width of the noise volume.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Determines if the values are stored outside of the Java heap.
+     *
+     * @return True if the noise volume is direct.
+     */
+    public boolean isDirect() {
+        return this.directSlices != null;
+    }
+
+    /**
+     * Sets the value to use for all positions outside of the noise volume.
+     *
+     * @param borderValue The value to use for all positions outside of the
+     *            noise volume.
+     */
+    public void setBorderValue(double borderValue) {
+        this.borderValue = borderValue;
+    }
+
+}
@@ -0,0 +1,613 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import libnoiseforjava.module.ModuleBase;
+
+/**
+ * Builds a noise volume.
+ * <p>
+ * This class fills a noise volume with the output values of the source
+ * module at the points of an axis-aligned box. The application must provide
+ * the lower and upper bounds of the box on each axis, in units. Like the
+ * planar builder, point (x, y, z) of a volume with width w is at lower x
+ * bound + x * (upper x bound - lower x bound) / w, and so on for the other
+ * axes, so the upper bounds are not sampled.
+ * <p>
+ * The volume is built in cubic blocks (see setBlockSize()). The x
+ * coordinates are computed once per build, and each row of a block is
+ * evaluated into a scratch array and stored with one bulk copy.
+ * <p>
+ * To build the volume on several threads, pass an Executor to the
+ * setExecutor() method. The blocks are split into bands, and the volume is
+ * identical to the volume built on the calling thread.
+ * <p>
+ * In sparse mode, enabled by passing a VolumeBound to setVolumeBound(), the
+ * builder asks the bound for the range of the output over each block first.
+ * If the range lies entirely above or entirely below the iso-level, the block
+ * is not evaluated; every point of the block is set to the end of the range
+ * closest to the iso-level. A skipped block then holds no crossing of the
+ * iso-level, as the source module would have, but its values are not the
+ * output values of the source module. The getModuleBound() method returns a
+ * bound that uses the interval bounds of a noise module, usually the source
+ * module itself.
+ * <p>
+ * With block simplification enabled, each block that is evaluated is built
+ * from the source module simplified for the block (see
+ * ModuleBase.getRegionModule()), so that a block inside one branch of a
+ * Select noise module does not evaluate the other branch. The values are the
+ * same as without simplification.
+ */
+public class NoiseVolumeBuilder {
+
+    /**
+     * The default number of points along each edge of a block.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 16;
+
+    /**
+     * Results of buildBlock().
+     */
+    static final int BLOCK_BUILT = 0;
+    static final int BLOCK_SKIPPED = 1;
+    static final int BLOCK_SIMPLIFIED = 2;
+
+    /**
+     * The number of points along each edge of a block.
+     */
+    int blockSize;
+
+    /**
+     * The depth of the destination noise volume.
+     */
+    int destDepth;
+
+    /**
+     * The height of the destination noise volume.
+     */
+    int destHeight;
+
+    /**
+     * The width of the destination noise volume.
+     */
+    int destWidth;
+
+    /**
+     * The destination noise volume.
+     */
+    NoiseVolume destNoiseVolume;
+
+    /**
+     * The source module.
+     */
+    ModuleBase sourceModule;
+
+    /**
+     * The bound that lets blocks be skipped, or null to evaluate every
+     * block.
+     */
+    VolumeBound volumeBound;
+
+    /**
+     * The output value that separates the inside from the outside of the
+     * volume in sparse mode.
+     */
+    double isoLevel;
+
+    /**
+     * The number of blocks skipped by the last build.
+     */
+    long skippedBlockCount;
+
+    /**
+     * A flag specifying whether each block is built from the source module
+     * simplified for the block.
+     */
+    boolean isBlockSimplificationEnabled;
+
+    /**
+     * The number of blocks of the last build that were built from a
+     * simplified noise module.
+     */
+    long simplifiedBlockCount;
+
+    /**
+     * The executor that builds bands of blocks in parallel, or null to build
+     * on the calling thread.
+     */
+    Executor executor;
+
+    /**
+     * The number of blocks in each band built by the executor, or zero to
+     * choose it from the number of available processors.
+     */
+    int bandSize;
+
+    /**
+     * Lower x boundary of the box, in units.
+     */
+    double lowerXBound;
+
+    /**
+     * Lower y boundary of the box, in units.
+     */
+    double lowerYBound;
+
+    /**
+     * Lower z boundary of the box, in units.
+     */
+    double lowerZBound;
+
+    /**
+     * Upper x boundary of the box, in units.
+     */
+    double upperXBound;
+
+    /**
+     * Upper y boundary of the box, in units.
+     */
+    double upperYBound;
+
+    /**
+     * Upper z boundary of the box, in units.
+     */
+    double upperZBound;
+
+    public NoiseVolumeBuilder() {
+        this.blockSize = DEFAULT_BLOCK_SIZE;
+        this.destDepth = 0;
+        this.destHeight = 0;
+        this.destWidth = 0;
+        this.destNoiseVolume = null;
+        this.sourceModule = null;
+        this.volumeBound = null;
+        this.isoLevel = 0.0;
+        this.skippedBlockCount = 0;
+        this.isBlockSimplificationEnabled = false;
+        this.simplifiedBlockCount = 0;
+        this.executor = null;
+        this.bandSize = 0;
+    }
+
+    /**
+     * Builds the noise volume.
+     * <p>
+     * If this method is successful, the destination noise volume contains
+     * the values of the source module at the points of the box, except for
+     * the blocks skipped in sparse mode.
+     *
+     * @pre setBounds() was previously called.
+     * @pre setDestNoiseVolume() was previously called with a noise volume of
+     *      the size passed to setDestSize().
+     * @pre setSourceModule() was previously called.
+     *
+     * @post The original contents of the destination noise volume is
+     *       destroyed.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void build() throws IllegalArgumentException {
+        if (this.upperXBound <= this.lowerXBound || this.upperYBound <= this.lowerYBound || this.upperZBound <= this.lowerZBound || this.sourceModule == null
+                || this.destNoiseVolume == null || this.destNoiseVolume.getWidth() != this.destWidth || this.destNoiseVolume.getHeight() != this.destHeight
+                || this.destNoiseVolume.getDepth() != this.destDepth) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseVolumeBuilder");
+        }
+
+        final int blockSize = this.blockSize;
+        final int blockCountX = (this.destWidth + blockSize - 1) / blockSize;
+        final int blockCountY = (this.destHeight + blockSize - 1) / blockSize;
+        int blockCountZ = (this.destDepth + blockSize - 1) / blockSize;
+        long blockCount = (long) blockCountX * blockCountY * blockCountZ;
+        if (blockCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseVolumeBuilder");
+        }
+
+        // The x coordinates are the same in every row.
+        double xDelta = (this.upperXBound - this.lowerXBound) / this.destWidth;
+        final double[] xCoords = new double[this.destWidth];
+        for (int x = 0; x < this.destWidth; x++) {
+            xCoords[x] = this.lowerXBound + x * xDelta;
+        }
+
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicLong simplified = new AtomicLong();
+
+        RowBands.run(this.executor, (int) blockCount, this.bandSize, new RowBands.Band() {
+
+            @Override
+            public void processRows(int blockStart, int blockEnd) {
+                double[] values = new double[blockSize];
+                double[] range = new double[2];
+                long skippedBlocks = 0;
+                long simplifiedBlocks = 0;
+                for (int block = blockStart; block < blockEnd; block++) {
+                    int blockX = block % blockCountX;
+                    int blockY = (block / blockCountX) % blockCountY;
+                    int blockZ = block / blockCountX / blockCountY;
+                    int result = buildBlock(blockX * blockSize, blockY * blockSize, blockZ * blockSize, xCoords, values, range);
+                    if (result == BLOCK_SKIPPED) {
+                        skippedBlocks++;
+                    } else if (result == BLOCK_SIMPLIFIED) {
+                        simplifiedBlocks++;
+                    }
+                }
+                skipped.addAndGet(skippedBlocks);
+                simplified.addAndGet(simplifiedBlocks);
+            }
+        });
+
+        this.skippedBlockCount = skipped.get();
+        this.simplifiedBlockCount = simplified.get();
+    }
+
+    /**
+     * Fills the block that starts at the given point, or skips it if the
+     * volume bound proves that it holds no crossing of the iso-level.
+     *
+     * @return BLOCK_SKIPPED, BLOCK_SIMPLIFIED if the block was built from a
+     *         simplified noise module, or BLOCK_BUILT.
+     */
+    int buildBlock(int xStart, int yStart, int zStart, double[] xCoords, double[] values, double[] range) {
+        NoiseVolume dest = this.destNoiseVolume;
+        ModuleBase sourceModule = this.sourceModule;
+        int xEnd = Math.min(xStart + this.blockSize, this.destWidth);
+        int yEnd = Math.min(yStart + this.blockSize, this.destHeight);
+        int zEnd = Math.min(zStart + this.blockSize, this.destDepth);
+        double yDelta = (this.upperYBound - this.lowerYBound) / this.destHeight;
+        double zDelta = (this.upperZBound - this.lowerZBound) / this.destDepth;
+
+        VolumeBound volumeBound = this.volumeBound;
+        if (volumeBound != null) {
+            volumeBound.getBounds(xCoords[xStart], xCoords[xEnd - 1], this.lowerYBound + yStart * yDelta, this.lowerYBound + (yEnd - 1) * yDelta,
+                    this.lowerZBound + zStart * zDelta, this.lowerZBound + (zEnd - 1) * zDelta, range);
+            if (range[0] > this.isoLevel || range[1] < this.isoLevel) {
+                double fillValue = (range[0] > this.isoLevel) ? range[0] : range[1];
+                dest.fill(xStart, yStart, zStart, xEnd - xStart, yEnd - yStart, zEnd - zStart, fillValue);
+                return BLOCK_SKIPPED;
+            }
+        }
+
+        int result = BLOCK_BUILT;
+        if (this.isBlockSimplificationEnabled) {
+            ModuleBase blockModule = sourceModule.getRegionModule(xCoords[xStart], xCoords[xEnd - 1], this.lowerYBound + yStart * yDelta,
+                    this.lowerYBound + (yEnd - 1) * yDelta, this.lowerZBound + zStart * zDelta, this.lowerZBound + (zEnd - 1) * zDelta);
+            if (blockModule != sourceModule) {
+                sourceModule = blockModule;
+                result = BLOCK_SIMPLIFIED;
+            }
+        }
+
+        for (int z = zStart; z < zEnd; z++) {
+            double zCur = this.lowerZBound + z * zDelta;
+            for (int y = yStart; y < yEnd; y++) {
+                double yCur = this.lowerYBound + y * yDelta;
+                for (int x = xStart; x < xEnd; x++) {
+                    values[x - xStart] = sourceModule.getValue(xCoords[x], yCur, zCur);
+                }
+                dest.setValues(xStart, y, z, xEnd - xStart, values);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns a volume bound that uses the bounds computed by a noise module
+     * (see ModuleBase.getBounds()).
+     *
+     * @param module The noise module whose output is bounded.
+     *
+     * @return The volume bound.
+     */
+    public static VolumeBound getModuleBound(final ModuleBase module) {
+        return new VolumeBound() {
+
+            @Override
+            public void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range) {
+                module.getBounds(lowerX, upperX, lowerY, upperY, lowerZ, upperZ, range);
+            }
+        };
+    }
+
+    /**
+     * Returns the number of points along each edge of a block.
+     *
+     * @return The block size, in points.
+     */
+    public int getBlockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * Sets the number of points along each edge of a block.
+     * <p>
+     * In sparse mode, smaller blocks fit the surface more closely but need
+     * more calls to the volume bound.
+     *
+     * @param blockSize The block size, in points.
+     *
+     * @throws IllegalArgumentException The block size is not positive.
+     */
+    public void setBlockSize(int blockSize) throws IllegalArgumentException {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseVolumeBuilder");
+        }
+        this.blockSize = blockSize;
+    }
+
+    /**
+     * Returns the number of blocks that the last build skipped in sparse
+     * mode.
+     *
+     * @return The number of skipped blocks.
+     */
+    public long getSkippedBlockCount() {
+        return this.skippedBlockCount;
+    }
+
+    /**
+     * Enables or disables building each block from the source module
+     * simplified for the block.
+     *
+     * @param enable A flag that enables or disables block simplification.
+     */
+    public void enableBlockSimplification(boolean enable) {
+        this.isBlockSimplificationEnabled = enable;
+    }
+
+    /**
+     * Determines if each block is built from the source module simplified
+     * for the block.
+     *
+     * @return True if block simplification is enabled.
+     */
+    public boolean isBlockSimplificationEnabled() {
+        return this.isBlockSimplificationEnabled;
+    }
+
+    /**
+     * Returns the number of blocks of the last build that were built from a
+     * simplified noise module.
+     *
+     * @return The number of simplified blocks.
+     */
+    public long getSimplifiedBlockCount() {
+        return this.simplifiedBlockCount;
+    }
+
+    /**
+     * Returns the bound used to skip blocks in sparse mode.
+     *
+     * @return The volume bound, or null if sparse mode is disabled.
+     */
+    public VolumeBound getVolumeBound() {
+        return this.volumeBound;
+    }
+
+    /**
+     * Sets the bound used to skip blocks, enabling sparse mode.
+     *
+     * @param volumeBound The volume bound, or null to evaluate every block.
+     */
+    public void setVolumeBound(VolumeBound volumeBound) {
+        this.volumeBound = volumeBound;
+    }
+
+    /**
+     * Returns the iso-level used in sparse mode.
+     *
+     * @return The iso-level.
+     */
+    public double getIsoLevel() {
+        return this.isoLevel;
+    }
+
+    /**
+     * Sets the iso-level used in sparse mode.
+     * <p>
+     * A block is skipped only if the volume bound proves that all of its
+     * values lie strictly above or strictly below the iso-level.
+     *
+     * @param isoLevel The iso-level.
+     */
+    public void setIsoLevel(double isoLevel) {
+        this.isoLevel = isoLevel;
+    }
+
+    /**
+     * Returns the number of blocks in each band built by the executor.
+     *
+     * @return The number of blocks in each band, or zero if it is chosen from
+     *         the number of available processors.
+     */
+    public int getBandSize() {
+        return this.bandSize;
+    }
+
+    /**
+     * Returns the executor that builds bands of blocks in parallel.
+     *
+     * @return The executor, or null if the volume is built on the calling
+     *         thread.
+     */
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Sets the number of blocks in each band built by the executor.
+     *
+     * @param bandSize The number of blocks in each band, or zero to choose
+     *            it from the number of available processors.
+     *
+     * @throws IllegalArgumentException The band size is negative.
+     */
+    public void setBandSize(int bandSize) throws IllegalArgumentException {
+        if (bandSize < 0) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseVolumeBuilder");
+        }
+        this.bandSize = bandSize;
+    }
+
+    /**
+     * Sets the executor that builds bands of blocks in parallel.
+     * <p>
+     * The source module and the volume bound are used from several threads
+     * at once, so they must be safe for concurrent use (see FrozenGraph).
+     *
+     * @param executor The executor, or null to build on the calling thread.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the destination noise volume.
+     *
+     * @return The destination noise volume.
+     */
+    public NoiseVolume getDestNoiseVolume() {
+        return this.destNoiseVolume;
+    }
+
+    /**
+     * Sets the destination noise volume.
+     * <p>
+     * The destination noise volume must be as large as the size passed to
+     * setDestSize().
+     *
+     * @param destNoiseVolume The destination noise volume.
+     */
+    public void setDestNoiseVolume(NoiseVolume destNoiseVolume) {
+        this.destNoiseVolume = destNoiseVolume;
+    }
+
+    /**
+     * Sets the size of the destination noise volume.
+     *
+     * @param destWidth The width of the destination noise volume, in points.
+     * @param destHeight The height of the destination noise volume, in
+     *            points.
+     * @param destDepth The depth of the destination noise volume, in points.
+     *
+     * @throws IllegalArgumentException A size is not positive.
+     */
+    public void setDestSize(int destWidth, int destHeight, int destDepth) throws IllegalArgumentException {
+        if (destWidth < 1 || destHeight < 1 || destDepth < 1) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseVolumeBuilder");
+        }
+        this.destWidth = destWidth;
+        this.destHeight = destHeight;
+        this.destDepth = destDepth;
+    }
+
+    public int getDestDepth() {
+        return this.destDepth;
+    }
+
+    public int getDestHeight() {
+        return this.destHeight;
+    }
+
+    public int getDestWidth() {
+        return this.destWidth;
+    }
+
+    /**
+     * Returns the source module.
+     *
+     * @return The source module.
+     */
+    public ModuleBase getSourceModule() {
+        return this.sourceModule;
+    }
+
+    /**
+     * Sets the source module.
+     *
+     * @param sourceModule The source module.
+     */
+    public void setSourceModule(ModuleBase sourceModule) {
+        this.sourceModule = sourceModule;
+    }
+
+    /**
+     * Sets the boundaries of the box.
+     *
+     * @param lowerXBound The lower x boundary of the box, in units.
+     * @param upperXBound The upper x boundary of the box, in units.
+     * @param lowerYBound The lower y boundary of the box, in units.
+     * @param upperYBound The upper y boundary of the box, in units.
+     * @param lowerZBound The lower z boundary of the box, in units.
+     * @param upperZBound The upper z boundary of the box, in units.
+     *
+     * @pre Each lower boundary is less than the matching upper boundary.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void setBounds(double lowerXBound, double upperXBound, double lowerYBound, double upperYBound, double lowerZBound, double upperZBound)
+            throws IllegalArgumentException {
+        if (lowerXBound >= upperXBound || lowerYBound >= upperYBound || lowerZBound >= upperZBound) {
+            throw new IllegalArgumentException("Invalid parameter in NoiseVolumeBuilder");
+        }
+
+        this.lowerXBound = lowerXBound;
+        this.upperXBound = upperXBound;
+        this.lowerYBound = lowerYBound;
+        this.upperYBound = upperYBound;
+        this.lowerZBound = lowerZBound;
+        this.upperZBound = upperZBound;
+    }
+
+    public double getLowerXBound() {
+        return this.lowerXBound;
+    }
+
+    public double getLowerYBound() {
+        return this.lowerYBound;
+    }
+
+    public double getLowerZBound() {
+        return this.lowerZBound;
+    }
+
+    public double getUpperXBound() {
+        return this.upperXBound;
+    }
+
+    public double getUpperYBound() {
+        return this.upperYBound;
+    }
+
+    public double getUpperZBound() {
+        return this.upperZBound;
+    }
+
+}
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+/**
+ * Receives each level of a progressive build.
+ *
+ * @see NoiseMapBuilder#buildProgressive(ProgressiveBuildListener)
+ */
+public interface ProgressiveBuildListener {
+
+    /**
+     * Called on the building thread after a level of a progressive build.
+     * <p>
+     * Every point of the noise map holds a value: at a coarse level, each
+     * computed point is repeated over the step x step block that it starts,
+     * so the noise map can be rendered as a preview. The builder does not
+     * write the noise map while this method runs.
+     *
+     * @param noiseMap The destination noise map.
+     * @param step The distance between the computed points of this level, in
+     *            points; 1 for the final level.
+     */
+    void levelCompleted(NoiseMap noiseMap, int step);
+}
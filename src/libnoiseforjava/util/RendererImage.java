@@ -27,6 +27,8 @@
 
 package libnoiseforjava.util;
 
+import java.util.concurrent.Executor;
+
 import libnoiseforjava.Interp;
 
 /**
@@ -125,6 +127,12 @@ import libnoiseforjava.Interp;
  * <li>Pass an ImageCafe object to the setBackgroundImage() method (optional)
  * <li>Call the render() method.
  * </ol>
+ * <p>
+ * <b>Parallel rendering</b>
+ * <p>
+ * To render bands of rows on several threads, pass an Executor to the
+ * setExecutor() method. The output is identical to the output of a render on
+ * the calling thread.
  */
 public class RendererImage {
 
@@ -155,6 +163,12 @@ public class RendererImage {
      */
     boolean isWrapEnabled;
 
+    /**
+     * The number of points around each side of the source noise map that are
+     * only used as neighbors for the lighting.
+     */
+    int apron;
+
     /**
      * The azimuth of the light source, in degrees.
      */
@@ -200,6 +214,23 @@ public class RendererImage {
      */
     NoiseMap sourceNoiseMap;
 
+    /**
+     * The executor that renders bands of rows in parallel, or null to render
+     * on the calling thread.
+     */
+    Executor executor;
+
+    /**
+     * The number of rows in each band rendered by the executor, or zero to
+     * choose it from the number of available processors.
+     */
+    int bandHeight;
+
+    /**
+     * The metrics that receive the timing of each render, or null.
+     */
+    BuildMetrics metrics;
+
     /**
      * Used by the calcLightIntensity() method to recalculate the light values
      * only if the light parameters change.
@@ -222,6 +253,7 @@ public class RendererImage {
     public RendererImage() throws IllegalArgumentException {
         this.isLightEnabled = false;
         this.isWrapEnabled = false;
+        this.apron = 0;
         this.lightAzimuth = 45.0;
         this.lightBrightness = 1.0;
         this.lightColor = new ColorCafe(255, 255, 255, 255);
@@ -232,6 +264,9 @@ public class RendererImage {
         this.destImageCafe = null;
         this.sourceNoiseMap = null;
         this.recalcLightValues = true;
+        this.executor = null;
+        this.bandHeight = 0;
+        this.metrics = null;
 
         buildGrayscaleGradient();
     }
@@ -319,13 +354,34 @@ public class RendererImage {
      * @return The destination color.
      */
     public ColorCafe calcDestColor(ColorCafe sourceColor, ColorCafe backgroundColor, double lightValue) {
+        return ColorCafe.fromARGB(calcDestARGB(sourceColor, backgroundColor.getARGB(), lightValue));
+    }
+
+    /**
+     * Calculates the destination color as a packed ARGB value.
+     * <p>
+     * This method produces the same color as calcDestColor() without creating
+     * a ColorCafe object for the result.
+     *
+     * @param sourceColor
+     *            The source color generated from the color gradient.
+     * @param backgroundARGB
+     *            The packed ARGB color from the background image at the
+     *            corresponding position.
+     * @param lightValue
+     *            The intensity of the light at that position.
+     *
+     * @return The destination color, packed as an ARGB value.
+     */
+    public int calcDestARGB(ColorCafe sourceColor, int backgroundARGB, double lightValue) {
         double sourceRed = sourceColor.red / 255.0;
         double sourceGreen = sourceColor.green / 255.0;
         double sourceBlue = sourceColor.blue / 255.0;
         double sourceAlpha = sourceColor.alpha / 255.0;
-        double backgroundRed = backgroundColor.red / 255.0;
-        double backgroundGreen = backgroundColor.green / 255.0;
-        double backgroundBlue = backgroundColor.blue / 255.0;
+        double backgroundRed = ((backgroundARGB >> 16) & 0xff) / 255.0;
+        double backgroundGreen = ((backgroundARGB >> 8) & 0xff) / 255.0;
+        double backgroundBlue = (backgroundARGB & 0xff) / 255.0;
+        int backgroundAlpha = backgroundARGB >>> 24;
 
         // First, blend the source color to the background color using the alpha
         // of the source color.
@@ -356,8 +412,7 @@ public class RendererImage {
         // Rescale the color channels to the noise::uint8 (0..255) range and
         // return
         // the new color.
-        ColorCafe newColor = new ColorCafe((int) (red * 255.0) & 0xff, (int) (green * 255.0) & 0xff, (int) (blue * 255.0) & 0xff, Math.max(sourceColor.alpha, backgroundColor.alpha));
-        return newColor;
+        return ColorCafe.packARGB((int) (red * 255.0), (int) (green * 255.0), (int) (blue * 255.0), Math.max(sourceColor.alpha, backgroundAlpha));
     }
 
     /**
@@ -381,13 +436,7 @@ public class RendererImage {
         // necessary so it does not have to be calculated each time this method
         // is
         // called.
-        if (this.recalcLightValues) {
-            this.cosAzimuth = Math.cos(Math.toRadians(this.lightAzimuth));
-            this.sinAzimuth = Math.sin(Math.toRadians(this.lightAzimuth));
-            this.cosElev = Math.cos(Math.toRadians(this.lightElev));
-            this.sinElev = Math.sin(Math.toRadians(this.lightElev));
-            this.recalcLightValues = false;
-        }
+        updateLightValues();
 
         // Now do the lighting calculations.
         double I_MAX = 1.0;
@@ -403,6 +452,20 @@ public class RendererImage {
         return intensity;
     }
 
+    /**
+     * Recalculates the sine and cosine of the light azimuth and elevation if
+     * the light parameters have changed since the last call.
+     */
+    void updateLightValues() {
+        if (this.recalcLightValues) {
+            this.cosAzimuth = Math.cos(Math.toRadians(this.lightAzimuth));
+            this.sinAzimuth = Math.sin(Math.toRadians(this.lightAzimuth));
+            this.cosElev = Math.cos(Math.toRadians(this.lightElev));
+            this.sinElev = Math.sin(Math.toRadians(this.lightElev));
+            this.recalcLightValues = false;
+        }
+    }
+
     /**
      * Clears the color gradient.
      * <p>
@@ -435,13 +498,13 @@ public class RendererImage {
      *             See the preconditions.
      */
     public void render() throws IllegalArgumentException {
-        if (this.sourceNoiseMap == null || this.destImageCafe == null || this.sourceNoiseMap.getWidth() <= 0 || this.sourceNoiseMap.getHeight() <= 0
-                || this.gradient.getGradientPointCount() < 2) {
+        if (this.sourceNoiseMap == null || this.destImageCafe == null || this.sourceNoiseMap.getWidth() <= 2 * this.apron
+                || this.sourceNoiseMap.getHeight() <= 2 * this.apron || this.gradient.getGradientPointCount() < 2) {
             throw new IllegalArgumentException("Invalid Parameter in RendererImage");
         }
 
-        int width = this.sourceNoiseMap.getWidth();
-        int height = this.sourceNoiseMap.getHeight();
+        int width = this.sourceNoiseMap.getWidth() - 2 * this.apron;
+        int height = this.sourceNoiseMap.getHeight() - 2 * this.apron;
 
         // If a background image was provided, make sure it is the same size the
         // source noise map.
@@ -458,12 +521,54 @@ public class RendererImage {
             this.destImageCafe.setSize(width, height);
         }
 
-        for (int y = 0; y < height; y++) {
+        // Calculate the light values before the rows are rendered so that no
+        // row has to update them.
+        updateLightValues();
+
+        long start = 0;
+        if (this.metrics != null) {
+            this.metrics.renderStarted("RendererImage", width, height);
+            start = System.nanoTime();
+        }
+
+        RowBands.run(this.executor, height, this.bandHeight, new RowBands.Band() {
+
+            @Override
+            public void processRows(int yStart, int yEnd) {
+                renderRows(yStart, yEnd);
+            }
+        });
+
+        if (this.metrics != null) {
+            this.metrics.renderCompleted("RendererImage", width, height, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Renders the rows from yStart (inclusive) to yEnd (exclusive) of the
+     * destination image.
+     * <p>
+     * Each pixel only depends on the corresponding position in the source
+     * noise map, its four neighbors and the background image, so separate
+     * bands of rows may be rendered at the same time.
+     *
+     * @param yStart The first row to render.
+     * @param yEnd One past the last row to render.
+     */
+    void renderRows(int yStart, int yEnd) {
+        int apron = this.apron;
+        int width = this.sourceNoiseMap.getWidth() - 2 * apron;
+        int height = this.sourceNoiseMap.getHeight() - 2 * apron;
+
+        for (int y = yStart; y < yEnd; y++) {
+            int sourceY = y + apron;
             for (int x = 0; x < width; x++) {
+                int sourceX = x + apron;
+
                 // Get the color based on the value at the current point in the
                 // noise
                 // map.
-                ColorCafe destColor = this.gradient.getColor(this.sourceNoiseMap.getValue(x, y));
+                ColorCafe destColor = this.gradient.getColor(this.sourceNoiseMap.getValue(sourceX, sourceY));
 
                 // If lighting is enabled, calculate the light intensity based
                 // on the
@@ -474,7 +579,13 @@ public class RendererImage {
                     // four-neighbors.
                     int xLeftOffset, xRightOffset;
                     int yUpOffset, yDownOffset;
-                    if (this.isWrapEnabled) {
+                    if (apron > 0) {
+                        // The apron holds the neighbors of the edge points.
+                        xLeftOffset = -1;
+                        xRightOffset = 1;
+                        yDownOffset = -1;
+                        yUpOffset = 1;
+                    } else if (this.isWrapEnabled) {
                         if (x == 0) {
                             xLeftOffset = width - 1;
                             xRightOffset = 1;
@@ -523,11 +634,11 @@ public class RendererImage {
                     // Get the noise value of the current point in the source
                     // noise map
                     // and the noise values of its four-neighbors.
-                    double nc = (this.sourceNoiseMap.getValue(x, y));
-                    double nl = (this.sourceNoiseMap.getValue(x + xLeftOffset, y));
-                    double nr = (this.sourceNoiseMap.getValue(x + xRightOffset, y));
-                    double nd = (this.sourceNoiseMap.getValue(x, y + yDownOffset));
-                    double nu = (this.sourceNoiseMap.getValue(x, y + yUpOffset));
+                    double nc = (this.sourceNoiseMap.getValue(sourceX, sourceY));
+                    double nl = (this.sourceNoiseMap.getValue(sourceX + xLeftOffset, sourceY));
+                    double nr = (this.sourceNoiseMap.getValue(sourceX + xRightOffset, sourceY));
+                    double nd = (this.sourceNoiseMap.getValue(sourceX, sourceY + yDownOffset));
+                    double nu = (this.sourceNoiseMap.getValue(sourceX, sourceY + yUpOffset));
 
                     // Now we can calculate the lighting intensity.
                     lightIntensity = calcLightIntensity(nc, nl, nr, nd, nu);
@@ -540,16 +651,16 @@ public class RendererImage {
                 }
 
                 // Get the current background color from the background image.
-                ColorCafe backgroundColor = new ColorCafe(255, 255, 255, 255);
+                int backgroundARGB = 0xffffffff;
                 if (this.backgroundImage != null) {
-                    backgroundColor = this.backgroundImage.getValue(x, y);
+                    backgroundARGB = this.backgroundImage.getARGB(x, y);
                 }
 
                 // Blend the destination color, background color, and the light
                 // intensity together, then update the destination image with
                 // that
                 // color.
-                this.destImageCafe.setValue(x, y, calcDestColor(destColor, backgroundColor, lightIntensity));
+                this.destImageCafe.setARGB(x, y, calcDestARGB(destColor, backgroundARGB, lightIntensity));
             }
         }
     }
@@ -587,6 +698,41 @@ public class RendererImage {
         this.isWrapEnabled = enable;
     }
 
+    /**
+     * Returns the number of points around each side of the source noise map
+     * that are only used as neighbors for the lighting.
+     *
+     * @return The width of the apron, in points.
+     */
+    public int getApron() {
+        return this.apron;
+    }
+
+    /**
+     * Sets the number of points around each side of the source noise map
+     * that are only used as neighbors for the lighting.
+     * <p>
+     * The destination image covers the source noise map without the apron,
+     * so it is two times the apron narrower and shorter than the noise map.
+     * The points on the edges of the image are lit from their neighbors in
+     * the apron, which is neither wrapped nor cropped. A tile built by
+     * NoiseMapBuilder.buildTiles() with an apron of one point is therefore lit
+     * exactly like the same points of the whole noise map, and the lighting
+     * matches across the tile boundaries.
+     *
+     * @param apron The width of the apron, in points.
+     *
+     * @pre The apron is not negative.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void setApron(int apron) throws IllegalArgumentException {
+        if (apron < 0) {
+            throw new IllegalArgumentException("Invalid Parameter in RendererImage");
+        }
+        this.apron = apron;
+    }
+
     /**
      * Returns the azimuth of the light source, in degrees.
      * 
@@ -859,6 +1005,79 @@ public class RendererImage {
         this.recalcLightValues = true;
     }
 
+    /**
+     * Returns the number of rows in each band rendered by the executor.
+     *
+     * @return The number of rows in each band, or zero if it is chosen from
+     *         the number of available processors.
+     */
+    public int getBandHeight() {
+        return this.bandHeight;
+    }
+
+    /**
+     * Returns the executor that renders bands of rows in parallel.
+     *
+     * @return The executor, or null if the image is rendered on the calling
+     *         thread.
+     */
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Sets the number of rows in each band rendered by the executor.
+     *
+     * @param bandHeight The number of rows in each band, or zero to choose it
+     *            from the number of available processors.
+     *
+     * @pre The band height is not negative.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void setBandHeight(int bandHeight) throws IllegalArgumentException {
+        if (bandHeight < 0) {
+            throw new IllegalArgumentException("Invalid Parameter in RendererImage");
+        }
+
+        this.bandHeight = bandHeight;
+    }
+
+    /**
+     * Sets the executor that renders bands of rows in parallel.
+     * <p>
+     * If an executor is specified, the render() method splits the destination
+     * image into bands of rows, renders each band on the executor and returns
+     * once every band is finished. The rendered image is identical to the
+     * image rendered on the calling thread.
+     * <p>
+     * The source noise map, the background image and the light parameters
+     * must not be changed while the render() method is running.
+     *
+     * @param executor The executor, or null to render on the calling thread.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the metrics that receive the timing of each render.
+     *
+     * @return The metrics, or null if no metrics are set.
+     */
+    public BuildMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Sets the metrics that receive the timing of each render.
+     *
+     * @param metrics The metrics, or null to stop reporting.
+     */
+    public void setMetrics(BuildMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Sets the source noise map.
      * <p>
@@ -27,6 +27,11 @@
 
 package libnoiseforjava.util;
 
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.ShortBuffer;
+import java.util.concurrent.Executor;
+
 /**
  * Renders a normal map from a noise map.
  * <p>
@@ -50,6 +55,31 @@ package libnoiseforjava.util;
  * <li>Pass an ImageCafe object to the setDestImage() method.
  * <li>Call the render() method.
  * </ol>
+ * <p>
+ * To render bands of rows on several threads, pass an Executor to the
+ * setExecutor() method. The output is identical to the output of a render on
+ * the calling thread.
+ * <p>
+ * <b>Rendering into buffers</b>
+ * <p>
+ * Instead of, or in addition to, the destination image, the normal map can be
+ * written into buffers that a graphics API can use directly:
+ * <ul>
+ * <li>setDestRGBABuffer() receives one int per pixel, with the red channel in
+ * the highest byte and an alpha of 255 in the lowest, so that a big-endian
+ * byte view of the buffer holds the bytes in RGBA order.
+ * <li>setDestVectorBuffer() receives the three components of the normal
+ * vector of each pixel as floats, without quantization.
+ * <li>setDestRG16Buffer() receives the x and y components of the normal
+ * vector of each pixel as signed normalized 16-bit values; the z component
+ * is always positive and can be recovered as sqrt(1 - x^2 - y^2).
+ * </ul>
+ * The value of pixel (x, y) is at index y * width + x, times the number of
+ * values per pixel, and the values are written at absolute indices, so the
+ * positions of the buffers do not change. The channels of the RGBA buffer are
+ * those of the destination image, and all destinations use the same
+ * neighbors, so wrapping and the apron apply to them in the same way. To
+ * render only into buffers, pass null to setDestImage().
  */
 
 public class RendererNormalMap {
@@ -64,6 +94,12 @@ public class RendererNormalMap {
      */
     boolean isWrapEnabled;
 
+    /**
+     * The number of points around each side of the source noise map that are
+     * only used as neighbors for the normals.
+     */
+    int apron;
+
     /**
      * A pointer to the destination image.
      */
@@ -74,18 +110,59 @@ public class RendererNormalMap {
      */
     NoiseMap sourceNoiseMap;
 
+    /**
+     * The buffer that receives the packed RGBA colors, or null.
+     */
+    IntBuffer destRGBABuffer;
+
+    /**
+     * The buffer that receives three float components per pixel, or null.
+     */
+    FloatBuffer destVectorBuffer;
+
+    /**
+     * The buffer that receives two signed normalized components per pixel,
+     * or null.
+     */
+    ShortBuffer destRG16Buffer;
+
+    /**
+     * The executor that renders bands of rows in parallel, or null to render
+     * on the calling thread.
+     */
+    Executor executor;
+
+    /**
+     * The number of rows in each band rendered by the executor, or zero to
+     * choose it from the number of available processors.
+     */
+    int bandHeight;
+
+    /**
+     * The metrics that receive the timing of each render, or null.
+     */
+    BuildMetrics metrics;
+
     public RendererNormalMap() throws IllegalArgumentException {
         this.bumpHeight = 1.0;
         this.isWrapEnabled = false;
+        this.apron = 0;
         this.destImageCafe = new ImageCafe(0, 0);
         this.sourceNoiseMap = new NoiseMap(0, 0);
+        this.destRGBABuffer = null;
+        this.destVectorBuffer = null;
+        this.destRG16Buffer = null;
     }
 
     public RendererNormalMap(int height, int width) throws IllegalArgumentException {
         this.bumpHeight = 1.0;
         this.isWrapEnabled = false;
+        this.apron = 0;
         this.destImageCafe = new ImageCafe(height, width);
         this.sourceNoiseMap = new NoiseMap(height, width);
+        this.destRGBABuffer = null;
+        this.destVectorBuffer = null;
+        this.destRG16Buffer = null;
     }
 
     /**
@@ -113,6 +190,28 @@ public class RendererNormalMap {
      * @return The normal vector represented as a color.
      */
     public ColorCafe calcNormalColor(double nc, double nr, double nu, double bumpHeight) {
+        return ColorCafe.fromARGB(calcNormalARGB(nc, nr, nu, bumpHeight));
+    }
+
+    /**
+     * Calculates the normal vector at a given point on the noise map and
+     * returns it as a packed ARGB color value.
+     * <p>
+     * This method produces the same color as calcNormalColor() without
+     * creating a ColorCafe object for the result.
+     *
+     * @param nc
+     *            The height of the given point in the noise map.
+     * @param nr
+     *            The height of the left neighbor.
+     * @param nu
+     *            The height of the up neighbor.
+     * @param bumpHeight
+     *            The bump height.
+     *
+     * @return The normal vector represented as a packed ARGB color.
+     */
+    public int calcNormalARGB(double nc, double nr, double nu, double bumpHeight) {
         // Calculate the surface normal.
         nc *= bumpHeight;
         nr *= bumpHeight;
@@ -125,86 +224,153 @@ public class RendererNormalMap {
         double vzc = 1.0 / d;
 
         // Map the normal range from the (-1.0 .. +1.0) range to the (0 .. 255)
-        // range.
+        // range. The values are not negative, so the cast rounds them down
+        // like Math.floor().
         int xc, yc, zc;
-        xc = (int) (Math.floor((vxc + 1.0) * 127.5)) & 0xff;
-        yc = (int) (Math.floor((vyc + 1.0) * 127.5)) & 0xff;
-        zc = (int) (Math.floor((vzc + 1.0) * 127.5)) & 0xff;
-
-        // left as example of what was here in case above conversion doesn't
-        // work.
-        // zc = (noise::uint8)((noise::uint)((floor)((vzc + 1.0) * 127.5)) &
-        // 0xff);
+        xc = (int) ((vxc + 1.0) * 127.5) & 0xff;
+        yc = (int) ((vyc + 1.0) * 127.5) & 0xff;
+        zc = (int) ((vzc + 1.0) * 127.5) & 0xff;
 
-        return new ColorCafe(xc, yc, zc, 255);
+        return ColorCafe.packARGB(xc, yc, zc, 255);
     }
 
     /**
      * Renders the noise map to the destination image.
      *
      * @pre setSourceNoiseMap() has been previously called.
-     * @pre setDestImage() has been previously called.
+     * @pre setDestImage() or one of the methods that set a destination buffer
+     *      has been previously called.
+     * @pre The limits of the destination buffers are large enough for every
+     *      pixel.
      *
-     * @post The original contents of the destination image is destroyed.
+     * @post The original contents of the destination image and buffers is
+     *       destroyed.
      *
      * @throws IllegalArgumentException
      *             See the preconditions.
      */
     public void render() throws IllegalArgumentException {
-        if (this.sourceNoiseMap == null || this.destImageCafe == null || this.sourceNoiseMap.getWidth() <= 0 || this.sourceNoiseMap.getHeight() <= 0) {
+        if (this.sourceNoiseMap == null || this.sourceNoiseMap.getWidth() <= 2 * this.apron || this.sourceNoiseMap.getHeight() <= 2 * this.apron
+                || (this.destImageCafe == null && this.destRGBABuffer == null && this.destVectorBuffer == null && this.destRG16Buffer == null)) {
             throw new IllegalArgumentException("Invalid Parameter in RendererNormalMap");
         }
 
-        int width = this.sourceNoiseMap.getWidth();
-        int height = this.sourceNoiseMap.getHeight();
+        int width = this.sourceNoiseMap.getWidth() - 2 * this.apron;
+        int height = this.sourceNoiseMap.getHeight() - 2 * this.apron;
+        long pixelCount = (long) width * height;
+        if ((this.destRGBABuffer != null && this.destRGBABuffer.limit() < pixelCount)
+                || (this.destVectorBuffer != null && this.destVectorBuffer.limit() < 3 * pixelCount)
+                || (this.destRG16Buffer != null && this.destRG16Buffer.limit() < 2 * pixelCount)) {
+            throw new IllegalArgumentException("Invalid Parameter in RendererNormalMap");
+        }
+        long start = 0;
+        if (this.metrics != null) {
+            this.metrics.renderStarted("RendererNormalMap", width, height);
+            start = System.nanoTime();
+        }
+
+        RowBands.run(this.executor, height, this.bandHeight, new RowBands.Band() {
+
+            @Override
+            public void processRows(int yStart, int yEnd) {
+                renderRows(yStart, yEnd);
+            }
+        });
+
+        if (this.metrics != null) {
+            this.metrics.renderCompleted("RendererNormalMap", width, height, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Renders the rows from yStart (inclusive) to yEnd (exclusive) of the
+     * normal map.
+     * <p>
+     * Each pixel only depends on the corresponding position in the source
+     * noise map and its right and up neighbors, so separate bands of rows may
+     * be rendered at the same time.
+     *
+     * @param yStart The first row to render.
+     * @param yEnd One past the last row to render.
+     */
+    void renderRows(int yStart, int yEnd) {
+        int apron = this.apron;
+        int width = this.sourceNoiseMap.getWidth() - 2 * apron;
+        int height = this.sourceNoiseMap.getHeight() - 2 * apron;
+        double bumpHeight = this.bumpHeight;
+        double[][] values = this.sourceNoiseMap.noiseMap;
+        ImageCafe destImage = this.destImageCafe;
+        IntBuffer rgbaBuffer = this.destRGBABuffer;
+        FloatBuffer vectorBuffer = this.destVectorBuffer;
+        ShortBuffer rg16Buffer = this.destRG16Buffer;
+
+        for (int y = yStart; y < yEnd; y++) {
+            int sourceY = y + apron;
+
+            /*
+             * Calculate the position of the current row's up neighbors.
+             */
+            int yUpOffset;
+            if (apron > 0) {
+                // The apron holds the neighbors of the edge points.
+                yUpOffset = 1;
+            } else if (y == height - 1) {
+                yUpOffset = this.isWrapEnabled ? -(height - 1) : 0;
+            } else {
+                yUpOffset = 1;
+            }
 
-        for (int y = 0; y < height; y++) {
             for (int x = 0; x < width; x++) {
+                int sourceX = x + apron;
+
                 /*
-                 * Calculate the positions of the current point's right and up neighbors.
+                 * Calculate the position of the current point's right neighbor.
                  */
-                int xRightOffset, yUpOffset;
-                if (this.isWrapEnabled) {
-                    if (x == width - 1) {
-                        xRightOffset = -(width - 1);
-                    } else {
-                        xRightOffset = 1;
-                    }
-
-                    if (y == height - 1) {
-                        yUpOffset = -(height - 1);
-                    } else {
-                        yUpOffset = 1;
-                    }
+                int xRightOffset;
+                if (apron > 0) {
+                    xRightOffset = 1;
+                } else if (x == width - 1) {
+                    xRightOffset = this.isWrapEnabled ? -(width - 1) : 0;
                 } else {
-                    if (x == width - 1) {
-                        xRightOffset = 0;
-                    } else {
-                        xRightOffset = 1;
-                    }
-
-                    if (y == height - 1) {
-                        yUpOffset = 0;
-                    } else {
-                        yUpOffset = 1;
-                    }
-
+                    xRightOffset = 1;
                 }
 
                 /*
                  * Get the noise value of the current point in the source noise map and the noise
-                 * values of its right and up neighbors.
+                 * values of its right and up neighbors, and calculate the surface normal as
+                 * calcNormalARGB() does.
                  */
-                double nc = (this.sourceNoiseMap.getValue(x, y));
-                double nr = (this.sourceNoiseMap.getValue((x + xRightOffset), y));
-                double nu = (this.sourceNoiseMap.getValue(x, (y + yUpOffset)));
-
-                // Calculate the normal product.
-                this.destImageCafe.setValue(x, y, (calcNormalColor(nc, nr, nu, this.bumpHeight)));
-
-                // Go to the next point.
-                // ++pSource;
-                // ++pDest;
+                double nc = values[sourceX][sourceY] * bumpHeight;
+                double nr = values[sourceX + xRightOffset][sourceY] * bumpHeight;
+                double nu = values[sourceX][sourceY + yUpOffset] * bumpHeight;
+                double ncr = (nc - nr);
+                double ncu = (nc - nu);
+                double d = Math.sqrt((ncu * ncu) + (ncr * ncr) + 1);
+                double vxc = (nc - nr) / d;
+                double vyc = (nc - nu) / d;
+                double vzc = 1.0 / d;
+
+                int pixel = y * width + x;
+                if (destImage != null || rgbaBuffer != null) {
+                    int xc = (int) ((vxc + 1.0) * 127.5) & 0xff;
+                    int yc = (int) ((vyc + 1.0) * 127.5) & 0xff;
+                    int zc = (int) ((vzc + 1.0) * 127.5) & 0xff;
+                    if (destImage != null) {
+                        destImage.setARGB(x, y, ColorCafe.packARGB(xc, yc, zc, 255));
+                    }
+                    if (rgbaBuffer != null) {
+                        rgbaBuffer.put(pixel, (xc << 24) | (yc << 16) | (zc << 8) | 0xff);
+                    }
+                }
+                if (vectorBuffer != null) {
+                    vectorBuffer.put(3 * pixel, (float) vxc);
+                    vectorBuffer.put(3 * pixel + 1, (float) vyc);
+                    vectorBuffer.put(3 * pixel + 2, (float) vzc);
+                }
+                if (rg16Buffer != null) {
+                    rg16Buffer.put(2 * pixel, (short) Math.round(vxc * Short.MAX_VALUE));
+                    rg16Buffer.put(2 * pixel + 1, (short) Math.round(vyc * Short.MAX_VALUE));
+                }
             }
         }
     }
@@ -227,6 +393,39 @@ public class RendererNormalMap {
         this.isWrapEnabled = enable;
     }
 
+    /**
+     * Returns the number of points around each side of the source noise map that are only used as
+     * neighbors for the normals.
+     *
+     * @return The width of the apron, in points.
+     */
+    public int getApron() {
+        return this.apron;
+    }
+
+    /**
+     * Sets the number of points around each side of the source noise map that are only used as
+     * neighbors for the normals.
+     * <p>
+     * The normal map covers the source noise map without the apron, so the destination image must
+     * be two times the apron narrower and shorter than the noise map. The normals on the right and
+     * top edges use their neighbors in the apron, which are neither wrapped nor cropped, so the
+     * normal maps of tiles built by NoiseMapBuilder.buildTiles() with an apron match across the
+     * tile boundaries.
+     *
+     * @param apron The width of the apron, in points.
+     *
+     * @pre The apron is not negative.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void setApron(int apron) throws IllegalArgumentException {
+        if (apron < 0) {
+            throw new IllegalArgumentException("Invalid Parameter in RendererNormalMap");
+        }
+        this.apron = apron;
+    }
+
     /**
      * Returns the bump height.
      * <p>
@@ -262,6 +461,76 @@ public class RendererNormalMap {
         return this.isWrapEnabled;
     }
 
+    /**
+     * Returns the number of rows in each band rendered by the executor.
+     *
+     * @return The number of rows in each band, or zero if it is chosen from the
+     *         number of available processors.
+     */
+    public int getBandHeight() {
+        return this.bandHeight;
+    }
+
+    /**
+     * Returns the executor that renders bands of rows in parallel.
+     *
+     * @return The executor, or null if the normal map is rendered on the
+     *         calling thread.
+     */
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * Sets the number of rows in each band rendered by the executor.
+     *
+     * @param bandHeight The number of rows in each band, or zero to choose it
+     *            from the number of available processors.
+     *
+     * @pre The band height is not negative.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void setBandHeight(int bandHeight) throws IllegalArgumentException {
+        if (bandHeight < 0) {
+            throw new IllegalArgumentException("Invalid Parameter in RendererNormalMap");
+        }
+
+        this.bandHeight = bandHeight;
+    }
+
+    /**
+     * Sets the executor that renders bands of rows in parallel.
+     * <p>
+     * If an executor is specified, the render() method splits the normal map
+     * into bands of rows, renders each band on the executor and returns once
+     * every band is finished. The rendered normal map is identical to the one
+     * rendered on the calling thread.
+     *
+     * @param executor The executor, or null to render on the calling thread.
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the metrics that receive the timing of each render.
+     *
+     * @return The metrics, or null if no metrics are set.
+     */
+    public BuildMetrics getMetrics() {
+        return this.metrics;
+    }
+
+    /**
+     * Sets the metrics that receive the timing of each render.
+     *
+     * @param metrics The metrics, or null to stop reporting.
+     */
+    public void setMetrics(BuildMetrics metrics) {
+        this.metrics = metrics;
+    }
+
     /**
      * Sets the bump height.
      * <p>
@@ -288,7 +557,7 @@ public class RendererNormalMap {
      * replaces that image.
      *
      * @param destImage
-     *            The destination image.
+     *            The destination image, or null to render only into the destination buffers.
      */
     public void setDestImage(ImageCafe destImage) {
         this.destImageCafe = destImage;
@@ -304,6 +573,49 @@ public class RendererNormalMap {
         this.sourceNoiseMap = sourceNoiseMap;
     }
 
+    public IntBuffer getDestRGBABuffer() {
+        return this.destRGBABuffer;
+    }
+
+    /**
+     * Sets the buffer that receives the normal map as packed RGBA colors.
+     *
+     * @param destRGBABuffer The buffer, which must hold at least one value
+     *            per pixel, or null to write no RGBA colors.
+     */
+    public void setDestRGBABuffer(IntBuffer destRGBABuffer) {
+        this.destRGBABuffer = destRGBABuffer;
+    }
+
+    public FloatBuffer getDestVectorBuffer() {
+        return this.destVectorBuffer;
+    }
+
+    /**
+     * Sets the buffer that receives the normal vectors as floats.
+     *
+     * @param destVectorBuffer The buffer, which must hold at least three
+     *            values per pixel, or null to write no normal vectors.
+     */
+    public void setDestVectorBuffer(FloatBuffer destVectorBuffer) {
+        this.destVectorBuffer = destVectorBuffer;
+    }
+
+    public ShortBuffer getDestRG16Buffer() {
+        return this.destRG16Buffer;
+    }
+
+    /**
+     * Sets the buffer that receives the x and y components of the normal
+     * vectors as signed normalized 16-bit values.
+     *
+     * @param destRG16Buffer The buffer, which must hold at least two values
+     *            per pixel, or null to write no two-channel normals.
+     */
+    public void setDestRG16Buffer(ShortBuffer destRG16Buffer) {
+        this.destRG16Buffer = destRG16Buffer;
+    }
+
     public ImageCafe getDestImageCafe() {
         return this.destImageCafe;
     }
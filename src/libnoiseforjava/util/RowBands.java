@@ -0,0 +1,171 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Splits a range of rows into bands and processes each band on an executor.
+ * <p>
+ * The renderers and builders in this package process one row at a time, and
+ * every row only reads shared, unchanging input. This class divides the rows
+ * into contiguous bands, hands each band to an executor and waits until all of
+ * them are finished.
+ * <p>
+ * If no executor is given, all of the rows are processed on the calling thread
+ * as a single band.
+ */
+public class RowBands {
+
+    /**
+     * Number of bands created per available processor when the band height is
+     * chosen automatically.
+     */
+    static final int BANDS_PER_PROCESSOR = 4;
+
+    /**
+     * Processes the rows of a single band.
+     */
+    public interface Band {
+
+        /**
+         * Processes the rows from yStart (inclusive) to yEnd (exclusive).
+         *
+         * @param yStart The first row of the band.
+         * @param yEnd One past the last row of the band.
+         */
+        void processRows(int yStart, int yEnd);
+    }
+
+    private RowBands() {
+    }
+
+    /**
+     * Returns the band height to use for the given number of rows.
+     *
+     * @param rowCount The total number of rows.
+     * @param bandHeight The requested band height, or zero (or less) to choose
+     *            one from the number of available processors.
+     *
+     * @return The number of rows in each band.
+     */
+    public static int getBandHeight(int rowCount, int bandHeight) {
+        if (bandHeight > 0) {
+            return bandHeight;
+        }
+
+        int bandCount = Runtime.getRuntime().availableProcessors() * BANDS_PER_PROCESSOR;
+        return Math.max(1, (rowCount + bandCount - 1) / bandCount);
+    }
+
+    /**
+     * Processes rows 0 to rowCount - 1 in bands.
+     * <p>
+     * This method returns after every band is finished. If a band throws an
+     * exception, that exception is rethrown on the calling thread once all
+     * bands have finished.
+     *
+     * @param executor The executor that runs the bands, or null to run them
+     *            on the calling thread.
+     * @param rowCount The total number of rows.
+     * @param bandHeight The number of rows in each band, or zero to choose it
+     *            automatically.
+     * @param band The code that processes a band.
+     *
+     * @throws IllegalStateException The calling thread was interrupted while
+     *             waiting for the bands to finish.
+     */
+    public static void run(Executor executor, int rowCount, int bandHeight, final Band band) throws IllegalStateException {
+        if (executor == null || rowCount <= 1) {
+            band.processRows(0, rowCount);
+            return;
+        }
+
+        int rows = getBandHeight(rowCount, bandHeight);
+        List<FutureTask<Void>> tasks = new ArrayList<FutureTask<Void>>();
+
+        for (int y = 0; y < rowCount; y += rows) {
+            final int yStart = y;
+            final int yEnd = Math.min(y + rows, rowCount);
+            FutureTask<Void> task = new FutureTask<Void>(new Runnable() {
+
+                @Override
+                public void run() {
+                    band.processRows(yStart, yEnd);
+                }
+            }, null);
+            tasks.add(task);
+            executor.execute(task);
+        }
+
+        RuntimeException failure = null;
+        boolean interrupted = false;
+        for (FutureTask<Void> task : tasks) {
+            while (true) {
+                try {
+                    task.get();
+                    break;
+                } catch (InterruptedException e) {
+                    // Keep waiting so that no band is still writing when this
+                    // method returns, but remember the interruption.
+                    interrupted = true;
+                } catch (ExecutionException e) {
+                    if (failure == null) {
+                        failure = asRuntimeException(e.getCause());
+                    }
+                    break;
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+            if (failure == null) {
+                failure = new IllegalStateException("Interrupted while processing row bands");
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static RuntimeException asRuntimeException(Throwable cause) {
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        } else if (cause instanceof Error) {
+            throw (Error) cause;
+        } else {
+            return new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,554 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Base class for the writers that stream an image or a noise map to an output
+ * stream one row at a time.
+ * <p>
+ * A writer never holds more than one encoded row in memory, so it can write
+ * images and noise maps of any size, and it can write the rows of a noise map
+ * while a noise-map builder is still filling the remaining rows.
+ * <p>
+ * <b>Writing a file</b>
+ * <p>
+ * To write a file, perform the following steps:
+ * <ol>
+ * <li>Create the writer with the output stream (or channel) and the size of
+ * the image.
+ * <li>Pass each row to the writeRow() method of the writer, starting with row
+ * 0 and ending with row (height - 1).
+ * <li>Call the finish() method.
+ * </ol>
+ * The writeImage() and writeNoiseMap() methods perform these steps for a whole
+ * image or noise map.
+ * <p>
+ * The header is written together with the first row. Row 0 is always the top
+ * row of the written file.
+ * <p>
+ * The writer does not close the output stream; the application owns it.
+ * <p>
+ * <b>Aborting and restarting</b>
+ * <p>
+ * The abort() method discards the file being written and releases the
+ * resources of the encoder. A writer also aborts the file when its header, a
+ * row or its trailer cannot be written, and the close() method aborts an
+ * unfinished file. The bytes of an aborted file stay in the output stream.
+ * <p>
+ * A row is never written twice into the same stream: writing row 0 again,
+ * for example when a progressive build restarts, throws an
+ * IllegalStateException, as does writing to an aborted writer. To write the
+ * file again, pass a new output stream to the restart() method.
+ * <p>
+ * <b>Writing while building</b>
+ * <p>
+ * A writer is also a NoiseMapCallback. Pass the destination noise map of a
+ * noise-map builder to the setSourceNoiseMap() method, and pass the writer to
+ * the setCallback() method of the builder. The writer then writes each row as
+ * soon as the builder completes it.
+ * <p>
+ * <b>Value range</b>
+ * <p>
+ * Formats that store noise-map values as integers map the <i>value range</i>
+ * onto the full range of the integer type. Values outside of the value range
+ * are clamped. To specify the value range, call the setValueRange() method.
+ */
+public abstract class RowWriter implements NoiseMapCallback, Closeable {
+
+    /**
+     * Default lower bound of the value range.
+     */
+    static final double DEFAULT_LOWER_VALUE = -1.0;
+
+    /**
+     * Default upper bound of the value range.
+     */
+    static final double DEFAULT_UPPER_VALUE = 1.0;
+
+    /**
+     * The stream that receives the encoded file.
+     */
+    OutputStream out;
+
+    /**
+     * The height of the written image, in rows.
+     */
+    int height;
+
+    /**
+     * The width of the written image, in pixels.
+     */
+    int width;
+
+    /**
+     * The row that must be written next.
+     */
+    int nextRow;
+
+    /**
+     * A flag specifying whether the finish() method was called.
+     */
+    boolean isFinished;
+
+    /**
+     * A flag specifying whether the file was aborted.
+     */
+    boolean isAborted;
+
+    /**
+     * Lower bound of the value range.
+     */
+    double lowerValue;
+
+    /**
+     * Upper bound of the value range.
+     */
+    double upperValue;
+
+    /**
+     * The noise map whose rows are written by the rowCompleted() method.
+     */
+    NoiseMap sourceNoiseMap;
+
+    RowWriter(OutputStream out, int width, int height) throws IllegalArgumentException {
+        if (out == null || width < 1 || height < 1) {
+            throw new IllegalArgumentException("Invalid Parameter in RowWriter");
+        }
+
+        this.out = out;
+        this.width = width;
+        this.height = height;
+        this.nextRow = 0;
+        this.isFinished = false;
+        this.isAborted = false;
+        this.lowerValue = DEFAULT_LOWER_VALUE;
+        this.upperValue = DEFAULT_UPPER_VALUE;
+        this.sourceNoiseMap = null;
+    }
+
+    /**
+     * Returns an output stream that writes to the given channel.
+     *
+     * @param channel The channel.
+     *
+     * @return An output stream that writes to that channel.
+     */
+    static OutputStream toStream(WritableByteChannel channel) throws IllegalArgumentException {
+        if (channel == null) {
+            throw new IllegalArgumentException("Invalid Parameter in RowWriter");
+        }
+        return Channels.newOutputStream(channel);
+    }
+
+    /**
+     * Prepares the writing of a row.
+     * <p>
+     * This method writes the header before the first row.
+     *
+     * @param y The row about to be written.
+     *
+     * @pre The rows before row y have been written, and row y has not.
+     * @pre The file was not aborted.
+     *
+     * @throws IllegalArgumentException The rows are written out of order.
+     * @throws IllegalStateException Row 0 was already written into the
+     *             output stream, or the file was aborted.
+     * @throws IOException The header could not be written.
+     */
+    void beginRow(int y) throws IllegalArgumentException, IllegalStateException, IOException {
+        if (this.isAborted) {
+            throw new IllegalStateException("The file was aborted in " + getClass().getSimpleName() + "; call restart() with a new stream");
+        }
+        if (y == 0 && (this.nextRow > 0 || this.isFinished)) {
+            throw new IllegalStateException("Row 0 was already written in " + getClass().getSimpleName() + "; call restart() with a new stream");
+        }
+        if (this.isFinished || y != this.nextRow) {
+            throw new IllegalArgumentException("Rows must be written in order in " + getClass().getSimpleName());
+        }
+
+        if (y == 0) {
+            try {
+                writeHeader();
+            } catch (IOException e) {
+                abort();
+                throw e;
+            }
+        }
+        this.nextRow++;
+    }
+
+    /**
+     * Discards the file being written and releases the resources of the
+     * encoder.
+     * <p>
+     * The bytes already written to the output stream are not removed. No
+     * more rows can be written until the restart() method is called.
+     */
+    public void abort() {
+        releaseEncoder();
+        this.isAborted = true;
+    }
+
+    /**
+     * Discards the file being written, if any, and starts a new file in the
+     * given output stream.
+     * <p>
+     * The size, the value range and the source noise map are kept. The next
+     * row written must be row 0.
+     *
+     * @param out The stream that receives the new file.
+     *
+     * @throws IllegalArgumentException The stream is null.
+     */
+    public void restart(OutputStream out) throws IllegalArgumentException {
+        if (out == null) {
+            throw new IllegalArgumentException("Invalid Parameter in RowWriter");
+        }
+
+        releaseEncoder();
+        this.out = out;
+        this.nextRow = 0;
+        this.isFinished = false;
+        this.isAborted = false;
+    }
+
+    /**
+     * Discards the file being written, if any, and starts a new file in the
+     * given channel.
+     *
+     * @param channel The channel that receives the new file.
+     *
+     * @throws IllegalArgumentException The channel is null.
+     */
+    public void restart(WritableByteChannel channel) throws IllegalArgumentException {
+        restart(toStream(channel));
+    }
+
+    /**
+     * Aborts the file if it is not finished. The output stream is not closed.
+     */
+    @Override
+    public void close() {
+        if (!this.isFinished) {
+            abort();
+        }
+    }
+
+    /**
+     * Releases the resources held while a file is written. This method may be
+     * called more than once.
+     */
+    void releaseEncoder() {
+        // Most writers hold no resources.
+    }
+
+    /**
+     * Writes the trailer of the file after the last row and flushes the output
+     * stream.
+     *
+     * @pre Every row of the image has been written.
+     * @pre The file was not aborted.
+     *
+     * @throws IllegalStateException See the preconditions.
+     * @throws IOException The trailer could not be written.
+     */
+    public void finish() throws IllegalStateException, IOException {
+        if (this.isFinished) {
+            return;
+        }
+        if (this.isAborted) {
+            throw new IllegalStateException("The file was aborted in " + getClass().getSimpleName());
+        }
+        if (this.nextRow != this.height) {
+            throw new IllegalStateException("Only " + this.nextRow + " of " + this.height + " rows written in " + getClass().getSimpleName());
+        }
+
+        try {
+            writeTrailer();
+            this.out.flush();
+        } catch (IOException e) {
+            abort();
+            throw e;
+        }
+        this.isFinished = true;
+    }
+
+    /**
+     * Writes a row of an image.
+     *
+     * @param image The image.
+     * @param y The row to write.
+     *
+     * @pre This writer writes images.
+     * @pre The width of the image equals the width of this writer.
+     * @pre The rows before row y have been written, and row y has not.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     * @throws IllegalStateException Row 0 was already written into the
+     *             output stream, or the file was aborted.
+     * @throws IOException The row could not be written.
+     */
+    public void writeRow(ImageCafe image, int y) throws IllegalArgumentException, IOException {
+        throw new IllegalArgumentException(getClass().getSimpleName() + " does not write images");
+    }
+
+    /**
+     * Writes a row of a noise map.
+     *
+     * @param noiseMap The noise map.
+     * @param y The row to write.
+     *
+     * @pre This writer writes noise maps.
+     * @pre The width of the noise map equals the width of this writer.
+     * @pre The rows before row y have been written, and row y has not.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     * @throws IllegalStateException Row 0 was already written into the
+     *             output stream, or the file was aborted.
+     * @throws IOException The row could not be written.
+     */
+    public void writeRow(NoiseMap noiseMap, int y) throws IllegalArgumentException, IOException {
+        throw new IllegalArgumentException(getClass().getSimpleName() + " does not write noise maps");
+    }
+
+    /**
+     * Writes every row of an image and finishes the file.
+     *
+     * @param image The image.
+     *
+     * @pre No row has been written yet.
+     * @pre The size of the image equals the size of this writer.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     * @throws IOException The file could not be written.
+     */
+    public void writeImage(ImageCafe image) throws IllegalArgumentException, IOException {
+        if (image.getHeight() != this.height) {
+            throw new IllegalArgumentException("Invalid Parameter in " + getClass().getSimpleName());
+        }
+
+        for (int y = 0; y < this.height; y++) {
+            writeRow(image, y);
+        }
+        finish();
+    }
+
+    /**
+     * Writes every row of a noise map and finishes the file.
+     *
+     * @param noiseMap The noise map.
+     *
+     * @pre No row has been written yet.
+     * @pre The size of the noise map equals the size of this writer.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     * @throws IOException The file could not be written.
+     */
+    public void writeNoiseMap(NoiseMap noiseMap) throws IllegalArgumentException, IOException {
+        if (noiseMap.getHeight() != this.height) {
+            throw new IllegalArgumentException("Invalid Parameter in " + getClass().getSimpleName());
+        }
+
+        for (int y = 0; y < this.height; y++) {
+            writeRow(noiseMap, y);
+        }
+        finish();
+    }
+
+    /**
+     * Writes the completed row of the source noise map.
+     * <p>
+     * After the last row, the file is finished.
+     *
+     * @param row The row that was completed.
+     *
+     * @throws UncheckedIOException The row could not be written.
+     */
+    @Override
+    public void rowCompleted(int row) throws UncheckedIOException {
+        try {
+            writeRow(this.sourceNoiseMap, row);
+            if (row == this.height - 1) {
+                finish();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Sets the noise map whose rows are written by the rowCompleted() method.
+     * <p>
+     * This is normally the destination noise map of a noise-map builder.
+     *
+     * @param sourceNoiseMap The source noise map.
+     */
+    public void setSourceNoiseMap(NoiseMap sourceNoiseMap) {
+        this.sourceNoiseMap = sourceNoiseMap;
+    }
+
+    /**
+     * Returns the lower bound of the value range.
+     *
+     * @return The lower bound of the value range.
+     */
+    public double getLowerValue() {
+        return this.lowerValue;
+    }
+
+    /**
+     * Returns the upper bound of the value range.
+     *
+     * @return The upper bound of the value range.
+     */
+    public double getUpperValue() {
+        return this.upperValue;
+    }
+
+    /**
+     * Sets the value range that is mapped onto the full range of an integer
+     * format.
+     *
+     * @param lowerValue The noise-map value mapped to the smallest integer.
+     * @param upperValue The noise-map value mapped to the largest integer.
+     *
+     * @pre The lower bound is less than the upper bound.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void setValueRange(double lowerValue, double upperValue) throws IllegalArgumentException {
+        if (lowerValue >= upperValue) {
+            throw new IllegalArgumentException("Invalid Parameter in " + getClass().getSimpleName());
+        }
+
+        this.lowerValue = lowerValue;
+        this.upperValue = upperValue;
+    }
+
+    /**
+     * Maps a noise-map value from the value range onto the 0 to 65535 range.
+     *
+     * @param value The noise-map value.
+     *
+     * @return The mapped value.
+     */
+    int toUnsigned16(double value) {
+        double alpha = (value - this.lowerValue) / (this.upperValue - this.lowerValue);
+        alpha = (alpha < 0.0) ? 0.0 : alpha;
+        alpha = (alpha > 1.0) ? 1.0 : alpha;
+        return (int) Math.round(alpha * 65535.0);
+    }
+
+    /**
+     * Checks that a source row fits this writer and prepares its writing.
+     */
+    void beginRow(int sourceWidth, int y) throws IllegalArgumentException, IOException {
+        if (sourceWidth != this.width) {
+            throw new IllegalArgumentException("Invalid Parameter in " + getClass().getSimpleName());
+        }
+        beginRow(y);
+    }
+
+    /**
+     * Returns the height of the written image.
+     *
+     * @return The height of the written image, in rows.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Returns the number of rows written so far.
+     *
+     * @return The number of rows written so far.
+     */
+    public int getRowsWritten() {
+        return this.nextRow;
+    }
+
+    /**
+     * Returns the width of the written image.
+     *
+     * @return The width of the written image, in pixels.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Writes the header of the file.
+     *
+     * @throws IOException The header could not be written.
+     */
+    abstract void writeHeader() throws IOException;
+
+    /**
+     * Writes the trailer of the file.
+     *
+     * @throws IOException The trailer could not be written.
+     */
+    void writeTrailer() throws IOException {
+        // Most formats have no trailer.
+    }
+
+    /**
+     * Stores a 16-bit value in little-endian byte order.
+     */
+    static void putShortLE(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+    }
+
+    /**
+     * Stores a 32-bit value in little-endian byte order.
+     */
+    static void putIntLE(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) value;
+        buffer[offset + 1] = (byte) (value >> 8);
+        buffer[offset + 2] = (byte) (value >> 16);
+        buffer[offset + 3] = (byte) (value >> 24);
+    }
+
+    /**
+     * Stores a 32-bit value in big-endian byte order.
+     */
+    static void putIntBE(byte[] buffer, int offset, int value) {
+        buffer[offset] = (byte) (value >> 24);
+        buffer[offset + 1] = (byte) (value >> 16);
+        buffer[offset + 2] = (byte) (value >> 8);
+        buffer[offset + 3] = (byte) value;
+    }
+}
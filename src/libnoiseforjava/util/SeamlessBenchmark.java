@@ -0,0 +1,83 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import libnoiseforjava.module.Perlin;
+
+/**
+ * Times the seamless modes of NoiseMapBuilderPlane on the same module graph.
+ * <p>
+ * Both modes build the same seamless noise map from a Perlin module with six
+ * octaves. Each mode is warmed up first, then built several times, and the
+ * average build time is printed. The optional arguments set the width and
+ * height of the noise map and the number of timed builds.
+ */
+public class SeamlessBenchmark {
+
+    static final int WARM_UP_BUILD_COUNT = 5;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : 512;
+        int buildCount = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+
+        Perlin perlin = new Perlin();
+        perlin.setSeed(1);
+        perlin.setOctaveCount(6);
+        perlin.build();
+
+        NoiseMapBuilderPlane builder = new NoiseMapBuilderPlane();
+        builder.setSourceModule(perlin);
+        builder.setDestNoiseMap(new NoiseMap(size, size));
+        builder.setDestSize(size, size);
+        builder.setBounds(0.0, 4.0, 0.0, 4.0);
+        builder.enableSeamless(true);
+
+        double blendTime = time(builder, SeamlessMode.BLEND, buildCount);
+        double periodicTime = time(builder, SeamlessMode.PERIODIC, buildCount);
+
+        System.out.println("Seamless " + size + "x" + size + " Perlin, 6 octaves, " + buildCount + " builds");
+        System.out.println("  BLEND:    " + String.format("%.1f", blendTime) + " ms per build");
+        System.out.println("  PERIODIC: " + String.format("%.1f", periodicTime) + " ms per build");
+    }
+
+    /**
+     * Returns the average time of a build in the given seamless mode, in
+     * milliseconds.
+     */
+    static double time(NoiseMapBuilderPlane builder, SeamlessMode seamlessMode, int buildCount) {
+        builder.setSeamlessMode(seamlessMode);
+        for (int i = 0; i < WARM_UP_BUILD_COUNT; i++) {
+            builder.build();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < buildCount; i++) {
+            builder.build();
+        }
+        return (System.nanoTime() - start) / 1e6 / buildCount;
+    }
+}
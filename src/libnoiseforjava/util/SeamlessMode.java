@@ -0,0 +1,54 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+/**
+ * Enumerates the ways a planar noise map builder makes a seamless noise map.
+ */
+public enum SeamlessMode {
+    /**
+     * Blends four samples of the source module at every point.
+     * <p>
+     * This works with any source module, but costs four times as much as a
+     * regular build and flattens the contrast near the center of the noise
+     * map.
+     */
+    BLEND,
+
+    /**
+     * Evaluates a periodic copy of the source module once at every point.
+     * <p>
+     * Every generator in the copy that implements Periodic repeats with the
+     * extent of the noise map, so the noise map tiles at the cost of a
+     * regular build. The copy only tiles if every source of variation in the
+     * graph is periodic, and if no noise module between the generators and
+     * the root scales or rotates the input value. The frequencies of the
+     * generators are adjusted slightly so that each octave fits the extent.
+     */
+    PERIODIC
+}
@@ -0,0 +1,787 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import libnoiseforjava.module.ModuleBase;
+
+/**
+ * Generates the terrain chunks of a quadtree level-of-detail scheme.
+ * <p>
+ * The terrain covers a square region of the x-z plane, the root chunk. Each
+ * chunk can be split into four child chunks of half its size, down to a
+ * maximum level. Every chunk, whatever its level, is sampled with the same
+ * number of points, so a chunk at level n has 2^n times the detail of the
+ * root chunk.
+ * <p>
+ * The update() method takes the position of the camera and selects the
+ * chunks to draw. A chunk is split while its screen-space error, the distance
+ * between its samples projected onto the screen, is larger than the error
+ * target. The missing chunks are generated asynchronously on an executor,
+ * nearest first, with a NoiseMapBuilderPlane and the source module. Until a
+ * chunk is ready, update() returns its nearest ready ancestor instead, so
+ * that the terrain always has something to draw.
+ * <p>
+ * The samples of a chunk include both of its edges, so neighbouring chunks
+ * of the same level share the samples along their common edge. A chunk can
+ * also have a border of extra samples outside its edges, for computing
+ * normals or for skirts that hide the cracks between chunks of different
+ * levels.
+ * <p>
+ * Generated chunks are kept in a cache of limited capacity. The chunks that
+ * were used least recently are evicted first; every chunk returned by
+ * update() counts as used, and the chunks selected by the last update are
+ * never evicted.
+ * <p>
+ * The source module is evaluated on the threads of the executor, several
+ * chunks at once, so it must be safe to use from several threads, for
+ * example a graph frozen with FrozenGraph.freeze().
+ */
+public class TerrainChunkGenerator {
+
+    /**
+     * The deepest level of the quadtree.
+     */
+    public static final int MAX_LEVEL = 30;
+
+    /**
+     * A generated terrain chunk.
+     */
+    public static final class Chunk {
+
+        final int level;
+        final int x;
+        final int z;
+        final double lowerXBound;
+        final double lowerZBound;
+        final double size;
+        final int samplesPerChunk;
+        final int borderSize;
+        final NoiseMap noiseMap;
+
+        Chunk(int level, int x, int z, double lowerXBound, double lowerZBound, double size, int samplesPerChunk, int borderSize, NoiseMap noiseMap) {
+            this.level = level;
+            this.x = x;
+            this.z = z;
+            this.lowerXBound = lowerXBound;
+            this.lowerZBound = lowerZBound;
+            this.size = size;
+            this.samplesPerChunk = samplesPerChunk;
+            this.borderSize = borderSize;
+            this.noiseMap = noiseMap;
+        }
+
+        /**
+         * Returns the level of the chunk in the quadtree; 0 for the root.
+         *
+         * @return The level.
+         */
+        public int getLevel() {
+            return this.level;
+        }
+
+        /**
+         * Returns the column of the chunk among the 2^level x 2^level chunks
+         * of its level.
+         *
+         * @return The column, starting at the lower x boundary of the root.
+         */
+        public int getX() {
+            return this.x;
+        }
+
+        /**
+         * Returns the row of the chunk among the chunks of its level.
+         *
+         * @return The row, starting at the lower z boundary of the root.
+         */
+        public int getZ() {
+            return this.z;
+        }
+
+        public double getLowerXBound() {
+            return this.lowerXBound;
+        }
+
+        public double getLowerZBound() {
+            return this.lowerZBound;
+        }
+
+        /**
+         * Returns the length of the sides of the chunk.
+         *
+         * @return The size of the chunk, in units.
+         */
+        public double getSize() {
+            return this.size;
+        }
+
+        /**
+         * Returns the distance between two samples of the chunk.
+         *
+         * @return The sample spacing, in units.
+         */
+        public double getSpacing() {
+            return this.size / this.samplesPerChunk;
+        }
+
+        /**
+         * Returns the number of samples outside each edge of the chunk.
+         *
+         * @return The border size, in samples.
+         */
+        public int getBorderSize() {
+            return this.borderSize;
+        }
+
+        /**
+         * Returns the samples of the chunk.
+         * <p>
+         * The noise map has samplesPerChunk + 1 + 2 * borderSize points along
+         * each side. Point (borderSize, borderSize) is at the lower x and z
+         * boundaries of the chunk, and point (i, j) is at (lowerXBound + (i -
+         * borderSize) * spacing, lowerZBound + (j - borderSize) * spacing).
+         * The noise map must not be changed.
+         *
+         * @return The noise map of the chunk.
+         */
+        public NoiseMap getNoiseMap() {
+            return this.noiseMap;
+        }
+    }
+
+    /**
+     * Receives the chunks as they are generated.
+     */
+    public interface ChunkListener {
+
+        /**
+         * Called on the generating thread after a chunk has been generated
+         * and added to the cache.
+         *
+         * @param chunk The new chunk.
+         */
+        void chunkReady(Chunk chunk);
+    }
+
+    /**
+     * Identifies a chunk of the quadtree.
+     */
+    static final class Key {
+
+        final int level;
+        final int x;
+        final int z;
+
+        Key(int level, int x, int z) {
+            this.level = level;
+            this.x = x;
+            this.z = z;
+        }
+
+        Key getParent() {
+            return new Key(this.level - 1, this.x >> 1, this.z >> 1);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key k = (Key) o;
+            return this.level == k.level && this.x == k.x && this.z == k.z;
+        }
+
+        @Override
+        public int hashCode() {
+            return (this.level * 31 + this.x) * 1000003 + this.z;
+        }
+    }
+
+    /**
+     * A chunk waiting to be generated, ordered by its distance from the
+     * camera.
+     */
+    static final class Request implements Comparable<Request> {
+
+        final Key key;
+        final double distance;
+
+        Request(Key key, double distance) {
+            this.key = key;
+            this.distance = distance;
+        }
+
+        @Override
+        public int compareTo(Request other) {
+            int order = Double.compare(this.distance, other.distance);
+            return (order != 0) ? order : Integer.compare(this.key.level, other.key.level);
+        }
+    }
+
+    final ModuleBase sourceModule;
+    final double originX;
+    final double originZ;
+    final double rootSize;
+    final int samplesPerChunk;
+    final Executor executor;
+
+    int maxLevel;
+    int borderSize;
+    int cacheCapacity;
+    double errorTarget;
+    double projectionScale;
+    ChunkListener listener;
+
+    /**
+     * The generated chunks, least recently used first.
+     */
+    final LinkedHashMap<Key, Chunk> cache;
+
+    /**
+     * The chunks selected by the last update, which are not evicted.
+     */
+    Map<Key, Boolean> selected;
+
+    /**
+     * The chunks waiting to be generated, nearest first.
+     */
+    final PriorityQueue<Request> pending;
+
+    /**
+     * The chunks that are being generated.
+     */
+    final Map<Key, Boolean> generating;
+
+    /**
+     * The number of tasks submitted to the executor that have not started
+     * yet. Each of them will generate one pending chunk.
+     */
+    int queuedTaskCount;
+
+    /**
+     * Guards the cache, the pending requests, the chunks being generated and
+     * the settings that affect generated chunks.
+     */
+    final Object lock;
+
+    /**
+     * Creates a chunk generator.
+     *
+     * @param sourceModule The noise module that generates the terrain.
+     * @param originX The lower x boundary of the root chunk, in units.
+     * @param originZ The lower z boundary of the root chunk, in units.
+     * @param rootSize The length of the sides of the root chunk, in units.
+     * @param samplesPerChunk The number of sample intervals along each side
+     *            of a chunk.
+     * @param executor The executor that generates the chunks, or null to
+     *            generate them on the thread that calls update().
+     *
+     * @throws IllegalArgumentException The source module is null, or the size
+     *             or the number of samples is not positive.
+     */
+    public TerrainChunkGenerator(ModuleBase sourceModule, double originX, double originZ, double rootSize, int samplesPerChunk, Executor executor)
+            throws IllegalArgumentException {
+        if (sourceModule == null || !(rootSize > 0.0) || Double.isInfinite(rootSize) || samplesPerChunk < 1) {
+            throw new IllegalArgumentException("Invalid Parameter in TerrainChunkGenerator");
+        }
+
+        this.sourceModule = sourceModule;
+        this.originX = originX;
+        this.originZ = originZ;
+        this.rootSize = rootSize;
+        this.samplesPerChunk = samplesPerChunk;
+        this.executor = executor;
+        this.maxLevel = 8;
+        this.borderSize = 0;
+        this.cacheCapacity = 256;
+        this.errorTarget = 2.0;
+        this.projectionScale = getProjectionScale(1080, Math.toRadians(60.0));
+        this.listener = null;
+        this.cache = new LinkedHashMap<Key, Chunk>(16, 0.75f, true);
+        this.selected = new HashMap<Key, Boolean>();
+        this.pending = new PriorityQueue<Request>();
+        this.generating = new HashMap<Key, Boolean>();
+        this.queuedTaskCount = 0;
+        this.lock = new Object();
+    }
+
+    /**
+     * Selects the chunks to draw from the given camera position and requests
+     * the missing ones.
+     * <p>
+     * The returned chunks cover the whole root chunk without overlapping,
+     * once the root chunk is ready. A selected chunk that is not ready is
+     * replaced by its nearest ready ancestor. Requests from earlier calls that
+     * were not started yet and are no longer needed are dropped, and the
+     * remaining requests are ordered by their distance from this camera
+     * position.
+     * <p>
+     * Without an executor, this method generates the missing chunks before
+     * returning, so every selected chunk is returned.
+     *
+     * @param cameraX The x coordinate of the camera, in units.
+     * @param cameraY The height of the camera above the x-z plane, in units.
+     * @param cameraZ The z coordinate of the camera, in units.
+     *
+     * @return The chunks to draw.
+     */
+    public List<Chunk> update(double cameraX, double cameraY, double cameraZ) {
+        List<Request> selection = new ArrayList<Request>();
+        synchronized (this.lock) {
+            select(new Key(0, 0, 0), cameraX, cameraY, cameraZ, selection);
+            this.selected = new HashMap<Key, Boolean>();
+            for (Request request : selection) {
+                this.selected.put(request.key, Boolean.TRUE);
+            }
+        }
+
+        if (this.executor == null) {
+            for (Request request : selection) {
+                synchronized (this.lock) {
+                    if (this.cache.containsKey(request.key)) {
+                        continue;
+                    }
+                }
+                generate(request.key);
+            }
+        } else {
+            int newTasks;
+            synchronized (this.lock) {
+                this.pending.clear();
+                Map<Key, Boolean> requested = new HashMap<Key, Boolean>();
+                for (Request request : selection) {
+                    // Request the ancestors as well, so that a coarse
+                    // chunk is available while the fine ones are generated.
+                    for (Key key = request.key; key != null; key = (key.level > 0) ? key.getParent() : null) {
+                        if (!this.cache.containsKey(key) && !this.generating.containsKey(key) && requested.put(key, Boolean.TRUE) == null) {
+                            this.pending.add(new Request(key, getDistance(key, cameraX, cameraY, cameraZ)));
+                        }
+                    }
+                }
+
+                // The tasks queued by earlier calls still serve the new
+                // requests, so only the shortfall is submitted.
+                newTasks = Math.max(this.pending.size() - this.queuedTaskCount, 0);
+                this.queuedTaskCount += newTasks;
+            }
+
+            // Each task generates the nearest pending chunk when it runs, so
+            // the executor does not need to order the tasks.
+            for (int i = 0; i < newTasks; i++) {
+                try {
+                    this.executor.execute(new Runnable() {
+
+                        @Override
+                        public void run() {
+                            generateNext();
+                        }
+                    });
+                } catch (RejectedExecutionException e) {
+                    synchronized (this.lock) {
+                        this.queuedTaskCount -= newTasks - i;
+                    }
+                    throw e;
+                }
+            }
+        }
+
+        List<Chunk> chunks = new ArrayList<Chunk>();
+        synchronized (this.lock) {
+            Map<Key, Boolean> added = new HashMap<Key, Boolean>();
+            for (Request request : selection) {
+                Key key = request.key;
+                Chunk chunk = this.cache.get(key);
+                while (chunk == null && key.level > 0) {
+                    key = key.getParent();
+                    chunk = this.cache.get(key);
+                }
+                if (chunk != null && added.put(key, Boolean.TRUE) == null) {
+                    chunks.add(chunk);
+                }
+            }
+
+            // A chunk that stands in for its descendants covers them all.
+            Iterator<Chunk> iterator = chunks.iterator();
+            while (iterator.hasNext()) {
+                Chunk chunk = iterator.next();
+                for (Key key = new Key(chunk.level, chunk.x, chunk.z); key.level > 0;) {
+                    key = key.getParent();
+                    if (added.containsKey(key)) {
+                        iterator.remove();
+                        break;
+                    }
+                }
+            }
+        }
+        return chunks;
+    }
+
+    /**
+     * Adds the chunks to draw below the given chunk to the selection.
+     */
+    void select(Key key, double cameraX, double cameraY, double cameraZ, List<Request> selection) {
+        double distance = getDistance(key, cameraX, cameraY, cameraZ);
+        double spacing = getSize(key.level) / this.samplesPerChunk;
+
+        if (key.level < this.maxLevel && spacing * this.projectionScale > this.errorTarget * distance) {
+            for (int i = 0; i < 4; i++) {
+                select(new Key(key.level + 1, key.x * 2 + (i & 1), key.z * 2 + (i >> 1)), cameraX, cameraY, cameraZ, selection);
+            }
+        } else {
+            selection.add(new Request(key, distance));
+        }
+    }
+
+    /**
+     * Returns the distance from the camera to the nearest point of a chunk on
+     * the x-z plane.
+     */
+    double getDistance(Key key, double cameraX, double cameraY, double cameraZ) {
+        double size = getSize(key.level);
+        double lowerX = this.originX + key.x * size;
+        double lowerZ = this.originZ + key.z * size;
+        double dx = Math.max(0.0, Math.max(lowerX - cameraX, cameraX - (lowerX + size)));
+        double dz = Math.max(0.0, Math.max(lowerZ - cameraZ, cameraZ - (lowerZ + size)));
+        return Math.max(Math.sqrt(dx * dx + cameraY * cameraY + dz * dz), Double.MIN_NORMAL);
+    }
+
+    double getSize(int level) {
+        return this.rootSize / (1L << level);
+    }
+
+    /**
+     * Generates the nearest pending chunk, if any.
+     */
+    void generateNext() {
+        Key key;
+        synchronized (this.lock) {
+            this.queuedTaskCount--;
+            Request request = this.pending.poll();
+            if (request == null) {
+                return;
+            }
+            key = request.key;
+        }
+        generate(key);
+    }
+
+    /**
+     * Generates a chunk and adds it to the cache.
+     */
+    void generate(Key key) {
+        int border;
+        synchronized (this.lock) {
+            if (this.cache.containsKey(key) || this.generating.containsKey(key)) {
+                return;
+            }
+            this.generating.put(key, Boolean.TRUE);
+            border = this.borderSize;
+        }
+
+        Chunk chunk;
+        try {
+            double size = getSize(key.level);
+            double spacing = size / this.samplesPerChunk;
+            double lowerX = this.originX + key.x * size;
+            double lowerZ = this.originZ + key.z * size;
+            int points = this.samplesPerChunk + 1 + 2 * border;
+
+            NoiseMap noiseMap = new NoiseMap(points, points);
+            NoiseMapBuilderPlane builder = new NoiseMapBuilderPlane();
+            builder.setSourceModule(this.sourceModule);
+            builder.setDestNoiseMap(noiseMap);
+            builder.setDestSize(points, points);
+            builder.setBounds(lowerX - border * spacing, lowerX + (points - border) * spacing, lowerZ - border * spacing, lowerZ + (points - border)
+                    * spacing);
+            builder.build();
+
+            chunk = new Chunk(key.level, key.x, key.z, lowerX, lowerZ, size, this.samplesPerChunk, border, noiseMap);
+        } finally {
+            synchronized (this.lock) {
+                this.generating.remove(key);
+            }
+        }
+
+        ChunkListener listener;
+        synchronized (this.lock) {
+            if (chunk.borderSize != this.borderSize) {
+                // The border changed while the chunk was generated.
+                return;
+            }
+            this.cache.put(key, chunk);
+            evict();
+            listener = this.listener;
+        }
+        if (listener != null) {
+            listener.chunkReady(chunk);
+        }
+    }
+
+    /**
+     * Removes the least recently used chunks until the cache fits its
+     * capacity. The root chunk and the chunks selected by the last update are
+     * kept, so the cache may hold more chunks than its capacity.
+     */
+    void evict() {
+        Iterator<Map.Entry<Key, Chunk>> iterator = this.cache.entrySet().iterator();
+        int excess = this.cache.size() - this.cacheCapacity;
+        while (excess > 0 && iterator.hasNext()) {
+            Key key = iterator.next().getKey();
+            if (key.level > 0 && !this.selected.containsKey(key)) {
+                iterator.remove();
+                excess--;
+            }
+        }
+    }
+
+    /**
+     * Returns a generated chunk from the cache, without counting it as used.
+     *
+     * @param level The level of the chunk.
+     * @param x The column of the chunk.
+     * @param z The row of the chunk.
+     *
+     * @return The chunk, or null if it is not in the cache.
+     */
+    public Chunk getChunk(int level, int x, int z) {
+        synchronized (this.lock) {
+            for (Map.Entry<Key, Chunk> entry : this.cache.entrySet()) {
+                Key key = entry.getKey();
+                if (key.level == level && key.x == x && key.z == z) {
+                    return entry.getValue();
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Drops every pending request and every cached chunk.
+     * <p>
+     * Chunks that are being generated when this method is called are still
+     * added to the cache when they are ready.
+     */
+    public void clear() {
+        synchronized (this.lock) {
+            this.pending.clear();
+            this.cache.clear();
+        }
+    }
+
+    /**
+     * Returns the number of chunks in the cache.
+     *
+     * @return The number of cached chunks.
+     */
+    public int getCachedChunkCount() {
+        synchronized (this.lock) {
+            return this.cache.size();
+        }
+    }
+
+    /**
+     * Returns the number of chunks waiting to be generated.
+     *
+     * @return The number of pending requests.
+     */
+    public int getPendingChunkCount() {
+        synchronized (this.lock) {
+            return this.pending.size();
+        }
+    }
+
+    /**
+     * Returns the scale that turns a length at distance 1 into pixels.
+     *
+     * @param viewportHeight The height of the viewport, in pixels.
+     * @param fieldOfView The vertical field of view, in radians.
+     */
+    static double getProjectionScale(int viewportHeight, double fieldOfView) {
+        return viewportHeight / (2.0 * Math.tan(fieldOfView / 2.0));
+    }
+
+    public int getBorderSize() {
+        synchronized (this.lock) {
+            return this.borderSize;
+        }
+    }
+
+    public int getCacheCapacity() {
+        synchronized (this.lock) {
+            return this.cacheCapacity;
+        }
+    }
+
+    public double getErrorTarget() {
+        synchronized (this.lock) {
+            return this.errorTarget;
+        }
+    }
+
+    public ChunkListener getListener() {
+        synchronized (this.lock) {
+            return this.listener;
+        }
+    }
+
+    public int getMaxLevel() {
+        synchronized (this.lock) {
+            return this.maxLevel;
+        }
+    }
+
+    public double getRootSize() {
+        return this.rootSize;
+    }
+
+    public int getSamplesPerChunk() {
+        return this.samplesPerChunk;
+    }
+
+    /**
+     * Sets the number of extra samples outside each edge of a chunk.
+     * <p>
+     * Changing the border size drops every cached chunk.
+     *
+     * @param borderSize The border size, in samples.
+     *
+     * @throws IllegalArgumentException The border size is negative.
+     */
+    public void setBorderSize(int borderSize) throws IllegalArgumentException {
+        if (borderSize < 0) {
+            throw new IllegalArgumentException("Invalid Parameter in TerrainChunkGenerator");
+        }
+
+        synchronized (this.lock) {
+            if (borderSize != this.borderSize) {
+                this.borderSize = borderSize;
+                this.pending.clear();
+                this.cache.clear();
+            }
+        }
+    }
+
+    /**
+     * Sets the number of chunks that the cache holds.
+     *
+     * @param cacheCapacity The capacity, in chunks.
+     *
+     * @throws IllegalArgumentException The capacity is less than 1.
+     */
+    public void setCacheCapacity(int cacheCapacity) throws IllegalArgumentException {
+        if (cacheCapacity < 1) {
+            throw new IllegalArgumentException("Invalid Parameter in TerrainChunkGenerator");
+        }
+
+        synchronized (this.lock) {
+            this.cacheCapacity = cacheCapacity;
+            evict();
+        }
+    }
+
+    /**
+     * Sets the largest screen-space error of a drawn chunk.
+     * <p>
+     * The screen-space error of a chunk is the distance between two of its
+     * samples, projected onto the screen at the distance of the nearest point
+     * of the chunk.
+     *
+     * @param errorTarget The error target, in pixels.
+     *
+     * @throws IllegalArgumentException The error target is not positive.
+     */
+    public void setErrorTarget(double errorTarget) throws IllegalArgumentException {
+        if (!(errorTarget > 0.0)) {
+            throw new IllegalArgumentException("Invalid Parameter in TerrainChunkGenerator");
+        }
+
+        synchronized (this.lock) {
+            this.errorTarget = errorTarget;
+        }
+    }
+
+    /**
+     * Sets the listener that receives the chunks as they are generated.
+     *
+     * @param listener The listener, or null.
+     */
+    public void setListener(ChunkListener listener) {
+        synchronized (this.lock) {
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Sets the deepest level of the quadtree that update() selects.
+     *
+     * @param maxLevel The maximum level, from 0 to MAX_LEVEL.
+     *
+     * @throws IllegalArgumentException The level is out of range.
+     */
+    public void setMaxLevel(int maxLevel) throws IllegalArgumentException {
+        if (maxLevel < 0 || maxLevel > MAX_LEVEL) {
+            throw new IllegalArgumentException("Invalid Parameter in TerrainChunkGenerator");
+        }
+
+        synchronized (this.lock) {
+            this.maxLevel = maxLevel;
+        }
+    }
+
+    /**
+     * Sets the projection used to compute the screen-space error.
+     * <p>
+     * The default projection is a 1080-pixel viewport with a vertical field of
+     * view of 60 degrees.
+     *
+     * @param viewportHeight The height of the viewport, in pixels.
+     * @param fieldOfView The vertical field of view, in degrees.
+     *
+     * @throws IllegalArgumentException The height is not positive, or the
+     *             field of view is not between 0 and 180 degrees.
+     */
+    public void setProjection(int viewportHeight, double fieldOfView) throws IllegalArgumentException {
+        if (viewportHeight < 1 || !(fieldOfView > 0.0 && fieldOfView < 180.0)) {
+            throw new IllegalArgumentException("Invalid Parameter in TerrainChunkGenerator");
+        }
+
+        synchronized (this.lock) {
+            this.projectionScale = getProjectionScale(viewportHeight, Math.toRadians(fieldOfView));
+        }
+    }
+}
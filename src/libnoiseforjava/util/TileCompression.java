@@ -0,0 +1,62 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+/**
+ * Enumerates the ways a tile of a tiled noise-map file can be stored.
+ * <p>
+ * Each tile records its own compression, so a file can mix them.
+ */
+public enum TileCompression {
+    /**
+     * Stores each value as a 32-bit floating-point number.
+     */
+    NONE,
+
+    /**
+     * Stores each value as a 32-bit floating-point number and compresses the
+     * tile with deflate.
+     */
+    DEFLATE,
+
+    /**
+     * Stores each value as a 16-bit integer.
+     * <p>
+     * The values are mapped linearly from the smallest and largest values of
+     * the tile, which are stored in the index, onto the range of a 16-bit
+     * integer, and NaN values onto a reserved code. This halves the size of a
+     * tile at the cost of precision.
+     */
+    INT16,
+
+    /**
+     * Stores each value as a 16-bit integer, as INT16 does, and compresses the
+     * tile with deflate.
+     */
+    INT16_DEFLATE
+}
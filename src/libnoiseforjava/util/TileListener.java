@@ -0,0 +1,51 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+/**
+ * Receives each tile of a tiled build with an apron.
+ *
+ * @see NoiseMapBuilder#buildTiles(int, int, int, TileListener)
+ */
+public interface TileListener {
+
+    /**
+     * Called on the building thread after a tile is built.
+     * <p>
+     * The tile holds the tile's points surrounded by apron points on every
+     * side, so its width is the tile width plus twice the apron. Point
+     * (apron, apron) of the tile is the first point of the tile in the noise
+     * map. The tile belongs to the listener; the builder does not use it
+     * again.
+     *
+     * @param tileX The column of the tile.
+     * @param tileY The row of the tile.
+     * @param tile The values of the tile and its apron.
+     */
+    void tileCompleted(int tileX, int tileY, NoiseMap tile);
+}
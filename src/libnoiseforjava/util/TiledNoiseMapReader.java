@@ -0,0 +1,485 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Reads regions of a tiled noise-map file.
+ * <p>
+ * The header and the tile index are memory-mapped when the file is opened.
+ * Reading a region then reads and decodes only the tiles that overlap it. Tiles
+ * that were never written read as the border value.
+ * <p>
+ * The file format is described in the TiledNoiseMapWriter class.
+ * <p>
+ * A reader can be shared by several threads.
+ */
+public class TiledNoiseMapReader implements Closeable {
+
+    /**
+     * The file.
+     */
+    FileChannel channel;
+
+    /**
+     * A flag specifying whether this reader opened the file and must close it.
+     */
+    boolean ownsChannel;
+
+    /**
+     * The memory-mapped tile index.
+     */
+    ByteBuffer index;
+
+    /**
+     * The value used for all positions outside of the noise map.
+     */
+    double borderValue;
+
+    /**
+     * Height of the noise map, in points.
+     */
+    int height;
+
+    /**
+     * Width of the noise map, in points.
+     */
+    int width;
+
+    /**
+     * Height of a tile, in points.
+     */
+    int tileHeight;
+
+    /**
+     * Width of a tile, in points.
+     */
+    int tileWidth;
+
+    /**
+     * The number of tiles in each row of tiles.
+     */
+    int tileCountX;
+
+    /**
+     * The number of rows of tiles.
+     */
+    int tileCountY;
+
+    /**
+     * Opens a tiled noise-map file.
+     *
+     * @param path The path of the file.
+     *
+     * @throws IOException The file could not be read, or is not a tiled
+     *             noise-map file.
+     */
+    public TiledNoiseMapReader(Path path) throws IOException {
+        this(FileChannel.open(path, StandardOpenOption.READ));
+        this.ownsChannel = true;
+    }
+
+    /**
+     * Reads a tiled noise-map file from a file channel.
+     * <p>
+     * The channel stays open after the close() method is called.
+     *
+     * @param channel The channel of the file, opened for reading.
+     *
+     * @throws IOException The file could not be read, or is not a tiled
+     *             noise-map file.
+     */
+    public TiledNoiseMapReader(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.ownsChannel = false;
+
+        ByteBuffer header = ByteBuffer.allocate(TiledNoiseMapWriter.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(header, 0);
+        header.flip();
+        if (header.getInt() != TiledNoiseMapWriter.MAGIC || header.getInt() != TiledNoiseMapWriter.VERSION) {
+            throw new IOException("Not a tiled noise-map file");
+        }
+        this.width = header.getInt();
+        this.height = header.getInt();
+        this.tileWidth = header.getInt();
+        this.tileHeight = header.getInt();
+        this.borderValue = header.getDouble();
+        if (this.width < 1 || this.height < 1 || this.tileWidth < 1 || this.tileHeight < 1) {
+            throw new IOException("Corrupt tiled noise-map header");
+        }
+
+        this.tileCountX = (this.width + this.tileWidth - 1) / this.tileWidth;
+        this.tileCountY = (this.height + this.tileHeight - 1) / this.tileHeight;
+        long indexSize = (long) this.tileCountX * this.tileCountY * TiledNoiseMapWriter.INDEX_ENTRY_SIZE;
+        if (indexSize > Integer.MAX_VALUE || TiledNoiseMapWriter.HEADER_SIZE + indexSize > channel.size()) {
+            throw new IOException("Corrupt tiled noise-map index");
+        }
+        this.index = channel.map(FileChannel.MapMode.READ_ONLY, TiledNoiseMapWriter.HEADER_SIZE, indexSize).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Closes the file if this reader opened it.
+     *
+     * @throws IOException The file could not be closed.
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.ownsChannel) {
+            this.channel.close();
+        }
+    }
+
+    /**
+     * Determines if a tile was written.
+     *
+     * @param tileX The column of the tile.
+     * @param tileY The row of the tile.
+     *
+     * @return true if the tile was written; false otherwise.
+     *
+     * @throws IllegalArgumentException The tile does not exist.
+     */
+    public boolean hasTile(int tileX, int tileY) throws IllegalArgumentException {
+        return this.index.getLong(getEntryPosition(tileX, tileY)) != 0;
+    }
+
+    /**
+     * Returns the smallest value of a tile.
+     * <p>
+     * This value is read from the index, without reading the tile.
+     *
+     * @param tileX The column of the tile.
+     * @param tileY The row of the tile.
+     *
+     * @return The smallest value of the tile, ignoring NaN values, NaN if
+     *         every value is NaN, or the border value if the tile was never
+     *         written.
+     *
+     * @throws IllegalArgumentException The tile does not exist.
+     */
+    public double getTileMinValue(int tileX, int tileY) throws IllegalArgumentException {
+        int entry = getEntryPosition(tileX, tileY);
+        return (this.index.getLong(entry) != 0) ? this.index.getDouble(entry + 16) : this.borderValue;
+    }
+
+    /**
+     * Returns the largest value of a tile.
+     * <p>
+     * This value is read from the index, without reading the tile.
+     *
+     * @param tileX The column of the tile.
+     * @param tileY The row of the tile.
+     *
+     * @return The largest value of the tile, ignoring NaN values, NaN if
+     *         every value is NaN, or the border value if the tile was never
+     *         written.
+     *
+     * @throws IllegalArgumentException The tile does not exist.
+     */
+    public double getTileMaxValue(int tileX, int tileY) throws IllegalArgumentException {
+        int entry = getEntryPosition(tileX, tileY);
+        return (this.index.getLong(entry) != 0) ? this.index.getDouble(entry + 24) : this.borderValue;
+    }
+
+    /**
+     * Reads a tile into a new noise map.
+     * <p>
+     * The noise map is clipped to the size of the tile.
+     *
+     * @param tileX The column of the tile.
+     * @param tileY The row of the tile.
+     *
+     * @return The values of the tile.
+     *
+     * @throws IllegalArgumentException The tile does not exist.
+     * @throws IOException The tile could not be read.
+     */
+    public NoiseMap readTile(int tileX, int tileY) throws IllegalArgumentException, IOException {
+        NoiseMap tile = new NoiseMap(Math.min(this.tileWidth, this.width - tileX * this.tileWidth), Math.min(this.tileHeight, this.height - tileY
+                * this.tileHeight));
+        tile.setBorderValue(this.borderValue);
+        readTile(tileX, tileY, tile, 0, 0, 0, 0, tile.getWidth(), tile.getHeight());
+        return tile;
+    }
+
+    /**
+     * Reads a region of the noise map into a new noise map.
+     * <p>
+     * Only the tiles that overlap the region are read. Positions outside of the
+     * noise map receive the border value.
+     *
+     * @param x The x coordinate of the region, in points.
+     * @param y The y coordinate of the region, in points.
+     * @param width The width of the region, in points.
+     * @param height The height of the region, in points.
+     *
+     * @return The values of the region.
+     *
+     * @throws IllegalArgumentException The width or height is not positive.
+     * @throws IOException A tile could not be read.
+     */
+    public NoiseMap readRegion(int x, int y, int width, int height) throws IllegalArgumentException, IOException {
+        NoiseMap region = new NoiseMap(width, height);
+        region.setBorderValue(this.borderValue);
+        readRegion(x, y, width, height, region);
+        return region;
+    }
+
+    /**
+     * Reads a region of the noise map into an existing noise map.
+     * <p>
+     * The point (x, y) of the region is written to position (0, 0) of the
+     * destination noise map. Only the tiles that overlap the region are read.
+     * Positions outside of the noise map receive the border value.
+     *
+     * @param x The x coordinate of the region, in points.
+     * @param y The y coordinate of the region, in points.
+     * @param width The width of the region, in points.
+     * @param height The height of the region, in points.
+     * @param dest The noise map that receives the values.
+     *
+     * @throws IllegalArgumentException The width or height is not positive.
+     * @throws IOException A tile could not be read.
+     */
+    public void readRegion(int x, int y, int width, int height, NoiseMap dest) throws IllegalArgumentException, IOException {
+        if (width < 1 || height < 1 || dest == null) {
+            throw new IllegalArgumentException("Invalid Parameter in TiledNoiseMapReader");
+        }
+
+        // Positions outside of the noise map.
+        for (int j = 0; j < height; j++) {
+            for (int i = 0; i < width; i++) {
+                int mapX = x + i;
+                int mapY = y + j;
+                if (mapX < 0 || mapX >= this.width || mapY < 0 || mapY >= this.height) {
+                    dest.setValue(i, j, this.borderValue);
+                }
+            }
+        }
+
+        int xStart = Math.max(x, 0);
+        int yStart = Math.max(y, 0);
+        int xEnd = Math.min(x + width, this.width);
+        int yEnd = Math.min(y + height, this.height);
+        if (xStart >= xEnd || yStart >= yEnd) {
+            return;
+        }
+
+        for (int tileY = yStart / this.tileHeight; tileY <= (yEnd - 1) / this.tileHeight; tileY++) {
+            for (int tileX = xStart / this.tileWidth; tileX <= (xEnd - 1) / this.tileWidth; tileX++) {
+                int tileLeft = tileX * this.tileWidth;
+                int tileTop = tileY * this.tileHeight;
+                int left = Math.max(xStart, tileLeft);
+                int top = Math.max(yStart, tileTop);
+                int right = Math.min(xEnd, tileLeft + this.tileWidth);
+                int bottom = Math.min(yEnd, tileTop + this.tileHeight);
+                readTile(tileX, tileY, dest, left - x, top - y, left - tileLeft, top - tileTop, right - left, bottom - top);
+            }
+        }
+    }
+
+    /**
+     * Decodes part of a tile into a noise map.
+     *
+     * @param dest The noise map that receives the values.
+     * @param destX The x coordinate in that noise map of the first value.
+     * @param destY The y coordinate in that noise map of the first value.
+     * @param srcX The x coordinate in the tile of the first value.
+     * @param srcY The y coordinate in the tile of the first value.
+     * @param w The width of the part, in points.
+     * @param h The height of the part, in points.
+     */
+    void readTile(int tileX, int tileY, NoiseMap dest, int destX, int destY, int srcX, int srcY, int w, int h) throws IllegalArgumentException,
+            IOException {
+        int entry = getEntryPosition(tileX, tileY);
+        long position = this.index.getLong(entry);
+        if (position == 0) {
+            for (int j = 0; j < h; j++) {
+                for (int i = 0; i < w; i++) {
+                    dest.setValue(destX + i, destY + j, this.borderValue);
+                }
+            }
+            return;
+        }
+
+        int length = this.index.getInt(entry + 8);
+        int compressionCode = this.index.getInt(entry + 12);
+        double minValue = this.index.getDouble(entry + 16);
+        double maxValue = this.index.getDouble(entry + 24);
+        if (compressionCode < 0 || compressionCode >= TileCompression.values().length || length < 0) {
+            throw new IOException("Corrupt tiled noise-map index");
+        }
+        TileCompression compression = TileCompression.values()[compressionCode];
+
+        int clippedWidth = Math.min(this.tileWidth, this.width - tileX * this.tileWidth);
+        int clippedHeight = Math.min(this.tileHeight, this.height - tileY * this.tileHeight);
+        boolean isQuantized = compression == TileCompression.INT16 || compression == TileCompression.INT16_DEFLATE;
+        int sampleSize = isQuantized ? 2 : 4;
+
+        ByteBuffer data = ByteBuffer.allocate(length);
+        readFully(data, position);
+        data.flip();
+        if (compression == TileCompression.DEFLATE || compression == TileCompression.INT16_DEFLATE) {
+            data = inflate(data.array(), length, clippedWidth * clippedHeight * sampleSize);
+        }
+        if (data.remaining() != clippedWidth * clippedHeight * sampleSize) {
+            throw new IOException("Corrupt tiled noise-map tile");
+        }
+        data.order(ByteOrder.LITTLE_ENDIAN);
+
+        double scale = (maxValue - minValue) / TiledNoiseMapWriter.INT16_STEPS;
+        for (int j = 0; j < h; j++) {
+            int sample = ((srcY + j) * clippedWidth + srcX) * sampleSize;
+            for (int i = 0; i < w; i++, sample += sampleSize) {
+                double value;
+                if (isQuantized) {
+                    short code = data.getShort(sample);
+                    if (code == TiledNoiseMapWriter.INT16_NAN) {
+                        value = Double.NaN;
+                    } else {
+                        value = minValue + (code - TiledNoiseMapWriter.INT16_NAN - 1) * scale;
+                    }
+                } else {
+                    value = data.getFloat(sample);
+                }
+                dest.setValue(destX + i, destY + j, value);
+            }
+        }
+    }
+
+    ByteBuffer inflate(byte[] data, int length, int expectedLength) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, 0, length);
+            byte[] out = new byte[expectedLength];
+            int count = 0;
+            while (count < expectedLength && !inflater.finished()) {
+                int n = inflater.inflate(out, count, expectedLength - count);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new IOException("Corrupt tiled noise-map tile");
+                }
+                count += n;
+            }
+            return ByteBuffer.wrap(out, 0, count);
+        } catch (DataFormatException e) {
+            throw new IOException("Corrupt tiled noise-map tile", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    int getEntryPosition(int tileX, int tileY) throws IllegalArgumentException {
+        if (tileX < 0 || tileX >= this.tileCountX || tileY < 0 || tileY >= this.tileCountY) {
+            throw new IllegalArgumentException("Invalid Parameter in TiledNoiseMapReader");
+        }
+        return (tileY * this.tileCountX + tileX) * TiledNoiseMapWriter.INDEX_ENTRY_SIZE;
+    }
+
+    void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int n = this.channel.read(buffer, position);
+            if (n < 0) {
+                throw new EOFException("Truncated tiled noise-map file");
+            }
+            position += n;
+        }
+    }
+
+    /**
+     * Returns the value used for all positions outside of the noise map.
+     *
+     * @return The border value.
+     */
+    public double getBorderValue() {
+        return this.borderValue;
+    }
+
+    /**
+     * Returns the height of the noise map.
+     *
+     * @return The height of the noise map, in points.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Returns the number of tiles in each row of tiles.
+     *
+     * @return The number of tiles in each row of tiles.
+     */
+    public int getTileCountX() {
+        return this.tileCountX;
+    }
+
+    /**
+     * Returns the number of rows of tiles.
+     *
+     * @return The number of rows of tiles.
+     */
+    public int getTileCountY() {
+        return this.tileCountY;
+    }
+
+    /**
+     * Returns the height of a tile.
+     *
+     * @return The height of a tile, in points.
+     */
+    public int getTileHeight() {
+        return this.tileHeight;
+    }
+
+    /**
+     * Returns the width of a tile.
+     *
+     * @return The width of a tile, in points.
+     */
+    public int getTileWidth() {
+        return this.tileWidth;
+    }
+
+    /**
+     * Returns the width of the noise map.
+     *
+     * @return The width of the noise map, in points.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+}
@@ -0,0 +1,577 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+
+/**
+ * Writes a noise map to a tiled noise-map file, one tile at a time.
+ * <p>
+ * A tiled noise-map file divides a noise map into tiles of a fixed size, so
+ * that a TiledNoiseMapReader can read any region of the noise map without
+ * reading the whole file. The tiles at the right and bottom edges are clipped
+ * to the size of the noise map.
+ * <p>
+ * <b>File format</b>
+ * <p>
+ * All numbers are stored in little-endian byte order. The file starts with a
+ * 32-byte header:
+ * <ul>
+ * <li>the magic bytes "LNTM" and the format version (an int);
+ * <li>the width and height of the noise map, in points (ints);
+ * <li>the width and height of a tile, in points (ints);
+ * <li>the border value of the noise map (a double).
+ * </ul>
+ * The header is followed by the tile index, which has one 32-byte entry per
+ * tile, ordered by rows of tiles:
+ * <ul>
+ * <li>the position of the tile data in the file (a long, 0 if the tile was
+ * never written);
+ * <li>the size of the tile data, in bytes (an int);
+ * <li>the ordinal of the TileCompression of the tile (an int);
+ * <li>the smallest and largest values of the tile (doubles), ignoring NaN
+ * values; both are NaN if every value of the tile is NaN.
+ * </ul>
+ * The tile data follows the index. A tile stores its values row by row.
+ * <p>
+ * <b>Writing a file</b>
+ * <p>
+ * Tiles can be written in any order, from any thread. Each tile is encoded on
+ * the calling thread and its index entry is written as soon as its data is, so
+ * the file is readable at any time. Writing a tile a second time replaces it;
+ * the space used by the old data is not reclaimed.
+ * <p>
+ * There are three ways to fill the file:
+ * <ul>
+ * <li>Pass the writer to the buildTiles() method of a noise-map builder. The
+ * builder then builds and writes one tile at a time, and never holds the
+ * whole noise map in memory.
+ * <li>Use the writer as the callback of a noise-map builder, after passing the
+ * destination noise map to the setSourceNoiseMap() method. Each row of tiles
+ * is written as soon as the builder completes it.
+ * <li>Call the writeTile() or writeNoiseMap() methods.
+ * </ul>
+ * Call the close() method when done.
+ */
+public class TiledNoiseMapWriter implements NoiseMapCallback, Closeable {
+
+    /**
+     * The magic bytes at the start of the file.
+     */
+    static final int MAGIC = 'L' | ('N' << 8) | ('T' << 16) | ('M' << 24);
+
+    /**
+     * The version of the file format.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The 16-bit code of a NaN value in a quantized tile. The other codes map
+     * the range of the tile onto INT16_STEPS steps.
+     */
+    static final short INT16_NAN = Short.MIN_VALUE;
+
+    /**
+     * The number of steps between the smallest and largest value of a
+     * quantized tile.
+     */
+    static final double INT16_STEPS = 65534.0;
+
+    /**
+     * Size of the file header, in bytes.
+     */
+    static final int HEADER_SIZE = 32;
+
+    /**
+     * Size of an entry of the tile index, in bytes.
+     */
+    static final int INDEX_ENTRY_SIZE = 32;
+
+    /**
+     * The file.
+     */
+    FileChannel channel;
+
+    /**
+     * A flag specifying whether this writer opened the file and must close it.
+     */
+    boolean ownsChannel;
+
+    /**
+     * The position in the file at which the next tile is written.
+     */
+    long dataEnd;
+
+    /**
+     * The value used for all positions outside of the noise map.
+     */
+    double borderValue;
+
+    /**
+     * The compression of the tiles written next.
+     */
+    TileCompression compression;
+
+    /**
+     * The deflate compression level.
+     */
+    int compressionLevel;
+
+    /**
+     * Height of the noise map, in points.
+     */
+    int height;
+
+    /**
+     * Width of the noise map, in points.
+     */
+    int width;
+
+    /**
+     * Height of a tile, in points.
+     */
+    int tileHeight;
+
+    /**
+     * Width of a tile, in points.
+     */
+    int tileWidth;
+
+    /**
+     * The number of tiles in each row of tiles.
+     */
+    int tileCountX;
+
+    /**
+     * The number of rows of tiles.
+     */
+    int tileCountY;
+
+    /**
+     * The noise map whose tiles are written by the rowCompleted() method.
+     */
+    NoiseMap sourceNoiseMap;
+
+    /**
+     * Creates a tiled noise-map file, replacing any existing file.
+     *
+     * @param path The path of the file.
+     * @param width The width of the noise map, in points.
+     * @param height The height of the noise map, in points.
+     * @param tileWidth The width of a tile, in points.
+     * @param tileHeight The height of a tile, in points.
+     *
+     * @pre All sizes are positive.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     * @throws IOException The file could not be created.
+     */
+    public TiledNoiseMapWriter(Path path, int width, int height, int tileWidth, int tileHeight) throws IllegalArgumentException, IOException {
+        this(FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE), width, height,
+                tileWidth, tileHeight);
+        this.ownsChannel = true;
+    }
+
+    /**
+     * Writes a tiled noise-map file to an empty file channel.
+     * <p>
+     * The channel stays open after the close() method is called.
+     *
+     * @param channel The channel of an empty file, opened for writing.
+     * @param width The width of the noise map, in points.
+     * @param height The height of the noise map, in points.
+     * @param tileWidth The width of a tile, in points.
+     * @param tileHeight The height of a tile, in points.
+     *
+     * @pre All sizes are positive.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     * @throws IOException The header could not be written.
+     */
+    public TiledNoiseMapWriter(FileChannel channel, int width, int height, int tileWidth, int tileHeight) throws IllegalArgumentException, IOException {
+        if (channel == null || width < 1 || height < 1 || tileWidth < 1 || tileHeight < 1 || (long) tileWidth * tileHeight > Integer.MAX_VALUE / 4) {
+            throw new IllegalArgumentException("Invalid Parameter in TiledNoiseMapWriter");
+        }
+
+        this.channel = channel;
+        this.ownsChannel = false;
+        this.width = width;
+        this.height = height;
+        this.tileWidth = tileWidth;
+        this.tileHeight = tileHeight;
+        this.tileCountX = (width + tileWidth - 1) / tileWidth;
+        this.tileCountY = (height + tileHeight - 1) / tileHeight;
+        this.borderValue = 0.0;
+        this.compression = TileCompression.DEFLATE;
+        this.compressionLevel = Deflater.DEFAULT_COMPRESSION;
+        this.sourceNoiseMap = null;
+
+        // Write the header and an empty index.
+        this.dataEnd = HEADER_SIZE + (long) this.tileCountX * this.tileCountY * INDEX_ENTRY_SIZE;
+        writeHeader();
+        ByteBuffer emptyIndex = ByteBuffer.allocate((int) Math.min(this.dataEnd - HEADER_SIZE, 65536));
+        for (long position = HEADER_SIZE; position < this.dataEnd; position += emptyIndex.capacity()) {
+            emptyIndex.clear();
+            emptyIndex.limit((int) Math.min(emptyIndex.capacity(), this.dataEnd - position));
+            writeFully(emptyIndex, position);
+        }
+    }
+
+    /**
+     * Writes the header, and closes the file if this writer opened it.
+     *
+     * @throws IOException The header could not be written.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!this.channel.isOpen()) {
+            return;
+        }
+        try {
+            writeHeader();
+        } finally {
+            if (this.ownsChannel) {
+                this.channel.close();
+            }
+        }
+    }
+
+    /**
+     * Writes the tiles in the completed row of tiles of the source noise map.
+     * <p>
+     * This method does nothing until the last row of a row of tiles is
+     * completed.
+     *
+     * @param row The row that was completed.
+     *
+     * @throws UncheckedIOException A tile could not be written.
+     */
+    @Override
+    public void rowCompleted(int row) throws UncheckedIOException {
+        if ((row + 1) % this.tileHeight != 0 && row != this.height - 1) {
+            return;
+        }
+
+        int tileY = row / this.tileHeight;
+        try {
+            for (int tileX = 0; tileX < this.tileCountX; tileX++) {
+                writeTile(tileX, tileY, this.sourceNoiseMap, tileX * this.tileWidth, tileY * this.tileHeight);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes every tile of a noise map.
+     *
+     * @param noiseMap The noise map.
+     *
+     * @pre The size of the noise map equals the size of this file.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     * @throws IOException A tile could not be written.
+     */
+    public void writeNoiseMap(NoiseMap noiseMap) throws IllegalArgumentException, IOException {
+        if (noiseMap.getWidth() != this.width || noiseMap.getHeight() != this.height) {
+            throw new IllegalArgumentException("Invalid Parameter in TiledNoiseMapWriter");
+        }
+
+        setBorderValue(noiseMap.getBorderValue());
+        for (int tileY = 0; tileY < this.tileCountY; tileY++) {
+            for (int tileX = 0; tileX < this.tileCountX; tileX++) {
+                writeTile(tileX, tileY, noiseMap, tileX * this.tileWidth, tileY * this.tileHeight);
+            }
+        }
+    }
+
+    /**
+     * Writes a tile.
+     * <p>
+     * The values of the tile are read from the given noise map, starting at
+     * position (xOffset, yOffset). The tile is stored with the current
+     * compression.
+     *
+     * @param tileX The column of the tile.
+     * @param tileY The row of the tile.
+     * @param source The noise map that contains the values of the tile.
+     * @param xOffset The x coordinate of the first value in that noise map.
+     * @param yOffset The y coordinate of the first value in that noise map.
+     *
+     * @pre The tile exists.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     * @throws IOException The tile could not be written.
+     */
+    public void writeTile(int tileX, int tileY, NoiseMap source, int xOffset, int yOffset) throws IllegalArgumentException, IOException {
+        if (tileX < 0 || tileX >= this.tileCountX || tileY < 0 || tileY >= this.tileCountY || source == null) {
+            throw new IllegalArgumentException("Invalid Parameter in TiledNoiseMapWriter");
+        }
+
+        int w = Math.min(this.tileWidth, this.width - tileX * this.tileWidth);
+        int h = Math.min(this.tileHeight, this.height - tileY * this.tileHeight);
+        TileCompression tileCompression = this.compression;
+
+        double minValue = Double.POSITIVE_INFINITY;
+        double maxValue = Double.NEGATIVE_INFINITY;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                double value = source.getValue(xOffset + x, yOffset + y);
+                if (!Double.isNaN(value)) {
+                    minValue = Math.min(minValue, value);
+                    maxValue = Math.max(maxValue, value);
+                }
+            }
+        }
+        if (minValue > maxValue) {
+            // Every value is NaN.
+            minValue = Double.NaN;
+            maxValue = Double.NaN;
+        }
+
+        // Encode the tile on the calling thread.
+        ByteBuffer samples;
+        if (tileCompression == TileCompression.NONE || tileCompression == TileCompression.DEFLATE) {
+            samples = ByteBuffer.allocate(w * h * 4).order(ByteOrder.LITTLE_ENDIAN);
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) {
+                    samples.putFloat((float) source.getValue(xOffset + x, yOffset + y));
+                }
+            }
+        } else {
+            samples = ByteBuffer.allocate(w * h * 2).order(ByteOrder.LITTLE_ENDIAN);
+            double range = maxValue - minValue;
+            double scale = (range > 0.0) ? INT16_STEPS / range : 0.0;
+            for (int y = 0; y < h; y++) {
+                for (int x = 0; x < w; x++) {
+                    double value = source.getValue(xOffset + x, yOffset + y);
+                    if (Double.isNaN(value)) {
+                        samples.putShort(INT16_NAN);
+                    } else {
+                        samples.putShort((short) (Math.round((value - minValue) * scale) + INT16_NAN + 1));
+                    }
+                }
+            }
+        }
+        samples.flip();
+
+        if (tileCompression == TileCompression.DEFLATE || tileCompression == TileCompression.INT16_DEFLATE) {
+            samples = deflate(samples.array(), samples.limit());
+        }
+
+        ByteBuffer entry = ByteBuffer.allocate(INDEX_ENTRY_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        int length = samples.remaining();
+
+        // Append the data, then point the index at it.
+        synchronized (this) {
+            long position = this.dataEnd;
+            this.dataEnd += length;
+            writeFully(samples, position);
+
+            entry.putLong(position);
+            entry.putInt(length);
+            entry.putInt(tileCompression.ordinal());
+            entry.putDouble(minValue);
+            entry.putDouble(maxValue);
+            entry.flip();
+            writeFully(entry, HEADER_SIZE + ((long) tileY * this.tileCountX + tileX) * INDEX_ENTRY_SIZE);
+        }
+    }
+
+    ByteBuffer deflate(byte[] data, int length) {
+        Deflater deflater = new Deflater(this.compressionLevel);
+        try {
+            deflater.setInput(data, 0, length);
+            deflater.finish();
+            byte[] out = new byte[Math.max(64, length / 2)];
+            int count = 0;
+            while (!deflater.finished()) {
+                if (count == out.length) {
+                    byte[] larger = new byte[out.length * 2];
+                    System.arraycopy(out, 0, larger, 0, count);
+                    out = larger;
+                }
+                count += deflater.deflate(out, count, out.length - count);
+            }
+            return ByteBuffer.wrap(out, 0, count);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    void writeHeader() throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(this.width);
+        header.putInt(this.height);
+        header.putInt(this.tileWidth);
+        header.putInt(this.tileHeight);
+        header.putDouble(this.borderValue);
+        header.flip();
+        writeFully(header, 0);
+    }
+
+    void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += this.channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Returns the value used for all positions outside of the noise map.
+     *
+     * @return The border value.
+     */
+    public double getBorderValue() {
+        return this.borderValue;
+    }
+
+    /**
+     * Returns the compression of the tiles written next.
+     *
+     * @return The compression.
+     */
+    public TileCompression getCompression() {
+        return this.compression;
+    }
+
+    /**
+     * Returns the height of the noise map.
+     *
+     * @return The height of the noise map, in points.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Returns the number of tiles in each row of tiles.
+     *
+     * @return The number of tiles in each row of tiles.
+     */
+    public int getTileCountX() {
+        return this.tileCountX;
+    }
+
+    /**
+     * Returns the number of rows of tiles.
+     *
+     * @return The number of rows of tiles.
+     */
+    public int getTileCountY() {
+        return this.tileCountY;
+    }
+
+    /**
+     * Returns the height of a tile.
+     *
+     * @return The height of a tile, in points.
+     */
+    public int getTileHeight() {
+        return this.tileHeight;
+    }
+
+    /**
+     * Returns the width of a tile.
+     *
+     * @return The width of a tile, in points.
+     */
+    public int getTileWidth() {
+        return this.tileWidth;
+    }
+
+    /**
+     * Returns the width of the noise map.
+     *
+     * @return The width of the noise map, in points.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Sets the value used for all positions outside of the noise map.
+     * <p>
+     * The border value is stored in the header when the writer is closed.
+     *
+     * @param borderValue The border value.
+     */
+    public void setBorderValue(double borderValue) {
+        this.borderValue = borderValue;
+    }
+
+    /**
+     * Sets the compression of the tiles written next.
+     * <p>
+     * The default compression is DEFLATE.
+     *
+     * @param compression The compression.
+     *
+     * @throws IllegalArgumentException The compression is null.
+     */
+    public void setCompression(TileCompression compression) throws IllegalArgumentException {
+        if (compression == null) {
+            throw new IllegalArgumentException("Invalid Parameter in TiledNoiseMapWriter");
+        }
+        this.compression = compression;
+    }
+
+    /**
+     * Sets the deflate compression level, from 0 (fastest) to 9 (smallest).
+     *
+     * @param compressionLevel The deflate compression level.
+     *
+     * @pre The level is between 0 and 9.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void setCompressionLevel(int compressionLevel) throws IllegalArgumentException {
+        if (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid Parameter in TiledNoiseMapWriter");
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    /**
+     * Sets the noise map whose tiles are written by the rowCompleted() method.
+     *
+     * @param sourceNoiseMap The source noise map.
+     */
+    public void setSourceNoiseMap(NoiseMap sourceNoiseMap) {
+        this.sourceNoiseMap = sourceNoiseMap;
+    }
+}
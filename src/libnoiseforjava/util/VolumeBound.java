@@ -0,0 +1,58 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+/**
+ * Bounds the output of a noise module over a box, without sampling it.
+ * <p>
+ * NoiseVolumeBuilder uses a bound in sparse mode to skip the blocks of a
+ * noise volume whose values all lie on one side of the iso-level.
+ *
+ * @see NoiseVolumeBuilder#setVolumeBound(VolumeBound)
+ */
+public interface VolumeBound {
+
+    /**
+     * Returns bounds of the output values at every point of a box.
+     * <p>
+     * The bounds must be conservative: every output value within the box
+     * must lie between the lower and the upper bound. Wider bounds are
+     * allowed, but skip fewer blocks. This method may be called from several
+     * threads at once.
+     *
+     * @param lowerX The lower x coordinate of the box.
+     * @param upperX The upper x coordinate of the box.
+     * @param lowerY The lower y coordinate of the box.
+     * @param upperY The upper y coordinate of the box.
+     * @param lowerZ The lower z coordinate of the box.
+     * @param upperZ The upper z coordinate of the box.
+     * @param range Receives the lower bound at index 0 and the upper bound
+     *            at index 1.
+     */
+    void getBounds(double lowerX, double upperX, double lowerY, double upperY, double lowerZ, double upperZ, double[] range);
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Streams an image to a 24-bit Windows bitmap (BMP) file.
+ * <p>
+ * Each pixel is stored as blue, green and red bytes; the alpha channel is
+ * discarded. The file is written with a negative height, which marks it as a
+ * top-down bitmap, so the rows are written in the order they are passed to
+ * this writer.
+ * <p>
+ * To write the file, pass each row of the image to the writeRow() method, then
+ * call the finish() method. See the RowWriter class for details.
+ */
+public class WriterBMP extends RowWriter {
+
+    /**
+     * Size of the file header and the info header, in bytes.
+     */
+    static final int HEADER_SIZE = 54;
+
+    /**
+     * The encoded row, padded to a multiple of four bytes.
+     */
+    byte[] rowBuffer;
+
+    /**
+     * Creates a writer for an image of the given size.
+     *
+     * @param out The stream that receives the file.
+     * @param width The width of the image, in pixels.
+     * @param height The height of the image, in rows.
+     *
+     * @pre The width and height are at least 1.
+     * @pre The size of the file fits in 32 bits.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public WriterBMP(OutputStream out, int width, int height) throws IllegalArgumentException {
+        super(out, width, height);
+
+        long rowSize = calcRowSize(width);
+        if (rowSize * height + HEADER_SIZE > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid Parameter in WriterBMP");
+        }
+        this.rowBuffer = new byte[(int) rowSize];
+    }
+
+    /**
+     * Creates a writer for an image of the given size.
+     *
+     * @param channel The channel that receives the file.
+     * @param width The width of the image, in pixels.
+     * @param height The height of the image, in rows.
+     *
+     * @pre The width and height are at least 1.
+     * @pre The size of the file fits in 32 bits.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public WriterBMP(WritableByteChannel channel, int width, int height) throws IllegalArgumentException {
+        this(toStream(channel), width, height);
+    }
+
+    /**
+     * Returns the size of a row, including the padding to four bytes.
+     */
+    static long calcRowSize(int width) {
+        return ((long) width * 3 + 3) & ~3L;
+    }
+
+    @Override
+    public void writeRow(ImageCafe image, int y) throws IllegalArgumentException, IOException {
+        beginRow(image.getWidth(), y);
+
+        byte[] row = this.rowBuffer;
+        for (int x = 0, i = 0; x < this.width; x++, i += 3) {
+            int argb = image.getARGB(x, y);
+            row[i] = (byte) argb;
+            row[i + 1] = (byte) (argb >> 8);
+            row[i + 2] = (byte) (argb >> 16);
+        }
+        this.out.write(row);
+    }
+
+    @Override
+    void writeHeader() throws IOException {
+        int imageSize = this.rowBuffer.length * this.height;
+        byte[] header = new byte[HEADER_SIZE];
+
+        // File header.
+        header[0] = 'B';
+        header[1] = 'M';
+        putIntLE(header, 2, HEADER_SIZE + imageSize);
+        putIntLE(header, 10, HEADER_SIZE);
+
+        // Info header.
+        putIntLE(header, 14, 40);
+        putIntLE(header, 18, this.width);
+        putIntLE(header, 22, -this.height);
+        putShortLE(header, 26, 1); // Planes.
+        putShortLE(header, 28, 24); // Bits per pixel.
+        putIntLE(header, 34, imageSize);
+        putIntLE(header, 38, 2834); // 72 dpi.
+        putIntLE(header, 42, 2834);
+        this.out.write(header);
+    }
+}
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Streams a noise map to a raw height-map file.
+ * <p>
+ * A raw height map has no header; it contains the values of the noise map, row
+ * by row, in little-endian byte order. This is the format read by most terrain
+ * editors and game engines. Two formats are available:
+ * <ul>
+ * <li>FLOAT32: each value is stored as a 32-bit floating-point number.
+ * <li>INT16: each value is mapped from the value range onto the range of a
+ * signed 16-bit integer (-32768 to 32767). See the RowWriter class for
+ * details.
+ * </ul>
+ * <p>
+ * To write the file, pass each row of the noise map to the writeRow() method,
+ * then call the finish() method, or use this writer as the callback of a
+ * noise-map builder.
+ */
+public class WriterHeightMap extends RowWriter {
+
+    /**
+     * Sample formats of a raw height map.
+     */
+    public enum Format {
+        FLOAT32(4), INT16(2);
+
+        /**
+         * Size of a sample, in bytes.
+         */
+        final int sampleSize;
+
+        Format(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+    }
+
+    /**
+     * The sample format.
+     */
+    Format format;
+
+    /**
+     * The encoded row.
+     */
+    byte[] rowBuffer;
+
+    /**
+     * Creates a writer for a noise map of the given size.
+     *
+     * @param out The stream that receives the file.
+     * @param width The width of the noise map, in points.
+     * @param height The height of the noise map, in rows.
+     * @param format The sample format.
+     *
+     * @pre The width and height are at least 1.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public WriterHeightMap(OutputStream out, int width, int height, Format format) throws IllegalArgumentException {
+        super(out, width, height);
+
+        if (format == null || (long) width * format.sampleSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid Parameter in WriterHeightMap");
+        }
+        this.format = format;
+        this.rowBuffer = new byte[width * format.sampleSize];
+    }
+
+    /**
+     * Creates a writer for a noise map of the given size.
+     *
+     * @param channel The channel that receives the file.
+     * @param width The width of the noise map, in points.
+     * @param height The height of the noise map, in rows.
+     * @param format The sample format.
+     *
+     * @pre The width and height are at least 1.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public WriterHeightMap(WritableByteChannel channel, int width, int height, Format format) throws IllegalArgumentException {
+        this(toStream(channel), width, height, format);
+    }
+
+    /**
+     * Returns the sample format.
+     *
+     * @return The sample format.
+     */
+    public Format getFormat() {
+        return this.format;
+    }
+
+    @Override
+    public void writeRow(NoiseMap noiseMap, int y) throws IllegalArgumentException, IOException {
+        beginRow(noiseMap.getWidth(), y);
+
+        byte[] row = this.rowBuffer;
+        if (this.format == Format.FLOAT32) {
+            for (int x = 0, i = 0; x < this.width; x++, i += 4) {
+                putIntLE(row, i, Float.floatToIntBits((float) noiseMap.getValue(x, y)));
+            }
+        } else {
+            for (int x = 0, i = 0; x < this.width; x++, i += 2) {
+                putShortLE(row, i, toUnsigned16(noiseMap.getValue(x, y)) - 32768);
+            }
+        }
+        this.out.write(row);
+    }
+
+    @Override
+    void writeHeader() {
+        // Raw height maps have no header.
+    }
+}
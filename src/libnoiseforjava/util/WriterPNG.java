@@ -0,0 +1,353 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Streams an image or a noise map to a Portable Network Graphics (PNG) file.
+ * <p>
+ * Two formats are available:
+ * <ul>
+ * <li>RGBA8: writes an image as 8-bit red, green, blue and alpha channels.
+ * <li>GRAY16: writes a noise map as a 16-bit grayscale image. Each value is
+ * mapped from the value range onto the 0 to 65535 range. See the RowWriter
+ * class for details.
+ * </ul>
+ * <p>
+ * The rows are compressed as they arrive and written out in IDAT chunks of a
+ * bounded size, so the encoded image is never held in memory. To trade file
+ * size for speed, call the setCompressionLevel() method before writing the
+ * first row.
+ * <p>
+ * To write the file, pass each row to the writeRow() method, then call the
+ * finish() method, or use this writer as the callback of a noise-map builder.
+ */
+public class WriterPNG extends RowWriter {
+
+    /**
+     * Pixel formats of a PNG file.
+     */
+    public enum Format {
+        RGBA8(4), GRAY16(2);
+
+        /**
+         * Size of a pixel, in bytes.
+         */
+        final int pixelSize;
+
+        Format(int pixelSize) {
+            this.pixelSize = pixelSize;
+        }
+    }
+
+    /**
+     * Default zlib compression level.
+     */
+    static final int DEFAULT_COMPRESSION_LEVEL = 6;
+
+    /**
+     * Maximum amount of compressed data in an IDAT chunk, in bytes.
+     */
+    static final int IDAT_CHUNK_SIZE = 65536;
+
+    /**
+     * The PNG file signature.
+     */
+    static final byte[] SIGNATURE = { (byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n' };
+
+    /**
+     * The zlib compression level.
+     */
+    int compressionLevel;
+
+    /**
+     * The pixel format.
+     */
+    Format format;
+
+    /**
+     * The encoded row, starting with the filter type.
+     */
+    byte[] rowBuffer;
+
+    /**
+     * The compressor used for the image data.
+     */
+    Deflater deflater;
+
+    /**
+     * The stream that compresses the rows into IDAT chunks.
+     */
+    DeflaterOutputStream imageData;
+
+    /**
+     * Creates a writer for an image or noise map of the given size.
+     *
+     * @param out The stream that receives the file.
+     * @param width The width, in pixels.
+     * @param height The height, in rows.
+     * @param format The pixel format.
+     *
+     * @pre The width and height are at least 1.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public WriterPNG(OutputStream out, int width, int height, Format format) throws IllegalArgumentException {
+        super(out, width, height);
+
+        if (format == null || (long) width * format.pixelSize + 1 > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid Parameter in WriterPNG");
+        }
+        this.format = format;
+        this.compressionLevel = DEFAULT_COMPRESSION_LEVEL;
+        this.rowBuffer = new byte[width * format.pixelSize + 1];
+        this.deflater = null;
+        this.imageData = null;
+    }
+
+    /**
+     * Creates a writer for an image or noise map of the given size.
+     *
+     * @param channel The channel that receives the file.
+     * @param width The width, in pixels.
+     * @param height The height, in rows.
+     * @param format The pixel format.
+     *
+     * @pre The width and height are at least 1.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public WriterPNG(WritableByteChannel channel, int width, int height, Format format) throws IllegalArgumentException {
+        this(toStream(channel), width, height, format);
+    }
+
+    /**
+     * Returns the zlib compression level.
+     *
+     * @return The zlib compression level.
+     */
+    public int getCompressionLevel() {
+        return this.compressionLevel;
+    }
+
+    /**
+     * Returns the pixel format.
+     *
+     * @return The pixel format.
+     */
+    public Format getFormat() {
+        return this.format;
+    }
+
+    /**
+     * Sets the zlib compression level.
+     * <p>
+     * Level 0 stores the rows without compression, level 1 is the fastest and
+     * level 9 produces the smallest file. The default level is 6.
+     *
+     * @param compressionLevel The zlib compression level.
+     *
+     * @pre The level is between 0 and 9.
+     * @pre No row has been written yet.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public void setCompressionLevel(int compressionLevel) throws IllegalArgumentException {
+        if (compressionLevel < Deflater.NO_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION || this.nextRow > 0) {
+            throw new IllegalArgumentException("Invalid Parameter in WriterPNG");
+        }
+        this.compressionLevel = compressionLevel;
+    }
+
+    @Override
+    public void writeRow(ImageCafe image, int y) throws IllegalArgumentException, IOException {
+        if (this.format != Format.RGBA8) {
+            super.writeRow(image, y);
+        }
+        beginRow(image.getWidth(), y);
+
+        byte[] row = this.rowBuffer;
+        for (int x = 0, i = 1; x < this.width; x++, i += 4) {
+            int argb = image.getARGB(x, y);
+            row[i] = (byte) (argb >> 16);
+            row[i + 1] = (byte) (argb >> 8);
+            row[i + 2] = (byte) argb;
+            row[i + 3] = (byte) (argb >>> 24);
+        }
+        writeImageData(row);
+    }
+
+    @Override
+    public void writeRow(NoiseMap noiseMap, int y) throws IllegalArgumentException, IOException {
+        if (this.format != Format.GRAY16) {
+            super.writeRow(noiseMap, y);
+        }
+        beginRow(noiseMap.getWidth(), y);
+
+        byte[] row = this.rowBuffer;
+        for (int x = 0, i = 1; x < this.width; x++, i += 2) {
+            int value = toUnsigned16(noiseMap.getValue(x, y));
+            row[i] = (byte) (value >> 8);
+            row[i + 1] = (byte) value;
+        }
+        writeImageData(row);
+    }
+
+    /**
+     * Compresses an encoded row, aborting the file if it cannot be written.
+     */
+    void writeImageData(byte[] row) throws IOException {
+        try {
+            this.imageData.write(row);
+        } catch (IOException e) {
+            abort();
+            throw e;
+        }
+    }
+
+    @Override
+    void writeHeader() throws IOException {
+        this.out.write(SIGNATURE);
+
+        byte[] header = new byte[13];
+        putIntBE(header, 0, this.width);
+        putIntBE(header, 4, this.height);
+        if (this.format == Format.RGBA8) {
+            header[8] = 8; // Bit depth.
+            header[9] = 6; // Truecolor with alpha.
+        } else {
+            header[8] = 16;
+            header[9] = 0; // Grayscale.
+        }
+        writeChunk(this.out, "IHDR", header, header.length);
+
+        // Every row starts with filter type 0 (none), which stays zero.
+        this.rowBuffer[0] = 0;
+        releaseEncoder();
+        this.deflater = new Deflater(this.compressionLevel);
+        this.imageData = new DeflaterOutputStream(new ChunkOutputStream(this.out), this.deflater, IDAT_CHUNK_SIZE);
+    }
+
+    @Override
+    void writeTrailer() throws IOException {
+        try {
+            this.imageData.close();
+        } finally {
+            releaseEncoder();
+        }
+        writeChunk(this.out, "IEND", new byte[0], 0);
+    }
+
+    @Override
+    void releaseEncoder() {
+        if (this.deflater != null) {
+            this.deflater.end();
+            this.deflater = null;
+        }
+        this.imageData = null;
+    }
+
+    /**
+     * Writes a chunk with its length, type and CRC.
+     */
+    static void writeChunk(OutputStream out, String type, byte[] data, int length) throws IOException {
+        byte[] field = new byte[4];
+        putIntBE(field, 0, length);
+        out.write(field);
+
+        byte[] typeBytes = type.getBytes("US-ASCII");
+        out.write(typeBytes);
+        out.write(data, 0, length);
+
+        CRC32 crc = new CRC32();
+        crc.update(typeBytes);
+        crc.update(data, 0, length);
+        putIntBE(field, 0, (int) crc.getValue());
+        out.write(field);
+    }
+
+    /**
+     * Collects compressed image data and writes it as IDAT chunks of at most
+     * IDAT_CHUNK_SIZE bytes.
+     * <p>
+     * Closing this stream writes the last chunk but leaves the file stream
+     * open.
+     */
+    static class ChunkOutputStream extends OutputStream {
+
+        OutputStream out;
+        byte[] buffer;
+        int count;
+
+        ChunkOutputStream(OutputStream out) {
+            this.out = out;
+            this.buffer = new byte[IDAT_CHUNK_SIZE];
+            this.count = 0;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (this.count == this.buffer.length) {
+                writeBuffer();
+            }
+            this.buffer[this.count++] = (byte) b;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            while (len > 0) {
+                if (this.count == this.buffer.length) {
+                    writeBuffer();
+                }
+                int n = Math.min(len, this.buffer.length - this.count);
+                System.arraycopy(b, off, this.buffer, this.count, n);
+                this.count += n;
+                off += n;
+                len -= n;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (this.count > 0) {
+                writeBuffer();
+            }
+        }
+
+        void writeBuffer() throws IOException {
+            writeChunk(this.out, "IDAT", this.buffer, this.count);
+            this.count = 0;
+        }
+    }
+}
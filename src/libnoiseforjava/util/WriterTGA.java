@@ -0,0 +1,116 @@
+/*******************************************************************************
+ *  Copyright (c) 2003, 2004 Jason Bevins (original libnoise code)
+ *  Copyright (c) 2010 Thomas J. Hodge (java port of libnoise)
+ *  Copyright (c) Nick Whitney ( changed noisegen to perlin basis. added javadoc)
+ *  
+ *  This file is part of libnoiseforjava.
+ *  
+ *  libnoiseforjava is a Java port of the C++ library libnoise, which may be
+ *  found at http://libnoise.sourceforge.net/. libnoise was developed by Jason
+ *  Bevins, who may be contacted at jlbezigvins@gmzigail.com (for great email,
+ *  take off every 'zig'). Porting to Java was done by Thomas Hodge, who may be
+ *  contacted at libnoisezagforjava@gzagmail.com (remove every 'zag').
+ *  
+ *  libnoiseforjava is free software: you can redistribute it and/or modify it
+ *  under the terms of the GNU General Public License as published by the Free
+ *  Software Foundation, either version 3 of the License, or (at your option) any
+ *  later version.
+ *  
+ *  libnoiseforjava is distributed in the hope that it will be useful, but
+ *  WITHOUT ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ *  FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ *  details.
+ *  
+ *  You should have received a copy of the GNU General Public License along with
+ *  libnoiseforjava. If not, see <http://www.gnu.org/licenses/>.
+ *******************************************************************************/
+
+package libnoiseforjava.util;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Streams an image to an uncompressed 32-bit Truevision (TGA) file.
+ * <p>
+ * Each pixel is stored as blue, green, red and alpha bytes. The file is marked
+ * as having its origin in the top-left corner, so the rows are written in the
+ * order they are passed to this writer.
+ * <p>
+ * To write the file, pass each row of the image to the writeRow() method, then
+ * call the finish() method. See the RowWriter class for details.
+ */
+public class WriterTGA extends RowWriter {
+
+    /**
+     * Size of the TGA header, in bytes.
+     */
+    static final int HEADER_SIZE = 18;
+
+    /**
+     * The encoded row.
+     */
+    byte[] rowBuffer;
+
+    /**
+     * Creates a writer for an image of the given size.
+     *
+     * @param out The stream that receives the file.
+     * @param width The width of the image, in pixels.
+     * @param height The height of the image, in rows.
+     *
+     * @pre The width and height are between 1 and 65535.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public WriterTGA(OutputStream out, int width, int height) throws IllegalArgumentException {
+        super(out, width, height);
+
+        if (width > 0xffff || height > 0xffff) {
+            throw new IllegalArgumentException("Invalid Parameter in WriterTGA");
+        }
+        this.rowBuffer = new byte[width * 4];
+    }
+
+    /**
+     * Creates a writer for an image of the given size.
+     *
+     * @param channel The channel that receives the file.
+     * @param width The width of the image, in pixels.
+     * @param height The height of the image, in rows.
+     *
+     * @pre The width and height are between 1 and 65535.
+     *
+     * @throws IllegalArgumentException See the preconditions.
+     */
+    public WriterTGA(WritableByteChannel channel, int width, int height) throws IllegalArgumentException {
+        this(toStream(channel), width, height);
+    }
+
+    @Override
+    public void writeRow(ImageCafe image, int y) throws IllegalArgumentException, IOException {
+        beginRow(image.getWidth(), y);
+
+        byte[] row = this.rowBuffer;
+        for (int x = 0, i = 0; x < this.width; x++, i += 4) {
+            int argb = image.getARGB(x, y);
+            row[i] = (byte) argb;
+            row[i + 1] = (byte) (argb >> 8);
+            row[i + 2] = (byte) (argb >> 16);
+            row[i + 3] = (byte) (argb >>> 24);
+        }
+        this.out.write(row);
+    }
+
+    @Override
+    void writeHeader() throws IOException {
+        byte[] header = new byte[HEADER_SIZE];
+        header[2] = 2; // Uncompressed true-color image.
+        putShortLE(header, 12, this.width);
+        putShortLE(header, 14, this.height);
+        header[16] = 32; // Bits per pixel.
+        header[17] = 0x28; // Eight alpha bits, top-left origin.
+        this.out.write(header);
+    }
+}